@@ -0,0 +1,38 @@
+// Writes .br and .gz variants next to each compressible file in build/ so Jetty can serve
+// them precompressed (see WebServerModule). Runs automatically after `npm run build`.
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+
+const BUILD_DIR = path.resolve(__dirname, '..', 'build');
+const EXTENSIONS = new Set(['.js', '.css', '.html', '.json', '.svg', '.txt']);
+// Small files gain too little from compression to be worth the extra variants
+const MIN_BYTES = 1024;
+
+function walk(dir) {
+  return fs.readdirSync(dir, { withFileTypes: true }).flatMap((entry) => {
+    const file = path.join(dir, entry.name);
+    return entry.isDirectory() ? walk(file) : [file];
+  });
+}
+
+let written = 0;
+for (const file of walk(BUILD_DIR)) {
+  if (!EXTENSIONS.has(path.extname(file))) {
+    continue;
+  }
+  const content = fs.readFileSync(file);
+  if (content.length < MIN_BYTES) {
+    continue;
+  }
+  fs.writeFileSync(`${file}.br`, zlib.brotliCompressSync(content, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: content.length,
+    },
+  }));
+  fs.writeFileSync(`${file}.gz`, zlib.gzipSync(content, { level: zlib.constants.Z_BEST_COMPRESSION }));
+  written++;
+}
+
+console.log(`Precompressed ${written} files in ${path.relative(process.cwd(), BUILD_DIR)} (.br, .gz)`);
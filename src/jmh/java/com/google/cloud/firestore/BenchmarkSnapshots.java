@@ -0,0 +1,36 @@
+package com.google.cloud.firestore;
+
+import com.google.cloud.NoCredentials;
+import com.google.cloud.Timestamp;
+import com.google.firestore.v1.Document;
+
+/**
+ * Builds DocumentSnapshots the way the SDK does for a read, from a wire-format Document, so
+ * benchmarks decode the same lazily converted field values a real query returns.
+ *
+ * Lives in the SDK's package because DocumentSnapshot.fromDocument is package-private.
+ */
+public final class BenchmarkSnapshots {
+
+    private BenchmarkSnapshots() {
+    }
+
+    /**
+     * Creates an offline Firestore client; it never opens a connection unless an RPC is made.
+     */
+    public static Firestore offlineFirestore() {
+        return FirestoreOptions.newBuilder()
+            .setProjectId("benchmark")
+            .setCredentials(NoCredentials.getInstance())
+            .build()
+            .getService();
+    }
+
+    /**
+     * @param firestore Client from offlineFirestore()
+     * @param document Document as received over the wire; its name must be a full resource path
+     */
+    public static DocumentSnapshot snapshot(Firestore firestore, Document document) {
+        return DocumentSnapshot.fromDocument((FirestoreRpcContext<?>) firestore, Timestamp.now(), document);
+    }
+}
@@ -0,0 +1,152 @@
+package com.worldmap.service;
+
+import com.google.cloud.firestore.BenchmarkSnapshots;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.firestore.v1.Document;
+import com.google.firestore.v1.Value;
+import com.worldmap.flashcard.ChineseFlashCard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-document cost of encoding a card as a HashMap (the previous
+ * toFirestoreDoc approach) against ChineseFlashCardCodec's FieldLayout maps, and of decoding
+ * a snapshot through getData() (the previous fromFirestoreDoc approach) against the codec.
+ *
+ * The decoded snapshot is built by the SDK from a wire-format Document holding every stored
+ * field, as a query result is, so field values are converted on access in both cases.
+ *
+ * Run with ./gradlew jmh; the gc profiler reports gc.alloc.rate.norm (bytes per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChineseFlashCardCodecBenchmark {
+
+    private ChineseFlashCardCodec codec;
+    private ChineseFlashCard card;
+    private Firestore firestore;
+    private DocumentSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        codec = new ChineseFlashCardCodec();
+        card = ChineseFlashCard.newBuilder()
+            .setId(1L)
+            .setChineseWord("你好")
+            .setEnglishWord("Hello")
+            .setPinyin("nǐ hǎo")
+            .setImg("hello.png")
+            .setCreatedAt(1_700_000_000_000L)
+            .setUpdatedAt(1_700_000_000_000L)
+            .setExampleUsage("你好，朋友。")
+            .setFavorite(true)
+            .build();
+
+        firestore = BenchmarkSnapshots.offlineFirestore();
+        snapshot = BenchmarkSnapshots.snapshot(firestore, Document.newBuilder()
+            .setName("projects/benchmark/databases/(default)/documents/chinese_flashcards/1")
+            .putFields("id", Value.newBuilder().setIntegerValue(1L).build())
+            .putFields("chineseWord", string("你好"))
+            .putFields("englishWord", string("Hello"))
+            .putFields("pinyin", string("nǐ hǎo"))
+            .putFields("img", string("hello.png"))
+            .putFields("createdAt", Value.newBuilder().setIntegerValue(1_700_000_000_000L).build())
+            .putFields("updatedAt", Value.newBuilder().setIntegerValue(1_700_000_000_000L).build())
+            .putFields("exampleUsage", string("你好，朋友。"))
+            .putFields("favorite", Value.newBuilder().setBooleanValue(true).build())
+            .putFields("pinyinToneless", string("ni hao"))
+            .putFields("pinyinNumbered", string("ni3 hao3"))
+            .build());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        firestore.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> encodeHashMap() {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("id", card.getId());
+        doc.put("chineseWord", card.getChineseWord());
+        doc.put("englishWord", card.getEnglishWord());
+        doc.put("pinyin", card.getPinyin());
+        doc.put("img", card.getImg());
+        doc.put("createdAt", card.getCreatedAt());
+        doc.put("updatedAt", card.getUpdatedAt());
+        doc.put("exampleUsage", card.getExampleUsage());
+        doc.put("favorite", card.getFavorite());
+        return doc;
+    }
+
+    @Benchmark
+    public Map<String, Object> encodeFieldLayout() {
+        return codec.encode(card);
+    }
+
+    @Benchmark
+    public Map<String, Object> encodeUpdateFieldLayout() {
+        return codec.encodeUpdate(card);
+    }
+
+    @Benchmark
+    public ChineseFlashCard decodeGetData() {
+        Map<String, Object> doc = snapshot.getData();
+        ChineseFlashCard.Builder builder = ChineseFlashCard.newBuilder();
+        if (doc.containsKey("id")) {
+            builder.setId(((Number) doc.get("id")).longValue());
+        }
+        if (doc.containsKey("chineseWord")) {
+            builder.setChineseWord((String) doc.get("chineseWord"));
+        }
+        if (doc.containsKey("englishWord")) {
+            builder.setEnglishWord((String) doc.get("englishWord"));
+        }
+        if (doc.containsKey("pinyin")) {
+            builder.setPinyin((String) doc.get("pinyin"));
+        }
+        if (doc.containsKey("img")) {
+            builder.setImg((String) doc.get("img"));
+        }
+        if (doc.containsKey("createdAt")) {
+            builder.setCreatedAt(((Number) doc.get("createdAt")).longValue());
+        }
+        if (doc.containsKey("updatedAt")) {
+            builder.setUpdatedAt(((Number) doc.get("updatedAt")).longValue());
+        }
+        if (doc.containsKey("exampleUsage")) {
+            builder.setExampleUsage((String) doc.get("exampleUsage"));
+        }
+        if (doc.containsKey("favorite")) {
+            builder.setFavorite((Boolean) doc.get("favorite"));
+        }
+        if (doc.containsKey("pinyinToneless")) {
+            builder.setPinyinToneless((String) doc.get("pinyinToneless"));
+        }
+        if (doc.containsKey("pinyinNumbered")) {
+            builder.setPinyinNumbered((String) doc.get("pinyinNumbered"));
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public ChineseFlashCard decodeCodec() {
+        return codec.decode(snapshot);
+    }
+
+    private static Value string(String value) {
+        return Value.newBuilder().setStringValue(value).build();
+    }
+}
@@ -7,6 +7,9 @@ import com.worldmap.guice.modules.ApplicationConfigModule;
 import com.worldmap.guice.modules.FirebaseModule;
 import com.worldmap.guice.modules.GrpcModule;
 import com.worldmap.grpc.GrpcServer;
+import com.worldmap.service.ChineseFlashCardReplica;
+
+import java.time.Duration;
 
 /**
  * WorldMap Application main class
@@ -26,6 +29,18 @@ public class WorldMapApplication {
             // Get configuration for startup banner
             ApplicationConfig config = injector.getInstance(ApplicationConfig.class);
 
+            // Gate traffic until the in-memory replica has loaded its initial snapshot
+            ChineseFlashCardReplica replica = injector.getInstance(ChineseFlashCardReplica.class);
+            if (replica.isEnabled()) {
+                long timeout = config.getFirebase().getReplicaStartupTimeoutSeconds();
+                System.out.println("⏳ Waiting up to " + timeout + "s for flashcard replica to load...");
+                if (replica.awaitReady(Duration.ofSeconds(timeout))) {
+                    System.out.println("✅ Flashcard replica loaded (" + replica.size() + " cards)");
+                } else {
+                    System.err.println("⚠️  Flashcard replica not ready; serving reads from Firestore until it is");
+                }
+            }
+
             // Start the gRPC server
             GrpcServer grpcServer = injector.getInstance(GrpcServer.class);
             grpcServer.start();
@@ -10,6 +10,9 @@ public class ApplicationConfig {
     private Firebase firebase = new Firebase();
     private Logging logging = new Logging();
     private Features features = new Features();
+    private Ids ids = new Ids();
+    private Grpc grpc = new Grpc();
+    private Search search = new Search();
 
     // Main getters/setters
     public Server getServer() { return server; }
@@ -20,6 +23,12 @@ public class ApplicationConfig {
     public void setLogging(Logging logging) { this.logging = logging; }
     public Features getFeatures() { return features; }
     public void setFeatures(Features features) { this.features = features; }
+    public Ids getIds() { return ids; }
+    public void setIds(Ids ids) { this.ids = ids; }
+    public Grpc getGrpc() { return grpc; }
+    public void setGrpc(Grpc grpc) { this.grpc = grpc; }
+    public Search getSearch() { return search; }
+    public void setSearch(Search search) { this.search = search; }
 
     /** Server configuration */
     public static class Server {
@@ -27,6 +36,22 @@ public class ApplicationConfig {
         private String contextPath = "/";
         private String environment = "development";
         private boolean enableCors = true;
+        private boolean virtualThreads = true;
+        private int minThreads = 8;
+        private int maxThreads = 200;
+        private int acceptQueueSize = 128;
+        private long requestTimeoutMillis = 10000;
+        private boolean compressionEnabled = true;
+        private int compressionMinBytes = 1024;
+        private int staticMaxAgeSeconds = 31536000;
+        private int apiCacheMaxAgeSeconds = 0;
+        private String grpcCompression = "gzip";
+        private int grpcMaxInboundMessageBytes = 4 * 1024 * 1024;
+        private int http2InitialStreamWindowBytes = 1024 * 1024;
+        private int http2InitialConnectionWindowBytes = 4 * 1024 * 1024;
+        private int http2MaxConcurrentStreams = 256;
+        private long idleTimeoutMillis = 60000;
+        private long pingIntervalMillis = 20000;
 
         public int getPort() { return port; }
         public void setPort(int port) { this.port = port; }
@@ -36,6 +61,38 @@ public class ApplicationConfig {
         public void setEnvironment(String environment) { this.environment = environment; }
         public boolean isEnableCors() { return enableCors; }
         public void setEnableCors(boolean enableCors) { this.enableCors = enableCors; }
+        public boolean isVirtualThreads() { return virtualThreads; }
+        public void setVirtualThreads(boolean virtualThreads) { this.virtualThreads = virtualThreads; }
+        public int getMinThreads() { return minThreads; }
+        public void setMinThreads(int minThreads) { this.minThreads = minThreads; }
+        public int getMaxThreads() { return maxThreads; }
+        public void setMaxThreads(int maxThreads) { this.maxThreads = maxThreads; }
+        public int getAcceptQueueSize() { return acceptQueueSize; }
+        public void setAcceptQueueSize(int acceptQueueSize) { this.acceptQueueSize = acceptQueueSize; }
+        public long getRequestTimeoutMillis() { return requestTimeoutMillis; }
+        public void setRequestTimeoutMillis(long requestTimeoutMillis) { this.requestTimeoutMillis = requestTimeoutMillis; }
+        public boolean isCompressionEnabled() { return compressionEnabled; }
+        public void setCompressionEnabled(boolean compressionEnabled) { this.compressionEnabled = compressionEnabled; }
+        public int getCompressionMinBytes() { return compressionMinBytes; }
+        public void setCompressionMinBytes(int compressionMinBytes) { this.compressionMinBytes = compressionMinBytes; }
+        public int getStaticMaxAgeSeconds() { return staticMaxAgeSeconds; }
+        public void setStaticMaxAgeSeconds(int staticMaxAgeSeconds) { this.staticMaxAgeSeconds = staticMaxAgeSeconds; }
+        public int getApiCacheMaxAgeSeconds() { return apiCacheMaxAgeSeconds; }
+        public void setApiCacheMaxAgeSeconds(int apiCacheMaxAgeSeconds) { this.apiCacheMaxAgeSeconds = apiCacheMaxAgeSeconds; }
+        public String getGrpcCompression() { return grpcCompression; }
+        public void setGrpcCompression(String grpcCompression) { this.grpcCompression = grpcCompression; }
+        public int getGrpcMaxInboundMessageBytes() { return grpcMaxInboundMessageBytes; }
+        public void setGrpcMaxInboundMessageBytes(int grpcMaxInboundMessageBytes) { this.grpcMaxInboundMessageBytes = grpcMaxInboundMessageBytes; }
+        public int getHttp2InitialStreamWindowBytes() { return http2InitialStreamWindowBytes; }
+        public void setHttp2InitialStreamWindowBytes(int http2InitialStreamWindowBytes) { this.http2InitialStreamWindowBytes = http2InitialStreamWindowBytes; }
+        public int getHttp2InitialConnectionWindowBytes() { return http2InitialConnectionWindowBytes; }
+        public void setHttp2InitialConnectionWindowBytes(int http2InitialConnectionWindowBytes) { this.http2InitialConnectionWindowBytes = http2InitialConnectionWindowBytes; }
+        public int getHttp2MaxConcurrentStreams() { return http2MaxConcurrentStreams; }
+        public void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) { this.http2MaxConcurrentStreams = http2MaxConcurrentStreams; }
+        public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+        public void setIdleTimeoutMillis(long idleTimeoutMillis) { this.idleTimeoutMillis = idleTimeoutMillis; }
+        public long getPingIntervalMillis() { return pingIntervalMillis; }
+        public void setPingIntervalMillis(long pingIntervalMillis) { this.pingIntervalMillis = pingIntervalMillis; }
     }
 
     /** Firebase configuration */
@@ -45,6 +102,15 @@ public class ApplicationConfig {
         private String projectId = "";
         private boolean autoInitialize = true;
         private String collection = "chinese_flash_cards";
+        private boolean maintainCounter = false;
+        private String counterCollection = "_counters";
+        private boolean cacheEnabled = true;
+        private long cacheMaxSize = 10000;
+        private long cacheTtlSeconds = 60;
+        private boolean replicaEnabled = false;
+        private long replicaStartupTimeoutSeconds = 30;
+        /** allow, reject, return-existing or merge; see DuplicatePolicy */
+        private String duplicatePolicy = "return-existing";
 
         public String getServiceAccountPath() { return serviceAccountPath; }
         public void setServiceAccountPath(String serviceAccountPath) { this.serviceAccountPath = serviceAccountPath; }
@@ -56,6 +122,57 @@ public class ApplicationConfig {
         public void setAutoInitialize(boolean autoInitialize) { this.autoInitialize = autoInitialize; }
         public String getCollection() { return collection; }
         public void setCollection(String collection) { this.collection = collection; }
+        public boolean isMaintainCounter() { return maintainCounter; }
+        public void setMaintainCounter(boolean maintainCounter) { this.maintainCounter = maintainCounter; }
+        public String getCounterCollection() { return counterCollection; }
+        public void setCounterCollection(String counterCollection) { this.counterCollection = counterCollection; }
+        public boolean isCacheEnabled() { return cacheEnabled; }
+        public void setCacheEnabled(boolean cacheEnabled) { this.cacheEnabled = cacheEnabled; }
+        public long getCacheMaxSize() { return cacheMaxSize; }
+        public void setCacheMaxSize(long cacheMaxSize) { this.cacheMaxSize = cacheMaxSize; }
+        public long getCacheTtlSeconds() { return cacheTtlSeconds; }
+        public void setCacheTtlSeconds(long cacheTtlSeconds) { this.cacheTtlSeconds = cacheTtlSeconds; }
+        public boolean isReplicaEnabled() { return replicaEnabled; }
+        public void setReplicaEnabled(boolean replicaEnabled) { this.replicaEnabled = replicaEnabled; }
+        public long getReplicaStartupTimeoutSeconds() { return replicaStartupTimeoutSeconds; }
+        public void setReplicaStartupTimeoutSeconds(long replicaStartupTimeoutSeconds) { this.replicaStartupTimeoutSeconds = replicaStartupTimeoutSeconds; }
+        public String getDuplicatePolicy() { return duplicatePolicy; }
+        public void setDuplicatePolicy(String duplicatePolicy) { this.duplicatePolicy = duplicatePolicy; }
+    }
+
+    /** ID generation configuration */
+    public static class Ids {
+        private long nodeId = 0;
+
+        public long getNodeId() { return nodeId; }
+        public void setNodeId(long nodeId) { this.nodeId = nodeId; }
+    }
+
+    /** gRPC handler execution configuration */
+    public static class Grpc {
+        /** event-loop, blocking (bounded platform thread pool) or virtual (virtual threads) */
+        private String executionMode = "virtual";
+        private int blockingThreads = 32;
+        private int virtualThreads = 1024;
+        private int maxQueuedTasks = 1000;
+
+        public String getExecutionMode() { return executionMode; }
+        public void setExecutionMode(String executionMode) { this.executionMode = executionMode; }
+        public int getBlockingThreads() { return blockingThreads; }
+        public void setBlockingThreads(int blockingThreads) { this.blockingThreads = blockingThreads; }
+        public int getVirtualThreads() { return virtualThreads; }
+        public void setVirtualThreads(int virtualThreads) { this.virtualThreads = virtualThreads; }
+        public int getMaxQueuedTasks() { return maxQueuedTasks; }
+        public void setMaxQueuedTasks(int maxQueuedTasks) { this.maxQueuedTasks = maxQueuedTasks; }
+    }
+
+    /** In-memory card search configuration */
+    public static class Search {
+        /** Most edits tolerated in a misspelled pinyin or English term; 0 disables typo tolerance */
+        private int maxEditDistance = 2;
+
+        public int getMaxEditDistance() { return maxEditDistance; }
+        public void setMaxEditDistance(int maxEditDistance) { this.maxEditDistance = maxEditDistance; }
     }
 
     /** Logging configuration */
@@ -2,12 +2,40 @@ package com.worldmap.controller;
 
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
+import com.worldmap.config.ApplicationConfig;
+import com.google.protobuf.Message;
+import com.worldmap.flashcard.BatchCreateChineseFlashCardsRequest;
+import com.worldmap.flashcard.BatchCreateChineseFlashCardsResponse;
+import com.worldmap.flashcard.CreateChineseFlashCardRequest;
+import com.worldmap.flashcard.CreateChineseFlashCardResponse;
+import com.worldmap.flashcard.DeleteChineseFlashCardRequest;
+import com.worldmap.flashcard.DeleteChineseFlashCardResponse;
+import com.worldmap.flashcard.GetChineseFlashCardRequest;
+import com.worldmap.flashcard.GetChineseFlashCardResponse;
+import com.worldmap.flashcard.GetChineseFlashCardsRequest;
+import com.worldmap.flashcard.GetChineseFlashCardsResponse;
+import com.worldmap.flashcard.UpdateChineseFlashCardRequest;
+import com.worldmap.flashcard.UpdateChineseFlashCardResponse;
 import com.worldmap.model.ChineseFlashCard;
+import com.worldmap.service.ChineseFlashCardService;
+import com.worldmap.service.FirestoreService;
+import com.worldmap.service.IdGenerator;
+import com.worldmap.web.EntityTags;
+import com.worldmap.web.ProtobufMessageBodyWriter;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Variant;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,24 +46,63 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * JAX-RS REST controller for Chinese Flash Cards
+ *
+ * Endpoints are asynchronous: each suspends its AsyncResponse, starts the operation through
+ * ChineseFlashCardService/FirestoreService's async API, and resumes from the Firestore
+ * callback, so no request thread waits on Firestore I/O. Requests that take longer than
+ * app.server.request-timeout-ms are answered with 503.
+ *
+ * List and detail responses carry a strong ETag (see EntityTags) and Cache-Control, and a
+ * matching If-None-Match is answered with 304. While the replica is loaded, the list ETag is
+ * the collection version, so a repeat load is answered without reading any cards. The ETag
+ * includes the negotiated media type and the responses carry Vary: Accept, so a JSON copy is
+ * never revalidated as the protobuf one or the other way round.
+ *
+ * Card endpoints respond with the same protobuf messages as the gRPC service, written by
+ * ProtobufMessageBodyWriter as JSON or, for Accept: application/x-protobuf, binary protobuf.
  */
 @Path("/flashcards/chinese")
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, ProtobufMessageBodyWriter.APPLICATION_PROTOBUF})
 @Consumes(MediaType.APPLICATION_JSON)
 @Singleton
 @Tag(name = "Chinese Flash Cards", description = "API for managing Chinese language flash cards")
 public class ChineseFlashCardController {
 
-    private static final String COLLECTION_NAME = "chinese_flash_cards";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    /** Representations of cacheable responses, in order of preference */
+    private static final List<Variant> VARIANTS =
+        Variant.mediaTypes(MediaType.APPLICATION_JSON_TYPE, ProtobufMessageBodyWriter.APPLICATION_PROTOBUF_TYPE).build();
     private final Firestore firestore;
+    private final FirestoreService firestoreService;
+    private final ChineseFlashCardService chineseFlashCardService;
+    private final IdGenerator idGenerator;
+    /** Configured card collection (firebase.collection), the one ChineseFlashCardService writes to */
+    private final String collectionName;
+    private final long requestTimeoutMillis;
+    private final CacheControl cacheControl;
 
     @Inject
-    public ChineseFlashCardController(@Nullable Firestore firestore) {
+    public ChineseFlashCardController(@Nullable Firestore firestore, FirestoreService firestoreService,
+                                      ChineseFlashCardService chineseFlashCardService, IdGenerator idGenerator,
+                                      ApplicationConfig config) {
         this.firestore = firestore;
+        this.firestoreService = firestoreService;
+        this.chineseFlashCardService = chineseFlashCardService;
+        this.idGenerator = idGenerator;
+        this.collectionName = config.getFirebase().getCollection();
+        this.requestTimeoutMillis = config.getServer().getRequestTimeoutMillis();
+        this.cacheControl = cacheControl(config.getServer().getApiCacheMaxAgeSeconds());
         
         if (firestore != null) {
             System.out.println("✅ ChineseFlashCardController initialized with Firestore via Guice injection");
@@ -52,7 +119,7 @@ public class ChineseFlashCardController {
 
     private void initializeSampleDataIfNeeded() throws ExecutionException, InterruptedException {
         // Check if collection is empty
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).limit(1).get();
+        ApiFuture<QuerySnapshot> future = firestore.collection(collectionName).limit(1).get();
         List<QueryDocumentSnapshot> documents = future.get().getDocuments();
         
         if (documents.isEmpty()) {
@@ -68,58 +135,77 @@ public class ChineseFlashCardController {
                 new ChineseFlashCard(8, "家", "Home", "jiā", "https://images.unsplash.com/photo-1570129477492-45c003edd2be?w=400")
             );
             
-            for (ChineseFlashCard card : sampleCards) {
-                firestore.collection(COLLECTION_NAME).document(String.valueOf(card.getId())).set(card);
-            }
-            System.out.println("Initialized Firestore with sample Chinese flash cards");
+            // Created like any API card (normalized pinyin, timestamps) in one batched write
+            BatchCreateChineseFlashCardsResponse result = chineseFlashCardService.batchCreate(toBatchRequest(sampleCards));
+            System.out.println("Initialized Firestore with " + result.getCreatedCount() + " sample Chinese flash cards");
         }
     }
 
     /**
-     * GET /flashcards/chinese - Get all Chinese cards
+     * GET /flashcards/chinese - Get one page of Chinese cards
+     *
+     * Delegates to ChineseFlashCardService, the same path gRPC uses: cursor pagination (or
+     * offset pagination for page numbers without a token), served from the cache or replica
+     * when available, with the total from a count aggregation rather than a collection scan.
      */
     @GET
-    @Operation(summary = "Get all Chinese flash cards", description = "Retrieves all Chinese flash cards with optional pagination")
+    @Operation(summary = "Get Chinese flash cards", description = "Retrieves one page of Chinese flash cards; follow nextPageToken for the next page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved cards"),
+            @ApiResponse(responseCode = "304", description = "Client's copy (If-None-Match) is current"),
+            @ApiResponse(responseCode = "503", description = "Request timed out"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public Map<String, Object> getAllCards(
+    public void getAllCards(
             @QueryParam("page") @DefaultValue("1") @Parameter(description = "Page number (default: 1)") int page,
-            @QueryParam("pageSize") @DefaultValue("50") @Parameter(description = "Page size (default: 50)") int pageSize) {
-
-        Map<String, Object> response = new HashMap<>();
+            @QueryParam("pageSize") @DefaultValue("50") @Parameter(description = "Page size (default: 50, max: 500)") int pageSize,
+            @QueryParam("pageToken") @DefaultValue("") @Parameter(description = "Cursor from a previous response's nextPageToken; takes precedence over page") String pageToken,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) @Parameter(description = "ETag of the client's cached copy") String ifNoneMatch,
+            @Context Request request,
+            @Suspended AsyncResponse asyncResponse) {
 
-        if (firestore == null) {
-            // Return mock data when Firebase is not configured
-            List<ChineseFlashCard> mockCards = getMockCards();
-            response.put("success", true);
-            response.put("data", mockCards);
-            response.put("totalCount", mockCards.size());
-            response.put("message", "Chinese cards retrieved successfully (mock data)");
-        } else {
-            try {
-                ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-                List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+        int size = Math.min(pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        MediaType mediaType = negotiate(request);
 
-                List<ChineseFlashCard> cards = new ArrayList<>();
-                for (QueryDocumentSnapshot document : documents) {
-                    cards.add(document.toObject(ChineseFlashCard.class));
-                }
+        respond(asyncResponse, "retrieve cards", () -> {
+            if (firestore == null) {
+                // Return mock data when Firebase is not configured
+                List<ChineseFlashCard> mockCards = getMockCards();
+                int from = (int) Math.min((long) (Math.max(page, 1) - 1) * size, mockCards.size());
+                int to = Math.min(from + size, mockCards.size());
+                return CompletableFuture.completedFuture(GetChineseFlashCardsResponse.newBuilder()
+                    .setSuccess(true)
+                    .addAllData(toProtos(mockCards.subList(from, to)))
+                    .setTotalCount(mockCards.size())
+                    .setMessage("Chinese cards retrieved successfully (mock data)")
+                    .build());
+            }
 
-                response.put("success", true);
-                response.put("data", cards);
-                response.put("totalCount", cards.size());
-                response.put("message", "Chinese cards retrieved successfully");
-            } catch (ExecutionException | InterruptedException e) {
-                response.put("success", false);
-                response.put("error", "Failed to retrieve cards: " + e.getMessage());
-                response.put("data", new ArrayList<>());
-                response.put("totalCount", 0);
+            // With a known collection version, a current client is answered before any read
+            String version = chineseFlashCardService.cardsVersion();
+            String versionTag = version != null
+                ? EntityTags.forRepresentation(EntityTags.forVersion(version), mediaType)
+                : null;
+            if (versionTag != null && EntityTags.matches(ifNoneMatch, versionTag)) {
+                return CompletableFuture.completedFuture(notModified(versionTag));
             }
-        }
 
-        return response;
+            return chineseFlashCardService.getAllAsync(GetChineseFlashCardsRequest.newBuilder()
+                    .setPage(page)
+                    .setPageSize(size)
+                    .setPageToken(pageToken)
+                    .build())
+                .<Object>thenApply(result -> {
+                    if (!result.getSuccess()) {
+                        return result;
+                    }
+                    String etag = versionTag != null
+                        ? versionTag
+                        : EntityTags.forRepresentation(EntityTags.forCards(result.getDataList(),
+                            result.getTotalCount(), result.getNextPageToken()), mediaType);
+                    return EntityTags.matches(ifNoneMatch, etag) ? notModified(etag) : cacheable(result, etag, mediaType);
+                });
+        }, error -> GetChineseFlashCardsResponse.newBuilder().setSuccess(false).setError(error).build());
     }
 
     /**
@@ -130,49 +216,39 @@ public class ChineseFlashCardController {
     @Operation(summary = "Get a single Chinese flash card", description = "Retrieves a specific flash card by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved the card"),
+            @ApiResponse(responseCode = "304", description = "Client's copy (If-None-Match) is current"),
             @ApiResponse(responseCode = "404", description = "Card not found"),
+            @ApiResponse(responseCode = "503", description = "Request timed out"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public Map<String, Object> getCardById(@PathParam("id") @Parameter(description = "Card ID") long id) {
-        Map<String, Object> response = new HashMap<>();
-
-        if (firestore == null) {
-            // Return mock data
-            ChineseFlashCard card = getMockCards().stream()
-                    .filter(c -> c.getId() == id)
-                    .findFirst()
-                    .orElse(null);
-
-            if (card != null) {
-                response.put("success", true);
-                response.put("data", card);
-                response.put("message", "Card retrieved successfully (mock data)");
-            } else {
-                response.put("success", false);
-                response.put("error", "Card not found with id: " + id);
-            }
-        } else {
-            try {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(String.valueOf(id));
-                ApiFuture<DocumentSnapshot> future = docRef.get();
-                DocumentSnapshot document = future.get();
-
-                if (document.exists()) {
-                    ChineseFlashCard card = document.toObject(ChineseFlashCard.class);
-                    response.put("success", true);
-                    response.put("data", card);
-                    response.put("message", "Card retrieved successfully");
-                } else {
-                    response.put("success", false);
-                    response.put("error", "Card not found with id: " + id);
-                }
-            } catch (ExecutionException | InterruptedException e) {
-                response.put("success", false);
-                response.put("error", "Failed to retrieve card: " + e.getMessage());
+    public void getCardById(@PathParam("id") @Parameter(description = "Card ID") long id,
+                            @HeaderParam(HttpHeaders.IF_NONE_MATCH) @Parameter(description = "ETag of the client's cached copy") String ifNoneMatch,
+                            @Context Request request,
+                            @Suspended AsyncResponse asyncResponse) {
+        MediaType mediaType = negotiate(request);
+        respond(asyncResponse, "retrieve card", () -> {
+            if (firestore == null) {
+                // Return mock data
+                GetChineseFlashCardResponse.Builder response = GetChineseFlashCardResponse.newBuilder();
+                getMockCards().stream()
+                        .filter(c -> c.getId() == id)
+                        .findFirst()
+                        .ifPresentOrElse(
+                            card -> response.setSuccess(true).setData(toProto(card))
+                                .setMessage("Card retrieved successfully (mock data)"),
+                            () -> response.setSuccess(false).setError("Card not found with id: " + id));
+                return CompletableFuture.completedFuture(response.build());
             }
-        }
 
-        return response;
+            return chineseFlashCardService.getByIdAsync(GetChineseFlashCardRequest.newBuilder().setId(id).build())
+                .<Object>thenApply(result -> {
+                    if (!result.getSuccess()) {
+                        return result;
+                    }
+                    String etag = EntityTags.forRepresentation(EntityTags.forCard(result.getData()), mediaType);
+                    return EntityTags.matches(ifNoneMatch, etag) ? notModified(etag) : cacheable(result, etag, mediaType);
+                });
+        }, error -> GetChineseFlashCardResponse.newBuilder().setSuccess(false).setError(error).build());
     }
 
     /**
@@ -183,12 +259,12 @@ public class ChineseFlashCardController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Card created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request body"),
+            @ApiResponse(responseCode = "503", description = "Request timed out"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public Map<String, Object> createCard(@Parameter(description = "Card data containing chineseWord, englishWord, pinyin, and img") Map<String, String> cardData) {
-        Map<String, Object> response = new HashMap<>();
-
-        try {
+    public void createCard(@Parameter(description = "Card data containing chineseWord, englishWord, pinyin, and img") Map<String, String> cardData,
+                           @Suspended AsyncResponse asyncResponse) {
+        respond(asyncResponse, "create card", () -> {
             String chineseWord = cardData.get("chineseWord");
             String englishWord = cardData.get("englishWord");
             String pinyin = cardData.get("pinyin");
@@ -196,31 +272,28 @@ public class ChineseFlashCardController {
 
             // Validate required fields
             if (chineseWord == null || englishWord == null || pinyin == null) {
-                response.put("success", false);
-                response.put("error", "Missing required fields: chineseWord, englishWord, and pinyin are required");
-                return response;
+                return CompletableFuture.completedFuture(CreateChineseFlashCardResponse.newBuilder()
+                    .setSuccess(false)
+                    .setError("Missing required fields: chineseWord, englishWord, and pinyin are required")
+                    .build());
             }
 
-            long newId = System.currentTimeMillis();
-            ChineseFlashCard newCard = new ChineseFlashCard(newId, chineseWord, englishWord, pinyin, img);
-
             if (firestore == null) {
                 // Mock response
-                response.put("success", true);
-                response.put("data", newCard);
-                response.put("message", "Card created successfully (mock data)");
-            } else {
-                firestore.collection(COLLECTION_NAME).document(String.valueOf(newId)).set(newCard);
-                response.put("success", true);
-                response.put("data", newCard);
-                response.put("message", "Card created successfully");
+                return CompletableFuture.completedFuture(CreateChineseFlashCardResponse.newBuilder()
+                    .setSuccess(true)
+                    .setData(toProto(new ChineseFlashCard(idGenerator.nextId(), chineseWord, englishWord, pinyin, img)))
+                    .setMessage("Card created successfully (mock data)")
+                    .build());
             }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("error", "Failed to create card: " + e.getMessage());
-        }
 
-        return response;
+            return chineseFlashCardService.createAsync(CreateChineseFlashCardRequest.newBuilder()
+                .setChineseWord(chineseWord)
+                .setEnglishWord(englishWord)
+                .setPinyin(pinyin)
+                .setImg(img != null ? img : "")
+                .build());
+        }, error -> CreateChineseFlashCardResponse.newBuilder().setSuccess(false).setError(error).build());
     }
 
     /**
@@ -232,45 +305,35 @@ public class ChineseFlashCardController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Card updated successfully"),
             @ApiResponse(responseCode = "404", description = "Card not found"),
+            @ApiResponse(responseCode = "503", description = "Request timed out"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public Map<String, Object> updateCard(@PathParam("id") @Parameter(description = "Card ID") long id, @Parameter(description = "Updated card data") Map<String, String> cardData) {
-        Map<String, Object> response = new HashMap<>();
-
-        try {
+    public void updateCard(@PathParam("id") @Parameter(description = "Card ID") long id,
+                           @Parameter(description = "Updated card data") Map<String, String> cardData,
+                           @Suspended AsyncResponse asyncResponse) {
+        respond(asyncResponse, "update card", () -> {
             String chineseWord = cardData.get("chineseWord");
             String englishWord = cardData.get("englishWord");
             String pinyin = cardData.get("pinyin");
             String img = cardData.get("img");
 
-            ChineseFlashCard updatedCard = new ChineseFlashCard(id, chineseWord, englishWord, pinyin, img);
-
             if (firestore == null) {
                 // Mock response
-                response.put("success", true);
-                response.put("data", updatedCard);
-                response.put("message", "Card updated successfully (mock data)");
-            } else {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(String.valueOf(id));
-                ApiFuture<DocumentSnapshot> future = docRef.get();
-                DocumentSnapshot document = future.get();
-
-                if (document.exists()) {
-                    docRef.set(updatedCard);
-                    response.put("success", true);
-                    response.put("data", updatedCard);
-                    response.put("message", "Card updated successfully");
-                } else {
-                    response.put("success", false);
-                    response.put("error", "Card not found with id: " + id);
-                }
+                return CompletableFuture.completedFuture(UpdateChineseFlashCardResponse.newBuilder()
+                    .setSuccess(true)
+                    .setData(toProto(new ChineseFlashCard(id, chineseWord, englishWord, pinyin, img)))
+                    .setMessage("Card updated successfully (mock data)")
+                    .build());
             }
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("error", "Failed to update card: " + e.getMessage());
-        }
 
-        return response;
+            return chineseFlashCardService.updateAsync(UpdateChineseFlashCardRequest.newBuilder()
+                .setId(id)
+                .setChineseWord(chineseWord != null ? chineseWord : "")
+                .setEnglishWord(englishWord != null ? englishWord : "")
+                .setPinyin(pinyin != null ? pinyin : "")
+                .setImg(img != null ? img : "")
+                .build());
+        }, error -> UpdateChineseFlashCardResponse.newBuilder().setSuccess(false).setError(error).build());
     }
 
     /**
@@ -282,36 +345,22 @@ public class ChineseFlashCardController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Card deleted successfully"),
             @ApiResponse(responseCode = "404", description = "Card not found"),
+            @ApiResponse(responseCode = "503", description = "Request timed out"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public Map<String, Object> deleteCard(@PathParam("id") @Parameter(description = "Card ID") long id) {
-        Map<String, Object> response = new HashMap<>();
-
-        if (firestore == null) {
-            // Mock response
-            response.put("success", true);
-            response.put("message", "Card deleted successfully (mock data)");
-        } else {
-            try {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(String.valueOf(id));
-                ApiFuture<DocumentSnapshot> future = docRef.get();
-                DocumentSnapshot document = future.get();
-
-                if (document.exists()) {
-                    docRef.delete();
-                    response.put("success", true);
-                    response.put("message", "Card deleted successfully");
-                } else {
-                    response.put("success", false);
-                    response.put("error", "Card not found with id: " + id);
-                }
-            } catch (ExecutionException | InterruptedException e) {
-                response.put("success", false);
-                response.put("error", "Failed to delete card: " + e.getMessage());
+    public void deleteCard(@PathParam("id") @Parameter(description = "Card ID") long id,
+                           @Suspended AsyncResponse asyncResponse) {
+        respond(asyncResponse, "delete card", () -> {
+            if (firestore == null) {
+                // Mock response
+                return CompletableFuture.completedFuture(DeleteChineseFlashCardResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Card deleted successfully (mock data)")
+                    .build());
             }
-        }
 
-        return response;
+            return chineseFlashCardService.deleteAsync(DeleteChineseFlashCardRequest.newBuilder().setId(id).build());
+        }, error -> DeleteChineseFlashCardResponse.newBuilder().setSuccess(false).setError(error).build());
     }
 
     /**
@@ -322,76 +371,185 @@ public class ChineseFlashCardController {
      */
     @GET
     @Path("/initialize")
+    @Produces(MediaType.APPLICATION_JSON)
     @Operation(summary = "Initialize Firebase with default Chinese flash cards", description = "Checks if Firebase has data and populates with default cards if empty")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Firebase checked/initialized successfully"),
+            @ApiResponse(responseCode = "503", description = "Request timed out"),
             @ApiResponse(responseCode = "500", description = "Internal server error or Firebase not configured")
     })
-    public Map<String, Object> initializeData() {
-        Map<String, Object> response = new HashMap<>();
+    public void initializeData(@Suspended AsyncResponse asyncResponse) {
+        respond(asyncResponse, "initialize Firebase", () -> {
+            Map<String, Object> response = new HashMap<>();
 
-        if (firestore == null) {
+            if (firestore == null) {
+                response.put("success", false);
+                response.put("error", "Firebase/Firestore is not configured");
+                response.put("message", "Cannot initialize data without Firebase connection");
+                return CompletableFuture.completedFuture(response);
+            }
+
+            // Check if data already exists
+            return firestoreService.countAsync(collectionName).thenCompose(existingCount -> {
+                if (existingCount > 0) {
+                    // Data already exists, return existing count
+                    response.put("success", true);
+                    response.put("message", "Data already exists in Firebase");
+                    response.put("existingCount", existingCount);
+                    response.put("initialized", false);
+                    return CompletableFuture.completedFuture(response);
+                }
+
+                // No data exists, populate with mock/default data through the batch create path
+                return chineseFlashCardService.batchCreateAsync(toBatchRequest(getDefaultCards()))
+                    .thenApply(result -> {
+                        int successCount = result.getCreatedCount();
+                        List<String> errors = new ArrayList<>(result.getErrorsList());
+
+                        for (String error : errors) {
+                            System.err.println("Error adding card: " + error);
+                        }
+
+                        response.put("success", true);
+                        response.put("message", "Firebase initialized with default Chinese flashcard data");
+                        response.put("initialized", true);
+                        response.put("cardsAdded", successCount);
+                        response.put("cardsFailed", result.getFailedCount());
+                        if (!errors.isEmpty()) {
+                            response.put("errors", errors);
+                        }
+
+                        System.out.println("✅ Firebase initialized with " + successCount + " Chinese flashcards");
+                        return response;
+                    });
+            });
+        }, error -> {
+            Map<String, Object> response = new HashMap<>();
             response.put("success", false);
-            response.put("error", "Firebase/Firestore is not configured");
-            response.put("message", "Cannot initialize data without Firebase connection");
+            response.put("error", error);
             return response;
-        }
+        });
+    }
 
+    /**
+     * Resumes the suspended request when the operation completes, or with a 503 when it
+     * exceeds app.server.request-timeout-ms. The request thread is released as soon as the
+     * operation has been started.
+     *
+     * @param asyncResponse Suspended response
+     * @param operation Operation name used in error messages (e.g. "retrieve cards")
+     * @param call Starts the operation; completes with a response message or a Response
+     * @param errorResponse Builds the endpoint's response message (success=false) for an error
+     */
+    private void respond(AsyncResponse asyncResponse, String operation,
+                         Supplier<? extends CompletionStage<?>> call, Function<String, ?> errorResponse) {
+        asyncResponse.setTimeout(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+        asyncResponse.setTimeoutHandler(suspended -> suspended.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+            .entity(errorResponse.apply("Failed to " + operation + ": request timed out after " + requestTimeoutMillis + " ms"))
+            .build()));
+
+        CompletionStage<?> stage;
         try {
-            // Check if data already exists
-            ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).limit(1).get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            if (!documents.isEmpty()) {
-                // Data already exists, return existing count
-                ApiFuture<QuerySnapshot> allFuture = firestore.collection(COLLECTION_NAME).get();
-                int existingCount = allFuture.get().getDocuments().size();
-
-                response.put("success", true);
-                response.put("message", "Data already exists in Firebase");
-                response.put("existingCount", existingCount);
-                response.put("initialized", false);
-                return response;
-            }
+            stage = call.get();
+        } catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
+        }
 
-            // No data exists, populate with mock/default data
-            List<ChineseFlashCard> defaultCards = getDefaultCards();
-            int successCount = 0;
-            int failCount = 0;
-            List<String> errors = new ArrayList<>();
-
-            for (ChineseFlashCard card : defaultCards) {
-                try {
-                    firestore.collection(COLLECTION_NAME)
-                            .document(String.valueOf(card.getId()))
-                            .set(card)
-                            .get(); // Wait for completion
-                    successCount++;
-                } catch (Exception e) {
-                    failCount++;
-                    errors.add("Failed to add card " + card.getId() + ": " + e.getMessage());
-                    System.err.println("Error adding card " + card.getId() + ": " + e.getMessage());
-                }
+        stage.whenComplete((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                System.err.println("❌ Failed to " + operation + ": " + cause.getMessage());
+                asyncResponse.resume(errorResponse.apply("Failed to " + operation + ": " + cause.getMessage()));
+            } else {
+                asyncResponse.resume(response);
             }
+        });
+    }
 
-            response.put("success", true);
-            response.put("message", "Firebase initialized with default Chinese flashcard data");
-            response.put("initialized", true);
-            response.put("cardsAdded", successCount);
-            response.put("cardsFailed", failCount);
-            if (!errors.isEmpty()) {
-                response.put("errors", errors);
-            }
+    /**
+     * Picks the representation of a cacheable response from Accept, as Jersey would, so the
+     * ETag can name it before the body is written. Defaults to JSON.
+     */
+    private static MediaType negotiate(Request request) {
+        Variant variant = request.selectVariant(VARIANTS);
+        return variant != null ? variant.getMediaType() : MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    /**
+     * 200 response carrying the body in the negotiated media type, with its entity tag and
+     * caching policy.
+     */
+    private Response cacheable(Message body, String etag, MediaType mediaType) {
+        return Response.ok(body, mediaType)
+            .tag(new EntityTag(EntityTags.unquote(etag)))
+            .cacheControl(cacheControl)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .build();
+    }
 
-            System.out.println("✅ Firebase initialized with " + successCount + " Chinese flashcards");
+    /**
+     * 304 response telling the client its cached copy is current.
+     */
+    private Response notModified(String etag) {
+        return Response.notModified(new EntityTag(EntityTags.unquote(etag)))
+            .cacheControl(cacheControl)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .build();
+    }
 
-        } catch (ExecutionException | InterruptedException e) {
-            response.put("success", false);
-            response.put("error", "Failed to initialize Firebase: " + e.getMessage());
-            System.err.println("❌ Firebase initialization failed: " + e.getMessage());
+    /**
+     * Cards are per-user study data: browsers may cache them but shared caches may not. With
+     * a max age of 0 the browser revalidates on every use, which the ETag makes cheap.
+     */
+    private static CacheControl cacheControl(int maxAgeSeconds) {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        if (maxAgeSeconds > 0) {
+            cacheControl.setMaxAge(maxAgeSeconds);
+        } else {
+            cacheControl.setNoCache(true);
         }
+        return cacheControl;
+    }
 
-        return response;
+    /**
+     * Helper method to convert cards to a batch create request, so seeded cards are encoded,
+     * normalized and timestamped exactly like cards created through the API
+     */
+    private BatchCreateChineseFlashCardsRequest toBatchRequest(List<ChineseFlashCard> cards) {
+        BatchCreateChineseFlashCardsRequest.Builder request = BatchCreateChineseFlashCardsRequest.newBuilder();
+        for (ChineseFlashCard card : cards) {
+            request.addCards(CreateChineseFlashCardRequest.newBuilder()
+                .setChineseWord(card.getChineseWord())
+                .setEnglishWord(card.getEnglishWord())
+                .setPinyin(card.getPinyin())
+                .setImg(card.getImg() != null ? card.getImg() : ""));
+        }
+        return request.build();
+    }
+
+    /**
+     * Helper method to convert mock model cards to service (protobuf) cards
+     */
+    private List<com.worldmap.flashcard.ChineseFlashCard> toProtos(List<ChineseFlashCard> cards) {
+        List<com.worldmap.flashcard.ChineseFlashCard> flashcards = new ArrayList<>(cards.size());
+        for (ChineseFlashCard card : cards) {
+            flashcards.add(toProto(card));
+        }
+        return flashcards;
+    }
+
+    /**
+     * Helper method to convert a mock model card to a service (protobuf) card
+     */
+    private com.worldmap.flashcard.ChineseFlashCard toProto(ChineseFlashCard card) {
+        return com.worldmap.flashcard.ChineseFlashCard.newBuilder()
+            .setId(card.getId())
+            .setChineseWord(card.getChineseWord() != null ? card.getChineseWord() : "")
+            .setEnglishWord(card.getEnglishWord() != null ? card.getEnglishWord() : "")
+            .setPinyin(card.getPinyin() != null ? card.getPinyin() : "")
+            .setImg(card.getImg() != null ? card.getImg() : "")
+            .build();
     }
 
     /**
@@ -2,12 +2,22 @@ package com.worldmap.grpc;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.linecorp.armeria.common.HttpHeaderNames;
+import com.linecorp.armeria.server.ServiceRequestContext;
 import com.worldmap.flashcard.*;
 import com.worldmap.service.ChineseFlashCardService;
+import com.worldmap.web.EntityTags;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * gRPC service implementation for Chinese Flash Card operations.
  * This layer handles gRPC requests and delegates business logic to ChineseFlashCardService.
@@ -17,11 +27,25 @@ import org.slf4j.LoggerFactory;
  * - Delegate to business logic layer (ChineseFlashCardService)
  * - Send responses via StreamObserver
  * - Handle gRPC-specific error handling
+ *
+ * Handlers never block: they call the service's async API and complete the
+ * StreamObserver from the Firestore callback, so the calling thread is released
+ * as soon as the request has been dispatched.
+ *
+ * ListChineseFlashCards streams cards with FlowControlledCardStream, which only sends while
+ * the call is ready and only reads the next batch once the previous one has been sent.
+ * StudySession runs the bidirectional study RPC.
+ *
+ * GetChineseFlashCards and GetChineseFlashCard send an etag response header (see EntityTags).
+ * A gRPC-Web client that echoes it in an if-none-match request header gets a response with
+ * not_modified set and no cards; for the list, no cards are read while the replica is loaded.
  */
 @Singleton
 public class ChineseFlashCardGrpcService extends ChineseFlashCardServiceGrpc.ChineseFlashCardServiceImplBase {
 
     private static final Logger logger = LoggerFactory.getLogger(ChineseFlashCardGrpcService.class);
+    private static final int DEFAULT_LIST_BATCH_SIZE = 100;
+    private static final int MAX_LIST_BATCH_SIZE = 500;
 
     private final ChineseFlashCardService chineseFlashCardService;
 
@@ -49,26 +73,13 @@ public class ChineseFlashCardGrpcService extends ChineseFlashCardServiceGrpc.Chi
     ) {
         logger.info("gRPC: CreateChineseFlashCard - {}", request.getChineseWord());
 
-        try {
-            // Delegate to service layer
-            CreateChineseFlashCardResponse response = chineseFlashCardService.create(request);
-
-            // Send response
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
-
-        } catch (Exception e) {
-            logger.error("gRPC error in createChineseFlashCard", e);
-
-            // Build error response
-            CreateChineseFlashCardResponse errorResponse = CreateChineseFlashCardResponse.newBuilder()
+        respond("createChineseFlashCard",
+            () -> chineseFlashCardService.createAsync(request),
+            responseObserver,
+            error -> CreateChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Internal server error: " + e.getMessage())
-                .build();
-
-            responseObserver.onNext(errorResponse);
-            responseObserver.onCompleted();
-        }
+                .setError(error)
+                .build());
     }
 
     /**
@@ -84,26 +95,38 @@ public class ChineseFlashCardGrpcService extends ChineseFlashCardServiceGrpc.Chi
     ) {
         logger.info("gRPC: GetChineseFlashCards - page: {}, pageSize: {}", request.getPage(), request.getPageSize());
 
-        try {
-            // Delegate to service layer
-            GetChineseFlashCardsResponse response = chineseFlashCardService.getAll(request);
-
-            // Send response
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
-
-        } catch (Exception e) {
-            logger.error("gRPC error in getChineseFlashCards", e);
-
-            // Build error response
-            GetChineseFlashCardsResponse errorResponse = GetChineseFlashCardsResponse.newBuilder()
+        ServiceRequestContext ctx = ServiceRequestContext.currentOrNull();
+        String ifNoneMatch = ifNoneMatch(ctx);
+        String version = chineseFlashCardService.cardsVersion();
+
+        respond("getChineseFlashCards",
+            () -> {
+                // With a known collection version, a current client is answered before any read
+                if (version != null && EntityTags.matches(ifNoneMatch, EntityTags.forVersion(version))) {
+                    setEntityTag(ctx, EntityTags.forVersion(version));
+                    return CompletableFuture.completedFuture(GetChineseFlashCardsResponse.newBuilder()
+                        .setSuccess(true)
+                        .setNotModified(true)
+                        .build());
+                }
+                return chineseFlashCardService.getAllAsync(request).thenApply(response -> {
+                    if (!response.getSuccess()) {
+                        return response;
+                    }
+                    String etag = version != null
+                        ? EntityTags.forVersion(version)
+                        : EntityTags.forCards(response.getDataList(), response.getTotalCount(), response.getNextPageToken());
+                    setEntityTag(ctx, etag);
+                    return EntityTags.matches(ifNoneMatch, etag)
+                        ? GetChineseFlashCardsResponse.newBuilder().setSuccess(true).setNotModified(true).build()
+                        : response;
+                });
+            },
+            responseObserver,
+            error -> GetChineseFlashCardsResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Internal server error: " + e.getMessage())
-                .build();
-
-            responseObserver.onNext(errorResponse);
-            responseObserver.onCompleted();
-        }
+                .setError(error)
+                .build());
     }
 
     /**
@@ -119,26 +142,47 @@ public class ChineseFlashCardGrpcService extends ChineseFlashCardServiceGrpc.Chi
     ) {
         logger.info("gRPC: GetChineseFlashCard - ID: {}", request.getId());
 
-        try {
-            // Delegate to service layer
-            GetChineseFlashCardResponse response = chineseFlashCardService.getById(request);
-
-            // Send response
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
+        ServiceRequestContext ctx = ServiceRequestContext.currentOrNull();
+        String ifNoneMatch = ifNoneMatch(ctx);
+
+        respond("getChineseFlashCard",
+            () -> chineseFlashCardService.getByIdAsync(request).thenApply(response -> {
+                if (!response.getSuccess()) {
+                    return response;
+                }
+                String etag = EntityTags.forCard(response.getData());
+                setEntityTag(ctx, etag);
+                return EntityTags.matches(ifNoneMatch, etag)
+                    ? GetChineseFlashCardResponse.newBuilder().setSuccess(true).setNotModified(true).build()
+                    : response;
+            }),
+            responseObserver,
+            error -> GetChineseFlashCardResponse.newBuilder()
+                .setSuccess(false)
+                .setError(error)
+                .build());
+    }
 
-        } catch (Exception e) {
-            logger.error("gRPC error in getChineseFlashCard", e);
+    /**
+     * Retrieves a set of Chinese flashcards by ID.
+     *
+     * @param request GetChineseFlashCardsByIdsRequest with flashcard IDs
+     * @param responseObserver StreamObserver for sending response
+     */
+    @Override
+    public void getChineseFlashCardsByIds(
+        GetChineseFlashCardsByIdsRequest request,
+        StreamObserver<GetChineseFlashCardsByIdsResponse> responseObserver
+    ) {
+        logger.info("gRPC: GetChineseFlashCardsByIds - {} IDs", request.getIdsCount());
 
-            // Build error response
-            GetChineseFlashCardResponse errorResponse = GetChineseFlashCardResponse.newBuilder()
+        respond("getChineseFlashCardsByIds",
+            () -> chineseFlashCardService.getByIdsAsync(request),
+            responseObserver,
+            error -> GetChineseFlashCardsByIdsResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Internal server error: " + e.getMessage())
-                .build();
-
-            responseObserver.onNext(errorResponse);
-            responseObserver.onCompleted();
-        }
+                .setError(error)
+                .build());
     }
 
     /**
@@ -154,26 +198,13 @@ public class ChineseFlashCardGrpcService extends ChineseFlashCardServiceGrpc.Chi
     ) {
         logger.info("gRPC: UpdateChineseFlashCard - ID: {}", request.getId());
 
-        try {
-            // Delegate to service layer
-            UpdateChineseFlashCardResponse response = chineseFlashCardService.update(request);
-
-            // Send response
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
-
-        } catch (Exception e) {
-            logger.error("gRPC error in updateChineseFlashCard", e);
-
-            // Build error response
-            UpdateChineseFlashCardResponse errorResponse = UpdateChineseFlashCardResponse.newBuilder()
+        respond("updateChineseFlashCard",
+            () -> chineseFlashCardService.updateAsync(request),
+            responseObserver,
+            error -> UpdateChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Internal server error: " + e.getMessage())
-                .build();
-
-            responseObserver.onNext(errorResponse);
-            responseObserver.onCompleted();
-        }
+                .setError(error)
+                .build());
     }
 
     /**
@@ -189,25 +220,182 @@ public class ChineseFlashCardGrpcService extends ChineseFlashCardServiceGrpc.Chi
     ) {
         logger.info("gRPC: DeleteChineseFlashCard - ID: {}", request.getId());
 
-        try {
-            // Delegate to service layer
-            DeleteChineseFlashCardResponse response = chineseFlashCardService.delete(request);
+        respond("deleteChineseFlashCard",
+            () -> chineseFlashCardService.deleteAsync(request),
+            responseObserver,
+            error -> DeleteChineseFlashCardResponse.newBuilder()
+                .setSuccess(false)
+                .setError(error)
+                .build());
+    }
 
-            // Send response
-            responseObserver.onNext(response);
-            responseObserver.onCompleted();
+    /**
+     * Creates many Chinese flashcards in one call.
+     *
+     * @param request BatchCreateChineseFlashCardsRequest containing the cards to create
+     * @param responseObserver StreamObserver for sending response
+     */
+    @Override
+    public void batchCreateChineseFlashCards(
+        BatchCreateChineseFlashCardsRequest request,
+        StreamObserver<BatchCreateChineseFlashCardsResponse> responseObserver
+    ) {
+        logger.info("gRPC: BatchCreateChineseFlashCards - {} cards", request.getCardsCount());
 
-        } catch (Exception e) {
-            logger.error("gRPC error in deleteChineseFlashCard", e);
+        respond("batchCreateChineseFlashCards",
+            () -> chineseFlashCardService.batchCreateAsync(request),
+            responseObserver,
+            error -> BatchCreateChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError(error)
+                .build());
+    }
 
-            // Build error response
-            DeleteChineseFlashCardResponse errorResponse = DeleteChineseFlashCardResponse.newBuilder()
+    /**
+     * Searches Chinese flashcards in the server's in-memory index.
+     *
+     * @param request SearchChineseFlashCardsRequest with the query and pagination parameters
+     * @param responseObserver StreamObserver for sending response
+     */
+    @Override
+    public void searchChineseFlashCards(
+        SearchChineseFlashCardsRequest request,
+        StreamObserver<SearchChineseFlashCardsResponse> responseObserver
+    ) {
+        logger.info("gRPC: SearchChineseFlashCards - query: {}, pageSize: {}", request.getQuery(), request.getPageSize());
+
+        respond("searchChineseFlashCards",
+            () -> chineseFlashCardService.searchAsync(request),
+            responseObserver,
+            error -> SearchChineseFlashCardsResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Internal server error: " + e.getMessage())
-                .build();
+                .setError(error)
+                .build());
+    }
 
-            responseObserver.onNext(errorResponse);
-            responseObserver.onCompleted();
+    /**
+     * Suggests existing words, pinyin or English glosses for a typed prefix.
+     *
+     * @param request SuggestChineseFlashCardsRequest with the prefix and limit
+     * @param responseObserver StreamObserver for sending response
+     */
+    @Override
+    public void suggestChineseFlashCards(
+        SuggestChineseFlashCardsRequest request,
+        StreamObserver<SuggestChineseFlashCardsResponse> responseObserver
+    ) {
+        logger.debug("gRPC: SuggestChineseFlashCards - prefix: {}, limit: {}", request.getPrefix(), request.getLimit());
+
+        respond("suggestChineseFlashCards",
+            () -> chineseFlashCardService.suggestAsync(request),
+            responseObserver,
+            error -> SuggestChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError(error)
+                .build());
+    }
+
+    /**
+     * Streams every Chinese flashcard, one message per card, honoring client flow control.
+     * Unlike the unary RPCs, failures end the stream with a gRPC status.
+     *
+     * @param request ListChineseFlashCardsRequest with the resume point and batch size
+     * @param responseObserver StreamObserver for sending cards
+     */
+    @Override
+    public void listChineseFlashCards(
+        ListChineseFlashCardsRequest request,
+        StreamObserver<ChineseFlashCard> responseObserver
+    ) {
+        logger.info("gRPC: ListChineseFlashCards - startAfterId: {}, batchSize: {}",
+                   request.getStartAfterId(), request.getBatchSize());
+
+        if (request.getBatchSize() < 0 || request.getBatchSize() > MAX_LIST_BATCH_SIZE
+                || request.getStartAfterId() < 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                .withDescription("batch_size must be between 0 and " + MAX_LIST_BATCH_SIZE
+                    + " and start_after_id must not be negative")
+                .asRuntimeException());
+            return;
         }
+        int batchSize = request.getBatchSize() > 0 ? request.getBatchSize() : DEFAULT_LIST_BATCH_SIZE;
+
+        // Cards created through this service are stored under their ID as the document ID
+        String startAfterDocId = request.getStartAfterId() > 0 ? String.valueOf(request.getStartAfterId()) : null;
+        new FlowControlledCardStream(chineseFlashCardService,
+            (ServerCallStreamObserver<ChineseFlashCard>) responseObserver,
+            startAfterDocId, batchSize)
+            .start();
+    }
+
+    /**
+     * Runs a study session: the client streams answers and the server streams the next
+     * cards, writing progress in batches. See StudySession.
+     *
+     * @param responseObserver StreamObserver for sending cards
+     * @return StreamObserver receiving the client's answers
+     */
+    @Override
+    public StreamObserver<StudySessionRequest> studySession(StreamObserver<StudySessionResponse> responseObserver) {
+        logger.info("gRPC: StudySession opened");
+
+        return new StudySession(chineseFlashCardService, responseObserver);
+    }
+
+    // ========== Private Helper Methods ==========
+
+    /**
+     * @return The call's if-none-match header, or null outside Armeria or if absent
+     */
+    @Nullable
+    private static String ifNoneMatch(@Nullable ServiceRequestContext ctx) {
+        return ctx != null ? ctx.request().headers().get(HttpHeaderNames.IF_NONE_MATCH) : null;
+    }
+
+    /**
+     * Adds the etag response header. Must run before the response message is sent, which is
+     * when Armeria writes the headers.
+     */
+    private static void setEntityTag(@Nullable ServiceRequestContext ctx, String etag) {
+        if (ctx != null) {
+            ctx.addAdditionalResponseHeader(HttpHeaderNames.ETAG, etag);
+        }
+    }
+
+    /**
+     * Completes the StreamObserver when the service future completes.
+     * Any unexpected failure is reported as an error response rather than a gRPC status,
+     * matching the success/error envelope used by all responses.
+     *
+     * @param method RPC method name used for logging
+     * @param call Supplier that starts the async service call
+     * @param responseObserver StreamObserver for sending response
+     * @param errorResponse Builds an error response from an error message
+     */
+    private <R> void respond(
+        String method,
+        Supplier<CompletableFuture<R>> call,
+        StreamObserver<R> responseObserver,
+        Function<String, R> errorResponse
+    ) {
+        CompletableFuture<R> future;
+        try {
+            // Delegate to service layer
+            future = call.get();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                logger.error("gRPC error in {}", method, error);
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                responseObserver.onNext(errorResponse.apply("Internal server error: " + cause.getMessage()));
+            } else {
+                // Send response
+                responseObserver.onNext(response);
+            }
+            responseObserver.onCompleted();
+        });
     }
 }
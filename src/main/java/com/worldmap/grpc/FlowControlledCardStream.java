@@ -0,0 +1,175 @@
+package com.worldmap.grpc;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.service.ChineseFlashCardService;
+import com.worldmap.service.DocumentStreamObserver;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Streams the flashcard collection to a single ListChineseFlashCards call while honoring
+ * gRPC flow control.
+ *
+ * Cards are read from ChineseFlashCardService in batches. Each card is sent as soon as it
+ * arrives if the call is ready; cards arriving while the client is not reading are held
+ * until the next onReady callback. The next batch is only requested once the previous one
+ * has been sent, so at most one batch is held in memory per call and the first card goes
+ * out without waiting for a whole page.
+ *
+ * Batches resume after the document ID of the last card received, not its card ID: cards
+ * created by the web frontend have generated document IDs and no numeric id field.
+ *
+ * Callbacks arrive from gRPC (onReady, cancel) and from Firestore (cards); all state is
+ * guarded by this object's monitor.
+ */
+final class FlowControlledCardStream implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlowControlledCardStream.class);
+
+    private final ChineseFlashCardService service;
+    private final ServerCallStreamObserver<ChineseFlashCard> responseObserver;
+    private final int batchSize;
+    private final Deque<ChineseFlashCard> pending = new ArrayDeque<>();
+
+    private String lastDocId;
+    private int receivedInBatch;
+    private boolean fetching;
+    private boolean exhausted;
+    private boolean draining;
+    private boolean done;
+    private long sent;
+
+    /**
+     * @param service Service the batches are read from
+     * @param responseObserver Call to stream to
+     * @param startAfterDocId Document ID to resume after, or null to start at the beginning
+     * @param batchSize Cards read per batch
+     */
+    FlowControlledCardStream(ChineseFlashCardService service,
+                             ServerCallStreamObserver<ChineseFlashCard> responseObserver,
+                             @Nullable String startAfterDocId, int batchSize) {
+        this.service = service;
+        this.responseObserver = responseObserver;
+        this.lastDocId = startAfterDocId;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Registers the flow control handlers and starts reading. Must be called from the RPC
+     * handler, before it returns.
+     */
+    void start() {
+        responseObserver.setOnCancelHandler(this::cancel);
+        responseObserver.setOnReadyHandler(this);
+        drain();
+    }
+
+    /**
+     * onReady handler: the client can accept more messages.
+     */
+    @Override
+    public void run() {
+        drain();
+    }
+
+    /**
+     * Sends pending cards while the call is ready, then requests the next batch or completes
+     * the call once everything has been sent. Re-entrant calls (a batch delivered on the
+     * calling thread) return immediately; the outer loop picks up their cards.
+     */
+    private synchronized void drain() {
+        if (done || draining) {
+            return;
+        }
+        draining = true;
+        try {
+            while (true) {
+                while (!pending.isEmpty() && responseObserver.isReady()) {
+                    responseObserver.onNext(pending.poll());
+                    sent++;
+                }
+                if (!pending.isEmpty() || fetching || done) {
+                    return;
+                }
+                if (exhausted) {
+                    done = true;
+                    logger.info("gRPC: ListChineseFlashCards completed - {} cards sent", sent);
+                    responseObserver.onCompleted();
+                    return;
+                }
+                fetchNextBatch();
+            }
+        } finally {
+            draining = false;
+        }
+    }
+
+    /**
+     * Requests the batch after the last card received.
+     */
+    private void fetchNextBatch() {
+        fetching = true;
+        receivedInBatch = 0;
+        service.streamBatch(lastDocId, batchSize, new DocumentStreamObserver<ChineseFlashCard>() {
+            @Override
+            public void onNext(String docId, ChineseFlashCard card) {
+                synchronized (FlowControlledCardStream.this) {
+                    if (done) {
+                        return;
+                    }
+                    pending.add(card);
+                    lastDocId = docId;
+                    receivedInBatch++;
+                }
+                drain();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                synchronized (FlowControlledCardStream.this) {
+                    fetching = false;
+                    exhausted = receivedInBatch < batchSize;
+                }
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Ends the call with INTERNAL after a read failure.
+     */
+    private synchronized void fail(Throwable t) {
+        if (done) {
+            return;
+        }
+        done = true;
+        pending.clear();
+        logger.error("gRPC error in listChineseFlashCards after {} cards", sent, t);
+        responseObserver.onError(Status.INTERNAL
+            .withDescription("Failed to stream flashcards: " + t.getMessage())
+            .withCause(t)
+            .asRuntimeException());
+    }
+
+    /**
+     * Client cancelled: drop pending cards and ignore the rest of the current batch.
+     */
+    private synchronized void cancel() {
+        if (!done) {
+            logger.info("gRPC: ListChineseFlashCards cancelled by client after {} cards", sent);
+        }
+        done = true;
+        pending.clear();
+    }
+}
@@ -0,0 +1,305 @@
+package com.worldmap.grpc;
+
+import com.worldmap.config.ApplicationConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor that runs gRPC handlers off Armeria's event loops, so a handler that blocks
+ * cannot stall other connections sharing its event loop.
+ *
+ * Armeria takes a ScheduledExecutorService as its blocking task executor, so both modes are
+ * a ScheduledThreadPoolExecutor with a fixed number of threads: platform threads in blocking
+ * mode, virtual threads in virtual mode (where the thread count only caps concurrency; parked
+ * virtual threads cost a few hundred bytes). Once every thread is busy and maxQueuedTasks
+ * handlers are waiting, new ones are rejected, so overload fails fast instead of queueing
+ * without limit. The bound is a semaphore with a permit per thread and per queue slot, taken
+ * before a handler is scheduled and returned when it finishes or is cancelled, so concurrent
+ * submissions cannot overshoot it.
+ */
+public final class GrpcHandlerExecutor extends ScheduledThreadPoolExecutor {
+
+    /**
+     * Where gRPC handlers run.
+     */
+    public enum Mode {
+        /** Armeria event loops; handlers must never block */
+        EVENT_LOOP,
+        /** Bounded pool of platform threads */
+        BLOCKING,
+        /** Virtual threads */
+        VIRTUAL;
+
+        /**
+         * Parses an app.grpc.execution-mode value (event-loop, blocking, virtual).
+         *
+         * @throws IllegalArgumentException for any other value
+         */
+        public static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown gRPC execution mode '" + value
+                    + "' (expected event-loop, blocking or virtual)", e);
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final int maxQueuedTasks;
+    /** One permit per thread and per queue slot; a scheduled handler holds one until it ends */
+    private final Semaphore slots;
+    private final LongAdder rejectedTasks = new LongAdder();
+
+    private GrpcHandlerExecutor(Mode mode, int threads, ThreadFactory threadFactory, int maxQueuedTasks) {
+        super(threads, threadFactory);
+        this.mode = mode;
+        this.maxQueuedTasks = maxQueuedTasks;
+        this.slots = new Semaphore(threads + maxQueuedTasks);
+        setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Creates the executor for the configured execution mode.
+     *
+     * @param config gRPC execution configuration
+     * @return Executor for handlers, or null in event-loop mode
+     * @throws IllegalArgumentException if the mode is unknown or a limit is not positive
+     */
+    @Nullable
+    public static GrpcHandlerExecutor create(ApplicationConfig.Grpc config) {
+        Mode mode = Mode.parse(config.getExecutionMode());
+        if (config.getMaxQueuedTasks() <= 0) {
+            throw new IllegalArgumentException("app.grpc.max-queued-tasks must be positive");
+        }
+        switch (mode) {
+            case BLOCKING:
+                return new GrpcHandlerExecutor(mode, positive(config.getBlockingThreads(), "app.grpc.blocking-threads"),
+                    platformThreads(), config.getMaxQueuedTasks());
+            case VIRTUAL:
+                return new GrpcHandlerExecutor(mode, positive(config.getVirtualThreads(), "app.grpc.virtual-threads"),
+                    Thread.ofVirtual().name("grpc-virtual-", 0).factory(), config.getMaxQueuedTasks());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return Execution mode of this executor
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return Number of handlers rejected because the queue was full
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.sum();
+    }
+
+    /**
+     * @return Point-in-time view of thread and queue usage
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+        stats.put("maxThreads", getCorePoolSize());
+        stats.put("poolSize", getPoolSize());
+        stats.put("activeThreads", getActiveCount());
+        stats.put("queuedTasks", getQueue().size());
+        stats.put("maxQueuedTasks", maxQueuedTasks);
+        stats.put("completedTasks", getCompletedTaskCount());
+        stats.put("rejectedTasks", getRejectedTaskCount());
+        return stats;
+    }
+
+    /**
+     * Registers active-thread, queue-depth, pool-size, completed and rejected meters.
+     *
+     * @param registry Registry to register the meters with
+     */
+    public void bindTo(MeterRegistry registry) {
+        String modeTag = mode.name().toLowerCase(Locale.ROOT);
+        Gauge.builder("grpc.executor.active", this, GrpcHandlerExecutor::getActiveCount)
+            .description("gRPC handlers currently running")
+            .tag("mode", modeTag)
+            .register(registry);
+        Gauge.builder("grpc.executor.queued", this, executor -> executor.getQueue().size())
+            .description("gRPC handlers waiting for a thread")
+            .tag("mode", modeTag)
+            .register(registry);
+        Gauge.builder("grpc.executor.pool.size", this, GrpcHandlerExecutor::getPoolSize)
+            .description("Threads started by the gRPC executor")
+            .tag("mode", modeTag)
+            .register(registry);
+        FunctionCounter.builder("grpc.executor.completed", this, GrpcHandlerExecutor::getCompletedTaskCount)
+            .description("gRPC handler tasks completed")
+            .tag("mode", modeTag)
+            .register(registry);
+        FunctionCounter.builder("grpc.executor.rejected", this, GrpcHandlerExecutor::getRejectedTaskCount)
+            .description("gRPC handler tasks rejected because the queue was full")
+            .tag("mode", modeTag)
+            .register(registry);
+    }
+
+    // execute() and submit() are routed through schedule() by ScheduledThreadPoolExecutor
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        Slot slot = acquireSlot();
+        try {
+            return slot.guard(super.schedule(slot.wrap(command), delay, unit));
+        } catch (RuntimeException e) {
+            slot.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        Slot slot = acquireSlot();
+        try {
+            return slot.guard(super.schedule(slot.wrap(callable), delay, unit));
+        } catch (RuntimeException e) {
+            slot.release();
+            throw e;
+        }
+    }
+
+    private Slot acquireSlot() {
+        if (!slots.tryAcquire()) {
+            rejectedTasks.increment();
+            throw new RejectedExecutionException("gRPC handler queue is full (" + maxQueuedTasks + " tasks waiting)");
+        }
+        return new Slot();
+    }
+
+    /**
+     * Permit held by one scheduled handler. Released once, by whichever comes first: the
+     * handler finishing (normally or not) or its future being cancelled.
+     */
+    private final class Slot {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+
+        Runnable wrap(Runnable command) {
+            return () -> {
+                try {
+                    command.run();
+                } finally {
+                    release();
+                }
+            };
+        }
+
+        <V> Callable<V> wrap(Callable<V> callable) {
+            return () -> {
+                try {
+                    return callable.call();
+                } finally {
+                    release();
+                }
+            };
+        }
+
+        <V> ScheduledFuture<V> guard(ScheduledFuture<V> future) {
+            return new SlotFuture<>(future, this);
+        }
+    }
+
+    /**
+     * Future of a scheduled handler that returns its slot when cancelled; a cancelled handler
+     * that never started would otherwise hold it forever.
+     */
+    private static final class SlotFuture<V> implements ScheduledFuture<V> {
+
+        private final ScheduledFuture<V> delegate;
+        private final Slot slot;
+
+        SlotFuture(ScheduledFuture<V> delegate, Slot slot) {
+            this.delegate = delegate;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = delegate.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                slot.release();
+            }
+            return cancelled;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return delegate.getDelay(unit);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return delegate.compareTo(other);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return delegate.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return delegate.isDone();
+        }
+
+        @Override
+        public V get() throws InterruptedException, ExecutionException {
+            return delegate.get();
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return delegate.get(timeout, unit);
+        }
+    }
+
+    private static int positive(int value, String property) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(property + " must be positive");
+        }
+        return value;
+    }
+
+    private static ThreadFactory platformThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "grpc-blocking-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,11 +1,15 @@
 
 package com.worldmap.grpc;
 
+import com.linecorp.armeria.common.Flags;
 import com.linecorp.armeria.common.HttpMethod;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.common.MediaType;
 import com.linecorp.armeria.server.Server;
 import com.linecorp.armeria.server.ServerBuilder;
 import com.linecorp.armeria.server.grpc.GrpcService;
 import com.linecorp.armeria.server.cors.CorsService;
+import com.linecorp.armeria.server.encoding.EncodingService;
 import com.worldmap.config.ApplicationConfig;
 import io.grpc.BindableService;
 import io.grpc.health.v1.HealthCheckResponse;
@@ -22,14 +26,32 @@ import java.util.concurrent.CompletableFuture;
  * Armeria provides native gRPC-Web support, CORS, and HTTP/2.
  * Replaces Jetty server for API endpoints, providing a single entry point
  * for all gRPC services (Chinese FlashCard, French FlashCard, etc.)
+ *
+ * Handlers run on the executor selected by app.grpc.execution-mode (see GrpcHandlerExecutor)
+ * rather than on Armeria's event loops, unless event-loop mode is configured. Executor
+ * metrics are registered with Armeria's meter registry and served as JSON at
+ * EXECUTOR_STATS_PATH.
+ *
+ * With app.server.compression-enabled, gRPC-Web and JSON responses of at least
+ * app.server.compression-min-bytes are compressed with the encoding the browser accepts.
+ * Native gRPC is left to gRPC's own per-message compression.
+ *
+ * Transport settings come from ApplicationConfig.Server: per-message response compression
+ * (app.server.grpc-compression), the largest request message accepted, HTTP/2 stream and
+ * connection flow-control windows, concurrent streams per connection, and the idle timeout
+ * and keepalive ping interval of connections.
  */
 @Singleton
 public class GrpcServer {
 
+    /** Path serving the gRPC handler executor's thread and queue statistics */
+    public static final String EXECUTOR_STATS_PATH = "/internal/grpc-executor";
+
     private final Server server;
     private final ApplicationConfig config;
     private final Set<BindableService> grpcServices;
     private final HealthStatusManager healthStatusManager;
+    private final GrpcHandlerExecutor handlerExecutor;
 
     /**
      * Constructor with Guice dependency injection.
@@ -42,6 +64,7 @@ public class GrpcServer {
         this.config = config;
         this.grpcServices = grpcServices;
         this.healthStatusManager = new HealthStatusManager();
+        this.handlerExecutor = GrpcHandlerExecutor.create(config.getGrpc());
         this.server = buildServer();
     }
 
@@ -56,9 +79,31 @@ public class GrpcServer {
         int port = config.getServer().getPort();
         ServerBuilder serverBuilder = Server.builder();
         serverBuilder.http(port);
+        configureTransport(serverBuilder, config.getServer());
 
         // Build GrpcService with all registered services
-        com.linecorp.armeria.server.grpc.GrpcServiceBuilder grpcServiceBuilder = GrpcService.builder();
+        com.linecorp.armeria.server.grpc.GrpcServiceBuilder grpcServiceBuilder = GrpcService.builder()
+            .maxRequestMessageLength(config.getServer().getGrpcMaxInboundMessageBytes());
+
+        // Compress response messages for clients that accept the configured encoding
+        String compression = config.getServer().getGrpcCompression();
+        if (!compression.isBlank() && !"identity".equalsIgnoreCase(compression)) {
+            grpcServiceBuilder.intercept(new ResponseCompressionInterceptor(compression));
+            System.out.println("  ✓ gRPC response messages compressed with " + compression + " when accepted");
+        }
+
+        // Run handlers on the configured executor instead of the event loops
+        if (handlerExecutor != null) {
+            serverBuilder.blockingTaskExecutor(handlerExecutor, true);
+            grpcServiceBuilder.useBlockingTaskExecutor(true);
+            handlerExecutor.bindTo(Flags.meterRegistry());
+            serverBuilder.service(EXECUTOR_STATS_PATH, (ctx, req) -> HttpResponse.ofJson(handlerExecutor.stats()));
+            System.out.println("  ✓ gRPC handlers run on " + config.getGrpc().getExecutionMode()
+                + " executor (" + handlerExecutor.getCorePoolSize() + " threads, "
+                + config.getGrpc().getMaxQueuedTasks() + " queued max)");
+        } else {
+            System.out.println("  ✓ gRPC handlers run on Armeria event loops");
+        }
 
         // Register all gRPC services
         for (BindableService service : grpcServices) {
@@ -87,14 +132,49 @@ public class GrpcServer {
                 .allowRequestMethods(HttpMethod.GET, HttpMethod.POST, HttpMethod.OPTIONS)
                 .allowRequestHeaders("*")
                 .allowCredentials()
-                .exposeHeaders("grpc-status", "grpc-message", "grpc-status-details-bin")
+                .exposeHeaders("grpc-status", "grpc-message", "grpc-status-details-bin", "etag")
                 .newDecorator());
 
         System.out.println("  ✓ Enabled gRPC-Web with CORS support (via Armeria)");
 
+        if (config.getServer().isCompressionEnabled()) {
+            serverBuilder.decorator(EncodingService.builder()
+                .encodableContentTypes(GrpcServer::isCompressible)
+                .minBytesToForceChunkedEncoding(config.getServer().getCompressionMinBytes())
+                .newDecorator());
+            System.out.println("  ✓ Enabled gRPC-Web/JSON response compression (>= "
+                + config.getServer().getCompressionMinBytes() + " bytes)");
+        }
+
         return serverBuilder.build();
     }
 
+    /**
+     * Applies HTTP/2 flow-control, concurrency and keepalive settings. Larger initial windows
+     * let a stream send a large list response without waiting a round trip for
+     * WINDOW_UPDATE frames; pings keep NATed mobile connections open and detect dead ones.
+     */
+    static void configureTransport(ServerBuilder serverBuilder, ApplicationConfig.Server serverConfig) {
+        serverBuilder
+            .http2InitialStreamWindowSize(serverConfig.getHttp2InitialStreamWindowBytes())
+            .http2InitialConnectionWindowSize(serverConfig.getHttp2InitialConnectionWindowBytes())
+            .http2MaxStreamsPerConnection(serverConfig.getHttp2MaxConcurrentStreams())
+            .idleTimeoutMillis(serverConfig.getIdleTimeoutMillis())
+            .pingIntervalMillis(serverConfig.getPingIntervalMillis());
+    }
+
+    /**
+     * gRPC-Web (binary and text) and JSON bodies are compressed over HTTP; application/grpc is
+     * excluded because native gRPC clients expect message-level, not HTTP, compression.
+     */
+    static boolean isCompressible(MediaType contentType) {
+        if (!"application".equals(contentType.type())) {
+            return false;
+        }
+        String subtype = contentType.subtype();
+        return "json".equals(subtype) || subtype.startsWith("grpc-web");
+    }
+
     /**
      * Starts the gRPC server (Armeria).
      */
@@ -164,6 +244,15 @@ public class GrpcServer {
         return -1;
     }
 
+    /**
+     * Gets the executor gRPC handlers run on.
+     *
+     * @return Handler executor, or null in event-loop mode
+     */
+    public GrpcHandlerExecutor getHandlerExecutor() {
+        return handlerExecutor;
+    }
+
     /**
      * Gets the health status manager for manual health check updates.
      * Useful for marking services as unhealthy based on external conditions.
@@ -0,0 +1,36 @@
+package com.worldmap.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Asks every call to compress its response messages with the configured encoding.
+ *
+ * gRPC negotiates per call: the encoding is only used if the client listed it in
+ * grpc-accept-encoding, otherwise messages go out uncompressed, so clients without gzip
+ * support are unaffected. Request messages are decompressed whatever encoding the client
+ * chose from the server's registry.
+ */
+final class ResponseCompressionInterceptor implements ServerInterceptor {
+
+    private final String encoding;
+
+    /**
+     * @param encoding Message encoding registered in the compressor registry (e.g. "gzip")
+     */
+    ResponseCompressionInterceptor(String encoding) {
+        this.encoding = encoding;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+        ServerCall<ReqT, RespT> call,
+        Metadata headers,
+        ServerCallHandler<ReqT, RespT> next
+    ) {
+        call.setCompression(encoding);
+        return next.startCall(call, headers);
+    }
+}
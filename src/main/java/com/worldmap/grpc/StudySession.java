@@ -0,0 +1,261 @@
+package com.worldmap.grpc;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.flashcard.StudySessionRequest;
+import com.worldmap.flashcard.StudySessionResponse;
+import com.worldmap.service.BulkWriteResult;
+import com.worldmap.service.ChineseFlashCardService;
+import com.worldmap.service.DocumentStreamObserver;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Server side of one StudySession call.
+ *
+ * The client streams one message per answered card; the server keeps `prefetch` cards ahead
+ * of the client, sending a new card for each answer, so studying a card costs one message in
+ * each direction instead of a unary read and a unary update.
+ *
+ * Cards are read in document ID order from ChineseFlashCardService in batches, and the next
+ * batch is requested while the buffer still holds cards so the client never waits on a read.
+ * Each batch resumes after the document ID of the last card read, as in FlowControlledCardStream.
+ * Answers are buffered and written as one bulk progress update every PROGRESS_FLUSH_SIZE
+ * answers and when the session ends. The session ends when the client half-closes, or once
+ * every card has been sent and answered.
+ *
+ * Inbound messages arrive on gRPC's executor and cards on Firestore's callback thread; all
+ * state and every call on the response observer are guarded by this object's monitor.
+ */
+final class StudySession implements StreamObserver<StudySessionRequest> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudySession.class);
+
+    static final int DEFAULT_PREFETCH = 5;
+    static final int MAX_PREFETCH = 50;
+    static final int FETCH_BATCH_SIZE = 50;
+    static final int PROGRESS_FLUSH_SIZE = 20;
+    static final int MAX_GRADE = 5;
+
+    private final ChineseFlashCardService service;
+    private final StreamObserver<StudySessionResponse> responseObserver;
+    private final Deque<ChineseFlashCard> buffered = new ArrayDeque<>();
+    private final List<StudySessionRequest> progress = new ArrayList<>();
+
+    private CompletableFuture<Void> writes = CompletableFuture.completedFuture(null);
+    private boolean started;
+    private int prefetch = DEFAULT_PREFETCH;
+    private String lastDocId;
+    private int outstanding;
+    private int receivedInBatch;
+    private boolean fetching;
+    private boolean exhausted;
+    private boolean done;
+    private long answered;
+
+    /**
+     * @param service Service cards are read from and progress is written to
+     * @param responseObserver Call to send cards to
+     */
+    StudySession(ChineseFlashCardService service, StreamObserver<StudySessionResponse> responseObserver) {
+        this.service = service;
+        this.responseObserver = responseObserver;
+    }
+
+    @Override
+    public synchronized void onNext(StudySessionRequest request) {
+        if (done) {
+            return;
+        }
+        if (!started) {
+            started = true;
+            if (request.getPrefetch() < 0 || request.getPrefetch() > MAX_PREFETCH || request.getStartAfterId() < 0) {
+                fail(Status.INVALID_ARGUMENT.withDescription("prefetch must be between 0 and " + MAX_PREFETCH
+                    + " and start_after_id must not be negative"), null);
+                return;
+            }
+            prefetch = request.getPrefetch() > 0 ? request.getPrefetch() : DEFAULT_PREFETCH;
+            // Cards created through this service are stored under their ID as the document ID
+            lastDocId = request.getStartAfterId() > 0 ? String.valueOf(request.getStartAfterId()) : null;
+            logger.info("gRPC: StudySession started - prefetch: {}, startAfterId: {}", prefetch, request.getStartAfterId());
+        }
+        if (request.getCardId() != 0) {
+            answer(request);
+        }
+        pump();
+    }
+
+    /**
+     * The client half-closed: write the remaining progress, then end the call.
+     */
+    @Override
+    public synchronized void onCompleted() {
+        finish();
+    }
+
+    /**
+     * The client cancelled or failed: keep the answers received so far, send nothing more.
+     */
+    @Override
+    public synchronized void onError(Throwable t) {
+        if (done) {
+            return;
+        }
+        done = true;
+        logger.info("gRPC: StudySession aborted by client after {} answers: {}", answered, t.getMessage());
+        flushProgress();
+    }
+
+    /**
+     * Accounts for one answer, buffering it for the next progress write.
+     */
+    private void answer(StudySessionRequest request) {
+        outstanding = Math.max(0, outstanding - 1);
+
+        String error = validateAnswer(request);
+        if (error != null) {
+            responseObserver.onNext(StudySessionResponse.newBuilder().setError(error).build());
+            return;
+        }
+
+        answered++;
+        progress.add(request);
+        if (progress.size() >= PROGRESS_FLUSH_SIZE) {
+            flushProgress();
+        }
+    }
+
+    /**
+     * Tops the client up to `prefetch` outstanding cards, refills the buffer, and ends the
+     * session once every card has been sent and answered.
+     */
+    private void pump() {
+        if (done) {
+            return;
+        }
+        while (outstanding < prefetch && !buffered.isEmpty()) {
+            responseObserver.onNext(StudySessionResponse.newBuilder().setCard(buffered.poll()).build());
+            outstanding++;
+        }
+        if (buffered.size() < prefetch && !fetching && !exhausted) {
+            fetchNextBatch();
+        } else if (exhausted && !fetching && buffered.isEmpty() && outstanding == 0) {
+            logger.info("gRPC: StudySession reached the end of the deck after {} answers", answered);
+            finish();
+        }
+    }
+
+    /**
+     * Reads the batch after the last card buffered.
+     */
+    private void fetchNextBatch() {
+        fetching = true;
+        receivedInBatch = 0;
+        service.streamBatch(lastDocId, FETCH_BATCH_SIZE, new DocumentStreamObserver<ChineseFlashCard>() {
+            @Override
+            public void onNext(String docId, ChineseFlashCard card) {
+                synchronized (StudySession.this) {
+                    buffered.add(card);
+                    lastDocId = docId;
+                    receivedInBatch++;
+                    // Send right away if the client is waiting for cards
+                    pump();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                synchronized (StudySession.this) {
+                    fetching = false;
+                    if (!done) {
+                        fail(Status.INTERNAL.withDescription("Failed to read flashcards: " + t.getMessage()), t);
+                    }
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                synchronized (StudySession.this) {
+                    fetching = false;
+                    exhausted = receivedInBatch < FETCH_BATCH_SIZE;
+                    pump();
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes the buffered answers. Writes are chained so progress for a card is applied in
+     * the order it was answered.
+     */
+    private CompletableFuture<Void> flushProgress() {
+        if (progress.isEmpty()) {
+            return writes;
+        }
+        List<StudySessionRequest> batch = new ArrayList<>(progress);
+        progress.clear();
+        writes = writes
+            .thenCompose(ignored -> service.recordProgressAsync(batch))
+            .thenAccept(this::logWriteResult);
+        return writes;
+    }
+
+    /**
+     * Writes the remaining progress, then completes the call.
+     */
+    private void finish() {
+        if (done) {
+            return;
+        }
+        done = true;
+        flushProgress().whenComplete((ignored, error) -> {
+            synchronized (StudySession.this) {
+                logger.info("gRPC: StudySession completed - {} answers recorded", answered);
+                responseObserver.onCompleted();
+            }
+        });
+    }
+
+    /**
+     * Ends the call with an error status after writing the progress received so far.
+     */
+    private void fail(Status status, Throwable cause) {
+        done = true;
+        buffered.clear();
+        if (cause != null) {
+            logger.error("gRPC error in studySession after {} answers", answered, cause);
+        }
+        flushProgress();
+        responseObserver.onError(status.withCause(cause).asRuntimeException());
+    }
+
+    private void logWriteResult(BulkWriteResult result) {
+        if (result.hasFailures()) {
+            logger.warn("StudySession failed to record progress for {} cards: {}",
+                       result.getFailures().size(), result.getFailures());
+        }
+    }
+
+    /**
+     * @return Error message for an invalid answer, or null if it can be recorded
+     */
+    private static String validateAnswer(StudySessionRequest request) {
+        if (request.getCardId() < 0) {
+            return "Card " + request.getCardId() + ": card_id must be positive";
+        }
+        if (request.getGrade() < 0 || request.getGrade() > MAX_GRADE) {
+            return "Card " + request.getCardId() + ": grade must be between 0 and " + MAX_GRADE;
+        }
+        if (request.getLatencyMs() < 0) {
+            return "Card " + request.getCardId() + ": latency_ms must not be negative";
+        }
+        return null;
+    }
+}
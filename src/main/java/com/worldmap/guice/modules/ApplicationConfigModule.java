@@ -37,6 +37,22 @@ public class ApplicationConfigModule extends AbstractModule {
         server.setContextPath(getProperty("app.server.context-path", "/"));
         server.setEnvironment(getProperty("app.server.environment", "development"));
         server.setEnableCors(getBooleanProperty("app.server.enable-cors", true));
+        server.setVirtualThreads(getBooleanProperty("app.server.virtual-threads", true));
+        server.setMinThreads(getIntProperty("app.server.min-threads", 8));
+        server.setMaxThreads(getIntProperty("app.server.max-threads", 200));
+        server.setAcceptQueueSize(getIntProperty("app.server.accept-queue-size", 128));
+        server.setRequestTimeoutMillis(getIntProperty("app.server.request-timeout-ms", 10000));
+        server.setCompressionEnabled(getBooleanProperty("app.server.compression-enabled", true));
+        server.setCompressionMinBytes(getIntProperty("app.server.compression-min-bytes", 1024));
+        server.setStaticMaxAgeSeconds(getIntProperty("app.server.static-max-age-seconds", 31536000));
+        server.setApiCacheMaxAgeSeconds(getIntProperty("app.server.api-cache-max-age-seconds", 0));
+        server.setGrpcCompression(getProperty("app.server.grpc-compression", "gzip"));
+        server.setGrpcMaxInboundMessageBytes(getIntProperty("app.server.grpc-max-inbound-message-bytes", 4 * 1024 * 1024));
+        server.setHttp2InitialStreamWindowBytes(getIntProperty("app.server.http2-initial-stream-window-bytes", 1024 * 1024));
+        server.setHttp2InitialConnectionWindowBytes(getIntProperty("app.server.http2-initial-connection-window-bytes", 4 * 1024 * 1024));
+        server.setHttp2MaxConcurrentStreams(getIntProperty("app.server.http2-max-concurrent-streams", 256));
+        server.setIdleTimeoutMillis(getIntProperty("app.server.idle-timeout-ms", 60000));
+        server.setPingIntervalMillis(getIntProperty("app.server.ping-interval-ms", 20000));
         config.setServer(server);
         
         // Firebase configuration
@@ -46,7 +62,33 @@ public class ApplicationConfigModule extends AbstractModule {
         firebase.setProjectId(getProperty("app.firebase.project-id", ""));
         firebase.setAutoInitialize(getBooleanProperty("app.firebase.auto-initialize", true));
         firebase.setCollection(getProperty("app.firebase.collection", "chinese_flash_cards"));
+        firebase.setMaintainCounter(getBooleanProperty("app.firebase.maintain-counter", false));
+        firebase.setCounterCollection(getProperty("app.firebase.counter-collection", "_counters"));
+        firebase.setCacheEnabled(getBooleanProperty("app.firebase.cache-enabled", true));
+        firebase.setCacheMaxSize(getIntProperty("app.firebase.cache-max-size", 10000));
+        firebase.setCacheTtlSeconds(getIntProperty("app.firebase.cache-ttl-seconds", 60));
+        firebase.setReplicaEnabled(getBooleanProperty("app.firebase.replica-enabled", false));
+        firebase.setReplicaStartupTimeoutSeconds(getIntProperty("app.firebase.replica-startup-timeout-seconds", 30));
+        firebase.setDuplicatePolicy(getProperty("app.firebase.duplicate-policy", "return-existing"));
         config.setFirebase(firebase);
+
+        // ID generation configuration
+        ApplicationConfig.Ids ids = new ApplicationConfig.Ids();
+        ids.setNodeId(getIntProperty("app.ids.node-id", 0));
+        config.setIds(ids);
+
+        // gRPC execution configuration
+        ApplicationConfig.Grpc grpc = new ApplicationConfig.Grpc();
+        grpc.setExecutionMode(getProperty("app.grpc.execution-mode", "virtual"));
+        grpc.setBlockingThreads(getIntProperty("app.grpc.blocking-threads", 32));
+        grpc.setVirtualThreads(getIntProperty("app.grpc.virtual-threads", 1024));
+        grpc.setMaxQueuedTasks(getIntProperty("app.grpc.max-queued-tasks", 1000));
+        config.setGrpc(grpc);
+
+        // Search configuration
+        ApplicationConfig.Search search = new ApplicationConfig.Search();
+        search.setMaxEditDistance(getIntProperty("app.search.max-edit-distance", 2));
+        config.setSearch(search);
         
         // Logging configuration
         ApplicationConfig.Logging logging = new ApplicationConfig.Logging();
@@ -39,6 +39,9 @@ public class JerseyGuiceModule extends AbstractModule {
         // Register controller instances created by Guice (with proper dependency injection)
         config.register(injector.getInstance(com.worldmap.controller.ChineseFlashCardController.class));
         config.register(injector.getInstance(com.worldmap.controller.ApiController.class));
+
+        // Serialize protobuf responses with the generated code (JSON or binary by Accept)
+        config.register(com.worldmap.web.ProtobufMessageBodyWriter.class);
         
         // Register Swagger OpenAPI resources to auto-generate openapi.json
         config.packages("io.swagger.v3.jaxrs2.integration.resources");
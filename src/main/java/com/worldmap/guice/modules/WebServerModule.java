@@ -4,16 +4,34 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.worldmap.config.ApplicationConfig;
+import com.worldmap.web.ImmutableCacheFilter;
 import com.worldmap.web.WebServer;
+import jakarta.servlet.DispatcherType;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.servlet.ServletContainer;
 
+import java.util.EnumSet;
+
 /**
  * Guice module for web server configuration using Jetty
+ *
+ * Controllers block on Firestore futures, so with app.server.virtual-threads each request
+ * runs on its own virtual thread and a slow Firestore call parks a cheap virtual thread
+ * instead of holding one of the pool's platform threads.
+ *
+ * With app.server.compression-enabled, API responses and static files are gzipped on the fly
+ * once they reach app.server.compression-min-bytes. The React bundle's hashed files under
+ * /static are served from their build-time .br/.gz variants when the browser accepts them
+ * and are cached as immutable for app.server.static-max-age-seconds.
  */
 public class WebServerModule extends AbstractModule {
 
@@ -25,8 +43,13 @@ public class WebServerModule extends AbstractModule {
     @Provides
     @Singleton
     public Server provideJettyServer(ApplicationConfig config, ResourceConfig resourceConfig) {
-        int port = config.getServer().getPort();
-        Server server = new Server(port);
+        ApplicationConfig.Server serverConfig = config.getServer();
+        Server server = new Server(createThreadPool(serverConfig));
+
+        ServerConnector connector = new ServerConnector(server);
+        connector.setPort(serverConfig.getPort());
+        connector.setAcceptQueueSize(serverConfig.getAcceptQueueSize());
+        server.addConnector(connector);
         
         // Create servlet context handler for API endpoints
         ServletContextHandler apiHandler = new ServletContextHandler(ServletContextHandler.SESSIONS);
@@ -39,6 +62,9 @@ public class WebServerModule extends AbstractModule {
         
         // Add the Jersey servlet to handle all API requests
         apiHandler.addServlet(jerseyServlet, "/*");
+        if (serverConfig.isCompressionEnabled()) {
+            apiHandler.insertHandler(createGzipHandler(serverConfig));
+        }
         
         // Bridge initialization is now handled by ContainerLifecycleListener in JerseyGuiceModule
         System.out.println("🌉 Jersey configured with Guice ResourceConfig integration");
@@ -48,6 +74,7 @@ public class WebServerModule extends AbstractModule {
         staticHandler.setContextPath("/");
         staticHandler.setResourceBase("src/main/resources/webapp");
         staticHandler.setParentLoaderPriority(true);
+        configureStaticAssets(staticHandler, serverConfig);
         
         // Use handler collection to handle both API and static resources
         org.eclipse.jetty.server.handler.HandlerCollection handlers = new org.eclipse.jetty.server.handler.HandlerCollection();
@@ -58,6 +85,57 @@ public class WebServerModule extends AbstractModule {
         return server;
     }
 
+    /**
+     * Creates Jetty's thread pool. Acceptors and selectors always run on the pool's platform
+     * threads; with virtual threads enabled and supported, request handling is handed to a
+     * new virtual thread per task.
+     */
+    static QueuedThreadPool createThreadPool(ApplicationConfig.Server serverConfig) {
+        QueuedThreadPool threadPool = new QueuedThreadPool(serverConfig.getMaxThreads(), serverConfig.getMinThreads());
+        threadPool.setName("jetty");
+
+        if (serverConfig.isVirtualThreads()) {
+            if (VirtualThreads.areSupported()) {
+                threadPool.setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+                System.out.println("🧵 Jetty requests run on virtual threads");
+            } else {
+                System.err.println("Virtual threads are not supported by this JVM; using the platform thread pool");
+            }
+        }
+
+        return threadPool;
+    }
+
+    /**
+     * Creates a gzip handler for JSON, text and script responses of at least the configured
+     * size. Responses that already carry a Content-Encoding (precompressed files) pass through.
+     */
+    static GzipHandler createGzipHandler(ApplicationConfig.Server serverConfig) {
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setMinGzipSize(serverConfig.getCompressionMinBytes());
+        gzipHandler.setIncludedMethods("GET", "POST", "PUT", "DELETE");
+        gzipHandler.setIncludedMimeTypes(
+            "application/json", "text/html", "text/plain", "text/css",
+            "application/javascript", "text/javascript", "image/svg+xml");
+        return gzipHandler;
+    }
+
+    /**
+     * Serves build-time precompressed variants (file.js.br, file.js.gz) of static files when
+     * the client accepts them, and marks the content-hashed bundle under /static immutable.
+     * index.html and the manifests keep default caching so a new deploy is picked up.
+     */
+    static void configureStaticAssets(WebAppContext staticHandler, ApplicationConfig.Server serverConfig) {
+        if (serverConfig.getStaticMaxAgeSeconds() > 0) {
+            staticHandler.addFilter(new FilterHolder(new ImmutableCacheFilter(serverConfig.getStaticMaxAgeSeconds())),
+                "/static/*", EnumSet.of(DispatcherType.REQUEST));
+        }
+        if (serverConfig.isCompressionEnabled()) {
+            staticHandler.setInitParameter("org.eclipse.jetty.servlet.Default.precompressed", "br=.br,gzip=.gz");
+            staticHandler.insertHandler(createGzipHandler(serverConfig));
+        }
+    }
+
     @Provides
     @Singleton
     public WebServer provideWebServer(Server jettyServer, ApplicationConfig config) {
@@ -0,0 +1,77 @@
+package com.worldmap.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a multi-document write (createAll, updateAll, deleteAll).
+ *
+ * Multi-document writes are not atomic as a whole: each WriteBatch chunk or BulkWriter
+ * operation succeeds or fails on its own, so the result lists which documents were written
+ * and why the others were not.
+ */
+public class BulkWriteResult {
+
+    private final List<String> written;
+    private final Map<String, String> failures;
+
+    public BulkWriteResult(List<String> written, Map<String, String> failures) {
+        this.written = written;
+        this.failures = failures;
+    }
+
+    /**
+     * @return Result in which every document was written
+     */
+    public static BulkWriteResult succeeded(List<String> docIds) {
+        return new BulkWriteResult(new ArrayList<>(docIds), Collections.emptyMap());
+    }
+
+    /**
+     * @return Result in which every document failed with the same error
+     */
+    public static BulkWriteResult failed(List<String> docIds, String error) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (String docId : docIds) {
+            failures.put(docId, error);
+        }
+        return new BulkWriteResult(Collections.emptyList(), failures);
+    }
+
+    /**
+     * Combines partial results, keeping the order in which they are given.
+     */
+    public static BulkWriteResult merge(List<BulkWriteResult> results) {
+        List<String> written = new ArrayList<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (BulkWriteResult result : results) {
+            written.addAll(result.getWritten());
+            failures.putAll(result.getFailures());
+        }
+        return new BulkWriteResult(written, failures);
+    }
+
+    /**
+     * @return IDs of the documents that were written
+     */
+    public List<String> getWritten() {
+        return written;
+    }
+
+    /**
+     * @return Error message per document ID that was not written
+     */
+    public Map<String, String> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return true if at least one document was not written
+     */
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -0,0 +1,209 @@
+package com.worldmap.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.inject.Singleton;
+import com.worldmap.flashcard.ChineseFlashCard;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts ChineseFlashCard protobufs to and from Firestore documents.
+ *
+ * Decoding reads each field straight from the DocumentSnapshot into the builder, using
+ * pre-parsed FieldPaths, instead of materializing getData() and looking every field up with
+ * containsKey/get/cast. Encoding fills a shared FieldLayout instead of building a HashMap.
+ *
+ * pinyinToneless and pinyinNumbered are stored next to pinyin (see PinyinNormalizer) so pinyin
+ * lookups can match them exactly. Documents written before they existed get them computed on
+ * decode; the next update stores them.
+ *
+ * duplicateKey is stored too: ChineseFlashCardDuplicateIndex.key() of the card, the value the
+ * duplicate check queries Firestore for when the replica cannot answer. It is write-only (not
+ * part of the proto) and, like the pinyin forms, missing from documents written before it
+ * existed or by the web frontend until their next update through this service.
+ *
+ * createdAt and updatedAt are stored as epoch milliseconds. Cards written by the web frontend
+ * store Firestore Timestamps (serverTimestamp()) instead; they decode to the same milliseconds.
+ */
+@Singleton
+public class ChineseFlashCardCodec implements DocumentCodec<ChineseFlashCard> {
+
+    static final String ID = "id";
+    static final String CHINESE_WORD = "chineseWord";
+    static final String ENGLISH_WORD = "englishWord";
+    static final String PINYIN = "pinyin";
+    static final String IMG = "img";
+    static final String CREATED_AT = "createdAt";
+    static final String UPDATED_AT = "updatedAt";
+    static final String EXAMPLE_USAGE = "exampleUsage";
+    static final String FAVORITE = "favorite";
+    static final String PINYIN_TONELESS = "pinyinToneless";
+    static final String PINYIN_NUMBERED = "pinyinNumbered";
+    static final String DUPLICATE_KEY = "duplicateKey";
+    static final String LAST_GRADE = "lastGrade";
+    static final String LAST_LATENCY_MS = "lastLatencyMs";
+    static final String LAST_REVIEWED_AT = "lastReviewedAt";
+    static final String REVIEW_COUNT = "reviewCount";
+
+    private static final FieldPath ID_PATH = FieldPath.of(ID);
+    private static final FieldPath CHINESE_WORD_PATH = FieldPath.of(CHINESE_WORD);
+    private static final FieldPath ENGLISH_WORD_PATH = FieldPath.of(ENGLISH_WORD);
+    private static final FieldPath PINYIN_PATH = FieldPath.of(PINYIN);
+    private static final FieldPath IMG_PATH = FieldPath.of(IMG);
+    private static final FieldPath CREATED_AT_PATH = FieldPath.of(CREATED_AT);
+    private static final FieldPath UPDATED_AT_PATH = FieldPath.of(UPDATED_AT);
+    private static final FieldPath EXAMPLE_USAGE_PATH = FieldPath.of(EXAMPLE_USAGE);
+    private static final FieldPath FAVORITE_PATH = FieldPath.of(FAVORITE);
+    private static final FieldPath PINYIN_TONELESS_PATH = FieldPath.of(PINYIN_TONELESS);
+    private static final FieldPath PINYIN_NUMBERED_PATH = FieldPath.of(PINYIN_NUMBERED);
+
+    /** Every stored field; used for creates. */
+    private static final FieldLayout DOCUMENT = new FieldLayout(
+        ID, CHINESE_WORD, ENGLISH_WORD, PINYIN, IMG, CREATED_AT, UPDATED_AT, EXAMPLE_USAGE, FAVORITE,
+        PINYIN_TONELESS, PINYIN_NUMBERED, DUPLICATE_KEY);
+
+    /** Fields an update rewrites; createdAt, exampleUsage and favorite keep their stored values. */
+    private static final FieldLayout UPDATE = new FieldLayout(
+        ID, CHINESE_WORD, ENGLISH_WORD, PINYIN, IMG, UPDATED_AT, PINYIN_TONELESS, PINYIN_NUMBERED, DUPLICATE_KEY);
+
+    /** Study progress fields, written by study sessions and not part of the card proto. */
+    private static final FieldLayout PROGRESS = new FieldLayout(
+        LAST_GRADE, LAST_LATENCY_MS, LAST_REVIEWED_AT, REVIEW_COUNT);
+
+    @Override
+    public ChineseFlashCard decode(DocumentSnapshot document) {
+        ChineseFlashCard.Builder builder = ChineseFlashCard.newBuilder();
+
+        Object value = document.get(ID_PATH);
+        if (value instanceof Number) {
+            builder.setId(((Number) value).longValue());
+        }
+        value = document.get(CHINESE_WORD_PATH);
+        if (value instanceof String) {
+            builder.setChineseWord((String) value);
+        }
+        value = document.get(ENGLISH_WORD_PATH);
+        if (value instanceof String) {
+            builder.setEnglishWord((String) value);
+        }
+        value = document.get(PINYIN_PATH);
+        if (value instanceof String) {
+            builder.setPinyin((String) value);
+        }
+        value = document.get(IMG_PATH);
+        if (value instanceof String) {
+            builder.setImg((String) value);
+        }
+        value = document.get(CREATED_AT_PATH);
+        if (value instanceof Number || value instanceof Timestamp) {
+            builder.setCreatedAt(toMillis(value));
+        }
+        value = document.get(UPDATED_AT_PATH);
+        if (value instanceof Number || value instanceof Timestamp) {
+            builder.setUpdatedAt(toMillis(value));
+        }
+        value = document.get(EXAMPLE_USAGE_PATH);
+        if (value instanceof String) {
+            builder.setExampleUsage((String) value);
+        }
+        value = document.get(FAVORITE_PATH);
+        if (value instanceof Boolean) {
+            builder.setFavorite((Boolean) value);
+        }
+        value = document.get(PINYIN_TONELESS_PATH);
+        Object numbered = document.get(PINYIN_NUMBERED_PATH);
+        if (value instanceof String && numbered instanceof String) {
+            builder.setPinyinToneless((String) value).setPinyinNumbered((String) numbered);
+        } else {
+            // Written before the normalized forms were stored
+            PinyinNormalizer.fill(builder);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @param value Epoch milliseconds as a Number, or a Firestore Timestamp
+     * @return The value in epoch milliseconds
+     */
+    private static long toMillis(Object value) {
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return timestamp.getSeconds() * 1000 + timestamp.getNanos() / 1_000_000;
+        }
+        return ((Number) value).longValue();
+    }
+
+    @Override
+    public Map<String, Object> encode(ChineseFlashCard flashcard) {
+        return DOCUMENT.wrap(
+            flashcard.getId(),
+            flashcard.getChineseWord(),
+            flashcard.getEnglishWord(),
+            flashcard.getPinyin(),
+            flashcard.getImg(),
+            flashcard.getCreatedAt(),
+            flashcard.getUpdatedAt(),
+            flashcard.getExampleUsage(),
+            flashcard.getFavorite(),
+            flashcard.getPinyinToneless(),
+            flashcard.getPinyinNumbered(),
+            ChineseFlashCardDuplicateIndex.key(flashcard));
+    }
+
+    /**
+     * Encodes only the fields an update request carries, so a single update() call leaves
+     * createdAt, exampleUsage and favorite untouched in storage.
+     */
+    public Map<String, Object> encodeUpdate(ChineseFlashCard flashcard) {
+        return UPDATE.wrap(
+            flashcard.getId(),
+            flashcard.getChineseWord(),
+            flashcard.getEnglishWord(),
+            flashcard.getPinyin(),
+            flashcard.getImg(),
+            flashcard.getUpdatedAt(),
+            flashcard.getPinyinToneless(),
+            flashcard.getPinyinNumbered(),
+            ChineseFlashCardDuplicateIndex.key(flashcard));
+    }
+
+    /**
+     * Encodes the fields an update request carries, including exampleUsage and favorite when
+     * the request sets them.
+     *
+     * @param includeExampleUsage Whether to write exampleUsage
+     * @param includeFavorite Whether to write favorite
+     */
+    public Map<String, Object> encodeUpdate(ChineseFlashCard flashcard, boolean includeExampleUsage,
+                                            boolean includeFavorite) {
+        if (!includeExampleUsage && !includeFavorite) {
+            return encodeUpdate(flashcard);
+        }
+        Map<String, Object> document = new HashMap<>(encodeUpdate(flashcard));
+        if (includeExampleUsage) {
+            document.put(EXAMPLE_USAGE, flashcard.getExampleUsage());
+        }
+        if (includeFavorite) {
+            document.put(FAVORITE, flashcard.getFavorite());
+        }
+        return document;
+    }
+
+    /**
+     * Encodes study progress for one card. The review count is a server-side increment, so
+     * concurrent sessions reviewing the same card do not lose reviews.
+     *
+     * @param grade Latest recall grade
+     * @param latencyMs Latest answer latency
+     * @param reviews Number of reviews to add
+     * @param reviewedAt Time of the latest review, in milliseconds
+     */
+    public Map<String, Object> encodeProgress(int grade, long latencyMs, int reviews, long reviewedAt) {
+        return PROGRESS.wrap(grade, latencyMs, reviewedAt, FieldValue.increment(reviews));
+    }
+}
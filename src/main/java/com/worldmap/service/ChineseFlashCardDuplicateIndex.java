@@ -0,0 +1,136 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hash index from a card's duplicate key to the IDs of the cards sharing it, so create can
+ * detect a duplicate with a map lookup instead of a Firestore query per insert.
+ *
+ * The key is the Chinese word (NFKC-normalized, whitespace removed) and the toneless pinyin:
+ * 你好 / nǐ hǎo, 你好 / ni3 hao3 and 你 好 / Nihao are the same card, while 好 / hǎo and
+ * 好 / hào are not distinguished (a card per reading is rarely intended; merge or allow if
+ * it is). When several cards share a key, the one with the lowest ID, created first, is
+ * reported.
+ *
+ * The index is maintained by ChineseFlashCardReplica alongside its card map. Reads and writes
+ * may come from any thread.
+ */
+public class ChineseFlashCardDuplicateIndex {
+
+    /** Separates the two parts of a key; neither part contains it. */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final Map<String, NavigableSet<Long>> ids = new HashMap<>();
+    // Document ID -> what was indexed for it, so replacing or removing never re-derives the ID
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a card, replacing any previously added version with the same document ID.
+     */
+    public void put(String docId, ChineseFlashCard card) {
+        String key = key(card);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(docId, new Entry(key, card.getId()));
+            if (previous != null) {
+                unindex(previous);
+            }
+            ids.computeIfAbsent(key, k -> new TreeSet<>()).add(card.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a card; does nothing if it is not indexed.
+     */
+    public void remove(String docId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(docId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed cards
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds an existing card with the same Chinese word and pinyin.
+     *
+     * @param chineseWord Chinese word as written
+     * @param pinyin Pinyin in any form (tone marks, tone numbers or none)
+     * @return ID of the earliest matching card, or null if there is none
+     */
+    public Long find(String chineseWord, String pinyin) {
+        String key = key(chineseWord, PinyinNormalizer.toToneless(pinyin));
+        lock.readLock().lock();
+        try {
+            NavigableSet<Long> matches = ids.get(key);
+            return matches == null ? null : matches.first();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Duplicate key of a card, from its stored toneless pinyin when it has one
+     */
+    public static String key(ChineseFlashCard card) {
+        String pinyinToneless = card.getPinyinToneless().isEmpty()
+            ? PinyinNormalizer.toToneless(card.getPinyin())
+            : card.getPinyinToneless();
+        return key(card.getChineseWord(), pinyinToneless);
+    }
+
+    /**
+     * @return Duplicate key of a Chinese word and its toneless pinyin; cards with equal keys
+     *         are duplicates
+     */
+    public static String key(String chineseWord, String pinyinToneless) {
+        String chinese = Normalizer.normalize(chineseWord, Normalizer.Form.NFKC).replaceAll("\\s+", "");
+        return chinese + KEY_SEPARATOR + pinyinToneless.replace(" ", "");
+    }
+
+    private void unindex(Entry entry) {
+        NavigableSet<Long> matches = ids.get(entry.key);
+        if (matches != null && matches.remove(entry.id) && matches.isEmpty()) {
+            ids.remove(entry.key);
+        }
+    }
+
+    /**
+     * Key and card ID indexed for one document.
+     */
+    private static final class Entry {
+        final String key;
+        final long id;
+
+        Entry(String key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+}
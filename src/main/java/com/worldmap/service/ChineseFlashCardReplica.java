@@ -0,0 +1,412 @@
+package com.worldmap.service;
+
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.worldmap.config.ApplicationConfig;
+import com.worldmap.flashcard.ChineseFlashCard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory replica of the Chinese flashcard collection, kept current by a Firestore
+ * snapshot listener.
+ *
+ * When app.firebase.replica-enabled is set, the replica registers a listener on
+ * app.firebase.collection at startup. The first snapshot loads every card; later snapshots
+ * apply only the changed documents. Once the initial snapshot is loaded, isReady() turns
+ * true and ChineseFlashCardService serves getAll, getById and counts from memory.
+ *
+ * Cards are ordered by document ID, the same order Firestore pages in, so page tokens are
+ * interchangeable between replica and Firestore reads.
+ *
+ * Every applied change advances version(), which identifies the replica's contents for
+ * conditional requests: an unchanged version means every page reads the same.
+ *
+ * Firestore terminates a listener after an error (deadline, network, token refresh). The
+ * replica then stops serving reads and registers a new listener after a backoff of 1s,
+ * doubling up to 60s. The new listener's first snapshot carries every card again; cards it no
+ * longer contains were deleted in the meantime and are dropped before the replica turns
+ * ready again.
+ *
+ * Every change is also applied to a ChineseFlashCardSearchIndex, a
+ * ChineseFlashCardSuggestIndex and a ChineseFlashCardDuplicateIndex, so searches, suggestions
+ * and duplicate checks see the same cards as page reads, including writes made by other
+ * instances.
+ */
+@Singleton
+public class ChineseFlashCardReplica {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChineseFlashCardReplica.class);
+    private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(60);
+
+    private final ConcurrentSkipListMap<String, ChineseFlashCard> cards = new ConcurrentSkipListMap<>();
+    private final CountDownLatch initialLoad = new CountDownLatch(1);
+    // Distinguishes this process's versions from another instance's or a previous run's
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+    private final ChineseFlashCardSearchIndex searchIndex;
+    private final ChineseFlashCardSuggestIndex suggestIndex = new ChineseFlashCardSuggestIndex();
+    private final ChineseFlashCardDuplicateIndex duplicateIndex = new ChineseFlashCardDuplicateIndex();
+    private final boolean enabled;
+    private final ChineseFlashCardCodec codec;
+    private final FirestoreService firestoreService;
+    private final String collection;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean ready;
+    private ListenerRegistration registration;
+    // Identifies the current listener; events from an abandoned listener are ignored. Written
+    // under the lock, read without it on Firestore's listener thread, hence volatile.
+    private volatile long listenerGeneration;
+    private Duration retryDelay = INITIAL_RETRY_DELAY;
+    private boolean closed;
+
+    /**
+     * Constructor with dependency injection. Starts listening immediately when enabled.
+     *
+     * @param firestoreService Firestore service used to register the listener (can be null)
+     * @param config Application configuration
+     * @param codec Decodes listener snapshots into cards
+     */
+    @Inject
+    public ChineseFlashCardReplica(@Nullable FirestoreService firestoreService, ApplicationConfig config,
+                                   ChineseFlashCardCodec codec) {
+        this(firestoreService, config, codec, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-listener-retry");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * @param scheduler Runs listener re-registrations after errors
+     */
+    ChineseFlashCardReplica(@Nullable FirestoreService firestoreService, ApplicationConfig config,
+                            ChineseFlashCardCodec codec, ScheduledExecutorService scheduler) {
+        this.enabled = config.getFirebase().isReplicaEnabled();
+        this.codec = codec;
+        this.firestoreService = firestoreService;
+        this.collection = config.getFirebase().getCollection();
+        this.scheduler = scheduler;
+        this.searchIndex = new ChineseFlashCardSearchIndex(config.getSearch().getMaxEditDistance());
+
+        if (!enabled) {
+            logger.info("ChineseFlashCardReplica disabled; reads go to Firestore.");
+            return;
+        }
+
+        if (firestoreService == null || !firestoreService.isConnected()) {
+            logger.warn("⚠️  ChineseFlashCardReplica enabled but Firestore is not configured; replica stays empty.");
+            return;
+        }
+
+        listen();
+        logger.info("✅ ChineseFlashCardReplica listening on collection '{}'", collection);
+    }
+
+    /**
+     * @return true once the initial snapshot has been loaded and the listener is healthy
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return true if the replica was enabled in configuration
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Blocks until the initial snapshot is loaded or the timeout elapses.
+     *
+     * @param timeout Maximum time to wait
+     * @return true if the replica is ready
+     */
+    public boolean awaitReady(Duration timeout) {
+        synchronized (this) {
+            if (!enabled || listenerGeneration == 0) {
+                return false;
+            }
+        }
+        try {
+            return initialLoad.await(timeout.toMillis(), TimeUnit.MILLISECONDS) && ready;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * @return The card with the given ID, or null if absent
+     */
+    public ChineseFlashCard get(long id) {
+        return cards.get(String.valueOf(id));
+    }
+
+    /**
+     * @return Number of cards in the replica
+     */
+    public int size() {
+        return cards.size();
+    }
+
+    /**
+     * @return Opaque version of the replica's contents; changes whenever a card is added,
+     *         modified or removed
+     */
+    public String version() {
+        return epoch + "." + changes.get();
+    }
+
+    /**
+     * @return Search index over the replica's cards; complete once isReady() is true
+     */
+    public ChineseFlashCardSearchIndex searchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * @return Autocomplete index over the replica's cards; complete once isReady() is true
+     */
+    public ChineseFlashCardSuggestIndex suggestIndex() {
+        return suggestIndex;
+    }
+
+    /**
+     * @return Duplicate key index over the replica's cards; complete once isReady() is true
+     */
+    public ChineseFlashCardDuplicateIndex duplicateIndex() {
+        return duplicateIndex;
+    }
+
+    /**
+     * Returns one page in document ID order, using the same token format as FirestoreService.
+     *
+     * @param pageToken Token from a previous page, or null/empty for the first page
+     * @param pageSize Number of cards per page
+     */
+    public Page<ChineseFlashCard> page(@Nullable String pageToken, int pageSize) {
+        NavigableMap<String, ChineseFlashCard> tail = pageToken == null || pageToken.isEmpty()
+            ? cards
+            : cards.tailMap(Page.decodeToken(pageToken), false);
+
+        List<ChineseFlashCard> items = new ArrayList<>(Math.min(pageSize, tail.size()));
+        String lastKey = null;
+        Iterator<Map.Entry<String, ChineseFlashCard>> iterator = tail.entrySet().iterator();
+        while (iterator.hasNext() && items.size() < pageSize) {
+            Map.Entry<String, ChineseFlashCard> entry = iterator.next();
+            items.add(entry.getValue());
+            lastKey = entry.getKey();
+        }
+
+        String nextPageToken = iterator.hasNext() && lastKey != null ? Page.encodeToken(lastKey) : "";
+        return new Page<>(items, nextPageToken);
+    }
+
+    /**
+     * Delivers up to limit cards after the given document ID, in document ID order, each with
+     * its document ID, then completes the observer. Runs on the calling thread.
+     *
+     * @param startAfterDocId Document ID to start after, or null/empty to start at the beginning
+     * @param limit Maximum number of cards to deliver
+     */
+    public void stream(@Nullable String startAfterDocId, int limit, DocumentStreamObserver<ChineseFlashCard> observer) {
+        NavigableMap<String, ChineseFlashCard> tail = startAfterDocId == null || startAfterDocId.isEmpty()
+            ? cards
+            : cards.tailMap(startAfterDocId, false);
+
+        int delivered = 0;
+        for (Map.Entry<String, ChineseFlashCard> entry : tail.entrySet()) {
+            if (delivered == limit) {
+                break;
+            }
+            observer.onNext(entry.getKey(), entry.getValue());
+            delivered++;
+        }
+        observer.onCompleted();
+    }
+
+    /**
+     * Returns one page by page number (0-based), for clients that do not send page tokens.
+     */
+    public List<ChineseFlashCard> pageAt(int page, int pageSize) {
+        List<ChineseFlashCard> items = new ArrayList<>(pageSize);
+        long skip = (long) page * pageSize;
+        for (ChineseFlashCard card : cards.values()) {
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            if (items.size() == pageSize) {
+                break;
+            }
+            items.add(card);
+        }
+        return items;
+    }
+
+    /**
+     * Applies a successful local write right away so the writer reads its own change
+     * before the listener event arrives.
+     */
+    public void put(ChineseFlashCard card) {
+        if (enabled) {
+            String docId = String.valueOf(card.getId());
+            cards.put(docId, card);
+            searchIndex.put(docId, card);
+            suggestIndex.put(docId, card);
+            duplicateIndex.put(docId, card);
+            changes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Applies a successful local delete right away.
+     */
+    public void remove(long id) {
+        if (enabled) {
+            removeCard(String.valueOf(id));
+            changes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stops listening for changes.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        ready = false;
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Registers a new snapshot listener, abandoning any previous one.
+     */
+    private synchronized void listen() {
+        if (closed) {
+            return;
+        }
+        long generation = ++listenerGeneration;
+        registration = firestoreService.addSnapshotListener(collection,
+            (snapshot, error) -> onSnapshot(generation, snapshot, error));
+    }
+
+    /**
+     * Handles a listener error: reads fall back to Firestore until a new listener, registered
+     * after the current backoff, has loaded again.
+     */
+    private synchronized void onListenerError(long generation, Exception error) {
+        if (generation != listenerGeneration || closed) {
+            return;
+        }
+        ready = false;
+        initialLoad.countDown();
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+
+        Duration delay = retryDelay;
+        retryDelay = delay.multipliedBy(2).compareTo(MAX_RETRY_DELAY) < 0 ? delay.multipliedBy(2) : MAX_RETRY_DELAY;
+        logger.error("Snapshot listener failed; replica not serving reads, re-listening in {}s", delay.toSeconds(), error);
+        scheduler.schedule(this::listen, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies a snapshot event. Runs on Firestore's listener thread.
+     */
+    private void onSnapshot(long generation, @Nullable QuerySnapshot snapshot,
+                            @Nullable com.google.cloud.firestore.FirestoreException error) {
+        if (error != null) {
+            onListenerError(generation, error);
+            return;
+        }
+        if (snapshot == null || generation != listenerGeneration) {
+            return;
+        }
+
+        if (!ready && !cards.isEmpty()) {
+            // First snapshot of a new listener: it lists every card, so any other card was
+            // deleted while no listener was running
+            Set<String> current = new HashSet<>();
+            for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                current.add(document.getId());
+            }
+            for (String docId : new ArrayList<>(cards.keySet())) {
+                if (!current.contains(docId)) {
+                    removeCard(docId);
+                }
+            }
+            changes.incrementAndGet();
+        }
+
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            String docId = change.getDocument().getId();
+            switch (change.getType()) {
+                case ADDED:
+                case MODIFIED:
+                    ChineseFlashCard card = codec.decode(change.getDocument());
+                    cards.put(docId, card);
+                    searchIndex.put(docId, card);
+                    suggestIndex.put(docId, card);
+                    duplicateIndex.put(docId, card);
+                    break;
+                case REMOVED:
+                    removeCard(docId);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!snapshot.getDocumentChanges().isEmpty()) {
+            changes.incrementAndGet();
+        }
+
+        if (!ready) {
+            synchronized (this) {
+                retryDelay = INITIAL_RETRY_DELAY;
+            }
+            ready = true;
+            initialLoad.countDown();
+            logger.info("ChineseFlashCardReplica loaded {} cards; serving reads from memory", cards.size());
+        } else {
+            logger.debug("ChineseFlashCardReplica applied {} changes", snapshot.getDocumentChanges().size());
+        }
+    }
+
+    /**
+     * Drops a card from the card map and every index.
+     */
+    private void removeCard(String docId) {
+        cards.remove(docId);
+        searchIndex.remove(docId);
+        suggestIndex.remove(docId);
+        duplicateIndex.remove(docId);
+    }
+}
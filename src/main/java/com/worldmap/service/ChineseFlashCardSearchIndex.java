@@ -0,0 +1,299 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over chinese_word, pinyin and english_word.
+ *
+ * Each field has its own postings map from term (see SearchTokenizer) to the IDs of the
+ * cards containing it. A query is tokenized for every field and scored as the sum, over the
+ * matching terms, of the field weight times the term's inverse document frequency, so rare
+ * terms and Chinese matches count most; a field equal to the whole query adds a bonus.
+ * Ties are broken by document ID so pages are stable.
+ *
+ * Queries only touch the postings of their own terms and keep the best offset + limit hits
+ * in a bounded heap, so a search costs in proportion to the matching cards rather than the
+ * collection size.
+ *
+ * When no term of a query matches exactly, its pinyin and English terms fall back to the
+ * indexed terms within a small edit distance (see FuzzyTermIndex), so misspellings such as
+ * "helo" or "xeixie" still find cards. A fuzzy match scores less the more edits it needs.
+ * Fuzzy matching is not tried alongside exact hits, where it would mostly add noise: an
+ * English word is often one edit away from some pinyin syllable.
+ *
+ * The index is maintained by ChineseFlashCardReplica alongside its card map. Reads and writes
+ * may come from any thread.
+ */
+public class ChineseFlashCardSearchIndex {
+
+    private static final double CHINESE_WEIGHT = 3.0;
+    private static final double PINYIN_WEIGHT = 2.0;
+    private static final double ENGLISH_WEIGHT = 1.0;
+    private static final double EXACT_MATCH_BONUS = 10.0;
+    private static final int DEFAULT_MAX_EDIT_DISTANCE = 2;
+
+    private final Map<String, Set<String>> chinesePostings = new HashMap<>();
+    private final Map<String, Set<String>> pinyinPostings = new HashMap<>();
+    private final Map<String, Set<String>> englishPostings = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final FuzzyTermIndex pinyinFuzzy;
+    private final FuzzyTermIndex englishFuzzy;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates an index tolerating up to two edits per misspelled term.
+     */
+    public ChineseFlashCardSearchIndex() {
+        this(DEFAULT_MAX_EDIT_DISTANCE);
+    }
+
+    /**
+     * @param maxEditDistance Most edits tolerated in a misspelled pinyin or English term;
+     *                        0 disables typo tolerance
+     */
+    public ChineseFlashCardSearchIndex(int maxEditDistance) {
+        this.pinyinFuzzy = new FuzzyTermIndex(maxEditDistance);
+        this.englishFuzzy = new FuzzyTermIndex(maxEditDistance);
+    }
+
+    /**
+     * A page of search hits, best first.
+     */
+    public static class Result {
+
+        private final List<ChineseFlashCard> cards;
+        private final int totalHits;
+
+        Result(List<ChineseFlashCard> cards, int totalHits) {
+            this.cards = cards;
+            this.totalHits = totalHits;
+        }
+
+        /**
+         * @return Cards in this page, in rank order
+         */
+        public List<ChineseFlashCard> getCards() {
+            return cards;
+        }
+
+        /**
+         * @return Number of cards matching the query
+         */
+        public int getTotalHits() {
+            return totalHits;
+        }
+    }
+
+    /**
+     * Indexed terms of one card, kept so the card can be unindexed when it changes.
+     */
+    private static final class Entry {
+        final ChineseFlashCard card;
+        final Set<String> chineseTerms;
+        final Set<String> pinyinTerms;
+        final Set<String> englishTerms;
+        // Whole-field forms compared against the whole query
+        final String pinyin;
+        final String english;
+
+        Entry(ChineseFlashCard card) {
+            // Use the stored normalized form; cards built without one are normalized here
+            String toneless = card.getPinyinToneless().isEmpty()
+                ? PinyinNormalizer.toToneless(card.getPinyin())
+                : card.getPinyinToneless();
+            List<String> syllables = toneless.isEmpty() ? List.of() : List.of(toneless.split(" "));
+            this.card = card;
+            this.chineseTerms = new HashSet<>(SearchTokenizer.chineseTerms(card.getChineseWord()));
+            this.pinyinTerms = new HashSet<>(SearchTokenizer.pinyinIndexTerms(syllables));
+            this.englishTerms = new HashSet<>(SearchTokenizer.englishTerms(card.getEnglishWord()));
+            this.pinyin = toneless;
+            this.english = card.getEnglishWord().trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Adds a card, replacing any previously indexed version with the same document ID.
+     */
+    public void put(String docId, ChineseFlashCard card) {
+        Entry entry = new Entry(card);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(docId, entry);
+            if (previous != null) {
+                unindex(docId, previous);
+            }
+            index(chinesePostings, null, entry.chineseTerms, docId);
+            index(pinyinPostings, pinyinFuzzy, entry.pinyinTerms, docId);
+            index(englishPostings, englishFuzzy, entry.englishTerms, docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a card; does nothing if it is not indexed.
+     */
+    public void remove(String docId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(docId);
+            if (previous != null) {
+                unindex(docId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed cards
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the cards matching any term of the query, best first. If nothing matches
+     * exactly, finds the cards with pinyin or English terms close to the query's instead.
+     *
+     * @param query Chinese characters, pinyin (with or without tones) or English words
+     * @param offset Number of hits to skip
+     * @param limit Maximum number of hits to return
+     * @return The requested page of hits and the total number of matching cards
+     */
+    public Result search(String query, int offset, int limit) {
+        List<String> chineseQuery = SearchTokenizer.chineseQueryTerms(query);
+        List<String> pinyinQuery = SearchTokenizer.pinyinQueryTerms(query);
+        List<String> englishQuery = SearchTokenizer.englishTerms(query);
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = new HashMap<>();
+            score(chinesePostings, chineseQuery, CHINESE_WEIGHT, scores);
+            score(pinyinPostings, pinyinQuery, PINYIN_WEIGHT, scores);
+            score(englishPostings, englishQuery, ENGLISH_WEIGHT, scores);
+            if (scores.isEmpty()) {
+                scoreFuzzy(pinyinPostings, pinyinFuzzy, pinyinQuery, PINYIN_WEIGHT, scores);
+                scoreFuzzy(englishPostings, englishFuzzy, englishQuery, ENGLISH_WEIGHT, scores);
+            }
+            if (scores.isEmpty() || offset >= scores.size()) {
+                return new Result(List.of(), scores.size());
+            }
+
+            String chineseExact = query.trim();
+            String pinyinExact = PinyinNormalizer.toToneless(query);
+            String englishExact = query.trim().toLowerCase(Locale.ROOT);
+
+            // Min-heap of the best offset + limit hits; the worst one is evicted first
+            Comparator<Map.Entry<String, Double>> rank = Map.Entry.<String, Double>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.<String, Double>comparingByKey());
+            int wanted = (int) Math.min((long) offset + limit, scores.size());
+            PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(wanted + 1, rank.reversed());
+            for (Map.Entry<String, Double> hit : scores.entrySet()) {
+                Entry entry = entries.get(hit.getKey());
+                if (entry.card.getChineseWord().equals(chineseExact)
+                        || (!pinyinExact.isEmpty() && entry.pinyin.equals(pinyinExact))
+                        || entry.english.equals(englishExact)) {
+                    hit.setValue(hit.getValue() + EXACT_MATCH_BONUS);
+                }
+                best.add(hit);
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            }
+
+            List<Map.Entry<String, Double>> ranked = new ArrayList<>(best);
+            ranked.sort(rank);
+            List<ChineseFlashCard> cards = new ArrayList<>(Math.max(0, ranked.size() - offset));
+            for (int i = offset; i < ranked.size(); i++) {
+                cards.add(entries.get(ranked.get(i).getKey()).card);
+            }
+            return new Result(cards, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void score(Map<String, Set<String>> postings, List<String> queryTerms, double weight,
+                       Map<String, Double> scores) {
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            Set<String> docIds = postings.get(term);
+            if (docIds != null) {
+                score(docIds, weight, scores);
+            }
+        }
+    }
+
+    /**
+     * Scores the indexed terms near each query term, weighted down by their edit distance.
+     */
+    private void scoreFuzzy(Map<String, Set<String>> postings, FuzzyTermIndex fuzzy, List<String> queryTerms,
+                            double weight, Map<String, Double> scores) {
+        for (String term : new LinkedHashSet<>(queryTerms)) {
+            for (Map.Entry<String, Integer> match : fuzzy.lookup(term).entrySet()) {
+                score(postings.get(match.getKey()), weight / (1 + match.getValue()), scores);
+            }
+        }
+    }
+
+    private void score(Set<String> docIds, double weight, Map<String, Double> scores) {
+        double idf = Math.log(1.0 + (double) entries.size() / docIds.size());
+        double contribution = weight * idf;
+        for (String docId : docIds) {
+            scores.merge(docId, contribution, Double::sum);
+        }
+    }
+
+    private void unindex(String docId, Entry entry) {
+        unindex(chinesePostings, null, entry.chineseTerms, docId);
+        unindex(pinyinPostings, pinyinFuzzy, entry.pinyinTerms, docId);
+        unindex(englishPostings, englishFuzzy, entry.englishTerms, docId);
+    }
+
+    private static void index(Map<String, Set<String>> postings, FuzzyTermIndex fuzzy, Set<String> terms,
+                              String docId) {
+        for (String term : terms) {
+            Set<String> docIds = postings.get(term);
+            if (docIds == null) {
+                docIds = new HashSet<>();
+                postings.put(term, docIds);
+                if (fuzzy != null) {
+                    fuzzy.add(term);
+                }
+            }
+            docIds.add(docId);
+        }
+    }
+
+    private static void unindex(Map<String, Set<String>> postings, FuzzyTermIndex fuzzy, Set<String> terms,
+                                String docId) {
+        for (String term : terms) {
+            Set<String> docIds = postings.get(term);
+            if (docIds != null && docIds.remove(docId) && docIds.isEmpty()) {
+                postings.remove(term);
+                if (fuzzy != null) {
+                    fuzzy.remove(term);
+                }
+            }
+        }
+    }
+}
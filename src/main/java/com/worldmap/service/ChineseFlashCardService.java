@@ -9,6 +9,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 /**
  * Business logic service for Chinese Flash Card operations.
@@ -19,26 +22,73 @@ import java.util.*;
  * - Uses FirestoreService for all database operations
  * - Returns protobuf response objects
  * - Throws errors when Firestore is not available
- * - Generates unique IDs and timestamps
+ * - Generates unique IDs (via IdGenerator) and timestamps
+ *
+ * Every operation has a non-blocking *Async variant built on FirestoreService's async API.
+ * The async variants never complete exceptionally: failures are reported through the
+ * response's success/error fields. The blocking methods wait on the async variants.
+ *
+ * When the ChineseFlashCardReplica is enabled and ready, reads are served from memory and
+ * successful writes are applied to the replica immediately. Searches and suggestions are
+ * served from an in-memory ChineseFlashCardSearchIndex and ChineseFlashCardSuggestIndex: the
+ * replica's when it is enabled, otherwise ones owned by this service, loaded from Firestore
+ * on the first search or suggestion and kept current by the writes made through this
+ * service. Without the replica, writes made by other instances are
+ * not seen until a restart, so multi-instance deployments should enable it.
+ *
+ * Creates consult the replica's duplicate index for a card with the same Chinese word and
+ * toneless pinyin, and apply app.firebase.duplicate-policy when one exists (see
+ * DuplicatePolicy). Without a loaded replica they query Firestore instead, matching the stored
+ * chineseWord and pinyinToneless fields exactly; a single create checks and inserts in one
+ * transaction, so concurrent creates of the same card cannot both insert.
  */
 @Singleton
 public class ChineseFlashCardService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChineseFlashCardService.class);
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+    private static final int MAX_SUGGEST_LIMIT = 50;
+    private static final int INDEX_LOAD_PAGE_SIZE = 500;
 
     private final FirestoreService firestoreService;
+    private final ChineseFlashCardReplica replica;
     private final String collectionName;
+    private final IdGenerator idGenerator;
+    private final ChineseFlashCardCodec codec;
+    private final DuplicatePolicy duplicatePolicy;
+    // Serve searches and suggestions while the replica is disabled; see loadIndexes()
+    private final ChineseFlashCardSearchIndex searchIndex;
+    private final ChineseFlashCardSuggestIndex suggestIndex = new ChineseFlashCardSuggestIndex();
+    private CompletableFuture<Void> indexLoad;
 
     /**
      * Constructor with dependency injection.
      *
      * @param firestoreService Firestore service for database operations (can be null)
      * @param config Application configuration
+     * @param replica In-memory replica of the collection (can be null)
+     * @param idGenerator Generator for new card IDs
+     * @param codec Converts cards to and from Firestore documents
      */
     @Inject
-    public ChineseFlashCardService(@Nullable FirestoreService firestoreService, ApplicationConfig config) {
+    public ChineseFlashCardService(@Nullable FirestoreService firestoreService, ApplicationConfig config,
+                                   @Nullable ChineseFlashCardReplica replica, IdGenerator idGenerator,
+                                   ChineseFlashCardCodec codec) {
         this.firestoreService = firestoreService;
+        this.replica = replica;
+        this.idGenerator = idGenerator;
+        this.codec = codec;
         this.collectionName = config.getFirebase().getCollection();
+        this.duplicatePolicy = DuplicatePolicy.parse(config.getFirebase().getDuplicatePolicy());
+        // Same typo tolerance as the replica's index, whichever of the two serves searches
+        this.searchIndex = new ChineseFlashCardSearchIndex(config.getSearch().getMaxEditDistance());
+
+        // Reads requesting ChineseFlashCard are decoded straight from the snapshot
+        if (firestoreService != null) {
+            firestoreService.registerCodec(ChineseFlashCard.class, codec);
+        }
 
         if (firestoreService == null || !firestoreService.isConnected()) {
             logger.warn("⚠️  ChineseFlashCardService initialized without Firestore connection.");
@@ -54,6 +104,16 @@ public class ChineseFlashCardService {
      * @return CreateChineseFlashCardResponse with created flashcard or error
      */
     public CreateChineseFlashCardResponse create(CreateChineseFlashCardRequest request) {
+        return createAsync(request).join();
+    }
+
+    /**
+     * Creates a new Chinese flashcard without blocking the calling thread.
+     *
+     * @param request CreateChineseFlashCardRequest containing flashcard data
+     * @return Future completed with the created flashcard or error response
+     */
+    public CompletableFuture<CreateChineseFlashCardResponse> createAsync(CreateChineseFlashCardRequest request) {
         logger.info("Creating Chinese flashcard: {}", request.getChineseWord());
 
         // Validate required fields
@@ -65,58 +125,342 @@ public class ChineseFlashCardService {
 
         if (!errors.isEmpty()) {
             logger.warn("Validation failed: {}", String.join(", ", errors));
-            return CreateChineseFlashCardResponse.newBuilder()
+            return CompletableFuture.completedFuture(CreateChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
                 .setError("Validation failed: " + String.join(", ", errors))
-                .build();
+                .build());
         }
 
         // Check if Firestore is available
         if (firestoreService == null || !firestoreService.isConnected()) {
             logger.error("Cannot create flashcard: Firestore is not configured");
-            return CreateChineseFlashCardResponse.newBuilder()
+            return CompletableFuture.completedFuture(CreateChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
                 .setError("Firestore is not configured. Please configure Firebase credentials.")
-                .build();
+                .build());
         }
 
-        try {
-            // Generate unique ID and timestamps
-            long id = System.currentTimeMillis();
-            long now = System.currentTimeMillis();
-
-            // Build flashcard object
-            ChineseFlashCard flashcard = ChineseFlashCard.newBuilder()
-                .setId(id)
-                .setChineseWord(request.getChineseWord())
-                .setEnglishWord(request.getEnglishWord())
-                .setPinyin(request.getPinyin())
-                .setImg(request.getImg())
-                .setCreatedAt(now)
-                .setUpdatedAt(now)
-                .build();
-
-            // Convert to Firestore document
-            Map<String, Object> docData = toFirestoreDoc(flashcard);
+        // Answered from the replica's duplicate index when it is loaded, sparing the transaction
+        ChineseFlashCard existing = findDuplicate(request.getChineseWord(), request.getPinyin());
+        if (existing != null) {
+            return onDuplicate(existing, request);
+        }
 
-            // Save to Firestore
-            firestoreService.create(collectionName, String.valueOf(id), docData, Map.class);
+        // Generate unique ID and timestamps
+        long id = idGenerator.nextId();
+        long now = System.currentTimeMillis();
+
+        // Build flashcard object, with the normalized pinyin forms precomputed for lookups
+        ChineseFlashCard.Builder builder = ChineseFlashCard.newBuilder()
+            .setId(id)
+            .setChineseWord(request.getChineseWord())
+            .setEnglishWord(request.getEnglishWord())
+            .setPinyin(request.getPinyin())
+            .setImg(request.getImg())
+            .setExampleUsage(request.getExampleUsage())
+            .setFavorite(request.getFavorite())
+            .setCreatedAt(now)
+            .setUpdatedAt(now);
+        ChineseFlashCard flashcard = PinyinNormalizer.fill(builder).build();
+
+        // Convert to Firestore document
+        Map<String, Object> docData = codec.encode(flashcard);
+
+        // Save to Firestore
+        if (duplicatePolicy == DuplicatePolicy.ALLOW) {
+            return call(() -> firestoreService.createAsync(collectionName, String.valueOf(id), docData, Map.class))
+                .handle((created, error) -> createResponse(flashcard, error));
+        }
 
-            logger.info("Successfully created Chinese flashcard with ID: {}", id);
+        // Check for a stored duplicate and insert in one transaction, so a card created by another
+        // instance (or concurrently) since the replica last saw it is still detected
+        Map<String, Object> duplicateFields = duplicateFields(ChineseFlashCardDuplicateIndex.key(flashcard));
+        return call(() -> firestoreService.createUniqueAsync(collectionName, String.valueOf(id), docData,
+                duplicateFields, ChineseFlashCard.class))
+            .handle((stored, error) -> stored == null || error != null
+                ? CompletableFuture.completedFuture(createResponse(flashcard, error))
+                : onDuplicate(stored, request))
+            .thenCompose(response -> response);
+    }
 
+    /**
+     * Builds the create response once the new card's write has finished.
+     *
+     * @param error Failure of the write, or null if the card was created
+     */
+    private CreateChineseFlashCardResponse createResponse(ChineseFlashCard flashcard, @Nullable Throwable error) {
+        if (error != null) {
+            Throwable cause = unwrap(error);
+            logger.error("Failed to create Chinese flashcard", cause);
             return CreateChineseFlashCardResponse.newBuilder()
-                .setSuccess(true)
-                .setData(flashcard)
-                .setMessage("Chinese flashcard created successfully")
+                .setSuccess(false)
+                .setError("Failed to create flashcard: " + cause.getMessage())
                 .build();
+        }
 
-        } catch (Exception e) {
-            logger.error("Failed to create Chinese flashcard", e);
-            return CreateChineseFlashCardResponse.newBuilder()
+        logger.info("Successfully created Chinese flashcard with ID: {}", flashcard.getId());
+        applyPut(flashcard);
+
+        return CreateChineseFlashCardResponse.newBuilder()
+            .setSuccess(true)
+            .setData(flashcard)
+            .setMessage("Chinese flashcard created successfully")
+            .build();
+    }
+
+    /**
+     * Applies the duplicate policy to a create request duplicating an existing card.
+     */
+    private CompletableFuture<CreateChineseFlashCardResponse> onDuplicate(ChineseFlashCard existing,
+                                                                          CreateChineseFlashCardRequest request) {
+        switch (duplicatePolicy) {
+            case REJECT:
+                logger.warn("Rejected duplicate of Chinese flashcard: {}", existing.getId());
+                return CompletableFuture.completedFuture(CreateChineseFlashCardResponse.newBuilder()
+                    .setSuccess(false)
+                    .setError(duplicateError(request, existing.getId()))
+                    .build());
+            case MERGE:
+                return mergeAsync(existing, request);
+            default:
+                logger.info("Chinese flashcard already exists with ID: {}", existing.getId());
+                return CompletableFuture.completedFuture(existingResponse(existing));
+        }
+    }
+
+    /**
+     * Creates many Chinese flashcards in one call.
+     *
+     * @param request BatchCreateChineseFlashCardsRequest containing the cards to create
+     * @return BatchCreateChineseFlashCardsResponse with the created flashcards and per-card errors
+     */
+    public BatchCreateChineseFlashCardsResponse batchCreate(BatchCreateChineseFlashCardsRequest request) {
+        return batchCreateAsync(request).join();
+    }
+
+    /**
+     * Creates many Chinese flashcards without blocking the calling thread.
+     * Cards failing validation are skipped and reported; the rest are written with
+     * FirestoreService.createAllAsync in batches of up to 500, so an import of thousands of
+     * cards takes a handful of round trips instead of one per card.
+     *
+     * Duplicates of an existing card or of an earlier card in the batch are handled by the
+     * duplicate policy: rejected cards are reported as errors, the others resolve to the card
+     * they duplicate (merges into existing cards are written with updateAllAsync). Without a
+     * loaded replica, existing cards are looked up in Firestore before the batch is written;
+     * unlike single creates, the lookup and the writes are not one transaction.
+     *
+     * @param request BatchCreateChineseFlashCardsRequest containing the cards to create
+     * @return Future completed with the created flashcards and per-card errors
+     */
+    public CompletableFuture<BatchCreateChineseFlashCardsResponse> batchCreateAsync(BatchCreateChineseFlashCardsRequest request) {
+        int total = request.getCardsCount();
+        logger.info("Batch creating {} Chinese flashcards", total);
+
+        if (total == 0) {
+            logger.warn("Validation failed: no cards in batch");
+            return CompletableFuture.completedFuture(BatchCreateChineseFlashCardsResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Failed to create flashcard: " + e.getMessage())
+                .setError("Validation failed: At least one card is required")
+                .build());
+        }
+
+        // Check if Firestore is available
+        if (firestoreService == null || !firestoreService.isConnected()) {
+            logger.error("Cannot create flashcards: Firestore is not configured");
+            return CompletableFuture.completedFuture(BatchCreateChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Firestore is not configured. Please configure Firebase credentials.")
+                .build());
+        }
+
+        if (duplicatePolicy == DuplicatePolicy.ALLOW || isReplicaReady()) {
+            return writeBatchAsync(request, Collections.emptyMap());
+        }
+
+        // Look up each distinct valid card in Firestore, as the replica cannot answer
+        Map<String, CompletableFuture<ChineseFlashCard>> lookups = new LinkedHashMap<>();
+        for (CreateChineseFlashCardRequest card : request.getCardsList()) {
+            if (!validateFlashCardData(card.getChineseWord(), card.getEnglishWord(), card.getPinyin()).isEmpty()) {
+                continue;
+            }
+            String key = ChineseFlashCardDuplicateIndex.key(card.getChineseWord(), PinyinNormalizer.toToneless(card.getPinyin()));
+            lookups.computeIfAbsent(key, ignored -> call(() -> firestoreService.findFirstAsync(collectionName,
+                duplicateFields(key), ChineseFlashCard.class)));
+        }
+
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture<?>[0]))
+            .handle((ignored, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    logger.error("Failed to look up existing Chinese flashcards", cause);
+                    return CompletableFuture.completedFuture(BatchCreateChineseFlashCardsResponse.newBuilder()
+                        .setSuccess(false)
+                        .setFailedCount(total)
+                        .setError("Failed to create flashcards: " + cause.getMessage())
+                        .build());
+                }
+                Map<String, ChineseFlashCard> stored = new HashMap<>();
+                lookups.forEach((key, lookup) -> {
+                    ChineseFlashCard existing = lookup.join();
+                    if (existing != null) {
+                        stored.put(key, existing);
+                    }
+                });
+                return writeBatchAsync(request, stored);
+            })
+            .thenCompose(response -> response);
+    }
+
+    /**
+     * Validates the cards of a batch, resolves duplicates and writes the result.
+     *
+     * @param stored Existing cards by duplicate key, found in Firestore when the replica
+     *               cannot answer; empty otherwise
+     */
+    private CompletableFuture<BatchCreateChineseFlashCardsResponse> writeBatchAsync(BatchCreateChineseFlashCardsRequest request,
+                                                                                    Map<String, ChineseFlashCard> stored) {
+        int total = request.getCardsCount();
+
+        // Validate every card and build the documents of the valid ones, keeping request order
+        long now = System.currentTimeMillis();
+        List<String> errors = new ArrayList<>();
+        Map<String, Integer> positions = new HashMap<>();
+        Map<String, ChineseFlashCard> flashcards = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> documents = new LinkedHashMap<>();
+        // Duplicate key → document ID of the new or existing card it resolves to
+        Map<String, String> keys = new HashMap<>();
+        // Existing cards that duplicates resolved to (merged in MERGE mode) and their merge writes
+        Map<String, ChineseFlashCard> matched = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> merges = new LinkedHashMap<>();
+        // Number of request cards resolved to each card, besides the one creating it
+        Map<String, Integer> duplicates = new HashMap<>();
+
+        for (int i = 0; i < total; i++) {
+            CreateChineseFlashCardRequest card = request.getCards(i);
+            List<String> cardErrors = validateFlashCardData(card.getChineseWord(), card.getEnglishWord(), card.getPinyin());
+            if (!cardErrors.isEmpty()) {
+                errors.add("Card " + (i + 1) + ": Validation failed: " + String.join(", ", cardErrors));
+                continue;
+            }
+
+            String key = ChineseFlashCardDuplicateIndex.key(card.getChineseWord(), PinyinNormalizer.toToneless(card.getPinyin()));
+            String duplicateOf = duplicatePolicy == DuplicatePolicy.ALLOW ? null : keys.get(key);
+            if (duplicateOf == null) {
+                ChineseFlashCard existing = findDuplicate(card.getChineseWord(), card.getPinyin());
+                if (existing == null) {
+                    existing = stored.get(key);
+                }
+                if (existing != null) {
+                    duplicateOf = String.valueOf(existing.getId());
+                    keys.put(key, duplicateOf);
+                    if (duplicatePolicy != DuplicatePolicy.REJECT) {
+                        positions.put(duplicateOf, i);
+                        matched.put(duplicateOf, existing);
+                    }
+                }
+            }
+            if (duplicateOf != null) {
+                if (duplicatePolicy == DuplicatePolicy.REJECT) {
+                    errors.add("Card " + (i + 1) + ": " + duplicateError(card, Long.parseLong(duplicateOf)));
+                    continue;
+                }
+                duplicates.merge(duplicateOf, 1, Integer::sum);
+                if (duplicatePolicy == DuplicatePolicy.MERGE) {
+                    boolean inBatch = flashcards.containsKey(duplicateOf);
+                    ChineseFlashCard target = inBatch ? flashcards.get(duplicateOf) : matched.get(duplicateOf);
+                    ChineseFlashCard merged = merge(target, card, now);
+                    if (merged != target && inBatch) {
+                        flashcards.put(duplicateOf, merged);
+                        documents.put(duplicateOf, codec.encode(merged));
+                    } else if (merged != target) {
+                        matched.put(duplicateOf, merged);
+                        merges.put(duplicateOf, codec.encode(merged));
+                    }
+                }
+                continue;
+            }
+
+            ChineseFlashCard flashcard = PinyinNormalizer.fill(ChineseFlashCard.newBuilder()
+                .setId(idGenerator.nextId())
+                .setChineseWord(card.getChineseWord())
+                .setEnglishWord(card.getEnglishWord())
+                .setPinyin(card.getPinyin())
+                .setImg(card.getImg())
+                .setExampleUsage(card.getExampleUsage())
+                .setFavorite(card.getFavorite())
+                .setCreatedAt(now)
+                .setUpdatedAt(now))
                 .build();
+
+            String docId = String.valueOf(flashcard.getId());
+            keys.put(key, docId);
+            positions.put(docId, i);
+            flashcards.put(docId, flashcard);
+            documents.put(docId, codec.encode(flashcard));
+        }
+
+        if (documents.isEmpty() && merges.isEmpty()) {
+            logger.warn("No cards to write in batch");
+            List<ChineseFlashCard> existing = new ArrayList<>(matched.values());
+            int duplicateCount = duplicates.values().stream().mapToInt(Integer::intValue).sum();
+            return CompletableFuture.completedFuture(
+                batchCreateResponse(total, Collections.emptyList(), existing, duplicateCount, errors));
         }
+
+        // Save to Firestore; a failed merge only fails the cards resolved to that card
+        CompletableFuture<BulkWriteResult> creates = documents.isEmpty()
+            ? CompletableFuture.completedFuture(BulkWriteResult.succeeded(Collections.emptyList()))
+            : call(() -> firestoreService.createAllAsync(collectionName, documents));
+        CompletableFuture<BulkWriteResult> updates = merges.isEmpty()
+            ? CompletableFuture.completedFuture(BulkWriteResult.succeeded(Collections.emptyList()))
+            : call(() -> firestoreService.updateAllAsync(collectionName, merges))
+                .exceptionally(error -> BulkWriteResult.failed(new ArrayList<>(merges.keySet()), unwrap(error).getMessage()));
+
+        return creates.thenCombine(updates, (result, merged) -> Arrays.asList(result, merged))
+            .handle((results, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    logger.error("Failed to batch create Chinese flashcards", cause);
+                    return BatchCreateChineseFlashCardsResponse.newBuilder()
+                        .setSuccess(false)
+                        .setFailedCount(total)
+                        .addAllErrors(errors)
+                        .setError("Failed to create flashcards: " + cause.getMessage())
+                        .build();
+                }
+
+                BulkWriteResult result = results.get(0);
+                List<ChineseFlashCard> created = new ArrayList<>(result.getWritten().size());
+                int duplicateCount = 0;
+                for (String docId : result.getWritten()) {
+                    ChineseFlashCard flashcard = flashcards.get(docId);
+                    created.add(flashcard);
+                    duplicateCount += duplicates.getOrDefault(docId, 0);
+                    applyPut(flashcard);
+                }
+                for (Map.Entry<String, String> failure : result.getFailures().entrySet()) {
+                    errors.add("Card " + (positions.get(failure.getKey()) + 1) + ": Failed to create flashcard: " + failure.getValue());
+                }
+
+                Map<String, String> mergeFailures = results.get(1).getFailures();
+                List<ChineseFlashCard> existing = new ArrayList<>(matched.size());
+                for (Map.Entry<String, ChineseFlashCard> entry : matched.entrySet()) {
+                    String docId = entry.getKey();
+                    if (mergeFailures.containsKey(docId)) {
+                        errors.add("Card " + (positions.get(docId) + 1) + ": Failed to merge flashcard: " + mergeFailures.get(docId));
+                        continue;
+                    }
+                    existing.add(entry.getValue());
+                    duplicateCount += duplicates.getOrDefault(docId, 0);
+                    if (merges.containsKey(docId)) {
+                        applyPut(entry.getValue());
+                    }
+                }
+
+                logger.info("Batch created {} of {} Chinese flashcards ({} duplicates)", created.size(), total, duplicateCount);
+                return batchCreateResponse(total, created, existing, duplicateCount, errors);
+            });
     }
 
     /**
@@ -126,52 +470,150 @@ public class ChineseFlashCardService {
      * @return GetChineseFlashCardsResponse with list of flashcards or error
      */
     public GetChineseFlashCardsResponse getAll(GetChineseFlashCardsRequest request) {
+        return getAllAsync(request).join();
+    }
+
+    /**
+     * Retrieves all Chinese flashcards with pagination without blocking the calling thread.
+     * The page query and the total count are issued concurrently.
+     *
+     * Requests carrying a page_token, or asking for the first page, use cursor pagination and
+     * receive a next_page_token. Page numbers beyond the first without a token fall back to
+     * offset pagination for compatibility with older clients.
+     *
+     * @param request GetChineseFlashCardsRequest with pagination parameters
+     * @return Future completed with the list of flashcards or error response
+     */
+    public CompletableFuture<GetChineseFlashCardsResponse> getAllAsync(GetChineseFlashCardsRequest request) {
         int page = request.getPage() > 0 ? request.getPage() - 1 : 0; // Convert to 0-based
         int pageSize = request.getPageSize() > 0 ? request.getPageSize() : 50;
+        String pageToken = request.getPageToken();
+        boolean useCursor = !pageToken.isEmpty() || page == 0;
 
-        logger.info("Getting all Chinese flashcards (page: {}, pageSize: {})", page + 1, pageSize);
+        logger.info("Getting all Chinese flashcards (page: {}, pageSize: {}, cursor: {})", page + 1, pageSize, useCursor);
 
         // Check if Firestore is available
         if (firestoreService == null || !firestoreService.isConnected()) {
             logger.error("Cannot retrieve flashcards: Firestore is not configured");
-            return GetChineseFlashCardsResponse.newBuilder()
+            return CompletableFuture.completedFuture(GetChineseFlashCardsResponse.newBuilder()
                 .setSuccess(false)
                 .setError("Firestore is not configured. Please configure Firebase credentials.")
-                .build();
+                .build());
         }
 
-        try {
-            // Get paginated results from Firestore
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> docs = (List<Map<String, Object>>) (List<?>) firestoreService.getAll(collectionName, page, pageSize, Map.class);
-
-            // Convert to protobuf objects
-            List<ChineseFlashCard> flashcards = new ArrayList<>();
-            for (Map<String, Object> doc : docs) {
-                flashcards.add(fromFirestoreDoc(doc));
-            }
+        if (isReplicaReady()) {
+            return CompletableFuture.completedFuture(getAllFromReplica(pageToken, useCursor, page, pageSize));
+        }
 
-            // Get total count
-            long totalCount = firestoreService.count(collectionName);
+        // Get paginated results and total count from Firestore
+        CompletableFuture<Page<ChineseFlashCard>> pageFuture = useCursor
+            ? call(() -> firestoreService.getPageAsync(collectionName, pageToken, pageSize, ChineseFlashCard.class))
+            : call(() -> firestoreService.getAllAsync(collectionName, page, pageSize, ChineseFlashCard.class))
+                .thenApply(flashcards -> new Page<>(flashcards, ""));
+        CompletableFuture<Long> countFuture = call(() -> firestoreService.countAsync(collectionName));
 
-            logger.info("Retrieved {} Chinese flashcards (total: {})", flashcards.size(), totalCount);
+        return pageFuture.thenCombine(countFuture, (docs, totalCount) -> {
+                List<ChineseFlashCard> flashcards = docs.getItems();
 
-            return GetChineseFlashCardsResponse.newBuilder()
-                .setSuccess(true)
-                .addAllData(flashcards)
-                .setTotalCount((int) totalCount)
-                .setMessage("Chinese flashcards retrieved successfully")
-                .build();
+                logger.info("Retrieved {} Chinese flashcards (total: {})", flashcards.size(), totalCount);
 
-        } catch (Exception e) {
-            logger.error("Failed to retrieve Chinese flashcards", e);
-            return GetChineseFlashCardsResponse.newBuilder()
-                .setSuccess(false)
-                .setError("Failed to retrieve flashcards: " + e.getMessage())
-                .build();
+                return GetChineseFlashCardsResponse.newBuilder()
+                    .setSuccess(true)
+                    .addAllData(flashcards)
+                    .setTotalCount(totalCount.intValue())
+                    .setNextPageToken(docs.getNextPageToken())
+                    .setMessage("Chinese flashcards retrieved successfully")
+                    .build();
+            })
+            .exceptionally(error -> {
+                Throwable cause = unwrap(error);
+                logger.error("Failed to retrieve Chinese flashcards", cause);
+                return GetChineseFlashCardsResponse.newBuilder()
+                    .setSuccess(false)
+                    .setError("Failed to retrieve flashcards: " + cause.getMessage())
+                    .build();
+            });
+    }
+
+    /**
+     * Streams one batch of Chinese flashcards in document ID order, delivering each card with its
+     * document ID as it is read. Callers stream the whole collection by calling again after the
+     * last document ID they received until a batch delivers fewer than batchSize cards.
+     *
+     * Batches resume by document ID rather than by card ID: cards created outside this service
+     * (e.g. by the web frontend) have generated document IDs and no numeric id field.
+     *
+     * Batches are served from the replica when it is ready, otherwise streamed from Firestore.
+     * Unlike the other operations, failures are reported through observer.onError.
+     *
+     * @param startAfterDocId Document ID of the last card already received, or null to start
+     *                        at the beginning
+     * @param batchSize Maximum number of cards in the batch
+     * @param observer Receives the cards, then onCompleted or onError; may be called on
+     *                 Firestore's callback thread or synchronously on the calling thread
+     */
+    public void streamBatch(@Nullable String startAfterDocId, int batchSize, DocumentStreamObserver<ChineseFlashCard> observer) {
+        if (firestoreService == null || !firestoreService.isConnected()) {
+            logger.error("Cannot stream flashcards: Firestore is not configured");
+            observer.onError(new FirestoreException("Firestore is not configured. Please configure Firebase credentials."));
+            return;
+        }
+
+        if (isReplicaReady()) {
+            replica.stream(startAfterDocId, batchSize, observer);
+            return;
+        }
+
+        try {
+            firestoreService.stream(collectionName, startAfterDocId, batchSize, ChineseFlashCard.class, observer);
+        } catch (RuntimeException e) {
+            logger.error("Failed to stream Chinese flashcards", e);
+            observer.onError(e);
         }
     }
 
+    /**
+     * Records the study progress of a batch of answers in one bulk write.
+     * Several answers for the same card are folded into one write that keeps the latest
+     * grade and latency and adds all the reviews.
+     *
+     * @param answers Answers from a study session; card_id must be a positive card ID
+     * @return Future completed with which cards were written and which failed; never
+     *         completes exceptionally
+     */
+    public CompletableFuture<BulkWriteResult> recordProgressAsync(List<StudySessionRequest> answers) {
+        Map<String, StudySessionRequest> latest = new LinkedHashMap<>();
+        Map<String, Integer> reviews = new HashMap<>();
+        for (StudySessionRequest answer : answers) {
+            String docId = String.valueOf(answer.getCardId());
+            latest.put(docId, answer);
+            reviews.merge(docId, 1, Integer::sum);
+        }
+        List<String> docIds = new ArrayList<>(latest.keySet());
+
+        if (firestoreService == null || !firestoreService.isConnected()) {
+            logger.error("Cannot record study progress: Firestore is not configured");
+            return CompletableFuture.completedFuture(BulkWriteResult.failed(docIds, "Firestore is not configured"));
+        }
+
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, Object>> documents = new LinkedHashMap<>();
+        for (Map.Entry<String, StudySessionRequest> entry : latest.entrySet()) {
+            StudySessionRequest answer = entry.getValue();
+            documents.put(entry.getKey(),
+                codec.encodeProgress(answer.getGrade(), answer.getLatencyMs(), reviews.get(entry.getKey()), now));
+        }
+
+        logger.info("Recording study progress for {} cards ({} answers)", documents.size(), answers.size());
+
+        return call(() -> firestoreService.updateAllAsync(collectionName, documents))
+            .exceptionally(error -> {
+                Throwable cause = unwrap(error);
+                logger.error("Failed to record study progress", cause);
+                return BulkWriteResult.failed(docIds, "Failed to record progress: " + cause.getMessage());
+            });
+    }
+
     /**
      * Retrieves a single Chinese flashcard by ID.
      *
@@ -179,48 +621,140 @@ public class ChineseFlashCardService {
      * @return GetChineseFlashCardResponse with flashcard or error
      */
     public GetChineseFlashCardResponse getById(GetChineseFlashCardRequest request) {
+        return getByIdAsync(request).join();
+    }
+
+    /**
+     * Retrieves a single Chinese flashcard by ID without blocking the calling thread.
+     *
+     * @param request GetChineseFlashCardRequest with flashcard ID
+     * @return Future completed with the flashcard or error response
+     */
+    public CompletableFuture<GetChineseFlashCardResponse> getByIdAsync(GetChineseFlashCardRequest request) {
         long id = request.getId();
         logger.info("Getting Chinese flashcard by ID: {}", id);
 
         // Check if Firestore is available
         if (firestoreService == null || !firestoreService.isConnected()) {
             logger.error("Cannot retrieve flashcard: Firestore is not configured");
-            return GetChineseFlashCardResponse.newBuilder()
+            return CompletableFuture.completedFuture(GetChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
                 .setError("Firestore is not configured. Please configure Firebase credentials.")
-                .build();
+                .build());
         }
 
-        try {
-            // Get from Firestore
-            @SuppressWarnings("unchecked")
-            Map<String, Object> doc = (Map<String, Object>) firestoreService.get(collectionName, String.valueOf(id), Map.class);
-
-            if (doc == null) {
+        if (isReplicaReady()) {
+            ChineseFlashCard flashcard = replica.get(id);
+            if (flashcard == null) {
                 logger.warn("Chinese flashcard not found: {}", id);
-                return GetChineseFlashCardResponse.newBuilder()
+                return CompletableFuture.completedFuture(GetChineseFlashCardResponse.newBuilder()
                     .setSuccess(false)
                     .setError("Chinese flashcard not found with ID: " + id)
-                    .build();
+                    .build());
             }
-
-            ChineseFlashCard flashcard = fromFirestoreDoc(doc);
-
-            logger.info("Retrieved Chinese flashcard: {}", id);
-
-            return GetChineseFlashCardResponse.newBuilder()
+            return CompletableFuture.completedFuture(GetChineseFlashCardResponse.newBuilder()
                 .setSuccess(true)
                 .setData(flashcard)
                 .setMessage("Chinese flashcard retrieved successfully")
-                .build();
+                .build());
+        }
+
+        // Get from Firestore
+        return call(() -> firestoreService.getAsync(collectionName, String.valueOf(id), ChineseFlashCard.class))
+            .handle((flashcard, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    logger.error("Failed to retrieve Chinese flashcard: {}", id, cause);
+                    return GetChineseFlashCardResponse.newBuilder()
+                        .setSuccess(false)
+                        .setError("Failed to retrieve flashcard: " + cause.getMessage())
+                        .build();
+                }
+
+                if (flashcard == null) {
+                    logger.warn("Chinese flashcard not found: {}", id);
+                    return GetChineseFlashCardResponse.newBuilder()
+                        .setSuccess(false)
+                        .setError("Chinese flashcard not found with ID: " + id)
+                        .build();
+                }
+
+                logger.info("Retrieved Chinese flashcard: {}", id);
+
+                return GetChineseFlashCardResponse.newBuilder()
+                    .setSuccess(true)
+                    .setData(flashcard)
+                    .setMessage("Chinese flashcard retrieved successfully")
+                    .build();
+            });
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to retrieve Chinese flashcard: {}", id, e);
-            return GetChineseFlashCardResponse.newBuilder()
+    /**
+     * Retrieves a set of Chinese flashcards by ID.
+     *
+     * @param request GetChineseFlashCardsByIdsRequest with flashcard IDs
+     * @return GetChineseFlashCardsByIdsResponse with found flashcards and missing IDs
+     */
+    public GetChineseFlashCardsByIdsResponse getByIds(GetChineseFlashCardsByIdsRequest request) {
+        return getByIdsAsync(request).join();
+    }
+
+    /**
+     * Retrieves a set of Chinese flashcards by ID without blocking the calling thread.
+     * All cards are fetched with one batched read. Found cards keep the request order;
+     * IDs without a card are listed in missing_ids.
+     *
+     * @param request GetChineseFlashCardsByIdsRequest with flashcard IDs
+     * @return Future completed with the found flashcards and missing IDs, or error response
+     */
+    public CompletableFuture<GetChineseFlashCardsByIdsResponse> getByIdsAsync(GetChineseFlashCardsByIdsRequest request) {
+        List<Long> ids = request.getIdsList();
+        logger.info("Getting {} Chinese flashcards by ID", ids.size());
+
+        if (ids.isEmpty()) {
+            logger.warn("Validation failed: no IDs requested");
+            return CompletableFuture.completedFuture(GetChineseFlashCardsByIdsResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Failed to retrieve flashcard: " + e.getMessage())
-                .build();
+                .setError("Validation failed: At least one ID is required")
+                .build());
         }
+
+        // Check if Firestore is available
+        if (firestoreService == null || !firestoreService.isConnected()) {
+            logger.error("Cannot retrieve flashcards: Firestore is not configured");
+            return CompletableFuture.completedFuture(GetChineseFlashCardsByIdsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Firestore is not configured. Please configure Firebase credentials.")
+                .build());
+        }
+
+        if (isReplicaReady()) {
+            List<ChineseFlashCard> flashcards = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                flashcards.add(replica.get(id));
+            }
+            return CompletableFuture.completedFuture(getByIdsResponse(ids, flashcards));
+        }
+
+        List<String> docIds = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            docIds.add(String.valueOf(id));
+        }
+
+        // Get from Firestore in a single batched read
+        return call(() -> firestoreService.getManyAsync(collectionName, docIds, ChineseFlashCard.class))
+            .handle((flashcards, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    logger.error("Failed to retrieve Chinese flashcards by ID", cause);
+                    return GetChineseFlashCardsByIdsResponse.newBuilder()
+                        .setSuccess(false)
+                        .setError("Failed to retrieve flashcards: " + cause.getMessage())
+                        .build();
+                }
+
+                return getByIdsResponse(ids, flashcards);
+            });
     }
 
     /**
@@ -230,6 +764,20 @@ public class ChineseFlashCardService {
      * @return UpdateChineseFlashCardResponse with updated flashcard or error
      */
     public UpdateChineseFlashCardResponse update(UpdateChineseFlashCardRequest request) {
+        return updateAsync(request).join();
+    }
+
+    /**
+     * Updates an existing Chinese flashcard without blocking the calling thread.
+     * The edit is a single Firestore write that leaves createdAt, and exampleUsage and favorite
+     * unless the request sets them, at their stored values; nothing is read back. The returned
+     * card is completed with those stored values from the replica when it is loaded; otherwise
+     * it holds only the written fields, and the untouched ones keep their defaults.
+     *
+     * @param request UpdateChineseFlashCardRequest with updated data
+     * @return Future completed with the updated flashcard or error response
+     */
+    public CompletableFuture<UpdateChineseFlashCardResponse> updateAsync(UpdateChineseFlashCardRequest request) {
         long id = request.getId();
         logger.info("Updating Chinese flashcard: {}", id);
 
@@ -242,70 +790,71 @@ public class ChineseFlashCardService {
 
         if (!errors.isEmpty()) {
             logger.warn("Validation failed: {}", String.join(", ", errors));
-            return UpdateChineseFlashCardResponse.newBuilder()
+            return CompletableFuture.completedFuture(UpdateChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
                 .setError("Validation failed: " + String.join(", ", errors))
-                .build();
+                .build());
         }
 
         // Check if Firestore is available
         if (firestoreService == null || !firestoreService.isConnected()) {
             logger.error("Cannot update flashcard: Firestore is not configured");
-            return UpdateChineseFlashCardResponse.newBuilder()
+            return CompletableFuture.completedFuture(UpdateChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
                 .setError("Firestore is not configured. Please configure Firebase credentials.")
-                .build();
+                .build());
         }
 
-        try {
-            // Check if flashcard exists
-            if (!firestoreService.exists(collectionName, String.valueOf(id))) {
-                logger.warn("Cannot update non-existent Chinese flashcard: {}", id);
+        // Build updated flashcard. createdAt, and exampleUsage and favorite unless the request
+        // sets them, are left out of the write so Firestore keeps the stored values.
+        ChineseFlashCard flashcard = PinyinNormalizer.fill(ChineseFlashCard.newBuilder()
+            .setId(id)
+            .setChineseWord(request.getChineseWord())
+            .setEnglishWord(request.getEnglishWord())
+            .setPinyin(request.getPinyin())
+            .setImg(request.getImg())
+            .setExampleUsage(request.getExampleUsage())
+            .setFavorite(request.getFavorite())
+            .setUpdatedAt(System.currentTimeMillis()))
+            .build();
+
+        // Convert to Firestore document (only the fields an update carries)
+        Map<String, Object> docData = codec.encodeUpdate(flashcard, request.hasExampleUsage(), request.hasFavorite());
+        String docId = String.valueOf(id);
+
+        // Update in Firestore (fails with DocumentNotFoundException if the card does not exist).
+        // The response is built from the written data; the replica, when loaded, holds the
+        // fields the update leaves untouched.
+        return call(() -> firestoreService.updateAsync(collectionName, docId, docData, Map.class))
+            .handle((updated, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof DocumentNotFoundException) {
+                        logger.warn("Cannot update non-existent Chinese flashcard: {}", id);
+                        return UpdateChineseFlashCardResponse.newBuilder()
+                            .setSuccess(false)
+                            .setError("Chinese flashcard not found with ID: " + id)
+                            .build();
+                    }
+
+                    logger.error("Failed to update Chinese flashcard: {}", id, cause);
+                    return UpdateChineseFlashCardResponse.newBuilder()
+                        .setSuccess(false)
+                        .setError("Failed to update flashcard: " + cause.getMessage())
+                        .build();
+                }
+
+                logger.info("Successfully updated Chinese flashcard: {}", id);
+
+                ChineseFlashCard result = isReplicaReady() ? withStoredFields(flashcard, replica.get(id), request) : flashcard;
+                applyPut(result);
+
                 return UpdateChineseFlashCardResponse.newBuilder()
-                    .setSuccess(false)
-                    .setError("Chinese flashcard not found with ID: " + id)
+                    .setSuccess(true)
+                    .setData(result)
+                    .setMessage("Chinese flashcard updated successfully")
                     .build();
-            }
-
-            // Get existing flashcard to preserve createdAt
-            @SuppressWarnings("unchecked")
-            Map<String, Object> existingDoc = (Map<String, Object>) firestoreService.get(collectionName, String.valueOf(id), Map.class);
-            long createdAt = existingDoc != null && existingDoc.containsKey("createdAt")
-                ? ((Number) existingDoc.get("createdAt")).longValue()
-                : System.currentTimeMillis();
-
-            // Build updated flashcard
-            ChineseFlashCard flashcard = ChineseFlashCard.newBuilder()
-                .setId(id)
-                .setChineseWord(request.getChineseWord())
-                .setEnglishWord(request.getEnglishWord())
-                .setPinyin(request.getPinyin())
-                .setImg(request.getImg())
-                .setCreatedAt(createdAt)
-                .setUpdatedAt(System.currentTimeMillis())
-                .build();
-
-            // Convert to Firestore document
-            Map<String, Object> docData = toFirestoreDoc(flashcard);
-
-            // Update in Firestore
-            firestoreService.update(collectionName, String.valueOf(id), docData, Map.class);
-
-            logger.info("Successfully updated Chinese flashcard: {}", id);
-
-            return UpdateChineseFlashCardResponse.newBuilder()
-                .setSuccess(true)
-                .setData(flashcard)
-                .setMessage("Chinese flashcard updated successfully")
-                .build();
-
-        } catch (Exception e) {
-            logger.error("Failed to update Chinese flashcard: {}", id, e);
-            return UpdateChineseFlashCardResponse.newBuilder()
-                .setSuccess(false)
-                .setError("Failed to update flashcard: " + e.getMessage())
-                .build();
-        }
+            });
     }
 
     /**
@@ -315,115 +864,574 @@ public class ChineseFlashCardService {
      * @return DeleteChineseFlashCardResponse with success or error
      */
     public DeleteChineseFlashCardResponse delete(DeleteChineseFlashCardRequest request) {
+        return deleteAsync(request).join();
+    }
+
+    /**
+     * Deletes a Chinese flashcard without blocking the calling thread.
+     * The deletion is a single Firestore write whose exists precondition reports a missing card.
+     *
+     * @param request DeleteChineseFlashCardRequest with flashcard ID
+     * @return Future completed with success or error response
+     */
+    public CompletableFuture<DeleteChineseFlashCardResponse> deleteAsync(DeleteChineseFlashCardRequest request) {
         long id = request.getId();
         logger.info("Deleting Chinese flashcard: {}", id);
 
         // Check if Firestore is available
         if (firestoreService == null || !firestoreService.isConnected()) {
             logger.error("Cannot delete flashcard: Firestore is not configured");
-            return DeleteChineseFlashCardResponse.newBuilder()
+            return CompletableFuture.completedFuture(DeleteChineseFlashCardResponse.newBuilder()
                 .setSuccess(false)
                 .setError("Firestore is not configured. Please configure Firebase credentials.")
-                .build();
+                .build());
         }
 
-        try {
-            // Check if flashcard exists
-            if (!firestoreService.exists(collectionName, String.valueOf(id))) {
-                logger.warn("Cannot delete non-existent Chinese flashcard: {}", id);
+        String docId = String.valueOf(id);
+
+        // Delete from Firestore (fails with DocumentNotFoundException if the card does not exist)
+        return call(() -> firestoreService.deleteExistingAsync(collectionName, docId))
+            .handle((deleted, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof DocumentNotFoundException) {
+                        logger.warn("Cannot delete non-existent Chinese flashcard: {}", id);
+                        return DeleteChineseFlashCardResponse.newBuilder()
+                            .setSuccess(false)
+                            .setError("Chinese flashcard not found with ID: " + id)
+                            .build();
+                    }
+
+                    logger.error("Failed to delete Chinese flashcard: {}", id, cause);
+                    return DeleteChineseFlashCardResponse.newBuilder()
+                        .setSuccess(false)
+                        .setError("Failed to delete flashcard: " + cause.getMessage())
+                        .build();
+                }
+
+                logger.info("Successfully deleted Chinese flashcard: {}", id);
+                applyRemove(id);
+
                 return DeleteChineseFlashCardResponse.newBuilder()
+                    .setSuccess(true)
+                    .setMessage("Chinese flashcard deleted successfully")
+                    .build();
+            });
+    }
+
+    /**
+     * Searches Chinese flashcards by Chinese characters, pinyin or English words.
+     *
+     * @param request SearchChineseFlashCardsRequest with the query and pagination parameters
+     * @return SearchChineseFlashCardsResponse with the matching flashcards, best first, or error
+     */
+    public SearchChineseFlashCardsResponse search(SearchChineseFlashCardsRequest request) {
+        return searchAsync(request).join();
+    }
+
+    /**
+     * Searches Chinese flashcards without blocking the calling thread.
+     *
+     * Searches are answered from a ChineseFlashCardSearchIndex without reading Firestore:
+     * the replica's once it is loaded, or, with the replica disabled, this service's own
+     * index, which the first search loads from Firestore. While an enabled replica is still
+     * loading, searches fail. Page tokens carry the offset of the next hit; pages are
+     * consistent as long as the matching cards do not change between requests.
+     *
+     * @param request SearchChineseFlashCardsRequest with the query and pagination parameters
+     * @return Future completed with the matching flashcards or error response
+     */
+    public CompletableFuture<SearchChineseFlashCardsResponse> searchAsync(SearchChineseFlashCardsRequest request) {
+        String query = request.getQuery().trim();
+        int pageSize = request.getPageSize() > 0 ? Math.min(request.getPageSize(), MAX_SEARCH_PAGE_SIZE) : DEFAULT_SEARCH_PAGE_SIZE;
+
+        logger.info("Searching Chinese flashcards (query: {}, pageSize: {})", query, pageSize);
+
+        if (query.isEmpty()) {
+            logger.warn("Validation failed: empty search query");
+            return CompletableFuture.completedFuture(SearchChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Validation failed: Query is required")
+                .build());
+        }
+
+        if (replicaOwnsIndexes() && !isReplicaReady()) {
+            logger.error("Cannot search flashcards: the in-memory replica is not loaded");
+            return CompletableFuture.completedFuture(SearchChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Search is unavailable until the in-memory replica is loaded.")
+                .build());
+        }
+
+        int offset;
+        try {
+            offset = request.getPageToken().isEmpty() ? 0 : decodeSearchToken(request.getPageToken());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Failed to search Chinese flashcards: {}", e.getMessage());
+            return CompletableFuture.completedFuture(SearchChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Failed to search flashcards: " + e.getMessage())
+                .build());
+        }
+
+        CompletableFuture<ChineseFlashCardSearchIndex> index = replicaOwnsIndexes()
+            ? CompletableFuture.completedFuture(replica.searchIndex())
+            : loadIndexes().thenApply(ignored -> searchIndex);
+
+        return index.handle((loaded, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                logger.error("Failed to search Chinese flashcards", cause);
+                return SearchChineseFlashCardsResponse.newBuilder()
                     .setSuccess(false)
-                    .setError("Chinese flashcard not found with ID: " + id)
+                    .setError("Failed to search flashcards: " + cause.getMessage())
                     .build();
             }
 
-            // Delete from Firestore
-            firestoreService.delete(collectionName, String.valueOf(id));
+            ChineseFlashCardSearchIndex.Result result = loaded.search(query, offset, pageSize);
+            int next = offset + result.getCards().size();
 
-            logger.info("Successfully deleted Chinese flashcard: {}", id);
+            logger.info("Found {} Chinese flashcards matching '{}' (returned {})",
+                result.getTotalHits(), query, result.getCards().size());
 
-            return DeleteChineseFlashCardResponse.newBuilder()
+            return SearchChineseFlashCardsResponse.newBuilder()
                 .setSuccess(true)
-                .setMessage("Chinese flashcard deleted successfully")
+                .addAllData(result.getCards())
+                .setTotalCount(result.getTotalHits())
+                .setNextPageToken(next < result.getTotalHits() ? Page.encodeToken(Integer.toString(next)) : "")
+                .setMessage("Chinese flashcards searched successfully")
                 .build();
+        });
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to delete Chinese flashcard: {}", id, e);
-            return DeleteChineseFlashCardResponse.newBuilder()
+    /**
+     * Suggests existing Chinese words, pinyin or English glosses starting with a prefix.
+     *
+     * @param request SuggestChineseFlashCardsRequest with the prefix and limit
+     * @return SuggestChineseFlashCardsResponse with the suggestions, most common first, or error
+     */
+    public SuggestChineseFlashCardsResponse suggest(SuggestChineseFlashCardsRequest request) {
+        return suggestAsync(request).join();
+    }
+
+    /**
+     * Suggests completions without blocking the calling thread.
+     *
+     * Like searches, suggestions are answered from a ChineseFlashCardSuggestIndex without
+     * reading Firestore: the replica's once it is loaded, or this service's own, loaded with
+     * the search index by the first search or suggestion. Writes through this service update
+     * the index before they return.
+     *
+     * @param request SuggestChineseFlashCardsRequest with the prefix and limit
+     * @return Future completed with the suggestions or error response
+     */
+    public CompletableFuture<SuggestChineseFlashCardsResponse> suggestAsync(SuggestChineseFlashCardsRequest request) {
+        String prefix = request.getPrefix().trim();
+        int limit = request.getLimit() > 0 ? Math.min(request.getLimit(), MAX_SUGGEST_LIMIT) : DEFAULT_SUGGEST_LIMIT;
+
+        logger.debug("Suggesting Chinese flashcards (prefix: {}, limit: {})", prefix, limit);
+
+        if (prefix.isEmpty()) {
+            logger.warn("Validation failed: empty suggestion prefix");
+            return CompletableFuture.completedFuture(SuggestChineseFlashCardsResponse.newBuilder()
                 .setSuccess(false)
-                .setError("Failed to delete flashcard: " + e.getMessage())
-                .build();
+                .setError("Validation failed: Prefix is required")
+                .build());
         }
+
+        if (replicaOwnsIndexes() && !isReplicaReady()) {
+            logger.error("Cannot suggest flashcards: the in-memory replica is not loaded");
+            return CompletableFuture.completedFuture(SuggestChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Suggestions are unavailable until the in-memory replica is loaded.")
+                .build());
+        }
+
+        CompletableFuture<ChineseFlashCardSuggestIndex> index = replicaOwnsIndexes()
+            ? CompletableFuture.completedFuture(replica.suggestIndex())
+            : loadIndexes().thenApply(ignored -> suggestIndex);
+
+        return index.handle((loaded, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                logger.error("Failed to suggest Chinese flashcards", cause);
+                return SuggestChineseFlashCardsResponse.newBuilder()
+                    .setSuccess(false)
+                    .setError("Failed to suggest flashcards: " + cause.getMessage())
+                    .build();
+            }
+
+            return SuggestChineseFlashCardsResponse.newBuilder()
+                .setSuccess(true)
+                .addAllData(loaded.suggest(prefix, limit))
+                .setMessage("Chinese flashcard suggestions retrieved successfully")
+                .build();
+        });
+    }
+
+    /**
+     * Version of the card collection for conditional requests. Only available while reads
+     * are served from the replica, whose listener sees every write from every instance;
+     * otherwise callers must derive a validator from the cards they read.
+     *
+     * @return Opaque collection version, or null if it cannot be known without a read
+     */
+    @Nullable
+    public String cardsVersion() {
+        return isReplicaReady() ? replica.version() : null;
     }
 
     // ========== Private Helper Methods ==========
 
     /**
-     * Validates flashcard data.
+     * Decodes a search page token back to the offset of the next hit.
      *
-     * @return List of validation errors (empty if valid)
+     * @throws IllegalArgumentException if the token is not a valid search page token
      */
-    private List<String> validateFlashCardData(String chineseWord, String englishWord, String pinyin) {
-        List<String> errors = new ArrayList<>();
+    private static int decodeSearchToken(String pageToken) {
+        try {
+            int offset = Integer.parseInt(Page.decodeToken(pageToken));
+            if (offset >= 0) {
+                return offset;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid page token");
+    }
 
-        if (chineseWord == null || chineseWord.trim().isEmpty()) {
-            errors.add("Chinese word is required");
+    /**
+     * @return true if the replica is enabled and maintains the search indexes; otherwise this
+     *         service loads and maintains its own
+     */
+    private boolean replicaOwnsIndexes() {
+        return replica != null && replica.isEnabled();
+    }
+
+    /**
+     * Loads every card into this service's own indexes, once: concurrent and later callers
+     * share the load, and a failed load is retried by the next caller. Cards are paged in
+     * document ID order with the same cursor reads as getAll.
+     *
+     * A write that races the load can leave its card's index entry one version behind until
+     * the card is next written.
+     *
+     * @return Future completed once the indexes hold every card
+     */
+    private synchronized CompletableFuture<Void> loadIndexes() {
+        if (indexLoad == null || indexLoad.isCompletedExceptionally()) {
+            logger.info("Loading Chinese flashcards into the in-memory search indexes");
+            indexLoad = loadIndexPage(null).whenComplete((ignored, error) -> {
+                if (error == null) {
+                    logger.info("Loaded {} Chinese flashcards into the in-memory search indexes", searchIndex.size());
+                }
+            });
         }
+        return indexLoad;
+    }
 
-        if (englishWord == null || englishWord.trim().isEmpty()) {
-            errors.add("English word is required");
+    private CompletableFuture<Void> loadIndexPage(@Nullable String pageToken) {
+        return call(() -> firestoreService.getPageAsync(collectionName, pageToken, INDEX_LOAD_PAGE_SIZE, ChineseFlashCard.class))
+            .thenCompose(page -> {
+                for (ChineseFlashCard flashcard : page.getItems()) {
+                    String docId = String.valueOf(flashcard.getId());
+                    searchIndex.put(docId, flashcard);
+                    suggestIndex.put(docId, flashcard);
+                }
+                return page.hasNextPage()
+                    ? loadIndexPage(page.getNextPageToken())
+                    : CompletableFuture.<Void>completedFuture(null);
+            });
+    }
+
+    /**
+     * Applies a successful write to the replica, or to this service's own indexes while the
+     * replica is disabled.
+     */
+    private void applyPut(ChineseFlashCard flashcard) {
+        if (replicaOwnsIndexes()) {
+            replica.put(flashcard);
+        } else {
+            String docId = String.valueOf(flashcard.getId());
+            searchIndex.put(docId, flashcard);
+            suggestIndex.put(docId, flashcard);
         }
+    }
 
-        if (pinyin == null || pinyin.trim().isEmpty()) {
-            errors.add("Pinyin is required");
+    /**
+     * Applies a successful delete to the replica, or to this service's own indexes while the
+     * replica is disabled.
+     */
+    private void applyRemove(long id) {
+        if (replicaOwnsIndexes()) {
+            replica.remove(id);
+        } else {
+            String docId = String.valueOf(id);
+            searchIndex.remove(docId);
+            suggestIndex.remove(docId);
+        }
+    }
+
+    /**
+     * @return true if reads can be served from the in-memory replica
+     */
+    private boolean isReplicaReady() {
+        return replica != null && replica.isReady();
+    }
+
+    /**
+     * Builds a paginated response from the in-memory replica.
+     */
+    private GetChineseFlashCardsResponse getAllFromReplica(String pageToken, boolean useCursor, int page, int pageSize) {
+        try {
+            Page<ChineseFlashCard> result = useCursor
+                ? replica.page(pageToken, pageSize)
+                : new Page<>(replica.pageAt(page, pageSize), "");
+
+            logger.info("Retrieved {} Chinese flashcards from replica (total: {})", result.getItems().size(), replica.size());
+
+            return GetChineseFlashCardsResponse.newBuilder()
+                .setSuccess(true)
+                .addAllData(result.getItems())
+                .setTotalCount(replica.size())
+                .setNextPageToken(result.getNextPageToken())
+                .setMessage("Chinese flashcards retrieved successfully")
+                .build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Failed to page Chinese flashcards from replica: {}", e.getMessage());
+            return GetChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Failed to retrieve flashcards: " + e.getMessage())
+                .build();
         }
+    }
 
-        return errors;
+    /**
+     * Builds the get-by-IDs response from flashcards aligned with the requested IDs
+     * (null where no card exists).
+     */
+    private GetChineseFlashCardsByIdsResponse getByIdsResponse(List<Long> ids, List<ChineseFlashCard> flashcards) {
+        GetChineseFlashCardsByIdsResponse.Builder response = GetChineseFlashCardsByIdsResponse.newBuilder();
+        for (int i = 0; i < ids.size(); i++) {
+            ChineseFlashCard flashcard = flashcards.get(i);
+            if (flashcard != null) {
+                response.addData(flashcard);
+            } else {
+                response.addMissingIds(ids.get(i));
+            }
+        }
+
+        logger.info("Retrieved {} of {} requested Chinese flashcards", response.getDataCount(), ids.size());
+
+        return response
+            .setSuccess(true)
+            .setMessage("Chinese flashcards retrieved successfully")
+            .build();
+    }
+
+    /**
+     * Builds the batch create response; the batch succeeds only if every card was created or
+     * resolved to the card it duplicates.
+     */
+    private BatchCreateChineseFlashCardsResponse batchCreateResponse(int total, List<ChineseFlashCard> created,
+                                                                     List<ChineseFlashCard> existing, int duplicateCount,
+                                                                     List<String> errors) {
+        int failed = total - created.size() - duplicateCount;
+        String message = "Created " + created.size() + " of " + total + " Chinese flashcards";
+        if (duplicateCount > 0) {
+            message += " (" + duplicateCount + " duplicates resolved to existing cards)";
+        }
+        BatchCreateChineseFlashCardsResponse.Builder response = BatchCreateChineseFlashCardsResponse.newBuilder()
+            .setSuccess(errors.isEmpty())
+            .addAllData(created)
+            .addAllExisting(existing)
+            .setCreatedCount(created.size())
+            .setDuplicateCount(duplicateCount)
+            .setFailedCount(failed)
+            .addAllErrors(errors)
+            .setMessage(message);
+        if (!errors.isEmpty()) {
+            response.setError("Failed to create " + failed + " of " + total + " flashcards");
+        }
+        return response.build();
+    }
+
+    /**
+     * Looks up a card with the same Chinese word and pinyin in the replica's duplicate index.
+     *
+     * @return The existing card, or null if there is none, duplicates are allowed or the
+     *         replica is not loaded
+     */
+    private ChineseFlashCard findDuplicate(String chineseWord, String pinyin) {
+        if (duplicatePolicy == DuplicatePolicy.ALLOW || !isReplicaReady()) {
+            return null;
+        }
+        Long id = replica.duplicateIndex().find(chineseWord, pinyin);
+        return id == null ? null : replica.get(id);
+    }
+
+    /**
+     * Matches the duplicateKey the codec stores, built by the same function as the replica's
+     * index, so the Firestore check and the index agree on what a duplicate is. Documents
+     * without the field (written before it existed or by the web frontend, and not updated
+     * through this service since) are not found by it; the replica's index does cover them.
+     *
+     * @param key ChineseFlashCardDuplicateIndex.key() of the card being created
+     * @return The stored fields a duplicate of the card matches in Firestore
+     */
+    private static Map<String, Object> duplicateFields(String key) {
+        return Map.of(ChineseFlashCardCodec.DUPLICATE_KEY, key);
+    }
+
+    /**
+     * Merges a duplicate create request into the existing card and writes the result.
+     */
+    private CompletableFuture<CreateChineseFlashCardResponse> mergeAsync(ChineseFlashCard existing,
+                                                                         CreateChineseFlashCardRequest request) {
+        ChineseFlashCard merged = merge(existing, request, System.currentTimeMillis());
+        if (merged == existing) {
+            logger.info("Chinese flashcard already exists with ID: {}", existing.getId());
+            return CompletableFuture.completedFuture(existingResponse(existing));
+        }
+
+        long id = existing.getId();
+        return call(() -> firestoreService.updateAsync(collectionName, String.valueOf(id), codec.encode(merged), Map.class))
+            .handle((updated, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    logger.error("Failed to merge into Chinese flashcard: {}", id, cause);
+                    return CreateChineseFlashCardResponse.newBuilder()
+                        .setSuccess(false)
+                        .setError("Failed to merge flashcard: " + cause.getMessage())
+                        .build();
+                }
+
+                logger.info("Merged duplicate into Chinese flashcard: {}", id);
+                applyPut(merged);
+
+                return CreateChineseFlashCardResponse.newBuilder()
+                    .setSuccess(true)
+                    .setData(merged)
+                    .setMessage("Merged into existing Chinese flashcard")
+                    .build();
+            });
     }
 
     /**
-     * Converts a protobuf ChineseFlashCard to a Firestore document map.
+     * Folds a duplicate create request into a card: empty img and example usage are filled,
+     * favorite is kept if either sets it, and an English gloss the card lacks is appended.
+     *
+     * @return The merged card, or card itself if the request adds nothing
      */
-    private Map<String, Object> toFirestoreDoc(ChineseFlashCard flashcard) {
-        Map<String, Object> doc = new HashMap<>();
-        doc.put("id", flashcard.getId());
-        doc.put("chineseWord", flashcard.getChineseWord());
-        doc.put("englishWord", flashcard.getEnglishWord());
-        doc.put("pinyin", flashcard.getPinyin());
-        doc.put("img", flashcard.getImg());
-        doc.put("createdAt", flashcard.getCreatedAt());
-        doc.put("updatedAt", flashcard.getUpdatedAt());
-        return doc;
+    private static ChineseFlashCard merge(ChineseFlashCard card, CreateChineseFlashCardRequest request, long now) {
+        ChineseFlashCard.Builder merged = card.toBuilder();
+        String englishWord = request.getEnglishWord().trim();
+        if (!hasGloss(card.getEnglishWord(), englishWord)) {
+            merged.setEnglishWord(card.getEnglishWord() + "; " + englishWord);
+        }
+        if (card.getImg().isEmpty()) {
+            merged.setImg(request.getImg());
+        }
+        if (card.getExampleUsage().isEmpty()) {
+            merged.setExampleUsage(request.getExampleUsage());
+        }
+        merged.setFavorite(card.getFavorite() || request.getFavorite());
+
+        ChineseFlashCard result = merged.build();
+        return result.equals(card) ? card : merged.setUpdatedAt(now).build();
     }
 
     /**
-     * Converts a Firestore document map to a protobuf ChineseFlashCard.
+     * @return true if one of the ';'- or ','-separated glosses of englishWord equals gloss,
+     *         ignoring case
      */
-    private ChineseFlashCard fromFirestoreDoc(Map<String, Object> doc) {
-        ChineseFlashCard.Builder builder = ChineseFlashCard.newBuilder();
+    private static boolean hasGloss(String englishWord, String gloss) {
+        for (String existing : englishWord.split("[;,]")) {
+            if (existing.trim().equalsIgnoreCase(gloss)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        if (doc.containsKey("id")) {
-            builder.setId(((Number) doc.get("id")).longValue());
+    /**
+     * Completes an updated card with the stored fields the update request left untouched.
+     *
+     * @param existing Card as it was before the update, or null if unknown
+     */
+    private static ChineseFlashCard withStoredFields(ChineseFlashCard flashcard, @Nullable ChineseFlashCard existing,
+                                                     UpdateChineseFlashCardRequest request) {
+        if (existing == null) {
+            return flashcard;
         }
-        if (doc.containsKey("chineseWord")) {
-            builder.setChineseWord((String) doc.get("chineseWord"));
+        ChineseFlashCard.Builder result = flashcard.toBuilder().setCreatedAt(existing.getCreatedAt());
+        if (!request.hasExampleUsage()) {
+            result.setExampleUsage(existing.getExampleUsage());
         }
-        if (doc.containsKey("englishWord")) {
-            builder.setEnglishWord((String) doc.get("englishWord"));
+        if (!request.hasFavorite()) {
+            result.setFavorite(existing.getFavorite());
         }
-        if (doc.containsKey("pinyin")) {
-            builder.setPinyin((String) doc.get("pinyin"));
+        return result.build();
+    }
+
+    /**
+     * Builds the create response returning an existing card instead of a new one.
+     */
+    private static CreateChineseFlashCardResponse existingResponse(ChineseFlashCard existing) {
+        return CreateChineseFlashCardResponse.newBuilder()
+            .setSuccess(true)
+            .setData(existing)
+            .setMessage("Chinese flashcard already exists")
+            .build();
+    }
+
+    private static String duplicateError(CreateChineseFlashCardRequest request, long existingId) {
+        return "Duplicate flashcard: " + request.getChineseWord() + " (" + request.getPinyin()
+            + ") already exists with ID: " + existingId;
+    }
+
+    /**
+     * Invokes an async FirestoreService call, turning synchronous validation failures
+     * into a failed future so they flow through the same error handling.
+     */
+    private static <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> operation) {
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        if (doc.containsKey("img")) {
-            builder.setImg((String) doc.get("img"));
+    }
+
+    /**
+     * Strips the CompletionException wrapper added by CompletableFuture stages.
+     */
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Validates flashcard data.
+     *
+     * @return List of validation errors (empty if valid)
+     */
+    private List<String> validateFlashCardData(String chineseWord, String englishWord, String pinyin) {
+        List<String> errors = new ArrayList<>();
+
+        if (chineseWord == null || chineseWord.trim().isEmpty()) {
+            errors.add("Chinese word is required");
         }
-        if (doc.containsKey("createdAt")) {
-            builder.setCreatedAt(((Number) doc.get("createdAt")).longValue());
+
+        if (englishWord == null || englishWord.trim().isEmpty()) {
+            errors.add("English word is required");
         }
-        if (doc.containsKey("updatedAt")) {
-            builder.setUpdatedAt(((Number) doc.get("updatedAt")).longValue());
+
+        if (pinyin == null || pinyin.trim().isEmpty()) {
+            errors.add("Pinyin is required");
         }
 
-        return builder.build();
+        return errors;
     }
 }
@@ -0,0 +1,209 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.flashcard.Suggestion;
+import com.worldmap.flashcard.SuggestionField;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix autocomplete over chinese_word, pinyin and english_word.
+ *
+ * Each field has a PrefixTrie counting how many cards carry each value, so the most common
+ * completions come first:
+ *
+ * - Chinese: the whole word.
+ * - Pinyin: the toneless syllables run together (nihao), so nǐ h, ni3h and nih all complete
+ *   to the card's pinyin as written.
+ * - English: the lowercased gloss from the start of each word, so "meal" completes to
+ *   "To eat a meal".
+ *
+ * A prefix with Chinese characters completes Chinese words; any other prefix completes both
+ * pinyin and English.
+ *
+ * The index is maintained by ChineseFlashCardReplica alongside its card map. Reads and writes
+ * may come from any thread.
+ */
+public class ChineseFlashCardSuggestIndex {
+
+    /** Ends the word-start part of an English key; no typed prefix contains it. */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final PrefixTrie chinese = new PrefixTrie();
+    private final PrefixTrie pinyin = new PrefixTrie();
+    private final PrefixTrie english = new PrefixTrie();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Keys of one card, kept so the card can be removed when it changes.
+     */
+    private static final class Entry {
+        final String chineseWord;
+        final String pinyinKey;
+        final String pinyin;
+        final String englishWord;
+        final Set<String> englishKeys;
+
+        Entry(ChineseFlashCard card) {
+            String toneless = card.getPinyinToneless().isEmpty()
+                ? PinyinNormalizer.toToneless(card.getPinyin())
+                : card.getPinyinToneless();
+            this.chineseWord = card.getChineseWord().trim();
+            this.pinyinKey = toneless.replace(" ", "");
+            this.pinyin = card.getPinyin().trim();
+            this.englishWord = card.getEnglishWord().trim();
+            this.englishKeys = englishKeys(englishWord);
+        }
+    }
+
+    /**
+     * Adds a card, replacing any previously added version with the same document ID.
+     */
+    public void put(String docId, ChineseFlashCard card) {
+        Entry entry = new Entry(card);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(docId, entry);
+            if (previous != null) {
+                remove(previous);
+            }
+            if (!entry.chineseWord.isEmpty()) {
+                chinese.add(entry.chineseWord, entry.chineseWord);
+            }
+            if (!entry.pinyinKey.isEmpty()) {
+                pinyin.add(entry.pinyinKey, entry.pinyin);
+            }
+            for (String key : entry.englishKeys) {
+                english.add(key, entry.englishWord);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a card; does nothing if it is not indexed.
+     */
+    public void remove(String docId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(docId);
+            if (previous != null) {
+                remove(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed cards
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completes a prefix to the most common values starting with it.
+     *
+     * @param prefix Start of a Chinese word, pinyin (tones optional) or English gloss
+     * @param limit Maximum number of suggestions
+     * @return Suggestions, most common first; each value appears at most once per field
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String trimmed = prefix.trim();
+        List<Suggestion> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (trimmed.codePoints().anyMatch(ChineseFlashCardSuggestIndex::isHan)) {
+                add(chinese.complete(trimmed, limit), SuggestionField.SUGGESTION_FIELD_CHINESE_WORD, suggestions);
+                return suggestions;
+            }
+            String pinyinKey = PinyinNormalizer.toToneless(trimmed).replace(" ", "");
+            if (!pinyinKey.isEmpty()) {
+                add(pinyin.complete(pinyinKey, limit), SuggestionField.SUGGESTION_FIELD_PINYIN, suggestions);
+            }
+            String englishKey = normalizeEnglish(trimmed);
+            if (!englishKey.isEmpty()) {
+                add(english.complete(englishKey, limit), SuggestionField.SUGGESTION_FIELD_ENGLISH_WORD, suggestions);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Pinyin and English are merged by count; a stable sort keeps pinyin first on ties
+        suggestions.sort(Comparator.comparingInt(suggestion -> -suggestion.getCount()));
+        return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    private void remove(Entry entry) {
+        if (!entry.chineseWord.isEmpty()) {
+            chinese.remove(entry.chineseWord);
+        }
+        if (!entry.pinyinKey.isEmpty()) {
+            pinyin.remove(entry.pinyinKey);
+        }
+        for (String key : entry.englishKeys) {
+            english.remove(key);
+        }
+    }
+
+    private static void add(List<PrefixTrie.Completion> completions, SuggestionField field,
+                            List<Suggestion> suggestions) {
+        Set<String> seen = new LinkedHashSet<>();
+        for (PrefixTrie.Completion completion : completions) {
+            // An English gloss is reachable from each of its words; report it once
+            if (seen.add(completion.value)) {
+                suggestions.add(Suggestion.newBuilder()
+                    .setText(completion.value)
+                    .setField(field)
+                    .setCount(completion.count)
+                    .build());
+            }
+        }
+    }
+
+    /**
+     * @return The normalized gloss starting at each of its words, each followed by the whole
+     *         gloss so different glosses sharing a word ("hello", "say hello") stay apart
+     */
+    private static Set<String> englishKeys(String englishWord) {
+        String normalized = normalizeEnglish(englishWord);
+        Set<String> keys = new LinkedHashSet<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        String suffix = KEY_SEPARATOR + normalized;
+        keys.add(normalized + suffix);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1) + suffix);
+        }
+        return keys;
+    }
+
+    /**
+     * @return Lowercased text with runs of whitespace collapsed to single spaces
+     */
+    private static String normalizeEnglish(String text) {
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static boolean isHan(int codePoint) {
+        return Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN;
+    }
+}
@@ -0,0 +1,118 @@
+package com.worldmap.service;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process read-through cache used by FirestoreService.
+ *
+ * Two regions are kept, both evicted by size and by time since write:
+ * - documents, keyed by collection + document ID, holding the immutable DocumentSnapshot
+ * - queries, keyed by collection + query shape (page, cursor, count), holding the raw result
+ *
+ * Each collection has a generation number that is bumped on every write. Query keys embed the
+ * generation, so a write makes every cached list of that collection unreachable at once. Reads
+ * capture the generation before going to Firestore and only populate the cache if it is unchanged
+ * when they complete, so a read racing with a write cannot re-insert stale data.
+ */
+public class DocumentCache {
+
+    private final Cache<String, DocumentSnapshot> documents;
+    private final Cache<String, Object> queries;
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSize Maximum number of entries per region
+     * @param ttl Time after which an entry is evicted regardless of use
+     */
+    public DocumentCache(long maxSize, Duration ttl) {
+        this.documents = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.queries = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Current write generation of a collection. Capture before a read and pass to the put methods.
+     */
+    public long generation(String collection) {
+        return generations.computeIfAbsent(collection, c -> new AtomicLong()).get();
+    }
+
+    /**
+     * @return The cached snapshot of an existing document, or null on a miss
+     */
+    public DocumentSnapshot getDocument(String collection, String docId) {
+        return documents.getIfPresent(documentKey(collection, docId));
+    }
+
+    /**
+     * Caches a document snapshot if no write to the collection happened since {@code generation}.
+     */
+    public void putDocument(String collection, String docId, DocumentSnapshot snapshot, long generation) {
+        if (generation(collection) == generation) {
+            documents.put(documentKey(collection, docId), snapshot);
+        }
+    }
+
+    /**
+     * @return The cached result for a query shape, or null on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V getQuery(String collection, String shape) {
+        return (V) queries.getIfPresent(queryKey(collection, generation(collection), shape));
+    }
+
+    /**
+     * Caches a query result if no write to the collection happened since {@code generation}.
+     */
+    public void putQuery(String collection, String shape, Object value, long generation) {
+        if (generation(collection) == generation) {
+            queries.put(queryKey(collection, generation, shape), value);
+        }
+    }
+
+    /**
+     * Invalidates a written document and every cached query of its collection.
+     */
+    public void invalidate(String collection, String docId) {
+        generations.computeIfAbsent(collection, c -> new AtomicLong()).incrementAndGet();
+        documents.invalidate(documentKey(collection, docId));
+    }
+
+    /**
+     * Invalidates every cached entry of a collection.
+     */
+    public void invalidateCollection(String collection) {
+        generations.computeIfAbsent(collection, c -> new AtomicLong()).incrementAndGet();
+        String prefix = collection + "/";
+        documents.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * @return Combined hit, miss and eviction counters of both regions
+     */
+    public CacheStats stats() {
+        return documents.stats().plus(queries.stats());
+    }
+
+    private static String documentKey(String collection, String docId) {
+        return collection + "/" + docId;
+    }
+
+    private static String queryKey(String collection, long generation, String shape) {
+        return collection + "?" + generation + "&" + shape;
+    }
+}
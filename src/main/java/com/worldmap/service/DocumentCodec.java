@@ -0,0 +1,31 @@
+package com.worldmap.service;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+
+import java.util.Map;
+
+/**
+ * Converts between a document type and its Firestore representation without going through
+ * DocumentSnapshot.getData() or Firestore's reflection-based POJO mapper.
+ *
+ * Register a codec with FirestoreService.registerCodec so reads requesting its type are
+ * decoded directly from the snapshot.
+ *
+ * @param <T> Type of the decoded documents
+ */
+public interface DocumentCodec<T> {
+
+    /**
+     * Reads a document's fields straight from the snapshot.
+     *
+     * @param document Snapshot of an existing document
+     * @return The decoded document
+     */
+    T decode(DocumentSnapshot document);
+
+    /**
+     * @param value Document to write
+     * @return Field map to pass to a Firestore write
+     */
+    Map<String, Object> encode(T value);
+}
@@ -0,0 +1,15 @@
+package com.worldmap.service;
+
+/**
+ * Thrown when a write requires an existing document and Firestore reports it is missing.
+ */
+public class DocumentNotFoundException extends FirestoreException {
+
+    public DocumentNotFoundException(String message) {
+        super(message);
+    }
+
+    public DocumentNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
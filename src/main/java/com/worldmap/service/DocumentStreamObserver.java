@@ -0,0 +1,30 @@
+package com.worldmap.service;
+
+/**
+ * Receives documents streamed in document ID order, each together with the ID of the document
+ * it was read from.
+ *
+ * Callers resume a stream after the last document ID they received. The decoded value cannot
+ * stand in for it: documents created outside this service (e.g. by the web frontend's addDoc)
+ * have generated IDs and no numeric id field.
+ *
+ * @param <T> Type of the streamed documents
+ */
+public interface DocumentStreamObserver<T> {
+
+    /**
+     * @param docId Firestore document ID the value was read from
+     * @param value The decoded document
+     */
+    void onNext(String docId, T value);
+
+    /**
+     * The stream failed; no further calls follow.
+     */
+    void onError(Throwable t);
+
+    /**
+     * Every document has been delivered; no further calls follow.
+     */
+    void onCompleted();
+}
@@ -0,0 +1,32 @@
+package com.worldmap.service;
+
+import java.util.Locale;
+
+/**
+ * What creating a card does when a card with the same Chinese word and toneless pinyin
+ * already exists (see ChineseFlashCardDuplicateIndex).
+ */
+public enum DuplicatePolicy {
+    /** Create the card anyway */
+    ALLOW,
+    /** Fail with an error naming the existing card */
+    REJECT,
+    /** Succeed without writing, returning the existing card */
+    RETURN_EXISTING,
+    /** Fill the existing card's empty fields and add the new English gloss, then return it */
+    MERGE;
+
+    /**
+     * Parses an app.firebase.duplicate-policy value (allow, reject, return-existing, merge).
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    public static DuplicatePolicy parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown duplicate policy '" + value
+                + "' (expected allow, reject, return-existing or merge)", e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.worldmap.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Fixed, shared list of field names for building document maps.
+ *
+ * A HashMap per document allocates a table plus one node per field. A layout is built once;
+ * each document is then a read-only Map view over a single value array in layout order, so
+ * encoding a document allocates only that array and its small wrapper.
+ */
+public final class FieldLayout {
+
+    private final String[] names;
+    private final Map<String, Integer> positions;
+
+    /**
+     * @param names Field names, in the order values will be supplied
+     */
+    public FieldLayout(String... names) {
+        this.names = names.clone();
+        this.positions = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            positions.put(names[i], i);
+        }
+    }
+
+    /**
+     * @return Number of fields in the layout
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Wraps values as a read-only document map. Null values are kept as explicit nulls.
+     *
+     * @param values One value per field, in layout order; the array is used as-is, not copied
+     * @throws IllegalArgumentException if the number of values does not match the layout
+     */
+    public Map<String, Object> wrap(Object... values) {
+        if (values.length != names.length) {
+            throw new IllegalArgumentException("Expected " + names.length + " values but got " + values.length);
+        }
+        return new Document(values);
+    }
+
+    private final class Document extends AbstractMap<String, Object> {
+
+        private final Object[] values;
+
+        private Document(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public int size() {
+            return names.length;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return positions.containsKey(key);
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer position = positions.get(key);
+            return position != null ? values[position] : null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public int size() {
+                    return names.length;
+                }
+
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<Entry<String, Object>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < names.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (next >= names.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = next++;
+                            return new SimpleImmutableEntry<>(names[i], values[i]);
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.worldmap.service;
 
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.api.gax.rpc.StatusCode;
 import com.google.cloud.firestore.*;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.worldmap.config.ApplicationConfig;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 /**
  * Generic Firestore service for common database operations.
@@ -19,9 +37,18 @@ import java.util.concurrent.ExecutionException;
  *
  * This service handles:
  * - Common Firestore CRUD operations (create, read, update, delete, query)
- * - Type-safe document conversion utilities
+ * - Type-safe document conversion utilities, with optional per-type DocumentCodecs
  * - Firestore connection and error management
- * - Pagination and filtering
+ * - Pagination (cursor-based, with offset paging as a fallback) and filtering
+ * - Non-blocking variants of every operation (the *Async methods)
+ * - Server-side counting, optionally backed by maintained, sharded counter documents
+ * - An optional read-through DocumentCache, invalidated by writes made through this service
+ * - Multi-document writes (createAll, updateAll, deleteAll) chunked to Firestore's batch limit
+ * - Streaming reads that deliver documents as they arrive (stream)
+ *
+ * The *Async methods return CompletableFutures completed from Firestore callbacks,
+ * so callers never park a thread while a request is in flight. The blocking methods
+ * are thin wrappers that wait on the async variants.
  *
  * The service gracefully handles cases where Firebase is not configured,
  * allowing the application to continue with mock data.
@@ -30,17 +57,35 @@ import java.util.concurrent.ExecutionException;
 public class FirestoreService {
 
     private static final Logger logger = LoggerFactory.getLogger(FirestoreService.class);
+    private static final String COUNT_FIELD = "count";
+    private static final String COUNT_SHAPE = "count";
+    private static final int MAX_BATCH_OPERATIONS = 500;
+    private static final String COUNTER_SHARDS_COLLECTION = "shards";
+    private static final int COUNTER_SHARDS = 10;
+
     private final Firestore firestore;
+    private final boolean maintainCounter;
+    private final String counterCollection;
+    private final DocumentCache cache;
+    private final Map<Class<?>, DocumentCodec<?>> codecs = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> seededCounters = new ConcurrentHashMap<>();
 
     /**
      * Constructor with dependency injection.
      * Accepts nullable Firestore to handle cases where Firebase is not configured.
      *
      * @param firestore Firestore instance (can be null if Firebase not configured)
+     * @param config Application configuration (counter document and cache settings)
      */
     @Inject
-    public FirestoreService(@Nullable Firestore firestore) {
+    public FirestoreService(@Nullable Firestore firestore, ApplicationConfig config) {
         this.firestore = firestore;
+        this.maintainCounter = config.getFirebase().isMaintainCounter();
+        this.counterCollection = config.getFirebase().getCounterCollection();
+        this.cache = config.getFirebase().isCacheEnabled()
+            ? new DocumentCache(config.getFirebase().getCacheMaxSize(),
+                                Duration.ofSeconds(config.getFirebase().getCacheTtlSeconds()))
+            : null;
 
         if (firestore == null) {
             logger.warn("⚠️  Firestore is not configured. Service will throw exceptions on operations.");
@@ -107,39 +152,130 @@ public class FirestoreService {
      * @param data Document data as a map
      * @param type Class type for the result
      * @param <T> Type of the result object
-     * @return The created document converted to type T
+     * @return The created document converted to type T, built from the written data
      * @throws FirestoreException if creation fails or Firestore is not connected
      * @throws IllegalArgumentException if any parameter is null
      */
-    @SuppressWarnings("null")
     public <T> T create(String collection, String docId, Map<String, Object> data, Class<T> type) {
+        return await(createAsync(collection, docId, data, type), "Document creation");
+    }
+
+    /**
+     * Creates a new document in the specified collection without blocking the calling thread.
+     *
+     * @param collection Collection name
+     * @param docId Document ID
+     * @param data Document data as a map
+     * @param type Class type for the result
+     * @param <T> Type of the result object
+     * @return Future completed with the created document converted to type T,
+     *         or completed exceptionally with a FirestoreException, also when a document
+     *         with the ID already exists. For Map results the written data is returned
+     *         without a read-back.
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    @SuppressWarnings("null")
+    public <T> CompletableFuture<T> createAsync(String collection, String docId, Map<String, Object> data, Class<T> type) {
         validateConnection();
         validateParameters(collection, "collection");
         validateParameters(docId, "docId");
         validateParameters(data, "data");
         validateParameters(type, "type");
 
-        try {
-            logger.info("Creating document in collection '{}' with ID '{}'", collection, docId);
+        logger.info("Creating document in collection '{}' with ID '{}'", collection, docId);
 
-            DocumentReference docRef = firestore.collection(collection).document(docId);
-            ApiFuture<WriteResult> future = docRef.set(data);
+        DocumentReference docRef = firestore.collection(collection).document(docId);
+        String logMessage = "Failed to create document in collection '" + collection + "', ID '" + docId + "'";
+        String errorPrefix = "Failed to create document: ";
 
-            // Wait for the operation to complete
-            WriteResult result = future.get();
-            logger.info("Document created successfully at {}", result.getUpdateTime());
+        // create() fails on an existing ID, so the counter increment only ever counts real inserts
+        CompletableFuture<WriteResult> written;
+        if (maintainCounter) {
+            written = seedCounter(collection).thenCompose(ignored -> {
+                WriteBatch batch = firestore.batch();
+                batch.create(docRef, data);
+                incrementCounter(batch, collection, 1);
+                return toCompletableFuture(batch.commit(), logMessage, errorPrefix)
+                    .thenApply(results -> results.get(0));
+            });
+        } else {
+            written = toCompletableFuture(docRef.create(data), logMessage, errorPrefix);
+        }
 
-            // Retrieve the created document
-            return get(collection, docId, type);
+        return written
+            // Invalidate as soon as the write settles, so a read-back cannot be served the old entry
+            .whenComplete((result, error) -> invalidate(collection, docId))
+            .thenCompose(result -> {
+                logger.info("Document created successfully at {}", result.getUpdateTime());
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.error("Document creation interrupted for collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Document creation was interrupted", e);
-        } catch (ExecutionException e) {
-            logger.error("Failed to create document in collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Failed to create document: " + e.getMessage(), e);
-        }
+                // Build the result from the data just written instead of reading it back
+                return fromWrittenData(collection, docId, data, type);
+            });
+    }
+
+    /**
+     * Creates a document unless the collection already holds one with the given field values,
+     * without blocking the calling thread.
+     *
+     * The lookup and the insert run in one transaction. Firestore transactions are
+     * serializable, so two concurrent calls with the same values cannot both create; the
+     * loser retries and finds the winner's document. With counter maintenance enabled the
+     * counter increment is part of the same transaction.
+     *
+     * @param collection Collection name
+     * @param docId Document ID of the new document
+     * @param data Document data as a map
+     * @param uniqueFields Field values identifying an existing document (all must be equal);
+     *                     documents lacking one of the fields never match
+     * @param type Class type for an existing document
+     * @param <T> Type of the result object
+     * @return Future completed with the first existing matching document converted to type T,
+     *         or with null once the new document has been created; completed exceptionally
+     *         with a FirestoreException if the transaction fails
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public <T> CompletableFuture<T> createUniqueAsync(String collection, String docId, Map<String, Object> data,
+                                                      Map<String, Object> uniqueFields, Class<T> type) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(docId, "docId");
+        validateParameters(data, "data");
+        validateParameters(uniqueFields, "uniqueFields");
+        validateParameters(type, "type");
+
+        logger.info("Creating document in collection '{}' with ID '{}' unless {} exists", collection, docId, uniqueFields.keySet());
+
+        CollectionReference collectionRef = firestore.collection(collection);
+        DocumentReference docRef = collectionRef.document(docId);
+        Query duplicates = whereEqual(collectionRef, uniqueFields).limit(1);
+        Transaction.Function<DocumentSnapshot> createIfAbsent = transaction -> {
+            List<QueryDocumentSnapshot> matches = transaction.get(duplicates).get().getDocuments();
+            if (!matches.isEmpty()) {
+                return matches.get(0);
+            }
+            transaction.create(docRef, data);
+            if (maintainCounter) {
+                incrementCounter(transaction, collection, 1);
+            }
+            return null;
+        };
+
+        CompletableFuture<Void> ready = maintainCounter ? seedCounter(collection) : CompletableFuture.completedFuture(null);
+        return ready
+            .thenCompose(ignored -> toCompletableFuture(firestore.runTransaction(createIfAbsent),
+                "Failed to create document in collection '" + collection + "', ID '" + docId + "'",
+                "Failed to create document: "))
+            .whenComplete((existing, error) -> invalidate(collection, docId))
+            .thenApply(existing -> {
+                if (existing != null) {
+                    logger.info("Document '{}' in collection '{}' already matches; nothing created", existing.getId(), collection);
+                    return convert(existing, type);
+                }
+                logger.info("Document created successfully in collection '{}' with ID '{}'", collection, docId);
+                return null;
+            });
     }
 
     /**
@@ -153,42 +289,124 @@ public class FirestoreService {
      * @throws FirestoreException if retrieval fails or Firestore is not connected
      * @throws IllegalArgumentException if any parameter is null
      */
-    @SuppressWarnings("null")
     public <T> T get(String collection, String docId, Class<T> type) {
+        return await(getAsync(collection, docId, type), "Document retrieval");
+    }
+
+    /**
+     * Retrieves a single document by ID without blocking the calling thread.
+     *
+     * @param collection Collection name
+     * @param docId Document ID
+     * @param type Class type for the result
+     * @param <T> Type of the result object
+     * @return Future completed with the document converted to type T, or null if not found
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    @SuppressWarnings("null")
+    public <T> CompletableFuture<T> getAsync(String collection, String docId, Class<T> type) {
         validateConnection();
         validateParameters(collection, "collection");
         validateParameters(docId, "docId");
         validateParameters(type, "type");
 
-        try {
-            logger.debug("Retrieving document from collection '{}' with ID '{}'", collection, docId);
+        logger.debug("Retrieving document from collection '{}' with ID '{}'", collection, docId);
 
-            DocumentReference docRef = firestore.collection(collection).document(docId);
-            ApiFuture<DocumentSnapshot> future = docRef.get();
-            DocumentSnapshot document = future.get();
+        return fetchDocument(collection, docId,
+                "Failed to retrieve document from collection '" + collection + "', ID '" + docId + "'",
+                "Failed to retrieve document: ")
+            .thenApply(document -> {
+                if (!document.exists()) {
+                    logger.debug("Document not found: collection '{}', ID '{}'", collection, docId);
+                    return null;
+                }
 
-            if (!document.exists()) {
-                logger.debug("Document not found: collection '{}', ID '{}'", collection, docId);
-                return null;
+                T result = convert(document, type);
+                logger.debug("Document retrieved successfully from collection '{}'", collection);
+                return result;
+            });
+    }
+
+    /**
+     * Retrieves a set of documents by ID in a single batched read.
+     *
+     * @param collection Collection name
+     * @param docIds Document IDs to retrieve
+     * @param type Class type for the result objects
+     * @param <T> Type of the result objects
+     * @return Documents converted to type T, in the order of docIds, with null for missing documents
+     * @throws FirestoreException if retrieval fails or Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public <T> List<T> getMany(String collection, List<String> docIds, Class<T> type) {
+        return await(getManyAsync(collection, docIds, type), "Batch document retrieval");
+    }
+
+    /**
+     * Retrieves a set of documents by ID without blocking the calling thread.
+     * Cached documents are served from the cache; all others are fetched with one
+     * firestore.getAll() call, so N documents cost one round trip instead of N.
+     * Duplicate IDs are fetched once.
+     *
+     * @param collection Collection name
+     * @param docIds Document IDs to retrieve
+     * @param type Class type for the result objects
+     * @param <T> Type of the result objects
+     * @return Future completed with the documents converted to type T, in the order of docIds,
+     *         with null for missing documents
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    @SuppressWarnings("null")
+    public <T> CompletableFuture<List<T>> getManyAsync(String collection, List<String> docIds, Class<T> type) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(docIds, "docIds");
+        validateParameters(type, "type");
+
+        logger.debug("Retrieving {} documents from collection '{}'", docIds.size(), collection);
+
+        // Resolve what the cache already holds and collect the distinct IDs still to fetch
+        Map<String, DocumentSnapshot> snapshots = new HashMap<>();
+        List<DocumentReference> refs = new ArrayList<>();
+        CollectionReference collectionRef = firestore.collection(collection);
+        for (String docId : docIds) {
+            if (snapshots.containsKey(docId)) {
+                continue;
             }
+            DocumentSnapshot cached = cache != null ? cache.getDocument(collection, docId) : null;
+            snapshots.put(docId, cached);
+            if (cached == null) {
+                refs.add(collectionRef.document(docId));
+            }
+        }
+        long generation = cache != null ? cache.generation(collection) : 0;
 
-            T result;
-            if (type == Map.class) {
-                result = type.cast(document.getData());
-            } else {
-                result = document.toObject(type);
+        CompletableFuture<List<DocumentSnapshot>> fetched = refs.isEmpty()
+            ? CompletableFuture.completedFuture(new ArrayList<>())
+            : toCompletableFuture(firestore.getAll(refs.toArray(new DocumentReference[0])),
+                "Failed to retrieve documents from collection '" + collection + "'",
+                "Failed to retrieve documents: ");
+
+        return fetched.thenApply(documents -> {
+            for (DocumentSnapshot document : documents) {
+                snapshots.put(document.getId(), document);
+                if (cache != null && document.exists()) {
+                    cache.putDocument(collection, document.getId(), document, generation);
+                }
             }
-            logger.debug("Document retrieved successfully from collection '{}'", collection);
-            return result;
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.error("Document retrieval interrupted for collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Document retrieval was interrupted", e);
-        } catch (ExecutionException e) {
-            logger.error("Failed to retrieve document from collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Failed to retrieve document: " + e.getMessage(), e);
-        }
+            List<T> results = new ArrayList<>(docIds.size());
+            for (String docId : docIds) {
+                DocumentSnapshot document = snapshots.get(docId);
+                results.add(document != null && document.exists() ? convert(document, type) : null);
+            }
+
+            logger.debug("Retrieved {} IDs from collection '{}' ({} fetched, {} cached)",
+                        docIds.size(), collection, refs.size(), snapshots.size() - refs.size());
+            return results;
+        });
     }
 
     /**
@@ -203,51 +421,211 @@ public class FirestoreService {
      * @throws FirestoreException if retrieval fails or Firestore is not connected
      * @throws IllegalArgumentException if any parameter is null
      */
-    @SuppressWarnings("null")
     public <T> List<T> getAll(String collection, int page, int pageSize, Class<T> type) {
+        return await(getAllAsync(collection, page, pageSize, type), "Document retrieval");
+    }
+
+    /**
+     * Retrieves all documents from a collection with pagination without blocking the calling thread.
+     *
+     * @param collection Collection name
+     * @param page Page number (0-based)
+     * @param pageSize Number of items per page
+     * @param type Class type for the result objects
+     * @param <T> Type of the result objects
+     * @return Future completed with the list of documents converted to type T
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    @SuppressWarnings("null")
+    public <T> CompletableFuture<List<T>> getAllAsync(String collection, int page, int pageSize, Class<T> type) {
         validateConnection();
         validateParameters(collection, "collection");
         validateParameters(type, "type");
 
-        try {
-            logger.info("Retrieving all documents from collection '{}' (page: {}, size: {})",
-                       collection, page, pageSize);
+        logger.info("Retrieving all documents from collection '{}' (page: {}, size: {})",
+                   collection, page, pageSize);
 
-            // Calculate offset
-            int offset = page * pageSize;
+        // Calculate offset
+        int offset = page * pageSize;
 
-            // Query with pagination
-            Query query = firestore.collection(collection)
-                .offset(offset)
-                .limit(pageSize);
+        // Query with pagination
+        Query query = firestore.collection(collection)
+            .offset(offset)
+            .limit(pageSize);
 
-            ApiFuture<QuerySnapshot> future = query.get();
-            QuerySnapshot querySnapshot = future.get();
+        return fetchQuery(collection, "offset:" + page + ":" + pageSize, query,
+                "Failed to retrieve documents from collection '" + collection + "'",
+                "Failed to retrieve documents: ")
+            .thenApply(documents -> {
+                List<T> results = new ArrayList<>();
+                for (DocumentSnapshot document : documents) {
+                    T item = convert(document, type);
+                    if (item != null) {
+                        results.add(item);
+                    }
+                }
 
-            List<T> results = new ArrayList<>();
-            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                T item;
-                if (type == Map.class) {
-                    item = type.cast(document.getData());
-                } else {
-                    item = document.toObject(type);
+                logger.info("Retrieved {} documents from collection '{}'", results.size(), collection);
+                return results;
+            });
+    }
+
+    /**
+     * Retrieves one page of documents using cursor-based (keyset) pagination.
+     * Unlike offset pagination, Firestore seeks directly to the cursor, so the cost of a page
+     * does not grow with its depth.
+     *
+     * @param collection Collection name
+     * @param pageToken Token from a previous page's getNextPageToken(), or null/empty for the first page
+     * @param pageSize Number of items per page
+     * @param type Class type for the result objects
+     * @param <T> Type of the result objects
+     * @return Future completed with the page of documents and the token for the next page
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if collection or type is null, or the page token is malformed
+     */
+    @SuppressWarnings("null")
+    public <T> CompletableFuture<Page<T>> getPageAsync(String collection, @Nullable String pageToken, int pageSize, Class<T> type) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(type, "type");
+
+        logger.info("Retrieving page of documents from collection '{}' (cursor: {}, size: {})",
+                   collection, pageToken == null || pageToken.isEmpty() ? "<start>" : pageToken, pageSize);
+
+        // Order by document ID: always indexed and present on every document.
+        // Fetch one extra document to know whether another page exists.
+        Query query = firestore.collection(collection)
+            .orderBy(FieldPath.documentId())
+            .limit(pageSize + 1);
+        if (pageToken != null && !pageToken.isEmpty()) {
+            query = query.startAfter(Page.decodeToken(pageToken));
+        }
+
+        return fetchQuery(collection, "cursor:" + pageToken + ":" + pageSize, query,
+                "Failed to retrieve documents from collection '" + collection + "'",
+                "Failed to retrieve documents: ")
+            .thenApply(documents -> {
+                boolean hasMore = documents.size() > pageSize;
+                List<QueryDocumentSnapshot> pageDocuments = hasMore ? documents.subList(0, pageSize) : documents;
+
+                List<T> results = new ArrayList<>(pageDocuments.size());
+                for (DocumentSnapshot document : pageDocuments) {
+                    T item = convert(document, type);
+                    if (item != null) {
+                        results.add(item);
+                    }
                 }
-                if (item != null) {
-                    results.add(item);
+
+                String nextPageToken = hasMore
+                    ? Page.encodeToken(pageDocuments.get(pageDocuments.size() - 1).getId())
+                    : "";
+
+                logger.info("Retrieved {} documents from collection '{}' (more: {})", results.size(), collection, hasMore);
+                return new Page<>(results, nextPageToken);
+            });
+    }
+
+    /**
+     * Finds the first document whose fields equal the given values, without blocking the
+     * calling thread. Always reads Firestore (never the cache), so callers checking for an
+     * existing document see writes from every instance.
+     *
+     * @param collection Collection name
+     * @param fields Field values to match (all must be equal); documents lacking one of the
+     *               fields never match
+     * @param type Class type for the result
+     * @param <T> Type of the result object
+     * @return Future completed with the first matching document converted to type T, or null
+     *         if none matches
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public <T> CompletableFuture<T> findFirstAsync(String collection, Map<String, Object> fields, Class<T> type) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(fields, "fields");
+        validateParameters(type, "type");
+
+        logger.debug("Finding document in collection '{}' matching {}", collection, fields.keySet());
+
+        return toCompletableFuture(whereEqual(firestore.collection(collection), fields).limit(1).get(),
+                "Failed to query collection '" + collection + "'",
+                "Failed to query documents: ")
+            .thenApply(snapshot -> snapshot.isEmpty() ? null : convert(snapshot.getDocuments().get(0), type));
+    }
+
+    /**
+     * Streams up to limit documents in document ID order, delivering each document as Firestore
+     * returns it rather than collecting the whole result first. Callers page through a large
+     * collection by calling again with the last document ID they received.
+     * Streamed documents bypass the cache.
+     *
+     * @param collection Collection name
+     * @param startAfterDocId Document ID to start after, or null/empty to start at the beginning
+     * @param limit Maximum number of documents to deliver
+     * @param type Class type for the result objects
+     * @param observer Receives each converted document with its document ID, then onCompleted,
+     *                 or onError with a FirestoreException; called on Firestore's callback thread
+     * @param <T> Type of the result objects
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if collection, type or observer is null
+     */
+    public <T> void stream(String collection, @Nullable String startAfterDocId, int limit, Class<T> type,
+                           DocumentStreamObserver<T> observer) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(type, "type");
+        validateParameters(observer, "observer");
+
+        logger.debug("Streaming up to {} documents from collection '{}' (after: {})",
+                    limit, collection, startAfterDocId == null || startAfterDocId.isEmpty() ? "<start>" : startAfterDocId);
+
+        Query query = firestore.collection(collection)
+            .orderBy(FieldPath.documentId())
+            .limit(limit);
+        if (startAfterDocId != null && !startAfterDocId.isEmpty()) {
+            query = query.startAfter(startAfterDocId);
+        }
+
+        query.stream(new ApiStreamObserver<DocumentSnapshot>() {
+            private boolean failed;
+
+            @Override
+            public void onNext(DocumentSnapshot document) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    T item = convert(document, type);
+                    if (item != null) {
+                        observer.onNext(document.getId(), item);
+                    }
+                } catch (RuntimeException e) {
+                    failed = true;
+                    logger.error("Failed to convert streamed document '{}' from collection '{}'", document.getId(), collection, e);
+                    observer.onError(new FirestoreException("Failed to stream documents: " + e.getMessage(), e));
                 }
             }
 
-            logger.info("Retrieved {} documents from collection '{}'", results.size(), collection);
-            return results;
+            @Override
+            public void onError(Throwable t) {
+                if (failed) {
+                    return;
+                }
+                failed = true;
+                logger.error("Failed to stream documents from collection '{}'", collection, t);
+                observer.onError(new FirestoreException("Failed to stream documents: " + t.getMessage(), t));
+            }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.error("Document retrieval interrupted for collection '{}'", collection, e);
-            throw new FirestoreException("Document retrieval was interrupted", e);
-        } catch (ExecutionException e) {
-            logger.error("Failed to retrieve documents from collection '{}'", collection, e);
-            throw new FirestoreException("Failed to retrieve documents: " + e.getMessage(), e);
-        }
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    observer.onCompleted();
+                }
+            }
+        });
     }
 
     /**
@@ -258,77 +636,180 @@ public class FirestoreService {
      * @param data Updated document data
      * @param type Class type for the result
      * @param <T> Type of the result object
-     * @return The updated document converted to type T
+     * @return The written fields converted to type T
+     * @throws DocumentNotFoundException if the document does not exist
      * @throws FirestoreException if update fails or Firestore is not connected
      * @throws IllegalArgumentException if any parameter is null
      */
-    @SuppressWarnings("null")
     public <T> T update(String collection, String docId, Map<String, Object> data, Class<T> type) {
+        return await(updateAsync(collection, docId, data, type), "Document update");
+    }
+
+    /**
+     * Updates an existing document without blocking the calling thread.
+     *
+     * @param collection Collection name
+     * @param docId Document ID
+     * @param data Updated document data
+     * @param type Class type for the result
+     * @param <T> Type of the result object
+     * @return Future completed with the written fields converted to type T, or completed
+     *         exceptionally with a DocumentNotFoundException if the document does not exist.
+     *         The update is a single round trip: no existence check and no read-back for Map results.
+     *         Other types are read back after the write, giving the whole merged document.
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    @SuppressWarnings("null")
+    public <T> CompletableFuture<T> updateAsync(String collection, String docId, Map<String, Object> data, Class<T> type) {
         validateConnection();
         validateParameters(collection, "collection");
         validateParameters(docId, "docId");
         validateParameters(data, "data");
         validateParameters(type, "type");
 
-        try {
-            logger.info("Updating document in collection '{}' with ID '{}'", collection, docId);
+        logger.info("Updating document in collection '{}' with ID '{}'", collection, docId);
+
+        DocumentReference docRef = firestore.collection(collection).document(docId);
 
-            // Check if document exists
-            if (!exists(collection, docId)) {
-                logger.warn("Cannot update non-existent document: collection '{}', ID '{}'", collection, docId);
-                throw new FirestoreException("Document not found: " + docId);
+        // update() carries an implicit exists precondition, so a missing document
+        // fails the write itself rather than needing a separate existence check
+        CompletableFuture<T> updated = new CompletableFuture<>();
+        ApiFutures.addCallback(docRef.update(data), new ApiFutureCallback<WriteResult>() {
+            @Override
+            public void onSuccess(WriteResult result) {
+                logger.info("Document updated successfully at {}", result.getUpdateTime());
+                // Invalidate before any read-back, so it cannot be served the pre-update entry
+                invalidate(collection, docId);
+                fromWrittenData(collection, docId, data, type).whenComplete((value, error) -> {
+                    if (error != null) {
+                        updated.completeExceptionally(error);
+                    } else {
+                        updated.complete(value);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                invalidate(collection, docId);
+                if (isNotFound(t)) {
+                    logger.warn("Cannot update non-existent document: collection '{}', ID '{}'", collection, docId);
+                    updated.completeExceptionally(new DocumentNotFoundException("Document not found: " + docId, t));
+                } else {
+                    logger.error("Failed to update document in collection '{}', ID '{}'", collection, docId, t);
+                    updated.completeExceptionally(new FirestoreException("Failed to update document: " + t.getMessage(), t));
+                }
             }
+        }, MoreExecutors.directExecutor());
+        return updated;
+    }
+
+    /**
+     * Deletes a document from a collection.
+     *
+     * @param collection Collection name
+     * @param docId Document ID
+     * @throws FirestoreException if deletion fails or Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public void delete(String collection, String docId) {
+        await(deleteAsync(collection, docId), "Document deletion");
+    }
 
-            DocumentReference docRef = firestore.collection(collection).document(docId);
-            ApiFuture<WriteResult> future = docRef.update(data);
+    /**
+     * Deletes a document from a collection without blocking the calling thread.
+     * Deleting a missing document succeeds. When the counter is maintained, the deletion runs
+     * in a transaction that only decrements it if the document existed.
+     *
+     * @param collection Collection name
+     * @param docId Document ID
+     * @return Future completed once the deletion is committed
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    @SuppressWarnings("null")
+    public CompletableFuture<Void> deleteAsync(String collection, String docId) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(docId, "docId");
 
-            WriteResult result = future.get();
-            logger.info("Document updated successfully at {}", result.getUpdateTime());
+        logger.info("Deleting document from collection '{}' with ID '{}'", collection, docId);
 
-            // Retrieve the updated document
-            return get(collection, docId, type);
+        DocumentReference docRef = firestore.collection(collection).document(docId);
+        String logMessage = "Failed to delete document from collection '" + collection + "', ID '" + docId + "'";
+        String errorPrefix = "Failed to delete document: ";
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.error("Document update interrupted for collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Document update was interrupted", e);
-        } catch (ExecutionException e) {
-            logger.error("Failed to update document in collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Failed to update document: " + e.getMessage(), e);
+        CompletableFuture<?> deleted;
+        if (maintainCounter) {
+            deleted = seedCounter(collection).thenCompose(ignored -> toCompletableFuture(
+                firestore.runTransaction(transaction -> {
+                    if (transaction.get(docRef).get().exists()) {
+                        transaction.delete(docRef);
+                        incrementCounter(transaction, collection, -1);
+                    }
+                    return null;
+                }), logMessage, errorPrefix));
+        } else {
+            deleted = toCompletableFuture(docRef.delete(), logMessage, errorPrefix);
         }
+
+        return deleted
+            .thenAccept(result -> logger.info("Document deleted successfully from collection '{}', ID '{}'", collection, docId))
+            .whenComplete((result, error) -> invalidate(collection, docId));
     }
 
     /**
-     * Deletes a document from a collection.
+     * Deletes an existing document without blocking the calling thread.
+     * The delete carries an exists precondition, so a missing document fails the write itself
+     * instead of needing a separate existence check: one round trip and no race between the
+     * check and the delete. When the counter is maintained, the decrement is committed in the
+     * same batch and so only applies if the document existed.
      *
      * @param collection Collection name
      * @param docId Document ID
-     * @throws FirestoreException if deletion fails or Firestore is not connected
+     * @return Future completed once the deletion is committed, or completed exceptionally
+     *         with a DocumentNotFoundException if the document does not exist
+     * @throws FirestoreException if Firestore is not connected
      * @throws IllegalArgumentException if any parameter is null
      */
     @SuppressWarnings("null")
-    public void delete(String collection, String docId) {
+    public CompletableFuture<Void> deleteExistingAsync(String collection, String docId) {
         validateConnection();
         validateParameters(collection, "collection");
         validateParameters(docId, "docId");
 
-        try {
-            logger.info("Deleting document from collection '{}' with ID '{}'", collection, docId);
-
-            DocumentReference docRef = firestore.collection(collection).document(docId);
-            ApiFuture<WriteResult> future = docRef.delete();
+        logger.info("Deleting existing document from collection '{}' with ID '{}'", collection, docId);
 
-            WriteResult result = future.get();
-            logger.info("Document deleted successfully at {}", result.getUpdateTime());
+        DocumentReference docRef = firestore.collection(collection).document(docId);
+        String logMessage = "Failed to delete document from collection '" + collection + "', ID '" + docId + "'";
+        String errorPrefix = "Failed to delete document: ";
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.error("Document deletion interrupted for collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Document deletion was interrupted", e);
-        } catch (ExecutionException e) {
-            logger.error("Failed to delete document from collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Failed to delete document: " + e.getMessage(), e);
+        CompletableFuture<?> deleted;
+        if (maintainCounter) {
+            deleted = seedCounter(collection).thenCompose(ignored -> {
+                WriteBatch batch = firestore.batch();
+                batch.delete(docRef, Precondition.exists(true));
+                incrementCounter(batch, collection, -1);
+                return toCompletableFuture(batch.commit(), logMessage, errorPrefix);
+            });
+        } else {
+            deleted = toCompletableFuture(docRef.delete(Precondition.exists(true)), logMessage, errorPrefix);
         }
+
+        return deleted.handle((result, error) -> {
+            invalidate(collection, docId);
+            if (error == null) {
+                logger.info("Document deleted successfully from collection '{}', ID '{}'", collection, docId);
+                return null;
+            }
+            Throwable cause = unwrap(error);
+            if (isNotFound(cause)) {
+                logger.warn("Cannot delete non-existent document: collection '{}', ID '{}'", collection, docId);
+                throw new DocumentNotFoundException("Document not found: " + docId, cause);
+            }
+            throw new CompletionException(cause);
+        });
     }
 
     /**
@@ -339,32 +820,61 @@ public class FirestoreService {
      * @throws FirestoreException if count fails or Firestore is not connected
      * @throws IllegalArgumentException if collection is null
      */
-    @SuppressWarnings("null")
     public long count(String collection) {
+        return await(countAsync(collection), "Document count");
+    }
+
+    /**
+     * Counts the total number of documents in a collection without blocking the calling thread.
+     * Sums the counter shards when app.firebase.maintain-counter is enabled, seeding them from
+     * a count() aggregation on first use; otherwise runs the server-side count() aggregation.
+     * Either way no documents of the collection are downloaded.
+     *
+     * @param collection Collection name
+     * @return Future completed with the total number of documents
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if collection is null
+     */
+    @SuppressWarnings("null")
+    public CompletableFuture<Long> countAsync(String collection) {
         validateConnection();
         validateParameters(collection, "collection");
 
-        try {
-            logger.debug("Counting documents in collection '{}'", collection);
-
-            // Note: Firestore doesn't have a native count operation, so we need to fetch all documents
-            // For production use with large collections, consider using aggregation queries
-            // or maintaining a separate counter document
-            ApiFuture<QuerySnapshot> future = firestore.collection(collection).get();
-            QuerySnapshot querySnapshot = future.get();
+        logger.debug("Counting documents in collection '{}'", collection);
 
-            long count = querySnapshot.size();
-            logger.debug("Collection '{}' contains {} documents", collection, count);
-            return count;
+        if (cache != null) {
+            Long cached = cache.getQuery(collection, COUNT_SHAPE);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        long generation = cache != null ? cache.generation(collection) : 0;
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.error("Document count interrupted for collection '{}'", collection, e);
-            throw new FirestoreException("Document count was interrupted", e);
-        } catch (ExecutionException e) {
-            logger.error("Failed to count documents in collection '{}'", collection, e);
-            throw new FirestoreException("Failed to count documents: " + e.getMessage(), e);
+        CompletableFuture<Long> count;
+        if (maintainCounter) {
+            count = seedCounter(collection)
+                .thenCompose(ignored -> toCompletableFuture(counterShards(collection).get(),
+                    "Failed to read counter for collection '" + collection + "'",
+                    "Failed to count documents: "))
+                .thenApply(shards -> {
+                    long value = 0;
+                    for (QueryDocumentSnapshot shard : shards.getDocuments()) {
+                        Long shardCount = shard.getLong(COUNT_FIELD);
+                        value += shardCount != null ? shardCount : 0;
+                    }
+                    logger.debug("Collection '{}' contains {} documents (counter)", collection, value);
+                    return value;
+                });
+        } else {
+            count = aggregateCount(collection);
         }
+
+        return count.thenApply(value -> {
+            if (cache != null) {
+                cache.putQuery(collection, COUNT_SHAPE, value, generation);
+            }
+            return value;
+        });
     }
 
     /**
@@ -376,31 +886,567 @@ public class FirestoreService {
      * @throws FirestoreException if check fails or Firestore is not connected
      * @throws IllegalArgumentException if any parameter is null
      */
-    @SuppressWarnings("null")
     public boolean exists(String collection, String docId) {
+        return await(existsAsync(collection, docId), "Document existence check");
+    }
+
+    /**
+     * Checks if a document exists in a collection without blocking the calling thread.
+     *
+     * @param collection Collection name
+     * @param docId Document ID
+     * @return Future completed with true if the document exists, false otherwise
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    @SuppressWarnings("null")
+    public CompletableFuture<Boolean> existsAsync(String collection, String docId) {
         validateConnection();
         validateParameters(collection, "collection");
         validateParameters(docId, "docId");
 
-        try {
-            logger.debug("Checking if document exists: collection '{}', ID '{}'", collection, docId);
+        logger.debug("Checking if document exists: collection '{}', ID '{}'", collection, docId);
 
-            DocumentReference docRef = firestore.collection(collection).document(docId);
-            ApiFuture<DocumentSnapshot> future = docRef.get();
-            DocumentSnapshot document = future.get();
+        return fetchDocument(collection, docId,
+                "Failed to check document existence for collection '" + collection + "', ID '" + docId + "'",
+                "Failed to check document existence: ")
+            .thenApply(document -> {
+                boolean exists = document.exists();
+                logger.debug("Document existence check: collection '{}', ID '{}', exists: {}",
+                            collection, docId, exists);
+                return exists;
+            });
+    }
 
-            boolean exists = document.exists();
-            logger.debug("Document existence check: collection '{}', ID '{}', exists: {}",
-                        collection, docId, exists);
-            return exists;
+    /**
+     * Creates many documents in as few round trips as possible.
+     *
+     * @param collection Collection name
+     * @param documents Document data keyed by document ID
+     * @return Which documents were written and which failed
+     * @throws FirestoreException if Firestore is not connected or the operation is interrupted
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public BulkWriteResult createAll(String collection, Map<String, Map<String, Object>> documents) {
+        return await(createAllAsync(collection, documents), "Batch document creation");
+    }
+
+    /**
+     * Creates many documents without blocking the calling thread.
+     * Documents are split into WriteBatch chunks of at most 500 operations (Firestore's limit,
+     * including the counter increment when app.firebase.maintain-counter is enabled) and the
+     * chunks are committed concurrently. Each chunk is atomic; a failed chunk reports all of
+     * its documents as failed and does not affect the others. Documents are written with
+     * create(), so a chunk containing an existing ID fails.
+     *
+     * @param collection Collection name
+     * @param documents Document data keyed by document ID
+     * @return Future completed with which documents were written and which failed; it does not
+     *         complete exceptionally for failed chunks
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public CompletableFuture<BulkWriteResult> createAllAsync(String collection, Map<String, Map<String, Object>> documents) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(documents, "documents");
+
+        logger.info("Creating {} documents in collection '{}'", documents.size(), collection);
 
+        CollectionReference collectionRef = firestore.collection(collection);
+        return commitInBatches(collection, new ArrayList<>(documents.keySet()), chunk -> {
+                WriteBatch batch = firestore.batch();
+                for (String docId : chunk) {
+                    batch.create(collectionRef.document(docId), documents.get(docId));
+                }
+                if (maintainCounter) {
+                    incrementCounter(batch, collection, chunk.size());
+                }
+                return batch.commit();
+            }, "create")
+            .whenComplete((result, error) -> invalidateCache(collection));
+    }
+
+    /**
+     * Updates many existing documents.
+     *
+     * @param collection Collection name
+     * @param documents Updated fields keyed by document ID
+     * @return Which documents were written and which failed
+     * @throws FirestoreException if Firestore is not connected or the operation is interrupted
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public BulkWriteResult updateAll(String collection, Map<String, Map<String, Object>> documents) {
+        return await(updateAllAsync(collection, documents), "Batch document update");
+    }
+
+    /**
+     * Updates many existing documents without blocking the calling thread.
+     * Uses a BulkWriter rather than WriteBatches: updates of missing documents fail one by one
+     * instead of aborting a whole batch, and the BulkWriter ramps up throughput and retries
+     * contended writes on its own.
+     *
+     * @param collection Collection name
+     * @param documents Updated fields keyed by document ID
+     * @return Future completed with which documents were written and which failed
+     *         ("Document not found: ..." for missing documents)
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public CompletableFuture<BulkWriteResult> updateAllAsync(String collection, Map<String, Map<String, Object>> documents) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(documents, "documents");
+
+        logger.info("Updating {} documents in collection '{}'", documents.size(), collection);
+
+        CollectionReference collectionRef = firestore.collection(collection);
+        BulkWriter writer = firestore.bulkWriter();
+        List<CompletableFuture<BulkWriteResult>> outcomes = new ArrayList<>(documents.size());
+        for (Map.Entry<String, Map<String, Object>> entry : documents.entrySet()) {
+            String docId = entry.getKey();
+            CompletableFuture<BulkWriteResult> outcome = new CompletableFuture<>();
+            ApiFutures.addCallback(writer.update(collectionRef.document(docId), entry.getValue()),
+                new ApiFutureCallback<WriteResult>() {
+                    @Override
+                    public void onSuccess(WriteResult result) {
+                        outcome.complete(BulkWriteResult.succeeded(List.of(docId)));
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        String error = isNotFound(t) ? "Document not found: " + docId : t.getMessage();
+                        logger.warn("Failed to update document in collection '{}', ID '{}': {}", collection, docId, error);
+                        outcome.complete(BulkWriteResult.failed(List.of(docId), error));
+                    }
+                }, MoreExecutors.directExecutor());
+            outcomes.add(outcome);
+        }
+
+        // Send everything that is still buffered; close() only releases the writer once flushed
+        ApiFutures.addCallback(writer.flush(), new ApiFutureCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                writer.close();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.error("Failed to flush bulk update of collection '{}'", collection, t);
+                writer.close();
+            }
+        }, MoreExecutors.directExecutor());
+
+        return collect(collection, "update", outcomes)
+            .whenComplete((result, error) -> invalidateCache(collection));
+    }
+
+    /**
+     * Deletes many documents.
+     *
+     * @param collection Collection name
+     * @param docIds IDs of the documents to delete
+     * @return Which documents were deleted and which failed
+     * @throws FirestoreException if Firestore is not connected or the operation is interrupted
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public BulkWriteResult deleteAll(String collection, List<String> docIds) {
+        return await(deleteAllAsync(collection, docIds), "Batch document deletion");
+    }
+
+    /**
+     * Deletes many documents without blocking the calling thread, in chunks of at most 500
+     * operations committed concurrently (see createAllAsync). Deleting a missing document
+     * succeeds. When the counter is maintained each chunk is a transaction that reads the
+     * documents first and only counts the ones that existed.
+     *
+     * @param collection Collection name
+     * @param docIds IDs of the documents to delete
+     * @return Future completed with which documents were deleted and which failed
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public CompletableFuture<BulkWriteResult> deleteAllAsync(String collection, List<String> docIds) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(docIds, "docIds");
+
+        logger.info("Deleting {} documents from collection '{}'", docIds.size(), collection);
+
+        CollectionReference collectionRef = firestore.collection(collection);
+        return commitInBatches(collection, docIds, chunk -> {
+                if (maintainCounter) {
+                    return firestore.runTransaction(transaction -> {
+                        DocumentReference[] refs = chunk.stream().distinct()
+                            .map(collectionRef::document)
+                            .toArray(DocumentReference[]::new);
+                        long deleted = 0;
+                        for (DocumentSnapshot document : transaction.getAll(refs).get()) {
+                            if (document.exists()) {
+                                transaction.delete(document.getReference());
+                                deleted++;
+                            }
+                        }
+                        if (deleted > 0) {
+                            incrementCounter(transaction, collection, -deleted);
+                        }
+                        return null;
+                    });
+                }
+                WriteBatch batch = firestore.batch();
+                for (String docId : chunk) {
+                    batch.delete(collectionRef.document(docId));
+                }
+                return batch.commit();
+            }, "delete")
+            .whenComplete((result, error) -> invalidateCache(collection));
+    }
+
+    /**
+     * Registers a real-time listener on a whole collection. The first event carries every
+     * document; later events carry only the changed documents in getDocumentChanges().
+     *
+     * @param collection Collection name
+     * @param listener Callback invoked on Firestore's listener thread
+     * @return Registration used to stop listening
+     * @throws FirestoreException if Firestore is not connected
+     * @throws IllegalArgumentException if any parameter is null
+     */
+    public ListenerRegistration addSnapshotListener(String collection, EventListener<QuerySnapshot> listener) {
+        validateConnection();
+        validateParameters(collection, "collection");
+        validateParameters(listener, "listener");
+
+        logger.info("Registering snapshot listener on collection '{}'", collection);
+        return firestore.collection(collection).addSnapshotListener(listener);
+    }
+
+    /**
+     * Registers a codec used to convert documents whenever a read requests its type,
+     * instead of Firestore's reflection-based POJO mapper.
+     *
+     * @param type Result type the codec produces
+     * @param codec Codec for that type
+     * @param <T> Type of the decoded documents
+     */
+    public <T> void registerCodec(Class<T> type, DocumentCodec<T> codec) {
+        validateParameters(type, "type");
+        validateParameters(codec, "codec");
+        codecs.put(type, codec);
+        logger.debug("Registered document codec for {}", type.getSimpleName());
+    }
+
+    /**
+     * Returns hit, miss and eviction counters of the read-through cache.
+     *
+     * @return Cache statistics (all zero when the cache is disabled)
+     */
+    public CacheStats getCacheStats() {
+        return cache != null ? cache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Drops every cached entry of a collection. Use after writes made outside this service.
+     *
+     * @param collection Collection name
+     */
+    public void invalidateCache(String collection) {
+        if (cache != null) {
+            cache.invalidateCollection(collection);
+        }
+    }
+
+    // ========== Private Helper Methods ==========
+
+    /**
+     * Reads a document snapshot, serving it from the cache when present.
+     * Only existing documents are cached.
+     */
+    private CompletableFuture<DocumentSnapshot> fetchDocument(String collection, String docId,
+                                                               String logMessage, String errorPrefix) {
+        if (cache != null) {
+            DocumentSnapshot cached = cache.getDocument(collection, docId);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        long generation = cache != null ? cache.generation(collection) : 0;
+
+        DocumentReference docRef = firestore.collection(collection).document(docId);
+        return toCompletableFuture(docRef.get(), logMessage, errorPrefix)
+            .thenApply(document -> {
+                if (cache != null && document.exists()) {
+                    cache.putDocument(collection, docId, document, generation);
+                }
+                return document;
+            });
+    }
+
+    /**
+     * Runs a query, serving its documents from the cache when the same shape was read since the
+     * last write. Returned documents also warm the per-document cache.
+     *
+     * @param shape Identifies the query within the collection (paging mode, position, size)
+     */
+    private CompletableFuture<List<QueryDocumentSnapshot>> fetchQuery(String collection, String shape, Query query,
+                                                                        String logMessage, String errorPrefix) {
+        if (cache != null) {
+            List<QueryDocumentSnapshot> cached = cache.getQuery(collection, shape);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        long generation = cache != null ? cache.generation(collection) : 0;
+
+        return toCompletableFuture(query.get(), logMessage, errorPrefix)
+            .thenApply(querySnapshot -> {
+                List<QueryDocumentSnapshot> documents = querySnapshot.getDocuments();
+                if (cache != null) {
+                    cache.putQuery(collection, shape, documents, generation);
+                    for (QueryDocumentSnapshot document : documents) {
+                        cache.putDocument(collection, document.getId(), document, generation);
+                    }
+                }
+                return documents;
+            });
+    }
+
+    /**
+     * Invalidates cached entries affected by a write to a document.
+     */
+    private void invalidate(String collection, String docId) {
+        if (cache != null) {
+            cache.invalidate(collection, docId);
+        }
+    }
+
+    /**
+     * Runs a server-side count() aggregation; billed per index entry batch, not per document read.
+     */
+    private CompletableFuture<Long> aggregateCount(String collection) {
+        return toCompletableFuture(firestore.collection(collection).count().get(),
+                "Failed to count documents in collection '" + collection + "'",
+                "Failed to count documents: ")
+            .thenApply(snapshot -> {
+                long count = snapshot.getCount();
+                logger.debug("Collection '{}' contains {} documents", collection, count);
+                return count;
+            });
+    }
+
+    /**
+     * Shard documents of the counter maintained for a collection; the count is their sum.
+     * Each write increments a random shard, so concurrent writes rarely contend on one document.
+     */
+    private CollectionReference counterShards(String collection) {
+        return firestore.collection(counterCollection).document(collection).collection(COUNTER_SHARDS_COLLECTION);
+    }
+
+    /**
+     * Makes sure the counter of a collection exists before it is used. The first call per
+     * collection seeds it, in a transaction, from a count() aggregation unless another instance
+     * already has; later calls share that result. A failed seed is retried by the next caller.
+     */
+    private CompletableFuture<Void> seedCounter(String collection) {
+        CompletableFuture<Void> seeded = seededCounters.computeIfAbsent(collection, c -> {
+            CollectionReference shards = counterShards(c);
+            return toCompletableFuture(firestore.runTransaction(transaction -> {
+                    if (!transaction.get(shards).get().isEmpty()) {
+                        return null;
+                    }
+                    long count = transaction.get(firestore.collection(c).count()).get().getCount();
+                    for (int shard = 0; shard < COUNTER_SHARDS; shard++) {
+                        transaction.create(shards.document(String.valueOf(shard)),
+                            Map.<String, Object>of(COUNT_FIELD, shard == 0 ? count : 0L));
+                    }
+                    logger.info("Seeded counter for collection '{}' with {} documents", c, count);
+                    return null;
+                }),
+                "Failed to seed counter for collection '" + c + "'",
+                "Failed to seed document counter: ");
+        });
+        seeded.whenComplete((result, error) -> {
+            if (error != null) {
+                seededCounters.remove(collection, seeded);
+            }
+        });
+        return seeded;
+    }
+
+    /**
+     * Adds a counter adjustment to a batch or transaction, on a random shard.
+     */
+    private void incrementCounter(UpdateBuilder<?> writes, String collection, long delta) {
+        int shard = ThreadLocalRandom.current().nextInt(COUNTER_SHARDS);
+        writes.set(counterShards(collection).document(String.valueOf(shard)),
+            Map.<String, Object>of(COUNT_FIELD, FieldValue.increment(delta)), SetOptions.merge());
+    }
+
+    /**
+     * Splits a multi-document write into chunks that fit Firestore's per-batch operation limit
+     * and commits them concurrently. When counter maintenance is enabled each chunk leaves room
+     * for its own counter adjustment, so the counter stays consistent with whichever chunks
+     * commit, and no chunk is committed before the counter is seeded.
+     *
+     * @param collection Collection written to
+     * @param docIds Documents to write, in order
+     * @param commitChunk Commits the writes for one chunk of document IDs
+     * @param action Verb used in log and error messages
+     */
+    private CompletableFuture<BulkWriteResult> commitInBatches(String collection, List<String> docIds,
+                                                               Function<List<String>, ApiFuture<?>> commitChunk,
+                                                               String action) {
+        int chunkSize = maintainCounter ? MAX_BATCH_OPERATIONS - 1 : MAX_BATCH_OPERATIONS;
+        CompletableFuture<Void> ready = maintainCounter ? seedCounter(collection) : CompletableFuture.completedFuture(null);
+        List<CompletableFuture<BulkWriteResult>> outcomes = new ArrayList<>();
+
+        for (int start = 0; start < docIds.size(); start += chunkSize) {
+            List<String> chunk = docIds.subList(start, Math.min(start + chunkSize, docIds.size()));
+
+            outcomes.add(ready
+                .thenCompose(ignored -> toCompletableFuture(commitChunk.apply(chunk),
+                    "Failed to " + action + " batch of " + chunk.size() + " documents in collection '" + collection + "'",
+                    "Failed to " + action + " documents: "))
+                .handle((results, error) -> error == null
+                    ? BulkWriteResult.succeeded(chunk)
+                    : BulkWriteResult.failed(chunk, unwrap(error).getMessage())));
+        }
+
+        return collect(collection, action, outcomes);
+    }
+
+    /**
+     * Waits for every partial outcome of a multi-document write and merges them in order.
+     */
+    private static CompletableFuture<BulkWriteResult> collect(String collection, String action,
+                                                              List<CompletableFuture<BulkWriteResult>> outcomes) {
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> {
+                List<BulkWriteResult> results = new ArrayList<>(outcomes.size());
+                for (CompletableFuture<BulkWriteResult> outcome : outcomes) {
+                    results.add(outcome.join());
+                }
+                BulkWriteResult result = BulkWriteResult.merge(results);
+                logger.info("Batch {} in collection '{}': {} written, {} failed",
+                           action, collection, result.getWritten().size(), result.getFailures().size());
+                return result;
+            });
+    }
+
+    /**
+     * Restricts a query to documents whose fields equal the given values.
+     */
+    private static Query whereEqual(Query query, Map<String, Object> fields) {
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            query = query.whereEqualTo(field.getKey(), field.getValue());
+        }
+        return query;
+    }
+
+    /**
+     * Converts a document snapshot to the requested type, using its registered codec if any.
+     */
+    private <T> T convert(DocumentSnapshot document, Class<T> type) {
+        DocumentCodec<?> codec = codecs.get(type);
+        if (codec != null) {
+            return type.cast(codec.decode(document));
+        }
+        if (type == Map.class) {
+            return type.cast(document.getData());
+        }
+        return document.toObject(type);
+    }
+
+    /**
+     * Builds the result of a write from the data that was sent, avoiding a read-back.
+     * Map results are a read-only view of the data (no copy per write); other types fall
+     * back to a read because Firestore's POJO mapper is only available on snapshots.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> fromWrittenData(String collection, String docId, Map<String, Object> data, Class<T> type) {
+        if (type == Map.class) {
+            return CompletableFuture.completedFuture((T) Collections.unmodifiableMap(data));
+        }
+        return getAsync(collection, docId, type);
+    }
+
+    /**
+     * Strips the CompletionException wrapper added by CompletableFuture stages.
+     */
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Checks whether a Firestore failure reports a missing document.
+     */
+    private static boolean isNotFound(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException
+                    && ((ApiException) cause).getStatusCode().getCode() == StatusCode.Code.NOT_FOUND) {
+                return true;
+            }
+            if (cause instanceof StatusRuntimeException
+                    && ((StatusRuntimeException) cause).getStatus().getCode() == Status.Code.NOT_FOUND) {
+                return true;
+            }
+            if (cause instanceof com.google.cloud.firestore.FirestoreException) {
+                Status status = ((com.google.cloud.firestore.FirestoreException) cause).getStatus();
+                if (status != null && status.getCode() == Status.Code.NOT_FOUND) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bridges an ApiFuture to a CompletableFuture using a callback, so no thread waits on the result.
+     * Failures are logged and surfaced as a FirestoreException.
+     *
+     * @param future Firestore future to bridge
+     * @param logMessage Message logged when the operation fails
+     * @param errorPrefix Prefix for the FirestoreException message
+     */
+    private static <V> CompletableFuture<V> toCompletableFuture(ApiFuture<V> future, String logMessage, String errorPrefix) {
+        CompletableFuture<V> completable = new CompletableFuture<>();
+        ApiFutures.addCallback(future, new ApiFutureCallback<V>() {
+            @Override
+            public void onSuccess(V result) {
+                completable.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.error(logMessage, t);
+                completable.completeExceptionally(new FirestoreException(errorPrefix + t.getMessage(), t));
+            }
+        }, MoreExecutors.directExecutor());
+        return completable;
+    }
+
+    /**
+     * Waits for an async operation, unwrapping failures for the blocking API.
+     *
+     * @param future Future returned by one of the *Async methods
+     * @param operation Operation name used in the interruption message
+     */
+    private static <T> T await(CompletableFuture<T> future, String operation) {
+        try {
+            return future.get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            logger.error("Document existence check interrupted for collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Document existence check was interrupted", e);
+            logger.error("{} interrupted", operation, e);
+            throw new FirestoreException(operation + " was interrupted", e);
         } catch (ExecutionException e) {
-            logger.error("Failed to check document existence for collection '{}', ID '{}'", collection, docId, e);
-            throw new FirestoreException("Failed to check document existence: " + e.getMessage(), e);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new FirestoreException(operation + " failed: " + cause.getMessage(), cause);
         }
     }
 }
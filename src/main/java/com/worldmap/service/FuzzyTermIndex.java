@@ -0,0 +1,174 @@
+package com.worldmap.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the terms within a small edit distance of a query term (SymSpell-style).
+ *
+ * Every term is stored under each string obtained by deleting up to maxDistance of its
+ * characters. Two strings within distance d share such a deletion, so a lookup only
+ * generates the query's own deletions and checks the terms stored under them, instead of
+ * comparing the query against the whole vocabulary. The deletions are computed once per term
+ * when it is added, which keeps lookups in the microseconds whatever the vocabulary size.
+ *
+ * Distances count insertions, deletions, substitutions and swaps of adjacent characters
+ * (teh → the is one edit). Short terms tolerate fewer edits (see allowedDistance), since one
+ * edit turns most pinyin syllables into other syllables.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class FuzzyTermIndex {
+
+    private final int maxDistance;
+    // Deletion variant → terms it was derived from
+    private final Map<String, List<String>> deletions = new HashMap<>();
+
+    /**
+     * @param maxDistance Largest edit distance ever looked up; 0 disables the index
+     */
+    FuzzyTermIndex(int maxDistance) {
+        this.maxDistance = Math.max(0, maxDistance);
+    }
+
+    /**
+     * Adds a term. Each distinct term must be added once and removed once.
+     */
+    void add(String term) {
+        if (maxDistance == 0) {
+            return;
+        }
+        for (String variant : variants(term, allowedDistance(term))) {
+            deletions.computeIfAbsent(variant, key -> new ArrayList<>(1)).add(term);
+        }
+    }
+
+    /**
+     * Removes a previously added term.
+     */
+    void remove(String term) {
+        if (maxDistance == 0) {
+            return;
+        }
+        for (String variant : variants(term, allowedDistance(term))) {
+            List<String> terms = deletions.get(variant);
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                deletions.remove(variant);
+            }
+        }
+    }
+
+    /**
+     * Finds the terms within the distance allowed for the query, excluding the query itself.
+     *
+     * @return Matching terms and their distances, nearest first
+     */
+    Map<String, Integer> lookup(String query) {
+        int distance = allowedDistance(query);
+        Map<String, Integer> matches = new HashMap<>();
+        if (distance == 0) {
+            return matches;
+        }
+        Set<String> checked = new HashSet<>();
+        checked.add(query);
+        for (String variant : variants(query, distance)) {
+            List<String> terms = deletions.get(variant);
+            if (terms == null) {
+                continue;
+            }
+            for (String term : terms) {
+                if (checked.add(term)) {
+                    int d = distance(query, term, Math.min(distance, allowedDistance(term)));
+                    if (d >= 0) {
+                        matches.put(term, d);
+                    }
+                }
+            }
+        }
+
+        Map<String, Integer> nearest = new LinkedHashMap<>();
+        matches.entrySet().stream()
+            .sorted(Map.Entry.comparingByValue())
+            .forEach(match -> nearest.put(match.getKey(), match.getValue()));
+        return nearest;
+    }
+
+    /**
+     * Edits tolerated for a term of this length: none below 3 characters, one up to 5, then
+     * maxDistance.
+     */
+    int allowedDistance(String term) {
+        int length = term.length();
+        if (length < 3) {
+            return 0;
+        }
+        return Math.min(maxDistance, length <= 5 ? 1 : maxDistance);
+    }
+
+    /**
+     * @return The term and every string obtained by deleting up to distance characters
+     */
+    private static Set<String> variants(String term, int distance) {
+        Set<String> variants = new HashSet<>();
+        variants.add(term);
+        Set<String> current = variants;
+        for (int round = 0; round < distance; round++) {
+            Set<String> next = new HashSet<>();
+            for (String variant : current) {
+                for (int i = 0; i < variant.length(); i++) {
+                    String deleted = variant.substring(0, i) + variant.substring(i + 1);
+                    if (!variants.contains(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            variants.addAll(next);
+            current = next;
+        }
+        return variants;
+    }
+
+    /**
+     * Optimal string alignment distance, abandoned as soon as it must exceed max.
+     *
+     * @return The distance, or -1 if it is greater than max
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return -1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return -1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        int distance = previous[b.length()];
+        return distance <= max ? distance : -1;
+    }
+}
@@ -0,0 +1,18 @@
+package com.worldmap.service;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Generates unique IDs for new documents.
+ *
+ * Bound to SnowflakeIdGenerator by default; a Guice module can bind another implementation
+ * (e.g. a fixed sequence in tests) without touching the services that use it.
+ */
+@ImplementedBy(SnowflakeIdGenerator.class)
+public interface IdGenerator {
+
+    /**
+     * @return A new ID, unique across all nodes with distinct node IDs and increasing over time
+     */
+    long nextId();
+}
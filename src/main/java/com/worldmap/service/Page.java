@@ -0,0 +1,62 @@
+package com.worldmap.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * A page of documents returned by cursor-based pagination.
+ *
+ * @param <T> Type of the documents in the page
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public Page(List<T> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * @return Documents in this page, in document ID order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Opaque token for the following page, or an empty string if this is the last page
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    /**
+     * @return true if there are more documents after this page
+     */
+    public boolean hasNextPage() {
+        return !nextPageToken.isEmpty();
+    }
+
+    /**
+     * Encodes a document ID as an opaque, URL-safe page token.
+     */
+    public static String encodeToken(String docId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(docId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a page token back to the document ID to start after.
+     *
+     * @throws IllegalArgumentException if the token is not a valid page token
+     */
+    public static String decodeToken(String pageToken) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token", e);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts pinyin between its written forms:
+ *
+ * - diacritic: nǐ hǎo (how cards are usually entered)
+ * - numbered: ni3 hao3
+ * - toneless: ni hao
+ *
+ * Input may be in any of these forms, or a mix, with or without spaces between syllables:
+ * nǐhǎo, ni3hao3 and nihao are segmented into ni, hao. Segmentation uses the table of valid
+ * syllables and prefers the fewest syllables, then the longest first syllable (fangan → fang an,
+ * xian stays one syllable). An apostrophe, space or tone number always ends a syllable (xi'an).
+ *
+ * ü is written v in the numbered and toneless forms (lü4 → lv4, lv), as pinyin input methods
+ * do, so nü and nu stay distinct. Neutral tones have no number. Words that are not pinyin
+ * (DVD, T恤) are passed through lowercased, so normalizing never loses text.
+ *
+ * Cards store the toneless and numbered forms next to pinyin (see fill), so lookups compare
+ * precomputed fields instead of normalizing every card on every request.
+ */
+final class PinyinNormalizer {
+
+    private static final Set<String> SYLLABLES = new HashSet<>(Arrays.asList((
+        "a ai an ang ao "
+        + "ba bai ban bang bao bei ben beng bi bian biao bie bin bing bo bu "
+        + "ca cai can cang cao ce cen ceng cha chai chan chang chao che chen cheng chi chong chou "
+        + "chu chua chuai chuan chuang chui chun chuo ci cong cou cu cuan cui cun cuo "
+        + "da dai dan dang dao de dei den deng di dia dian diao die ding diu dong dou du duan dui dun duo "
+        + "e ei en eng er "
+        + "fa fan fang fei fen feng fo fou fu "
+        + "ga gai gan gang gao ge gei gen geng gong gou gu gua guai guan guang gui gun guo "
+        + "ha hai han hang hao he hei hen heng hong hou hu hua huai huan huang hui hun huo "
+        + "ji jia jian jiang jiao jie jin jing jiong jiu ju juan jue jun "
+        + "ka kai kan kang kao ke kei ken keng kong kou ku kua kuai kuan kuang kui kun kuo "
+        + "la lai lan lang lao le lei leng li lia lian liang liao lie lin ling liu lo long lou lu "
+        + "luan lun luo lv lve "
+        + "m ma mai man mang mao me mei men meng mi mian miao mie min ming miu mo mou mu "
+        + "n na nai nan nang nao ne nei nen neng ng ni nian niang niao nie nin ning niu nong nou nu "
+        + "nuan nuo nv nve "
+        + "o ou "
+        + "pa pai pan pang pao pei pen peng pi pian piao pie pin ping po pou pu "
+        + "qi qia qian qiang qiao qie qin qing qiong qiu qu quan que qun "
+        + "ran rang rao re ren reng ri rong rou ru rua ruan rui run ruo "
+        + "sa sai san sang sao se sen seng sha shai shan shang shao she shei shen sheng shi shou "
+        + "shu shua shuai shuan shuang shui shun shuo si song sou su suan sui sun suo "
+        + "ta tai tan tang tao te tei teng ti tian tiao tie ting tong tou tu tuan tui tun tuo "
+        + "wa wai wan wang wei wen weng wo wu "
+        + "xi xia xian xiang xiao xie xin xing xiong xiu xu xuan xue xun "
+        + "ya yan yang yao ye yi yin ying yo yong you yu yuan yue yun "
+        + "za zai zan zang zao ze zei zen zeng zha zhai zhan zhang zhao zhe zhei zhen zheng zhi "
+        + "zhong zhou zhu zhua zhuai zhuan zhuang zhui zhun zhuo zi zong zou zu zuan zui zun zuo"
+    ).split(" ")));
+
+    /** Common spellings of lüe and nüe without the umlaut. */
+    private static final Map<String, String> ALIASES = Map.of("lue", "lve", "nue", "nve");
+
+    private static final int MAX_SYLLABLE_LENGTH = 6;
+
+    /** Combining tone marks, indexed by tone number. */
+    private static final char[] TONE_MARKS = {0, '\u0304', '\u0301', '\u030C', '\u0300'};
+    private static final char DIAERESIS = '\u0308';
+
+    private PinyinNormalizer() {
+    }
+
+    /**
+     * One syllable, or one word that is not pinyin.
+     */
+    static final class Syllable {
+        /** Lowercase toneless spelling, with v for ü */
+        final String text;
+        /** 1-4, or 0 for neutral or unknown */
+        final int tone;
+        /** False when the word could not be segmented into syllables */
+        final boolean pinyin;
+
+        Syllable(String text, int tone, boolean pinyin) {
+            this.text = text;
+            this.tone = tone;
+            this.pinyin = pinyin;
+        }
+    }
+
+    /**
+     * Splits text into words (runs of letters between spaces, punctuation and tone numbers),
+     * each segmented into syllables.
+     */
+    static List<List<Syllable>> parse(String text) {
+        List<List<Syllable>> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder letters = new StringBuilder();
+        // Tone of each letter from a combining mark, '0' when unmarked
+        StringBuilder tones = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int length = letters.length();
+            if (c == DIAERESIS || (c == ':' && length > 0 && letters.charAt(length - 1) == 'u')) {
+                if (length > 0 && letters.charAt(length - 1) == 'u') {
+                    letters.setCharAt(length - 1, 'v');
+                }
+            } else if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                int tone = toneOfMark(c);
+                if (tone > 0 && length > 0) {
+                    tones.setCharAt(length - 1, (char) ('0' + tone));
+                }
+            } else if (c >= '1' && c <= '5' && length > 0 && Character.isLetter(letters.charAt(length - 1))) {
+                // A tone number ends its syllable (ni3hao3)
+                addWord(letters, tones, c == '5' ? 0 : c - '0', words);
+            } else if (Character.isLetterOrDigit(c)) {
+                letters.append(Character.toLowerCase(c));
+                tones.append('0');
+            } else {
+                addWord(letters, tones, 0, words);
+            }
+        }
+        addWord(letters, tones, 0, words);
+        return words;
+    }
+
+    /**
+     * @return Toneless syllables (and non-pinyin words), in order
+     */
+    static List<String> syllables(String text) {
+        List<String> syllables = new ArrayList<>();
+        for (List<Syllable> word : parse(text)) {
+            for (Syllable syllable : word) {
+                syllables.add(syllable.text);
+            }
+        }
+        return syllables;
+    }
+
+    /**
+     * @return Space-separated toneless syllables (nǐhǎo → ni hao)
+     */
+    static String toToneless(String text) {
+        return String.join(" ", syllables(text));
+    }
+
+    /**
+     * @return Space-separated syllables with tone numbers (nǐ hǎo → ni3 hao3)
+     */
+    static String toNumbered(String text) {
+        List<String> syllables = new ArrayList<>();
+        for (List<Syllable> word : parse(text)) {
+            for (Syllable syllable : word) {
+                syllables.add(syllable.tone > 0 ? syllable.text + syllable.tone : syllable.text);
+            }
+        }
+        return String.join(" ", syllables);
+    }
+
+    /**
+     * @return Space-separated syllables with tone marks (ni3hao3 → nǐ hǎo)
+     */
+    static String toDiacritic(String text) {
+        List<String> syllables = new ArrayList<>();
+        for (List<Syllable> word : parse(text)) {
+            for (Syllable syllable : word) {
+                syllables.add(syllable.pinyin ? diacritic(syllable) : syllable.text);
+            }
+        }
+        return String.join(" ", syllables);
+    }
+
+    /**
+     * Sets the stored pinyin forms of a card from its pinyin field.
+     */
+    static ChineseFlashCard.Builder fill(ChineseFlashCard.Builder card) {
+        return card
+            .setPinyinToneless(toToneless(card.getPinyin()))
+            .setPinyinNumbered(toNumbered(card.getPinyin()));
+    }
+
+    private static void addWord(StringBuilder letters, StringBuilder tones, int toneNumber,
+                                List<List<Syllable>> words) {
+        if (letters.length() == 0) {
+            return;
+        }
+        String word = letters.toString();
+        List<Syllable> syllables = segment(word, tones);
+        if (syllables == null) {
+            // Erhua: nǎr is na + r
+            if (word.length() > 1 && word.endsWith("r")) {
+                syllables = segment(word.substring(0, word.length() - 1), tones);
+            }
+            if (syllables != null) {
+                Syllable last = syllables.remove(syllables.size() - 1);
+                syllables.add(new Syllable(last.text + "r", last.tone, true));
+            } else {
+                syllables = new ArrayList<>();
+                syllables.add(new Syllable(word, 0, false));
+            }
+        }
+        if (toneNumber > 0) {
+            Syllable last = syllables.remove(syllables.size() - 1);
+            syllables.add(new Syllable(last.text, last.pinyin ? toneNumber : 0, last.pinyin));
+        }
+        words.add(syllables);
+        letters.setLength(0);
+        tones.setLength(0);
+    }
+
+    /**
+     * Splits a word into the fewest valid syllables, preferring longer syllables first.
+     *
+     * @return The syllables, or null if the word is not pinyin
+     */
+    private static List<Syllable> segment(String word, CharSequence tones) {
+        int length = word.length();
+        // count[i]: fewest syllables covering word[i..]; next[i]: end of the first of them
+        int[] count = new int[length + 1];
+        int[] next = new int[length + 1];
+        Arrays.fill(count, Integer.MAX_VALUE);
+        count[length] = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            for (int end = Math.min(length, i + MAX_SYLLABLE_LENGTH); end > i; end--) {
+                if (count[end] != Integer.MAX_VALUE && count[end] + 1 < count[i] && isSyllable(word.substring(i, end))) {
+                    count[i] = count[end] + 1;
+                    next[i] = end;
+                }
+            }
+        }
+        if (count[0] == Integer.MAX_VALUE) {
+            return null;
+        }
+
+        List<Syllable> syllables = new ArrayList<>(count[0]);
+        for (int start = 0; start < length; start = next[start]) {
+            String text = word.substring(start, next[start]);
+            int tone = 0;
+            for (int i = start; i < next[start]; i++) {
+                tone = Math.max(tone, tones.charAt(i) - '0');
+            }
+            syllables.add(new Syllable(ALIASES.getOrDefault(text, text), tone, true));
+        }
+        return syllables;
+    }
+
+    private static boolean isSyllable(String text) {
+        return SYLLABLES.contains(text) || ALIASES.containsKey(text);
+    }
+
+    private static int toneOfMark(char mark) {
+        for (int tone = 1; tone < TONE_MARKS.length; tone++) {
+            if (TONE_MARKS[tone] == mark) {
+                return tone;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Writes a syllable with its tone mark: on a or e if present, on the o of ou, otherwise on
+     * the last vowel (or the first letter of m, n, ng).
+     */
+    private static String diacritic(Syllable syllable) {
+        String text = syllable.text;
+        StringBuilder result = new StringBuilder(text.length() + 2);
+        int markAt = -1;
+        if (syllable.tone > 0) {
+            markAt = text.indexOf('a');
+            if (markAt < 0) {
+                markAt = text.indexOf('e');
+            }
+            if (markAt < 0) {
+                markAt = text.indexOf("ou");
+            }
+            if (markAt < 0) {
+                for (int i = text.length() - 1; i >= 0 && markAt < 0; i--) {
+                    if ("iouv".indexOf(text.charAt(i)) >= 0) {
+                        markAt = i;
+                    }
+                }
+            }
+            if (markAt < 0) {
+                markAt = 0;
+            }
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 'v') {
+                result.append('u').append(DIAERESIS);
+            } else {
+                result.append(c);
+            }
+            if (i == markAt) {
+                result.append(TONE_MARKS[syllable.tone]);
+            }
+        }
+        return Normalizer.normalize(result, Normalizer.Form.NFC);
+    }
+}
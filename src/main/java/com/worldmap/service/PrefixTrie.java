@@ -0,0 +1,231 @@
+package com.worldmap.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Counted prefix trie over strings, stored in parallel arrays.
+ *
+ * Node i has a label character, its first child and next sibling (as node indexes, -1 for
+ * none), and the number of times the string ending at it was added. Siblings are kept in
+ * character order, so a lookup stops at the first larger label. Compared with a node object
+ * and child map per character, the arrays cost a few bytes per node and keep the trie in a
+ * handful of allocations.
+ *
+ * Each key also carries a value, the text shown to callers (keys are normalized, values are
+ * as written); the value of the first add is kept while the key's count stays above zero.
+ *
+ * Removing a key only decrements its count, leaving its nodes in place for a later add; once
+ * more keys are dead than alive the trie is rebuilt without them.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+final class PrefixTrie {
+
+    private static final int NONE = -1;
+    private static final int ROOT = 0;
+
+    private char[] labels = new char[16];
+    private int[] firstChild = new int[16];
+    private int[] nextSibling = new int[16];
+    private int[] counts = new int[16];
+    private String[] values = new String[16];
+    private int nodes;
+    private int liveKeys;
+    private int deadKeys;
+
+    /**
+     * A completion and the number of times its key was added.
+     */
+    static final class Completion {
+        final String value;
+        final int count;
+
+        Completion(String value, int count) {
+            this.value = value;
+            this.count = count;
+        }
+    }
+
+    PrefixTrie() {
+        newNode((char) 0);
+    }
+
+    /**
+     * Adds one occurrence of a key.
+     */
+    void add(String key, String value) {
+        int node = ROOT;
+        for (int i = 0; i < key.length(); i++) {
+            node = child(node, key.charAt(i), true);
+        }
+        if (counts[node]++ == 0) {
+            // A zero-count node with a value ends a removed key that is coming back
+            if (values[node] != null) {
+                deadKeys--;
+            }
+            values[node] = value;
+            liveKeys++;
+        }
+    }
+
+    /**
+     * Removes one occurrence of a key; does nothing if the key is not present.
+     */
+    void remove(String key) {
+        int node = find(key);
+        if (node == NONE || counts[node] == 0) {
+            return;
+        }
+        if (--counts[node] == 0) {
+            // The value stays until compaction, marking the node as a dead key
+            liveKeys--;
+            deadKeys++;
+            if (deadKeys > liveKeys) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * @return Number of distinct keys with a positive count
+     */
+    int size() {
+        return liveKeys;
+    }
+
+    /**
+     * Finds the most frequent keys starting with a prefix.
+     *
+     * @param limit Maximum number of completions
+     * @return Completions by count descending, then shorter value, then value
+     */
+    List<Completion> complete(String prefix, int limit) {
+        int start = find(prefix);
+        if (start == NONE || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Comparator<Completion> rank = Comparator.<Completion>comparingInt(c -> -c.count)
+            .thenComparingInt(c -> c.value.length())
+            .thenComparing(c -> c.value);
+        // Min-heap of the best completions so far; the worst one is evicted first
+        PriorityQueue<Completion> best = new PriorityQueue<>(limit + 1, rank.reversed());
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = start;
+        while (top > 0) {
+            int node = stack[--top];
+            if (counts[node] > 0) {
+                best.add(new Completion(values[node], counts[node]));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = child;
+            }
+        }
+
+        List<Completion> completions = new ArrayList<>(best);
+        completions.sort(rank);
+        return completions;
+    }
+
+    private int find(String key) {
+        int node = ROOT;
+        for (int i = 0; i < key.length() && node != NONE; i++) {
+            node = child(node, key.charAt(i), false);
+        }
+        return node;
+    }
+
+    /**
+     * @return The child of node labelled c, created in sibling order if missing and create is
+     *         set, otherwise NONE
+     */
+    private int child(int node, char c, boolean create) {
+        int previous = NONE;
+        int child = firstChild[node];
+        while (child != NONE && labels[child] < c) {
+            previous = child;
+            child = nextSibling[child];
+        }
+        if (child != NONE && labels[child] == c) {
+            return child;
+        }
+        if (!create) {
+            return NONE;
+        }
+        int created = newNode(c);
+        nextSibling[created] = child;
+        if (previous == NONE) {
+            firstChild[node] = created;
+        } else {
+            nextSibling[previous] = created;
+        }
+        return created;
+    }
+
+    private int newNode(char label) {
+        if (nodes == labels.length) {
+            int capacity = nodes * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        int node = nodes++;
+        labels[node] = label;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        counts[node] = 0;
+        values[node] = null;
+        return node;
+    }
+
+    /**
+     * Rebuilds the arrays with only the live keys.
+     */
+    private void compact() {
+        List<String> keys = new ArrayList<>(liveKeys);
+        List<String> keyValues = new ArrayList<>(liveKeys);
+        List<Integer> keyCounts = new ArrayList<>(liveKeys);
+        collect(ROOT, new StringBuilder(), keys, keyValues, keyCounts);
+
+        labels = new char[16];
+        firstChild = new int[16];
+        nextSibling = new int[16];
+        counts = new int[16];
+        values = new String[16];
+        nodes = 0;
+        liveKeys = 0;
+        deadKeys = 0;
+        newNode((char) 0);
+        for (int i = 0; i < keys.size(); i++) {
+            add(keys.get(i), keyValues.get(i));
+            counts[find(keys.get(i))] = keyCounts.get(i);
+        }
+    }
+
+    private void collect(int node, StringBuilder path, List<String> keys, List<String> keyValues,
+                         List<Integer> keyCounts) {
+        if (counts[node] > 0) {
+            keys.add(path.toString());
+            keyValues.add(values[node]);
+            keyCounts.add(counts[node]);
+        }
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            path.append(labels[child]);
+            collect(child, path, keys, keyValues, keyCounts);
+            path.setLength(path.length() - 1);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.worldmap.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits card fields and search queries into index terms.
+ *
+ * - Chinese: Han characters are indexed as single characters and overlapping bigrams
+ *   (你好吗 → 你, 好, 吗, 你好, 好吗). Queries use bigrams when they have two or more
+ *   characters, so 你好 only matches cards containing that pair, and single characters otherwise.
+ * - Pinyin: normalized by PinyinNormalizer, so nǐ hǎo, ni3 hao3, ni hao and nihao all
+ *   produce ni, hao. Cards also index adjacent syllable pairs (nihao), and an unspaced query
+ *   word of several syllables uses those pairs, the same way Chinese queries use bigrams; an
+ *   English word that happens to segment as pinyin (mean → me an) then only matches cards
+ *   where those syllables are adjacent.
+ * - English: lowercased words reduced by a light suffix stemmer (eats, eating → eat).
+ *
+ * Runs of non-Han letters or digits inside Chinese text are indexed as lowercased words.
+ */
+final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * @return Index terms for a chinese_word: every character and every adjacent pair
+     */
+    static List<String> chineseTerms(String text) {
+        return chinese(text, false);
+    }
+
+    /**
+     * @return Query terms for Chinese text: bigrams, or the character itself for single
+     *         characters
+     */
+    static List<String> chineseQueryTerms(String text) {
+        return chinese(text, true);
+    }
+
+    /**
+     * @return Toneless, lowercased pinyin syllables (or words that are not pinyin)
+     */
+    static List<String> pinyinTerms(String text) {
+        return PinyinNormalizer.syllables(text);
+    }
+
+    /**
+     * @param syllables Toneless syllables of a card, e.g. its pinyinToneless split on spaces
+     * @return Index terms: every syllable and every adjacent pair
+     */
+    static List<String> pinyinIndexTerms(List<String> syllables) {
+        List<String> terms = new ArrayList<>(syllables);
+        for (int j = 0; j + 1 < syllables.size(); j++) {
+            terms.add(syllables.get(j) + syllables.get(j + 1));
+        }
+        return terms;
+    }
+
+    /**
+     * @return Query terms for pinyin: each single-syllable word, and the adjacent pairs of
+     *         words written as several syllables (nihao → nihao, nihaoma → nihao, haoma)
+     */
+    static List<String> pinyinQueryTerms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (List<PinyinNormalizer.Syllable> word : PinyinNormalizer.parse(text)) {
+            if (word.size() == 1) {
+                terms.add(word.get(0).text);
+            }
+            for (int j = 0; j + 1 < word.size(); j++) {
+                terms.add(word.get(j).text + word.get(j + 1).text);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * @return Lowercased, stemmed English words
+     */
+    static List<String> englishTerms(String text) {
+        return words(text.toLowerCase(Locale.ROOT), true);
+    }
+
+    /**
+     * Light English stemmer: strips plural, -ed and -ing suffixes. Not linguistically exact;
+     * it only has to map a word and its inflections to the same term, and it is applied to
+     * both cards and queries.
+     */
+    static String stem(String word) {
+        int length = word.length();
+        if (length <= 3) {
+            return word;
+        }
+        if ((word.endsWith("ies") || word.endsWith("ied")) && length > 4) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (word.endsWith("sses")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("es") && (word.endsWith("xes") || word.endsWith("zes")
+                || word.endsWith("ches") || word.endsWith("shes"))) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return stem(word.substring(0, length - 1));
+        }
+        if (word.endsWith("ing") && length > 5) {
+            return undouble(word.substring(0, length - 3));
+        }
+        if (word.endsWith("ed") && length > 4) {
+            return undouble(word.substring(0, length - 2));
+        }
+        return word;
+    }
+
+    /**
+     * Drops the doubled final consonant left by -ing/-ed (running → runn → run).
+     */
+    private static String undouble(String word) {
+        int length = word.length();
+        if (length >= 2) {
+            char last = word.charAt(length - 1);
+            if (last == word.charAt(length - 2) && "aeioulsz".indexOf(last) < 0) {
+                return word.substring(0, length - 1);
+            }
+        }
+        return word;
+    }
+
+    private static List<String> chinese(String text, boolean query) {
+        List<String> terms = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isHan(codePoint)) {
+                int start = i;
+                while (i < length && isHan(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                addHanRun(text.substring(start, i), query, terms);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.codePointAt(i)) && !isHan(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            } else {
+                i += Character.charCount(codePoint);
+            }
+        }
+        return terms;
+    }
+
+    private static void addHanRun(String run, boolean query, List<String> terms) {
+        int[] characters = run.codePoints().toArray();
+        if (characters.length == 1 || !query) {
+            for (int character : characters) {
+                terms.add(new String(Character.toChars(character)));
+            }
+        }
+        for (int j = 0; j + 1 < characters.length; j++) {
+            terms.add(new String(characters, j, 2));
+        }
+    }
+
+    private static List<String> words(String text, boolean stem) {
+        List<String> terms = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(codePoint)) {
+                i += Character.charCount(codePoint);
+                continue;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            String word = text.substring(start, i);
+            terms.add(stem ? stem(word) : word);
+        }
+        return terms;
+    }
+
+    private static boolean isHan(int codePoint) {
+        return Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN;
+    }
+}
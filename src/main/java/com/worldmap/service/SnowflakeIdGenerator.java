@@ -0,0 +1,105 @@
+package com.worldmap.service;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.worldmap.config.ApplicationConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style 64-bit ID generator.
+ *
+ * Layout (most significant bit first):
+ * - 1 bit: always 0, so IDs are positive
+ * - 41 bits: milliseconds since EPOCH_MILLIS (about 69 years)
+ * - 10 bits: node ID (app.ids.node-id, 0-1023), distinct per running instance
+ * - 12 bits: sequence within the millisecond (4096 IDs per millisecond per node)
+ *
+ * IDs are increasing per node and sortable by creation time across nodes. The last issued ID
+ * is kept in a single AtomicLong and advanced with compare-and-set, so concurrent callers never
+ * lock. When a millisecond's sequence is exhausted, or the wall clock moves backwards, the
+ * generator continues from the last issued timestamp instead of waiting, so IDs never repeat.
+ */
+@Singleton
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    /** 2024-01-01T00:00:00Z */
+    static final long EPOCH_MILLIS = 1704067200000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final AtomicLong lastId = new AtomicLong();
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param config Application configuration (provides the node ID)
+     */
+    @Inject
+    public SnowflakeIdGenerator(ApplicationConfig config) {
+        this(config.getIds().getNodeId());
+    }
+
+    /**
+     * @param nodeId Node ID of this instance (0-1023)
+     * @throws IllegalArgumentException if the node ID is out of range
+     */
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        logger.info("SnowflakeIdGenerator initialized with node ID {}", nodeId);
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long last = lastId.get();
+            long lastTimestamp = last >>> TIMESTAMP_SHIFT;
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+
+            long next;
+            if (now > lastTimestamp) {
+                next = compose(now, 0);
+            } else {
+                // Same millisecond or clock moved backwards: continue from the last timestamp
+                long sequence = (last & MAX_SEQUENCE) + 1;
+                next = sequence > MAX_SEQUENCE
+                    ? compose(lastTimestamp + 1, 0)
+                    : compose(lastTimestamp, sequence);
+            }
+
+            if (lastId.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * @return Creation time of an ID in Unix milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+
+    private long compose(long timestamp, long sequence) {
+        return (timestamp << TIMESTAMP_SHIFT) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
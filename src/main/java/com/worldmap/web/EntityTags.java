@@ -0,0 +1,136 @@
+package com.worldmap.web;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import jakarta.ws.rs.core.MediaType;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * Strong entity tags for flashcard responses, shared by the REST controller and the gRPC-Web
+ * handlers.
+ *
+ * Card tags are digests of the cards' serialized content. (id, updatedAt) pairs are not
+ * enough: cards written by the web frontend have no numeric id and not all of them carry an
+ * updatedAt, so both can read as 0 and an edit would keep the old tag.
+ * Hashing a card's protobuf bytes costs about as much as writing them out once more, which
+ * every 200 response does anyway. When ChineseFlashCardService can report a collection
+ * version (replica loaded), the list tag is derived from that version alone and can be
+ * checked before any read.
+ *
+ * REST responses of the same cards are written as JSON or binary protobuf depending on
+ * Accept, so the controller folds the media type into each tag (forRepresentation): a strong
+ * tag promises byte-identical bodies, which two encodings are not.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * @param version Collection version from ChineseFlashCardService.cardsVersion()
+     * @return Quoted entity tag for a list response served at that version
+     */
+    public static String forVersion(String version) {
+        return "\"v-" + version + "\"";
+    }
+
+    /**
+     * @param cards Cards in the page, in response order
+     * @param totalCount Total count reported with the page
+     * @param nextPageToken Cursor reported with the page
+     * @return Quoted entity tag for a list response
+     */
+    public static String forCards(Collection<ChineseFlashCard> cards, long totalCount, String nextPageToken) {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 2);
+        for (ChineseFlashCard card : cards) {
+            // Length-prefixed so adjacent cards cannot be re-split into the same bytes
+            byte[] content = card.toByteArray();
+            buffer.clear();
+            buffer.putLong(content.length);
+            digest.update(buffer.array(), 0, Long.BYTES);
+            digest.update(content);
+        }
+        buffer.clear();
+        buffer.putLong(totalCount).putLong(cards.size());
+        digest.update(buffer.array());
+        digest.update(nextPageToken.getBytes(StandardCharsets.UTF_8));
+        return quote(digest.digest());
+    }
+
+    /**
+     * @return Quoted entity tag for a single-card response
+     */
+    public static String forCard(ChineseFlashCard card) {
+        return "\"c-" + hex(sha256().digest(card.toByteArray())) + "\"";
+    }
+
+    /**
+     * @param etag Quoted tag from forVersion, forCards or forCard
+     * @param mediaType Media type the body is written as
+     * @return Quoted entity tag for that representation of the response
+     */
+    public static String forRepresentation(String etag, MediaType mediaType) {
+        String suffix = ProtobufMessageBodyWriter.isProtobuf(mediaType) ? "-pb" : "-json";
+        return "\"" + unquote(etag) + suffix + "\"";
+    }
+
+    /**
+     * Evaluates If-None-Match with the weak comparison RFC 9110 prescribes for it.
+     *
+     * @param ifNoneMatch If-None-Match header value, or null if absent
+     * @param etag Quoted entity tag of the current representation
+     * @return true if the client's copy is current and a 304 (or not_modified) can be sent
+     */
+    public static boolean matches(@Nullable String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Entity tag without its quotes, as JAX-RS EntityTag expects
+     */
+    public static String unquote(String etag) {
+        return etag.length() >= 2 && etag.startsWith("\"") && etag.endsWith("\"")
+            ? etag.substring(1, etag.length() - 1)
+            : etag;
+    }
+
+    private static String quote(byte[] hash) {
+        return "\"" + hex(hash) + "\"";
+    }
+
+    private static String hex(byte[] hash) {
+        // 128 bits is plenty to tell cards and pages apart
+        return HexFormat.of().formatHex(hash, 0, 16);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
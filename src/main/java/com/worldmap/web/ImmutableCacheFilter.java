@@ -0,0 +1,44 @@
+package com.worldmap.web;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Marks responses as cacheable for a long time and never revalidated.
+ *
+ * Only for content-hashed build output (the React bundle under /static): a new build produces
+ * new file names, so a cached copy can never be stale and browsers can skip the conditional
+ * request entirely.
+ */
+public class ImmutableCacheFilter implements Filter {
+
+    private final String cacheControl;
+
+    /**
+     * @param maxAgeSeconds How long browsers and proxies may cache the response
+     */
+    public ImmutableCacheFilter(int maxAgeSeconds) {
+        this.cacheControl = "public, max-age=" + maxAgeSeconds + ", immutable";
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        // Set before the chain runs: the default servlet commits the response while writing the file
+        ((HttpServletResponse) response).setHeader("Cache-Control", cacheControl);
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * @return Cache-Control value this filter sets
+     */
+    public String getCacheControl() {
+        return cacheControl;
+    }
+}
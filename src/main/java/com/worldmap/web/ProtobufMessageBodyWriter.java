@@ -0,0 +1,73 @@
+package com.worldmap.web;
+
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes protobuf messages returned by JAX-RS resources, so REST responses are serialized by
+ * the generated code instead of Jackson reflecting over model objects.
+ *
+ * The format follows the negotiated media type (Accept against the resource's @Produces):
+ * application/x-protobuf is the binary wire format, application/json is protobuf's canonical
+ * JSON mapping (lowerCamelCase field names, int64 as strings). JSON always includes fields at
+ * their default value, so clients see success=false and empty lists rather than absent keys.
+ */
+@Provider
+@Produces({MediaType.APPLICATION_JSON, ProtobufMessageBodyWriter.APPLICATION_PROTOBUF})
+public class ProtobufMessageBodyWriter implements MessageBodyWriter<Message> {
+
+    /** Media type of binary protobuf bodies */
+    public static final String APPLICATION_PROTOBUF = "application/x-protobuf";
+
+    /** APPLICATION_PROTOBUF as a MediaType */
+    public static final MediaType APPLICATION_PROTOBUF_TYPE = new MediaType("application", "x-protobuf");
+
+    // Printers are immutable and thread-safe; building one per response would redo its setup
+    private static final JsonFormat.Printer JSON_PRINTER = JsonFormat.printer()
+        .includingDefaultValueFields()
+        .omittingInsignificantWhitespace();
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return Message.class.isAssignableFrom(type) && (isProtobuf(mediaType) || isJson(mediaType));
+    }
+
+    @Override
+    public void writeTo(Message message, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        if (isProtobuf(mediaType)) {
+            message.writeTo(entityStream);
+            return;
+        }
+        // Do not close: the container owns the entity stream
+        Writer writer = new OutputStreamWriter(entityStream, StandardCharsets.UTF_8);
+        JSON_PRINTER.appendTo(message, writer);
+        writer.flush();
+    }
+
+    /**
+     * @return true if a body of this media type is written as binary protobuf, false if as JSON
+     */
+    public static boolean isProtobuf(MediaType mediaType) {
+        return APPLICATION_PROTOBUF_TYPE.getType().equals(mediaType.getType())
+            && APPLICATION_PROTOBUF_TYPE.getSubtype().equals(mediaType.getSubtype());
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        return MediaType.APPLICATION_JSON_TYPE.isCompatible(mediaType) || mediaType.getSubtype().endsWith("+json");
+    }
+}
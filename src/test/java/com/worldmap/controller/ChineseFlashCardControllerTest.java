@@ -0,0 +1,366 @@
+package com.worldmap.controller;
+
+import com.google.cloud.firestore.Firestore;
+import com.worldmap.config.ApplicationConfig;
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.flashcard.CreateChineseFlashCardResponse;
+import com.worldmap.flashcard.DeleteChineseFlashCardResponse;
+import com.worldmap.flashcard.GetChineseFlashCardRequest;
+import com.worldmap.flashcard.GetChineseFlashCardResponse;
+import com.worldmap.flashcard.GetChineseFlashCardsRequest;
+import com.worldmap.flashcard.GetChineseFlashCardsResponse;
+import com.worldmap.service.ChineseFlashCardService;
+import com.worldmap.service.FirestoreService;
+import com.worldmap.service.SnowflakeIdGenerator;
+import com.worldmap.web.EntityTags;
+import com.worldmap.web.ProtobufMessageBodyWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.TimeoutHandler;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Variant;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChineseFlashCardController
+ * Tests that listing delegates to the paginated ChineseFlashCardService path, that endpoints
+ * resume their AsyncResponse with the service's protobuf responses on completion, failure
+ * and timeout, and that conditional requests are answered with 304 per representation
+ */
+@DisplayName("ChineseFlashCardController Tests")
+class ChineseFlashCardControllerTest {
+
+    /** Request whose Accept negotiates JSON */
+    private static final Request JSON = request(MediaType.APPLICATION_JSON_TYPE);
+    /** Request whose Accept negotiates binary protobuf */
+    private static final Request PROTOBUF = request(ProtobufMessageBodyWriter.APPLICATION_PROTOBUF_TYPE);
+
+    private FirestoreService firestoreService;
+    private ChineseFlashCardService chineseFlashCardService;
+    private ApplicationConfig config;
+    private ChineseFlashCardController controller;
+
+    @BeforeEach
+    void setUp() {
+        firestoreService = mock(FirestoreService.class);
+        chineseFlashCardService = mock(ChineseFlashCardService.class);
+        config = new ApplicationConfig();
+        config.getServer().setRequestTimeoutMillis(2500);
+        config.getFirebase().setCollection("cards_test");
+        controller = new ChineseFlashCardController(mock(Firestore.class), firestoreService,
+            chineseFlashCardService, new SnowflakeIdGenerator(0), config);
+    }
+
+    @Test
+    @DisplayName("Should request one page from the service and return its cursor and total")
+    void testGetAllCardsDelegatesToService() {
+        // Given: Service returns one page with a next page token
+        GetChineseFlashCardsResponse page = GetChineseFlashCardsResponse.newBuilder()
+            .setSuccess(true)
+            .addData(ChineseFlashCard.newBuilder()
+                .setId(1L).setChineseWord("你好").setEnglishWord("Hello").setPinyin("nǐ hǎo").build())
+            .setTotalCount(120)
+            .setNextPageToken("next")
+            .build();
+        when(chineseFlashCardService.getAllAsync(any())).thenReturn(CompletableFuture.completedFuture(page));
+
+        // When: Get the page after a cursor
+        GetChineseFlashCardsResponse response = (GetChineseFlashCardsResponse) resumedEntity(asyncResponse ->
+            controller.getAllCards(1, 20, "cursor", null, JSON, asyncResponse));
+
+        // Then: Page parameters are passed through and the service's response is returned as is
+        ArgumentCaptor<GetChineseFlashCardsRequest> request = ArgumentCaptor.forClass(GetChineseFlashCardsRequest.class);
+        verify(chineseFlashCardService).getAllAsync(request.capture());
+        assertEquals(20, request.getValue().getPageSize());
+        assertEquals("cursor", request.getValue().getPageToken());
+        assertEquals(page, response);
+    }
+
+    @Test
+    @DisplayName("Should cap the page size")
+    void testGetAllCardsCapsPageSize() {
+        // Given: Service returns an empty page
+        when(chineseFlashCardService.getAllAsync(any())).thenReturn(CompletableFuture.completedFuture(
+            GetChineseFlashCardsResponse.newBuilder().setSuccess(true).build()));
+
+        // When: Ask for an oversized page
+        resume(asyncResponse -> controller.getAllCards(1, 100000, "", null, JSON, asyncResponse));
+
+        // Then: The service is asked for at most 500 cards
+        ArgumentCaptor<GetChineseFlashCardsRequest> request = ArgumentCaptor.forClass(GetChineseFlashCardsRequest.class);
+        verify(chineseFlashCardService).getAllAsync(request.capture());
+        assertEquals(500, request.getValue().getPageSize());
+    }
+
+    @Test
+    @DisplayName("Should report service errors")
+    void testGetAllCardsReportsError() {
+        // Given: Service fails
+        when(chineseFlashCardService.getAllAsync(any())).thenReturn(CompletableFuture.completedFuture(
+            GetChineseFlashCardsResponse.newBuilder()
+                .setSuccess(false)
+                .setError("Failed to retrieve flashcards: boom")
+                .build()));
+
+        // When: Get the first page
+        GetChineseFlashCardsResponse response = (GetChineseFlashCardsResponse) resumedEntity(asyncResponse ->
+            controller.getAllCards(1, 50, "", null, JSON, asyncResponse));
+
+        // Then: The error is passed through with an empty page
+        assertFalse(response.getSuccess());
+        assertEquals("Failed to retrieve flashcards: boom", response.getError());
+        assertEquals(0, response.getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Should page mock data when Firebase is not configured")
+    void testGetAllCardsPagesMockData() {
+        // Given: Controller without Firestore
+        controller = new ChineseFlashCardController(null, mock(FirestoreService.class),
+            chineseFlashCardService, new SnowflakeIdGenerator(0), config);
+
+        // When: Get the second page of 10 mock cards
+        GetChineseFlashCardsResponse response = (GetChineseFlashCardsResponse) resumedEntity(asyncResponse ->
+            controller.getAllCards(2, 10, "", null, JSON, asyncResponse));
+
+        // Then: The remaining 5 of 15 mock cards are returned without calling the service
+        assertTrue(response.getSuccess());
+        assertEquals(15, response.getTotalCount());
+        assertEquals(5, response.getDataCount());
+        verifyNoInteractions(chineseFlashCardService);
+    }
+
+    @Test
+    @DisplayName("Should return the service's card")
+    void testGetCardByIdResumesWithCard() {
+        // Given: Service finds the card
+        when(chineseFlashCardService.getByIdAsync(any())).thenReturn(CompletableFuture.completedFuture(
+            GetChineseFlashCardResponse.newBuilder()
+                .setSuccess(true)
+                .setData(ChineseFlashCard.newBuilder()
+                    .setId(7L).setChineseWord("谢谢").setEnglishWord("Thank you").setPinyin("xiè xie").build())
+                .build()));
+
+        // When: Get the card
+        GetChineseFlashCardResponse response = (GetChineseFlashCardResponse) resumedEntity(asyncResponse ->
+            controller.getCardById(7L, null, JSON, asyncResponse));
+
+        // Then: The card is returned
+        ArgumentCaptor<GetChineseFlashCardRequest> request = ArgumentCaptor.forClass(GetChineseFlashCardRequest.class);
+        verify(chineseFlashCardService).getByIdAsync(request.capture());
+        assertEquals(7L, request.getValue().getId());
+        assertTrue(response.getSuccess());
+        assertEquals("谢谢", response.getData().getChineseWord());
+    }
+
+    @Test
+    @DisplayName("Should resume with an error response when the operation fails")
+    void testFailedOperationResumesWithError() {
+        // Given: Service call fails
+        when(chineseFlashCardService.deleteAsync(any()))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Firestore down")));
+
+        // When: Delete a card
+        DeleteChineseFlashCardResponse response = (DeleteChineseFlashCardResponse) resumedEntity(asyncResponse ->
+            controller.deleteCard(7L, asyncResponse));
+
+        // Then: The failure is reported
+        assertFalse(response.getSuccess());
+        assertEquals("Failed to delete card: Firestore down", response.getError());
+    }
+
+    @Test
+    @DisplayName("Should set the configured timeout and answer 503 when it fires")
+    void testTimeoutResumesWithServiceUnavailable() {
+        // Given: Service never completes
+        when(chineseFlashCardService.getAllAsync(any())).thenReturn(new CompletableFuture<>());
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+
+        // When: Get a page
+        controller.getAllCards(1, 50, "", null, JSON, asyncResponse);
+
+        // Then: Nothing is resumed until the timeout handler runs
+        verify(asyncResponse).setTimeout(2500, TimeUnit.MILLISECONDS);
+        verify(asyncResponse, never()).resume(any(Object.class));
+
+        ArgumentCaptor<TimeoutHandler> handler = ArgumentCaptor.forClass(TimeoutHandler.class);
+        verify(asyncResponse).setTimeoutHandler(handler.capture());
+        handler.getValue().handleTimeout(asyncResponse);
+
+        ArgumentCaptor<Object> resumed = ArgumentCaptor.forClass(Object.class);
+        verify(asyncResponse).resume(resumed.capture());
+        Response response = (Response) resumed.getValue();
+        assertEquals(503, response.getStatus());
+        assertTrue(((GetChineseFlashCardsResponse) response.getEntity()).getError().contains("timed out"));
+    }
+
+    @Test
+    @DisplayName("Should reject a card with missing fields without calling the service")
+    void testCreateCardValidatesRequiredFields() {
+        // When: Create a card without pinyin
+        CreateChineseFlashCardResponse response = (CreateChineseFlashCardResponse) resumedEntity(asyncResponse ->
+            controller.createCard(Map.of("chineseWord", "水", "englishWord", "Water"), asyncResponse));
+
+        // Then: The request is rejected
+        assertFalse(response.getSuccess());
+        verifyNoInteractions(chineseFlashCardService);
+    }
+
+    @Test
+    @DisplayName("Should tag the list and answer 304 when If-None-Match matches")
+    void testGetAllCardsHonorsIfNoneMatch() {
+        // Given: Service returns the same page twice and no collection version is known
+        when(chineseFlashCardService.getAllAsync(any())).thenReturn(CompletableFuture.completedFuture(
+            GetChineseFlashCardsResponse.newBuilder()
+                .setSuccess(true)
+                .addData(ChineseFlashCard.newBuilder().setId(1L).setUpdatedAt(1000L).build())
+                .setTotalCount(1)
+                .build()));
+
+        // When: Load the page, then load it again with the returned ETag
+        Response first = (Response) resume(asyncResponse -> controller.getAllCards(1, 50, "", null, JSON, asyncResponse));
+        String etag = "\"" + first.getEntityTag().getValue() + "\"";
+        Response second = (Response) resume(asyncResponse -> controller.getAllCards(1, 50, "", etag, JSON, asyncResponse));
+
+        // Then: The first load is cacheable and the second is 304
+        assertEquals(200, first.getStatus());
+        assertTrue(first.getHeaderString("Cache-Control").contains("no-cache"));
+        assertEquals(304, second.getStatus());
+        assertNull(second.getEntity());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 from the collection version without reading cards")
+    void testGetAllCardsVersionSkipsRead() {
+        // Given: Replica is loaded at version abc.7
+        when(chineseFlashCardService.cardsVersion()).thenReturn("abc.7");
+
+        // When: Client sends the ETag of that version
+        Response response = (Response) resume(asyncResponse ->
+            controller.getAllCards(1, 50, "", "\"v-abc.7-json\"", JSON, asyncResponse));
+
+        // Then: 304 and no read
+        assertEquals(304, response.getStatus());
+        verify(chineseFlashCardService, never()).getAllAsync(any());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged card")
+    void testGetCardByIdHonorsIfNoneMatch() {
+        // Given: Card 7 last updated at 1000
+        ChineseFlashCard card = ChineseFlashCard.newBuilder().setId(7L).setUpdatedAt(1000L).build();
+        when(chineseFlashCardService.getByIdAsync(any())).thenReturn(CompletableFuture.completedFuture(
+            GetChineseFlashCardResponse.newBuilder()
+                .setSuccess(true)
+                .setData(card)
+                .build()));
+
+        // When: Client sends the JSON copy's ETag
+        String etag = EntityTags.forRepresentation(EntityTags.forCard(card), MediaType.APPLICATION_JSON_TYPE);
+        Response response = (Response) resume(asyncResponse -> controller.getCardById(7L, etag, JSON, asyncResponse));
+
+        // Then: 304
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should tag JSON and protobuf copies differently and vary on Accept")
+    void testGetCardByIdTagsEachRepresentation() {
+        // Given: Card 7 last updated at 1000
+        when(chineseFlashCardService.getByIdAsync(any())).thenReturn(CompletableFuture.completedFuture(
+            GetChineseFlashCardResponse.newBuilder()
+                .setSuccess(true)
+                .setData(ChineseFlashCard.newBuilder().setId(7L).setUpdatedAt(1000L).build())
+                .build()));
+
+        // When: Load the card as JSON and as protobuf, then revalidate protobuf with the JSON tag
+        Response json = (Response) resume(asyncResponse -> controller.getCardById(7L, null, JSON, asyncResponse));
+        Response protobuf = (Response) resume(asyncResponse -> controller.getCardById(7L, null, PROTOBUF, asyncResponse));
+        String jsonTag = "\"" + json.getEntityTag().getValue() + "\"";
+        Response revalidated = (Response) resume(asyncResponse -> controller.getCardById(7L, jsonTag, PROTOBUF, asyncResponse));
+
+        // Then: Each body is written in its own media type under its own tag
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, json.getMediaType());
+        assertEquals(ProtobufMessageBodyWriter.APPLICATION_PROTOBUF_TYPE, protobuf.getMediaType());
+        assertNotEquals(json.getEntityTag(), protobuf.getEntityTag());
+        assertEquals("Accept", json.getHeaderString("Vary"));
+        assertEquals("Accept", protobuf.getHeaderString("Vary"));
+        assertEquals(200, revalidated.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should vary the version tag and its 304 on Accept")
+    void testGetAllCardsVersionTagPerRepresentation() {
+        // Given: Replica is loaded at version abc.7
+        when(chineseFlashCardService.cardsVersion()).thenReturn("abc.7");
+
+        // When: A protobuf client sends the protobuf tag of that version
+        Response response = (Response) resume(asyncResponse ->
+            controller.getAllCards(1, 50, "", "\"v-abc.7-pb\"", PROTOBUF, asyncResponse));
+
+        // Then: 304 naming the protobuf representation
+        assertEquals(304, response.getStatus());
+        assertEquals("v-abc.7-pb", response.getEntityTag().getValue());
+        assertEquals("Accept", response.getHeaderString("Vary"));
+    }
+
+    @Test
+    @DisplayName("Should check the configured collection before seeding")
+    void testInitializeDataCountsConfiguredCollection() {
+        // Given: The configured collection already holds cards
+        when(firestoreService.countAsync("cards_test")).thenReturn(CompletableFuture.completedFuture(3L));
+
+        // When: Initialize
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = (Map<String, Object>) resumedEntity(controller::initializeData);
+
+        // Then: The existing cards are reported and nothing is seeded
+        assertEquals(true, response.get("success"));
+        assertEquals(false, response.get("initialized"));
+        assertEquals(3L, response.get("existingCount"));
+        verify(chineseFlashCardService, never()).batchCreateAsync(any());
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Creates a request whose content negotiation selects the given media type.
+     */
+    private static Request request(MediaType mediaType) {
+        Request request = mock(Request.class);
+        when(request.selectVariant(any())).thenReturn(new Variant(mediaType, (String) null, null));
+        return request;
+    }
+
+    /**
+     * Calls an endpoint and returns the entity it was resumed with, unwrapping a Response.
+     */
+    private static Object resumedEntity(Consumer<AsyncResponse> endpoint) {
+        Object resumed = resume(endpoint);
+        return resumed instanceof Response ? ((Response) resumed).getEntity() : resumed;
+    }
+
+    /**
+     * Calls an endpoint with a mocked AsyncResponse and returns what it was resumed with.
+     */
+    private static Object resume(Consumer<AsyncResponse> endpoint) {
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        endpoint.accept(asyncResponse);
+        ArgumentCaptor<Object> body = ArgumentCaptor.forClass(Object.class);
+        verify(asyncResponse).resume(body.capture());
+        return body.getValue();
+    }
+}
@@ -0,0 +1,200 @@
+package com.worldmap.grpc;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.service.ChineseFlashCardService;
+import com.worldmap.service.DocumentStreamObserver;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FlowControlledCardStream.
+ *
+ * Test Coverage:
+ * - Streams every batch in order and completes after a short batch
+ * - Resumes after the last document ID, also for cards without an id field
+ * - Holds cards while the call is not ready and requests no further batch
+ * - Read failures end the call with INTERNAL
+ * - Cancellation stops sending
+ */
+class FlowControlledCardStreamTest {
+
+    private ChineseFlashCardService service;
+    private ServerCallStreamObserver<ChineseFlashCard> responseObserver;
+    private List<ChineseFlashCard> sent;
+    private AtomicBoolean ready;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = mock(ChineseFlashCardService.class);
+        responseObserver = mock(ServerCallStreamObserver.class);
+        sent = new ArrayList<>();
+        ready = new AtomicBoolean(true);
+
+        when(responseObserver.isReady()).thenAnswer(invocation -> ready.get());
+        doAnswer(invocation -> sent.add(invocation.getArgument(0))).when(responseObserver).onNext(any());
+    }
+
+    @Test
+    void testStream_AllBatchesThenCompletes() {
+        serveCards(5);
+
+        new FlowControlledCardStream(service, responseObserver, null, 2).start();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sentIds());
+        verify(service).streamBatch(isNull(), eq(2), any());
+        verify(service).streamBatch(eq("2"), eq(2), any());
+        verify(service).streamBatch(eq("4"), eq(2), any());
+        verify(responseObserver).onCompleted();
+        verify(responseObserver, never()).onError(any());
+    }
+
+    @Test
+    void testStream_ResumesAfterStartId() {
+        serveCards(5);
+
+        new FlowControlledCardStream(service, responseObserver, "3", 10).start();
+
+        assertEquals(List.of(4L, 5L), sentIds());
+        verify(responseObserver).onCompleted();
+    }
+
+    @Test
+    void testStream_BatchEndingOnCardWithoutIdResumesAfterItsDocument() {
+        // "Xy7" and "Zq2" were created by the frontend: generated document IDs, no id field
+        Map<String, ChineseFlashCard> documents = new LinkedHashMap<>();
+        documents.put("1", card(1));
+        documents.put("2", card(2));
+        documents.put("Xy7", card(0));
+        documents.put("Zq2", card(0));
+        serve(documents);
+
+        new FlowControlledCardStream(service, responseObserver, null, 3).start();
+
+        // The first batch ends on "Xy7"; the next one starts after it instead of from the beginning
+        assertEquals(List.of(1L, 2L, 0L, 0L), sentIds());
+        verify(service).streamBatch(isNull(), eq(3), any());
+        verify(service).streamBatch(eq("Xy7"), eq(3), any());
+        verify(service, times(2)).streamBatch(any(), anyInt(), any());
+        verify(responseObserver).onCompleted();
+    }
+
+    @Test
+    void testStream_WaitsForReadyBeforeSendingOrReading() {
+        serveCards(5);
+        ready.set(false);
+
+        FlowControlledCardStream stream = new FlowControlledCardStream(service, responseObserver, null, 2);
+        stream.start();
+
+        assertTrue(sent.isEmpty());
+        verify(service, times(1)).streamBatch(any(), anyInt(), any());
+        verify(responseObserver, never()).onCompleted();
+
+        // Client catches up: onReady handler drains and the stream continues
+        ready.set(true);
+        stream.run();
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sentIds());
+        verify(responseObserver).onCompleted();
+    }
+
+    @Test
+    void testStream_ReadFailureEndsWithInternal() {
+        doAnswer(invocation -> {
+            DocumentStreamObserver<ChineseFlashCard> observer = invocation.getArgument(2);
+            observer.onNext("1", card(1));
+            observer.onError(new RuntimeException("Firestore down"));
+            return null;
+        }).when(service).streamBatch(any(), anyInt(), any());
+
+        new FlowControlledCardStream(service, responseObserver, null, 10).start();
+
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(error.capture());
+        assertEquals(Status.Code.INTERNAL, ((StatusRuntimeException) error.getValue()).getStatus().getCode());
+        verify(responseObserver, never()).onCompleted();
+    }
+
+    @Test
+    void testStream_CancelStopsSending() {
+        serveCards(5);
+        ready.set(false);
+
+        FlowControlledCardStream stream = new FlowControlledCardStream(service, responseObserver, null, 2);
+        stream.start();
+
+        ArgumentCaptor<Runnable> cancelHandler = ArgumentCaptor.forClass(Runnable.class);
+        verify(responseObserver).setOnCancelHandler(cancelHandler.capture());
+        cancelHandler.getValue().run();
+
+        ready.set(true);
+        stream.run();
+
+        assertTrue(sent.isEmpty());
+        verify(responseObserver, never()).onCompleted();
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Answers streamBatch synchronously from cards with IDs 1..count, stored under their ID.
+     */
+    private void serveCards(int count) {
+        Map<String, ChineseFlashCard> documents = new LinkedHashMap<>();
+        for (long id = 1; id <= count; id++) {
+            documents.put(String.valueOf(id), card(id));
+        }
+        serve(documents);
+    }
+
+    /**
+     * Answers streamBatch synchronously from the given documents, in map order.
+     */
+    private void serve(Map<String, ChineseFlashCard> documents) {
+        List<String> docIds = new ArrayList<>(documents.keySet());
+        doAnswer(invocation -> {
+            String startAfterDocId = invocation.getArgument(0);
+            int batchSize = invocation.getArgument(1);
+            DocumentStreamObserver<ChineseFlashCard> observer = invocation.getArgument(2);
+            int start = startAfterDocId == null ? 0 : docIds.indexOf(startAfterDocId) + 1;
+            for (int i = start; i < docIds.size() && i < start + batchSize; i++) {
+                observer.onNext(docIds.get(i), documents.get(docIds.get(i)));
+            }
+            observer.onCompleted();
+            return null;
+        }).when(service).streamBatch(any(), anyInt(), any());
+    }
+
+    private List<Long> sentIds() {
+        List<Long> ids = new ArrayList<>();
+        for (ChineseFlashCard card : sent) {
+            ids.add(card.getId());
+        }
+        return ids;
+    }
+
+    private static ChineseFlashCard card(long id) {
+        return ChineseFlashCard.newBuilder()
+            .setId(id)
+            .setChineseWord("字" + id)
+            .build();
+    }
+}
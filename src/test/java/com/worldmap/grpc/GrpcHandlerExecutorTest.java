@@ -0,0 +1,199 @@
+package com.worldmap.grpc;
+
+import com.worldmap.config.ApplicationConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GrpcHandlerExecutor.
+ *
+ * Test Coverage:
+ * - Mode parsing and event-loop mode
+ * - Platform and virtual thread modes
+ * - Queue bound rejection, including under concurrent submission
+ * - Cancelled handlers return their queue slot
+ * - Statistics and meters
+ */
+class GrpcHandlerExecutorTest {
+
+    private GrpcHandlerExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testParse_AcceptsConfiguredNames() {
+        assertEquals(GrpcHandlerExecutor.Mode.EVENT_LOOP, GrpcHandlerExecutor.Mode.parse("event-loop"));
+        assertEquals(GrpcHandlerExecutor.Mode.BLOCKING, GrpcHandlerExecutor.Mode.parse("Blocking"));
+        assertEquals(GrpcHandlerExecutor.Mode.VIRTUAL, GrpcHandlerExecutor.Mode.parse(" virtual "));
+        assertThrows(IllegalArgumentException.class, () -> GrpcHandlerExecutor.Mode.parse("reactive"));
+    }
+
+    @Test
+    void testCreate_EventLoopHasNoExecutor() {
+        assertNull(GrpcHandlerExecutor.create(config("event-loop", 2, 10)));
+    }
+
+    @Test
+    void testCreate_VirtualModeRunsOnVirtualThreads() throws Exception {
+        executor = GrpcHandlerExecutor.create(config("virtual", 2, 10));
+
+        assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCreate_BlockingModeRunsOnPlatformThreads() throws Exception {
+        executor = GrpcHandlerExecutor.create(config("blocking", 2, 10));
+
+        assertFalse(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+        assertEquals(2, executor.getCorePoolSize());
+    }
+
+    @Test
+    void testExecute_RejectsWhenQueueIsFull() throws Exception {
+        executor = GrpcHandlerExecutor.create(config("blocking", 1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+
+        // Occupy the only thread, then fill the queue
+        executor.execute(() -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> { });
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+        assertEquals(1, executor.getRejectedTaskCount());
+        assertEquals(1, executor.stats().get("queuedTasks"));
+        assertEquals(1, executor.stats().get("activeThreads"));
+
+        release.countDown();
+    }
+
+    @Test
+    void testExecute_ConcurrentSubmissionsCannotOvershootQueue() throws Exception {
+        executor = GrpcHandlerExecutor.create(config("blocking", 2, 5));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(2);
+
+        // Occupy both threads
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                running.countDown();
+                awaitQuietly(release);
+            });
+        }
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // Many submitters race for the 5 queue slots
+        int submitters = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < submitters; i++) {
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                try {
+                    executor.execute(() -> { });
+                    accepted.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(5, accepted.get());
+        assertEquals(submitters - 5, rejected.get());
+        assertEquals(submitters - 5, executor.getRejectedTaskCount());
+        assertEquals(5, executor.stats().get("queuedTasks"));
+
+        // Every slot comes back once the handlers finish
+        release.countDown();
+        List<Future<?>> next = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getCompletedTaskCount() < 7 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        for (int i = 0; i < 7; i++) {
+            next.add(executor.submit(() -> { }));
+        }
+        for (Future<?> future : next) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testCancel_QueuedHandlerReturnsItsSlot() throws Exception {
+        executor = GrpcHandlerExecutor.create(config("blocking", 1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        Future<?> queued = executor.submit(() -> { });
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        assertTrue(queued.cancel(false));
+        executor.execute(() -> { });
+        assertEquals(1, executor.stats().get("queuedTasks"));
+
+        release.countDown();
+    }
+
+    @Test
+    void testBindTo_RegistersMeters() {
+        executor = GrpcHandlerExecutor.create(config("virtual", 2, 10));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        executor.bindTo(registry);
+
+        assertNotNull(registry.find("grpc.executor.active").tag("mode", "virtual").gauge());
+        assertNotNull(registry.find("grpc.executor.queued").gauge());
+        assertNotNull(registry.find("grpc.executor.rejected").functionCounter());
+    }
+
+    // ========== Helper Methods ==========
+
+    private static ApplicationConfig.Grpc config(String mode, int threads, int maxQueuedTasks) {
+        ApplicationConfig.Grpc grpc = new ApplicationConfig.Grpc();
+        grpc.setExecutionMode(mode);
+        grpc.setBlockingThreads(threads);
+        grpc.setVirtualThreads(threads);
+        grpc.setMaxQueuedTasks(maxQueuedTasks);
+        return grpc;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
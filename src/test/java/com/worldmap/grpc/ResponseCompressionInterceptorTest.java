@@ -0,0 +1,35 @@
+package com.worldmap.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ResponseCompressionInterceptor.
+ *
+ * Test Coverage:
+ * - Compression requested before the call is handed to the service
+ */
+class ResponseCompressionInterceptorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInterceptCall_SetsCompressionThenStartsCall() {
+        ServerCall<Object, Object> call = mock(ServerCall.class);
+        ServerCallHandler<Object, Object> next = mock(ServerCallHandler.class);
+        ServerCall.Listener<Object> listener = mock(ServerCall.Listener.class);
+        Metadata headers = new Metadata();
+        when(next.startCall(call, headers)).thenReturn(listener);
+
+        ServerCall.Listener<Object> result = new ResponseCompressionInterceptor("gzip").interceptCall(call, headers, next);
+
+        assertSame(listener, result);
+        var order = inOrder(call, next);
+        order.verify(call).setCompression("gzip");
+        order.verify(next).startCall(call, headers);
+    }
+}
@@ -0,0 +1,215 @@
+package com.worldmap.grpc;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.flashcard.StudySessionRequest;
+import com.worldmap.flashcard.StudySessionResponse;
+import com.worldmap.service.BulkWriteResult;
+import com.worldmap.service.ChineseFlashCardService;
+import com.worldmap.service.DocumentStreamObserver;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StudySession.
+ *
+ * Test Coverage:
+ * - Prefetching cards ahead of the client and one new card per answer
+ * - Batches resume after the last document ID, also for cards without an id field
+ * - Progress buffered and written in batches, and on close
+ * - Session completion at the end of the deck
+ * - Invalid answers reported without ending the session
+ * - Read failures end the call with INTERNAL
+ */
+class StudySessionTest {
+
+    private ChineseFlashCardService service;
+    private StreamObserver<StudySessionResponse> responseObserver;
+    private List<StudySessionResponse> responses;
+    private List<List<StudySessionRequest>> recorded;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = mock(ChineseFlashCardService.class);
+        responseObserver = mock(StreamObserver.class);
+        responses = new ArrayList<>();
+        recorded = new ArrayList<>();
+
+        doAnswer(invocation -> responses.add(invocation.getArgument(0))).when(responseObserver).onNext(any());
+        when(service.recordProgressAsync(anyList())).thenAnswer(invocation -> {
+            List<StudySessionRequest> answers = invocation.getArgument(0);
+            recorded.add(answers);
+            return CompletableFuture.completedFuture(BulkWriteResult.succeeded(List.of()));
+        });
+    }
+
+    @Test
+    void testSession_PrefetchesAndSendsOneCardPerAnswer() {
+        serveCards(100);
+        StudySession session = new StudySession(service, responseObserver);
+
+        session.onNext(StudySessionRequest.newBuilder().setPrefetch(3).build());
+        assertEquals(List.of(1L, 2L, 3L), cardIds());
+
+        session.onNext(answer(1, 4));
+        assertEquals(List.of(1L, 2L, 3L, 4L), cardIds());
+
+        session.onCompleted();
+
+        assertEquals(1, recorded.size());
+        assertEquals(1L, recorded.get(0).get(0).getCardId());
+        verify(responseObserver).onCompleted();
+    }
+
+    @Test
+    void testSession_FlushesProgressInBatches() {
+        serveCards(100);
+        StudySession session = new StudySession(service, responseObserver);
+
+        session.onNext(StudySessionRequest.newBuilder().build());
+        for (long id = 1; id <= StudySession.PROGRESS_FLUSH_SIZE; id++) {
+            session.onNext(answer(id, 3));
+        }
+
+        assertEquals(1, recorded.size());
+        assertEquals(StudySession.PROGRESS_FLUSH_SIZE, recorded.get(0).size());
+        verify(responseObserver, never()).onCompleted();
+    }
+
+    @Test
+    void testSession_CompletesAtEndOfDeck() {
+        serveCards(2);
+        StudySession session = new StudySession(service, responseObserver);
+
+        session.onNext(StudySessionRequest.newBuilder().build());
+        session.onNext(answer(1, 5));
+        verify(responseObserver, never()).onCompleted();
+
+        session.onNext(answer(2, 5));
+
+        assertEquals(List.of(1L, 2L), cardIds());
+        assertEquals(1, recorded.size());
+        assertEquals(2, recorded.get(0).size());
+        verify(responseObserver).onCompleted();
+    }
+
+    @Test
+    void testSession_BatchEndingOnCardWithoutIdResumesAfterItsDocument() {
+        // The first batch ends on "Xy7", created by the frontend: generated document ID, no id field
+        Map<String, ChineseFlashCard> documents = new LinkedHashMap<>();
+        for (long id = 1; id < StudySession.FETCH_BATCH_SIZE; id++) {
+            documents.put(String.format("%02d", id), ChineseFlashCard.newBuilder().setId(id).build());
+        }
+        documents.put("Xy7", ChineseFlashCard.newBuilder().setChineseWord("再见").build());
+        documents.put("Zq2", ChineseFlashCard.newBuilder().setChineseWord("谢谢").build());
+        serve(documents);
+        StudySession session = new StudySession(service, responseObserver);
+
+        session.onNext(StudySessionRequest.newBuilder().setPrefetch(StudySession.MAX_PREFETCH).build());
+        session.onNext(answer(1, 4));
+
+        // Every card is sent once: the second batch starts after "Xy7", not from the beginning
+        assertEquals(documents.size(), cardIds().size());
+        assertEquals("谢谢", responses.get(responses.size() - 1).getCard().getChineseWord());
+        verify(service).streamBatch(isNull(), eq(StudySession.FETCH_BATCH_SIZE), any());
+        verify(service).streamBatch(eq("Xy7"), eq(StudySession.FETCH_BATCH_SIZE), any());
+        verify(service, times(2)).streamBatch(any(), anyInt(), any());
+    }
+
+    @Test
+    void testSession_InvalidAnswerReportedAndSkipped() {
+        serveCards(100);
+        StudySession session = new StudySession(service, responseObserver);
+
+        session.onNext(StudySessionRequest.newBuilder().build());
+        session.onNext(answer(1, 9));
+        session.onCompleted();
+
+        assertTrue(responses.stream().anyMatch(r -> r.getError().contains("grade must be between 0 and 5")));
+        verify(service, never()).recordProgressAsync(anyList());
+        verify(responseObserver).onCompleted();
+    }
+
+    @Test
+    void testSession_ReadFailureEndsWithInternal() {
+        doAnswer(invocation -> {
+            DocumentStreamObserver<ChineseFlashCard> observer = invocation.getArgument(2);
+            observer.onError(new RuntimeException("Firestore down"));
+            return null;
+        }).when(service).streamBatch(any(), anyInt(), any());
+        StudySession session = new StudySession(service, responseObserver);
+
+        session.onNext(StudySessionRequest.newBuilder().build());
+
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(responseObserver).onError(error.capture());
+        assertEquals(Status.Code.INTERNAL, ((StatusRuntimeException) error.getValue()).getStatus().getCode());
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Answers streamBatch synchronously from cards with IDs 1..count, stored under their ID.
+     */
+    private void serveCards(int count) {
+        Map<String, ChineseFlashCard> documents = new LinkedHashMap<>();
+        for (long id = 1; id <= count; id++) {
+            documents.put(String.valueOf(id), ChineseFlashCard.newBuilder().setId(id).build());
+        }
+        serve(documents);
+    }
+
+    /**
+     * Answers streamBatch synchronously from the given documents, in map order.
+     */
+    private void serve(Map<String, ChineseFlashCard> documents) {
+        List<String> docIds = new ArrayList<>(documents.keySet());
+        doAnswer(invocation -> {
+            String startAfterDocId = invocation.getArgument(0);
+            int batchSize = invocation.getArgument(1);
+            DocumentStreamObserver<ChineseFlashCard> observer = invocation.getArgument(2);
+            int start = startAfterDocId == null ? 0 : docIds.indexOf(startAfterDocId) + 1;
+            for (int i = start; i < docIds.size() && i < start + batchSize; i++) {
+                observer.onNext(docIds.get(i), documents.get(docIds.get(i)));
+            }
+            observer.onCompleted();
+            return null;
+        }).when(service).streamBatch(any(), anyInt(), any());
+    }
+
+    private List<Long> cardIds() {
+        List<Long> ids = new ArrayList<>();
+        for (StudySessionResponse response : responses) {
+            if (response.hasCard()) {
+                ids.add(response.getCard().getId());
+            }
+        }
+        return ids;
+    }
+
+    private static StudySessionRequest answer(long cardId, int grade) {
+        return StudySessionRequest.newBuilder()
+            .setCardId(cardId)
+            .setGrade(grade)
+            .setLatencyMs(1500)
+            .build();
+    }
+}
@@ -47,6 +47,22 @@ class ApplicationConfigModuleTest {
         assertEquals("/", server.getContextPath(), "Context path should be /");
         assertEquals("test", server.getEnvironment(), "Environment should be test");
         assertTrue(server.isEnableCors(), "CORS should be enabled");
+        assertTrue(server.isVirtualThreads(), "Virtual threads should be enabled");
+        assertEquals(8, server.getMinThreads(), "Min threads should be 8");
+        assertEquals(200, server.getMaxThreads(), "Max threads should be 200");
+        assertEquals(128, server.getAcceptQueueSize(), "Accept queue size should be 128");
+        assertEquals(10000, server.getRequestTimeoutMillis(), "Request timeout should be 10000 ms");
+        assertTrue(server.isCompressionEnabled(), "Compression should be enabled");
+        assertEquals(1024, server.getCompressionMinBytes(), "Compression threshold should be 1024 bytes");
+        assertEquals(31536000, server.getStaticMaxAgeSeconds(), "Static max-age should be one year");
+        assertEquals(0, server.getApiCacheMaxAgeSeconds(), "API responses should always be revalidated");
+        assertEquals("gzip", server.getGrpcCompression(), "gRPC responses should be gzip-compressed");
+        assertEquals(4194304, server.getGrpcMaxInboundMessageBytes(), "Max inbound gRPC message should be 4 MiB");
+        assertEquals(1048576, server.getHttp2InitialStreamWindowBytes(), "Stream window should be 1 MiB");
+        assertEquals(4194304, server.getHttp2InitialConnectionWindowBytes(), "Connection window should be 4 MiB");
+        assertEquals(256, server.getHttp2MaxConcurrentStreams(), "Max concurrent streams should be 256");
+        assertEquals(60000, server.getIdleTimeoutMillis(), "Idle timeout should be 60000 ms");
+        assertEquals(20000, server.getPingIntervalMillis(), "Ping interval should be 20000 ms");
     }
 
     @Test
@@ -70,6 +86,8 @@ class ApplicationConfigModuleTest {
             "Auto-initialize should be false in test config");
         assertEquals("test_chinese_flash_cards", firebase.getCollection(), 
             "Collection name should match test config");
+        assertEquals("return-existing", firebase.getDuplicatePolicy(),
+            "Duplicate policy should match test config");
     }
 
     @Test
@@ -90,6 +108,34 @@ class ApplicationConfigModuleTest {
             "Color output should be disabled in tests");
     }
 
+    @Test
+    @DisplayName("Should load gRPC execution configuration with correct values")
+    void testGrpcConfiguration() {
+        // Given: Create injector
+        Injector injector = Guice.createInjector(new ApplicationConfigModule());
+        ApplicationConfig config = injector.getInstance(ApplicationConfig.class);
+        
+        // When: Get gRPC config
+        ApplicationConfig.Grpc grpc = config.getGrpc();
+        
+        // Then: Verify gRPC configuration from test application.properties
+        assertEquals("virtual", grpc.getExecutionMode(), "Execution mode should be virtual");
+        assertEquals(32, grpc.getBlockingThreads(), "Blocking pool should have 32 threads");
+        assertEquals(1024, grpc.getVirtualThreads(), "Virtual thread limit should be 1024");
+        assertEquals(1000, grpc.getMaxQueuedTasks(), "Queue bound should be 1000");
+    }
+
+    @Test
+    @DisplayName("Should load search configuration with correct values")
+    void testSearchConfiguration() {
+        // Given: Create injector
+        Injector injector = Guice.createInjector(new ApplicationConfigModule());
+        ApplicationConfig config = injector.getInstance(ApplicationConfig.class);
+
+        // Then: Verify search configuration from test application.properties
+        assertEquals(2, config.getSearch().getMaxEditDistance(), "Max edit distance should be 2");
+    }
+
     @Test
     @DisplayName("Should load features configuration with correct values")
     void testFeaturesConfiguration() {
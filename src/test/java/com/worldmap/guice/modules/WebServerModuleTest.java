@@ -2,11 +2,17 @@ package com.worldmap.guice.modules;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.worldmap.config.ApplicationConfig;
+import com.worldmap.web.ImmutableCacheFilter;
 import com.worldmap.web.WebServer;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.handler.HandlerCollection;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -273,4 +279,88 @@ class WebServerModuleTest {
         assertTrue(webAppContext.isParentLoaderPriority(),
             "WebAppContext should have parent loader priority enabled");
     }
+
+    @Test
+    @DisplayName("Should configure thread pool and connector from ApplicationConfig")
+    void testThreadPoolConfiguration() {
+        // Given: Create injector with test config
+        Injector injector = Guice.createInjector(
+            new ApplicationConfigModule(),
+            new TestFirebaseModule(),
+            new JerseyGuiceModule(),
+            new WebServerModule()
+        );
+        
+        // When: Get Server from injector
+        Server server = injector.getInstance(Server.class);
+        
+        // Then: Thread pool limits and accept queue should match test config
+        QueuedThreadPool threadPool = (QueuedThreadPool) server.getThreadPool();
+        assertEquals(200, threadPool.getMaxThreads(), "Max threads should be 200");
+        assertEquals(8, threadPool.getMinThreads(), "Min threads should be 8");
+        assertNotNull(threadPool.getVirtualThreadsExecutor(),
+            "Requests should run on virtual threads when enabled");
+        
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        assertEquals(8080, connector.getPort(), "Connector port should be 8080");
+        assertEquals(128, connector.getAcceptQueueSize(), "Accept queue size should be 128");
+    }
+
+    @Test
+    @DisplayName("Should use platform threads when virtual threads are disabled")
+    void testThreadPoolWithoutVirtualThreads() {
+        // Given: Server config with virtual threads disabled
+        ApplicationConfig.Server serverConfig = new ApplicationConfig.Server();
+        serverConfig.setVirtualThreads(false);
+        serverConfig.setMinThreads(4);
+        serverConfig.setMaxThreads(16);
+        
+        // When: Create the thread pool
+        QueuedThreadPool threadPool = WebServerModule.createThreadPool(serverConfig);
+        
+        // Then: No virtual thread executor should be set
+        assertNull(threadPool.getVirtualThreadsExecutor(),
+            "Virtual threads should not be used when disabled");
+        assertEquals(16, threadPool.getMaxThreads(), "Max threads should be 16");
+        assertEquals(4, threadPool.getMinThreads(), "Min threads should be 4");
+    }
+
+    @Test
+    @DisplayName("Should compress API responses and serve precompressed immutable static assets")
+    void testCompressionConfiguration() {
+        // Given: Create injector with test config (compression enabled)
+        Injector injector = Guice.createInjector(
+            new ApplicationConfigModule(),
+            new TestFirebaseModule(),
+            new JerseyGuiceModule(),
+            new WebServerModule()
+        );
+        
+        Server server = injector.getInstance(Server.class);
+        Handler[] handlers = ((HandlerCollection) server.getHandler()).getHandlers();
+        ServletContextHandler apiHandler = (ServletContextHandler) handlers[0];
+        WebAppContext staticHandler = (WebAppContext) handlers[1];
+        
+        // Then: Both contexts gzip responses above the threshold
+        GzipHandler apiGzip = apiHandler.getChildHandlerByClass(GzipHandler.class);
+        assertNotNull(apiGzip, "API context should gzip responses");
+        assertEquals(1024, apiGzip.getMinGzipSize(), "Gzip threshold should be 1024 bytes");
+        assertNotNull(staticHandler.getChildHandlerByClass(GzipHandler.class),
+            "Static context should gzip responses");
+        
+        // And: Precompressed variants are served and /static is cached as immutable
+        assertEquals("br=.br,gzip=.gz",
+            staticHandler.getInitParameter("org.eclipse.jetty.servlet.Default.precompressed"));
+        boolean hasCacheFilter = false;
+        for (FilterHolder holder : staticHandler.getServletHandler().getFilters()) {
+            hasCacheFilter |= holder.getHeldClass() == ImmutableCacheFilter.class;
+        }
+        assertTrue(hasCacheFilter, "Static context should mark hashed assets immutable");
+    }
+
+    @Test
+    @DisplayName("Should build an immutable Cache-Control value from the max age")
+    void testImmutableCacheControl() {
+        assertEquals("public, max-age=600, immutable", new ImmutableCacheFilter(600).getCacheControl());
+    }
 }
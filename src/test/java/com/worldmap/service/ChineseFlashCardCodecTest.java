@@ -0,0 +1,196 @@
+package com.worldmap.service;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.worldmap.flashcard.ChineseFlashCard;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ChineseFlashCardCodec and FieldLayout.
+ *
+ * Test Coverage:
+ * - Encoding every stored field, and only the updatable fields for updates (optional ones when set)
+ * - Decoding field by field from a snapshot without getData()
+ * - Missing or mistyped fields decode to proto defaults
+ * - Firestore Timestamps (frontend serverTimestamp() writes) decode to epoch milliseconds
+ * - Normalized pinyin forms are stored, and computed for documents without them
+ * - FieldLayout map view semantics
+ */
+class ChineseFlashCardCodecTest {
+
+    private final ChineseFlashCardCodec codec = new ChineseFlashCardCodec();
+
+    @Test
+    void testEncode_AllFields() {
+        Map<String, Object> doc = codec.encode(card());
+
+        assertEquals(12, doc.size());
+        assertEquals(1L, doc.get("id"));
+        assertEquals("你好", doc.get("chineseWord"));
+        assertEquals("Hello", doc.get("englishWord"));
+        assertEquals("nǐ hǎo", doc.get("pinyin"));
+        assertEquals("hello.png", doc.get("img"));
+        assertEquals(1000L, doc.get("createdAt"));
+        assertEquals(2000L, doc.get("updatedAt"));
+        assertEquals("你好，朋友。", doc.get("exampleUsage"));
+        assertEquals(true, doc.get("favorite"));
+        assertEquals("ni hao", doc.get("pinyinToneless"));
+        assertEquals("ni3 hao3", doc.get("pinyinNumbered"));
+        assertEquals(ChineseFlashCardDuplicateIndex.key("你好", "ni hao"), doc.get("duplicateKey"));
+    }
+
+    @Test
+    void testEncode_DuplicateKeyMatchesIndexKey() {
+        // Whitespace and pinyin form do not change the stored key
+        ChineseFlashCard card = PinyinNormalizer.fill(ChineseFlashCard.newBuilder()
+            .setChineseWord("你 好").setPinyin("ni3 hao3")).build();
+
+        assertEquals(codec.encode(card()).get("duplicateKey"), codec.encode(card).get("duplicateKey"));
+        assertEquals(codec.encode(card).get("duplicateKey"), codec.encodeUpdate(card).get("duplicateKey"));
+    }
+
+    @Test
+    void testEncodeUpdate_LeavesStoredOnlyFieldsOut() {
+        Map<String, Object> doc = codec.encodeUpdate(card());
+
+        assertEquals(9, doc.size());
+        assertEquals("你好", doc.get("chineseWord"));
+        assertEquals("ni hao", doc.get("pinyinToneless"));
+        assertEquals(2000L, doc.get("updatedAt"));
+        assertFalse(doc.containsKey("createdAt"));
+        assertFalse(doc.containsKey("exampleUsage"));
+        assertFalse(doc.containsKey("favorite"));
+    }
+
+    @Test
+    void testEncodeUpdate_AddsOptionalFieldsWhenSet() {
+        assertEquals(9, codec.encodeUpdate(card(), false, false).size());
+
+        Map<String, Object> doc = codec.encodeUpdate(card(), false, true);
+        assertEquals(10, doc.size());
+        assertEquals(true, doc.get("favorite"));
+        assertFalse(doc.containsKey("exampleUsage"));
+
+        doc = codec.encodeUpdate(card(), true, true);
+        assertEquals(11, doc.size());
+        assertEquals("你好，朋友。", doc.get("exampleUsage"));
+        assertFalse(doc.containsKey("createdAt"));
+    }
+
+    @Test
+    void testDecode_ReadsFieldsFromSnapshot() {
+        Map<FieldPath, Object> fields = new HashMap<>();
+        fields.put(FieldPath.of("id"), 1L);
+        fields.put(FieldPath.of("chineseWord"), "你好");
+        fields.put(FieldPath.of("englishWord"), "Hello");
+        fields.put(FieldPath.of("pinyin"), "nǐ hǎo");
+        fields.put(FieldPath.of("img"), "hello.png");
+        fields.put(FieldPath.of("createdAt"), 1000L);
+        fields.put(FieldPath.of("updatedAt"), 2000L);
+        fields.put(FieldPath.of("exampleUsage"), "你好，朋友。");
+        fields.put(FieldPath.of("favorite"), true);
+        fields.put(FieldPath.of("pinyinToneless"), "ni hao");
+        fields.put(FieldPath.of("pinyinNumbered"), "ni3 hao3");
+        DocumentSnapshot document = snapshot(fields);
+
+        assertEquals(card(), codec.decode(document));
+        verify(document, never()).getData();
+    }
+
+    @Test
+    void testDecode_ComputesMissingPinyinForms() {
+        Map<FieldPath, Object> fields = new HashMap<>();
+        fields.put(FieldPath.of("id"), 3L);
+        fields.put(FieldPath.of("pinyin"), "xièxie");
+
+        ChineseFlashCard decoded = codec.decode(snapshot(fields));
+
+        assertEquals("xie xie", decoded.getPinyinToneless());
+        assertEquals("xie4 xie", decoded.getPinyinNumbered());
+    }
+
+    @Test
+    void testDecode_MissingAndMistypedFieldsUseDefaults() {
+        Map<FieldPath, Object> fields = new HashMap<>();
+        fields.put(FieldPath.of("id"), 7L);
+        fields.put(FieldPath.of("chineseWord"), 42L);
+        fields.put(FieldPath.of("favorite"), "yes");
+
+        ChineseFlashCard decoded = codec.decode(snapshot(fields));
+
+        assertEquals(7L, decoded.getId());
+        assertEquals("", decoded.getChineseWord());
+        assertEquals("", decoded.getExampleUsage());
+        assertFalse(decoded.getFavorite());
+    }
+
+    @Test
+    void testDecode_TimestampsBecomeEpochMillis() {
+        Map<FieldPath, Object> fields = new HashMap<>();
+        fields.put(FieldPath.of("chineseWord"), "你好");
+        fields.put(FieldPath.of("createdAt"), Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 123_456_789));
+        fields.put(FieldPath.of("updatedAt"), Timestamp.ofTimeSecondsAndNanos(1_700_000_100L, 999_999));
+
+        ChineseFlashCard decoded = codec.decode(snapshot(fields));
+
+        assertEquals(1_700_000_000_123L, decoded.getCreatedAt());
+        assertEquals(1_700_000_100_000L, decoded.getUpdatedAt());
+    }
+
+    @Test
+    void testFieldLayout_MapView() {
+        FieldLayout layout = new FieldLayout("a", "b");
+        Map<String, Object> doc = layout.wrap(1, null);
+
+        assertEquals(2, layout.size());
+        assertEquals(1, doc.get("a"));
+        assertTrue(doc.containsKey("b"));
+        assertNull(doc.get("b"));
+        assertFalse(doc.containsKey("c"));
+        assertEquals(2, doc.entrySet().size());
+        assertThrows(UnsupportedOperationException.class, () -> doc.put("c", 3));
+    }
+
+    @Test
+    void testFieldLayout_RejectsWrongValueCount() {
+        FieldLayout layout = new FieldLayout("a", "b");
+
+        assertThrows(IllegalArgumentException.class, () -> layout.wrap(1));
+    }
+
+    // ========== Helper Methods ==========
+
+    private static ChineseFlashCard card() {
+        return ChineseFlashCard.newBuilder()
+            .setId(1L)
+            .setChineseWord("你好")
+            .setEnglishWord("Hello")
+            .setPinyin("nǐ hǎo")
+            .setImg("hello.png")
+            .setCreatedAt(1000L)
+            .setUpdatedAt(2000L)
+            .setExampleUsage("你好，朋友。")
+            .setFavorite(true)
+            .setPinyinToneless("ni hao")
+            .setPinyinNumbered("ni3 hao3")
+            .build();
+    }
+
+    private static DocumentSnapshot snapshot(Map<FieldPath, Object> fields) {
+        DocumentSnapshot document = mock(DocumentSnapshot.class);
+        when(document.get(any(FieldPath.class)))
+            .thenAnswer(invocation -> fields.get(invocation.getArgument(0)));
+        return document;
+    }
+}
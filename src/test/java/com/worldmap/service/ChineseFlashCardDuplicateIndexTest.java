@@ -0,0 +1,116 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChineseFlashCardDuplicateIndex and DuplicatePolicy.
+ *
+ * Test Coverage:
+ * - Matching regardless of tone marks, tone numbers, spacing and case
+ * - Different words or syllables are not duplicates
+ * - Earliest card reported when several share a key
+ * - Updates and removals move or drop the key
+ * - Document IDs that are not the card ID (or not numeric) are unindexed by the stored ID
+ * - Policy parsing
+ */
+class ChineseFlashCardDuplicateIndexTest {
+
+    private ChineseFlashCardDuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ChineseFlashCardDuplicateIndex();
+        put(1L, "你好", "nǐ hǎo");
+        put(2L, "谢谢", "xiè xie");
+    }
+
+    @Test
+    void testFind_IgnoresTonesSpacingAndCase() {
+        assertEquals(1L, index.find("你好", "nǐ hǎo"));
+        assertEquals(1L, index.find("你好", "ni3 hao3"));
+        assertEquals(1L, index.find(" 你 好 ", "Nihao"));
+        assertEquals(2L, index.find("谢谢", "xie4xie"));
+    }
+
+    @Test
+    void testFind_DifferentWordOrPinyin() {
+        assertNull(index.find("你好", "nǐ men"));
+        assertNull(index.find("您好", "nín hǎo"));
+        assertNull(index.find("好", "hǎo"));
+    }
+
+    @Test
+    void testFind_EarliestCardFirst() {
+        put(5L, "你好", "ni3 hao3");
+        put(3L, "你好", "nihao");
+
+        assertEquals(1L, index.find("你好", "nǐ hǎo"));
+
+        index.remove("1");
+        assertEquals(3L, index.find("你好", "nǐ hǎo"));
+    }
+
+    @Test
+    void testPutAndRemove_FollowCardChanges() {
+        // Card 1 changes word: the old key no longer matches it
+        put(1L, "您好", "nín hǎo");
+        assertNull(index.find("你好", "nǐ hǎo"));
+        assertEquals(1L, index.find("您好", "nin2 hao3"));
+        assertEquals(2, index.size());
+
+        index.remove("2");
+        index.remove("99");
+        assertNull(index.find("谢谢", "xiè xie"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testRemove_UsesStoredIdForNonNumericDocumentIds() {
+        index.put("legacy-doc", ChineseFlashCard.newBuilder()
+            .setId(9L)
+            .setChineseWord("水")
+            .setPinyin("shuǐ")
+            .build());
+        assertEquals(9L, index.find("水", "shui3"));
+
+        index.remove("legacy-doc");
+
+        assertNull(index.find("水", "shuǐ"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testPut_ReplacingUnindexesThePreviousId() {
+        // Same document rewritten with a different card ID
+        put(1L, "你好", "nǐ hǎo");
+        index.put("1", ChineseFlashCard.newBuilder()
+            .setId(4L)
+            .setChineseWord("你好")
+            .setPinyin("nǐ hǎo")
+            .build());
+
+        assertEquals(4L, index.find("你好", "nǐ hǎo"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testDuplicatePolicy_Parse() {
+        assertEquals(DuplicatePolicy.RETURN_EXISTING, DuplicatePolicy.parse("return-existing"));
+        assertEquals(DuplicatePolicy.MERGE, DuplicatePolicy.parse(" Merge "));
+        assertThrows(IllegalArgumentException.class, () -> DuplicatePolicy.parse("ignore"));
+    }
+
+    // ========== Helper Methods ==========
+
+    private void put(long id, String chineseWord, String pinyin) {
+        index.put(String.valueOf(id), ChineseFlashCard.newBuilder()
+            .setId(id)
+            .setChineseWord(chineseWord)
+            .setPinyin(pinyin)
+            .build());
+    }
+}
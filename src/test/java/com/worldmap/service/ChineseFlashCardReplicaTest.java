@@ -0,0 +1,292 @@
+package com.worldmap.service;
+
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.EventListener;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.worldmap.config.ApplicationConfig;
+import com.worldmap.flashcard.ChineseFlashCard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ChineseFlashCardReplica.
+ *
+ * Test Coverage:
+ * - Readiness after the initial snapshot
+ * - Incremental ADDED/MODIFIED/REMOVED changes, mirrored in the search, suggest and duplicate indexes
+ * - Cursor and page-number paging
+ * - Streaming batches resumed by document ID, including cards without an id field
+ * - Version advancing on every change
+ * - Re-listening with backoff after a listener error, dropping cards deleted meanwhile
+ * - Disabled mode
+ */
+class ChineseFlashCardReplicaTest {
+
+    private static final String COLLECTION_NAME = "chinese_flashcards";
+
+    private FirestoreService firestoreService;
+    private ApplicationConfig config;
+    private EventListener<QuerySnapshot> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        firestoreService = mock(FirestoreService.class);
+        when(firestoreService.isConnected()).thenReturn(true);
+        when(firestoreService.addSnapshotListener(eq(COLLECTION_NAME), any())).thenAnswer(invocation -> {
+            listener = invocation.getArgument(1);
+            return mock(ListenerRegistration.class);
+        });
+
+        config = new ApplicationConfig();
+        config.getFirebase().setCollection(COLLECTION_NAME);
+        config.getFirebase().setReplicaEnabled(true);
+    }
+
+    @Test
+    void testReady_AfterInitialSnapshot() {
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec());
+        assertFalse(replica.isReady());
+
+        listener.onEvent(snapshot(change(DocumentChange.Type.ADDED, 1L, "你好")), null);
+
+        assertTrue(replica.isReady());
+        assertTrue(replica.awaitReady(Duration.ZERO));
+        assertEquals(1, replica.size());
+        assertEquals("你好", replica.get(1L).getChineseWord());
+    }
+
+    @Test
+    void testIncrementalChanges() {
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec());
+        listener.onEvent(snapshot(
+            change(DocumentChange.Type.ADDED, 1L, "你好"),
+            change(DocumentChange.Type.ADDED, 2L, "谢谢")), null);
+
+        listener.onEvent(snapshot(
+            change(DocumentChange.Type.MODIFIED, 1L, "您好"),
+            change(DocumentChange.Type.REMOVED, 2L, "谢谢")), null);
+
+        assertEquals(1, replica.size());
+        assertEquals("您好", replica.get(1L).getChineseWord());
+        assertNull(replica.get(2L));
+
+        // The search index follows the same changes
+        assertEquals(1, replica.searchIndex().size());
+        assertEquals(1, replica.searchIndex().search("您好", 0, 10).getTotalHits());
+        assertEquals(0, replica.searchIndex().search("谢谢", 0, 10).getTotalHits());
+        assertEquals(1, replica.suggestIndex().size());
+        assertEquals("您好", replica.suggestIndex().suggest("您", 10).get(0).getText());
+        assertTrue(replica.suggestIndex().suggest("谢", 10).isEmpty());
+        assertEquals(1, replica.duplicateIndex().size());
+        assertNull(replica.duplicateIndex().find("谢谢", ""));
+    }
+
+    @Test
+    void testVersion_AdvancesOnChanges() {
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec());
+        listener.onEvent(snapshot(change(DocumentChange.Type.ADDED, 1L, "你好")), null);
+        String loaded = replica.version();
+
+        assertEquals(loaded, replica.version());
+
+        listener.onEvent(snapshot(change(DocumentChange.Type.MODIFIED, 1L, "您好")), null);
+        String modified = replica.version();
+        assertNotEquals(loaded, modified);
+
+        replica.remove(1L);
+        assertNotEquals(modified, replica.version());
+    }
+
+    @Test
+    void testListenerError_StopsServing() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec(), scheduler);
+        listener.onEvent(snapshot(change(DocumentChange.Type.ADDED, 1L, "你好")), null);
+
+        listener.onEvent(null, mock(com.google.cloud.firestore.FirestoreException.class));
+
+        assertFalse(replica.isReady());
+        verify(scheduler).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testListenerError_ReListensWithBackoffAndReloads() {
+        // Arrange: retries run as soon as they are scheduled
+        List<Long> delays = new ArrayList<>();
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        when(scheduler.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> {
+            delays.add(invocation.getArgument(1));
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        });
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec(), scheduler);
+        listener.onEvent(snapshot(
+            change(DocumentChange.Type.ADDED, 1L, "你好"),
+            change(DocumentChange.Type.ADDED, 2L, "谢谢")), null);
+        EventListener<QuerySnapshot> failed = listener;
+
+        // Act: the stream fails and a new listener is registered
+        failed.onEvent(null, mock(com.google.cloud.firestore.FirestoreException.class));
+
+        assertFalse(replica.isReady());
+        assertNotSame(failed, listener);
+        verify(firestoreService, times(2)).addSnapshotListener(eq(COLLECTION_NAME), any());
+
+        // Events from the abandoned listener are ignored
+        failed.onEvent(snapshot(change(DocumentChange.Type.ADDED, 3L, "再见")), null);
+        assertFalse(replica.isReady());
+        assertNull(replica.get(3L));
+
+        // The new listener reloads every card; card 2 was deleted while no listener ran
+        listener.onEvent(fullSnapshot(
+            change(DocumentChange.Type.ADDED, 1L, "你好"),
+            change(DocumentChange.Type.ADDED, 3L, "再见")), null);
+
+        // Assert
+        assertTrue(replica.isReady());
+        assertEquals(2, replica.size());
+        assertNull(replica.get(2L));
+        assertEquals("再见", replica.get(3L).getChineseWord());
+        assertEquals(0, replica.searchIndex().search("谢谢", 0, 10).getTotalHits());
+        assertEquals(2, replica.duplicateIndex().size());
+
+        // The backoff restarts after a recovery and doubles while failures repeat
+        listener.onEvent(null, mock(com.google.cloud.firestore.FirestoreException.class));
+        listener.onEvent(null, mock(com.google.cloud.firestore.FirestoreException.class));
+        assertEquals(Arrays.asList(1000L, 1000L, 2000L), delays);
+    }
+
+    @Test
+    void testPaging_CursorAndPageNumber() {
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec());
+        listener.onEvent(snapshot(), null);
+        for (long id = 1; id <= 5; id++) {
+            replica.put(ChineseFlashCard.newBuilder().setId(id).setChineseWord("w" + id).build());
+        }
+
+        Page<ChineseFlashCard> first = replica.page("", 2);
+        assertEquals(Arrays.asList(1L, 2L), ids(first.getItems()));
+        assertTrue(first.hasNextPage());
+
+        Page<ChineseFlashCard> second = replica.page(first.getNextPageToken(), 2);
+        assertEquals(Arrays.asList(3L, 4L), ids(second.getItems()));
+
+        Page<ChineseFlashCard> last = replica.page(second.getNextPageToken(), 2);
+        assertEquals(Collections.singletonList(5L), ids(last.getItems()));
+        assertFalse(last.hasNextPage());
+
+        assertEquals(Arrays.asList(3L, 4L), ids(replica.pageAt(1, 2)));
+    }
+
+    @Test
+    void testStream_ResumesByDocumentIdForCardsWithoutId() {
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec());
+        // "Xy7" was created by the frontend: generated document ID, no id field
+        listener.onEvent(snapshot(
+            change(DocumentChange.Type.ADDED, 1L, "你好"),
+            change(DocumentChange.Type.ADDED, 2L, "谢谢"),
+            change(DocumentChange.Type.ADDED, "Xy7", null, "再见")), null);
+
+        assertEquals(Arrays.asList("1", "2"), streamedDocIds(replica, null, 2));
+        assertEquals(Collections.singletonList("Xy7"), streamedDocIds(replica, "2", 2));
+        assertEquals(Collections.emptyList(), streamedDocIds(replica, "Xy7", 2));
+    }
+
+    @Test
+    void testDisabled_DoesNotListen() {
+        config.getFirebase().setReplicaEnabled(false);
+
+        ChineseFlashCardReplica replica = new ChineseFlashCardReplica(firestoreService, config, new ChineseFlashCardCodec());
+
+        assertFalse(replica.isReady());
+        assertFalse(replica.awaitReady(Duration.ZERO));
+        verify(firestoreService, never()).addSnapshotListener(anyString(), any());
+    }
+
+    // ========== Helper Methods ==========
+
+    private static QuerySnapshot snapshot(DocumentChange... changes) {
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocumentChanges()).thenReturn(Arrays.asList(changes));
+        return snapshot;
+    }
+
+    /**
+     * Creates the first snapshot of a listener, whose documents are exactly the added ones.
+     */
+    private static QuerySnapshot fullSnapshot(DocumentChange... changes) {
+        QuerySnapshot snapshot = snapshot(changes);
+        List<QueryDocumentSnapshot> documents = new ArrayList<>();
+        for (DocumentChange change : changes) {
+            documents.add(change.getDocument());
+        }
+        when(snapshot.getDocuments()).thenReturn(documents);
+        return snapshot;
+    }
+
+    private static DocumentChange change(DocumentChange.Type type, long id, String chineseWord) {
+        return change(type, String.valueOf(id), id, chineseWord);
+    }
+
+    /**
+     * @param id Value of the id field, or null for a document without one
+     */
+    private static DocumentChange change(DocumentChange.Type type, String docId, Long id, String chineseWord) {
+        Map<FieldPath, Object> fields = new HashMap<>();
+        fields.put(FieldPath.of("id"), id);
+        fields.put(FieldPath.of("chineseWord"), chineseWord);
+
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.getId()).thenReturn(docId);
+        when(document.get(any(FieldPath.class))).thenAnswer(invocation -> fields.get(invocation.getArgument(0)));
+
+        DocumentChange change = mock(DocumentChange.class);
+        when(change.getType()).thenReturn(type);
+        when(change.getDocument()).thenReturn(document);
+        return change;
+    }
+
+    /**
+     * Streams one batch from the replica, returning the document IDs delivered.
+     */
+    private static List<String> streamedDocIds(ChineseFlashCardReplica replica, String startAfterDocId, int limit) {
+        List<String> docIds = new ArrayList<>();
+        replica.stream(startAfterDocId, limit, new DocumentStreamObserver<ChineseFlashCard>() {
+            @Override
+            public void onNext(String docId, ChineseFlashCard value) {
+                docIds.add(docId);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        return docIds;
+    }
+
+    private static List<Long> ids(List<ChineseFlashCard> cards) {
+        List<Long> ids = new ArrayList<>();
+        for (ChineseFlashCard card : cards) {
+            ids.add(card.getId());
+        }
+        return ids;
+    }
+}
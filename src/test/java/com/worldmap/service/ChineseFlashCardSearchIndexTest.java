@@ -0,0 +1,198 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChineseFlashCardSearchIndex and SearchTokenizer.
+ *
+ * Test Coverage:
+ * - Chinese bigram and single-character matches
+ * - Pinyin with tone marks, tone numbers or no tones, spaced or unspaced
+ * - Stemmed English matches
+ * - Ranking and paging
+ * - Reindexing on update and unindexing on remove
+ * - Typo tolerance when nothing matches exactly, and FuzzyTermIndex distances
+ */
+class ChineseFlashCardSearchIndexTest {
+
+    private ChineseFlashCardSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ChineseFlashCardSearchIndex();
+        put(1L, "你好", "nǐ hǎo", "Hello");
+        put(2L, "你们好", "nǐ men hǎo", "Hello everyone");
+        put(3L, "谢谢", "xiè xie", "Thank you");
+        put(4L, "吃饭", "chī fàn", "To eat a meal");
+    }
+
+    @Test
+    void testTokenizer_Terms() {
+        assertEquals(Arrays.asList("你", "好", "吗", "你好", "好吗"), SearchTokenizer.chineseTerms("你好吗"));
+        assertEquals(Arrays.asList("你好", "好吗"), SearchTokenizer.chineseQueryTerms("你好吗"));
+        assertEquals(Collections.singletonList("好"), SearchTokenizer.chineseQueryTerms("好"));
+        assertEquals(Arrays.asList("ni", "hao"), SearchTokenizer.pinyinTerms("nǐ hǎo"));
+        assertEquals(Arrays.asList("ni", "hao"), SearchTokenizer.pinyinTerms("ni3hao3"));
+        assertEquals(Arrays.asList("ni", "hao"), SearchTokenizer.pinyinTerms("nǐhǎo"));
+        assertEquals(Arrays.asList("ni", "hao", "nihao"), SearchTokenizer.pinyinIndexTerms(Arrays.asList("ni", "hao")));
+        assertEquals(Arrays.asList("nihao", "haoma"), SearchTokenizer.pinyinQueryTerms("nihaoma"));
+        assertEquals(Arrays.asList("ni", "hao"), SearchTokenizer.pinyinQueryTerms("ni3 hao3"));
+        assertEquals(Arrays.asList("eat", "meal"), SearchTokenizer.englishTerms("Eating meals"));
+        assertEquals("run", SearchTokenizer.stem("running"));
+        assertEquals("study", SearchTokenizer.stem("studies"));
+    }
+
+    @Test
+    void testSearch_ChineseBigram() {
+        assertEquals(Collections.singletonList(1L), ids(index.search("你好", 0, 10)));
+    }
+
+    @Test
+    void testSearch_SingleCharacter() {
+        assertEquals(Arrays.asList(1L, 2L), ids(index.search("好", 0, 10)));
+    }
+
+    @Test
+    void testSearch_PinyinIgnoresTones() {
+        assertEquals(Collections.singletonList(3L), ids(index.search("xie xie", 0, 10)));
+        assertEquals(Collections.singletonList(3L), ids(index.search("xie4 xie", 0, 10)));
+    }
+
+    @Test
+    void testSearch_PinyinUnspaced() {
+        assertEquals(Collections.singletonList(3L), ids(index.search("xiexie", 0, 10)));
+        assertEquals(Collections.singletonList(4L), ids(index.search("chi1fan4", 0, 10)));
+        // nǐ men hǎo has ni and hao, but not adjacent
+        assertEquals(Collections.singletonList(1L), ids(index.search("nihao", 0, 10)));
+    }
+
+    @Test
+    void testSearch_UsesStoredToneless() {
+        index.put("5", ChineseFlashCard.newBuilder()
+            .setId(5L)
+            .setChineseWord("女")
+            .setPinyin("nǚ")
+            .setPinyinToneless("nv")
+            .setEnglishWord("Female")
+            .build());
+
+        assertEquals(Collections.singletonList(5L), ids(index.search("nv3", 0, 10)));
+        assertEquals(Collections.singletonList(5L), ids(index.search("nü", 0, 10)));
+    }
+
+    @Test
+    void testSearch_EnglishStemmed() {
+        assertEquals(Collections.singletonList(4L), ids(index.search("eating", 0, 10)));
+    }
+
+    @Test
+    void testSearch_ExactMatchRanksFirst() {
+        ChineseFlashCardSearchIndex.Result result = index.search("hello", 0, 10);
+
+        assertEquals(Arrays.asList(1L, 2L), ids(result));
+        assertEquals(2, result.getTotalHits());
+    }
+
+    @Test
+    void testSearch_Paging() {
+        ChineseFlashCardSearchIndex.Result first = index.search("hello", 0, 1);
+        ChineseFlashCardSearchIndex.Result second = index.search("hello", 1, 1);
+        ChineseFlashCardSearchIndex.Result past = index.search("hello", 2, 1);
+
+        assertEquals(Collections.singletonList(1L), ids(first));
+        assertEquals(Collections.singletonList(2L), ids(second));
+        assertTrue(past.getCards().isEmpty());
+        assertEquals(2, past.getTotalHits());
+    }
+
+    @Test
+    void testSearch_NoMatch() {
+        ChineseFlashCardSearchIndex.Result result = index.search("goodbye", 0, 10);
+
+        assertTrue(result.getCards().isEmpty());
+        assertEquals(0, result.getTotalHits());
+    }
+
+    @Test
+    void testSearch_MisspellingsMatchWhenNothingExact() {
+        assertEquals(Arrays.asList(1L, 2L), ids(index.search("helo", 0, 10)));
+        assertEquals(Collections.singletonList(3L), ids(index.search("thnak", 0, 10)));
+        assertEquals(Collections.singletonList(3L), ids(index.search("xeixie", 0, 10)));
+        // Too short to correct
+        assertTrue(index.search("ta", 0, 10).getCards().isEmpty());
+    }
+
+    @Test
+    void testSearch_ExactHitsSuppressFuzzy() {
+        // "meal" matches exactly, so "helo" is not corrected
+        assertEquals(Collections.singletonList(4L), ids(index.search("helo meal", 0, 10)));
+    }
+
+    @Test
+    void testSearch_FuzzyDisabled() {
+        ChineseFlashCardSearchIndex exact = new ChineseFlashCardSearchIndex(0);
+        exact.put("1", ChineseFlashCard.newBuilder().setId(1L).setChineseWord("你好").setPinyin("nǐ hǎo").setEnglishWord("Hello").build());
+
+        assertTrue(exact.search("helo", 0, 10).getCards().isEmpty());
+        assertEquals(1, exact.search("hello", 0, 10).getTotalHits());
+    }
+
+    @Test
+    void testFuzzyTermIndex_Lookup() {
+        FuzzyTermIndex fuzzy = new FuzzyTermIndex(2);
+        fuzzy.add("the");
+        fuzzy.add("everyone");
+        fuzzy.add("hello");
+
+        assertEquals(Integer.valueOf(1), fuzzy.lookup("teh").get("the"));
+        assertEquals(Integer.valueOf(2), fuzzy.lookup("evryon").get("everyone"));
+        // Five letters tolerate a single edit
+        assertFalse(fuzzy.lookup("hlelp").containsKey("hello"));
+        assertEquals(-1, FuzzyTermIndex.distance("kitten", "sitting", 2));
+        assertEquals(3, FuzzyTermIndex.distance("kitten", "sitting", 3));
+
+        fuzzy.remove("the");
+        assertTrue(fuzzy.lookup("teh").isEmpty());
+    }
+
+    @Test
+    void testPutAndRemove_KeepIndexCurrent() {
+        put(3L, "再见", "zài jiàn", "Goodbye");
+
+        assertTrue(index.search("thank", 0, 10).getCards().isEmpty());
+        assertEquals(Collections.singletonList(3L), ids(index.search("goodbye", 0, 10)));
+
+        index.remove("3");
+
+        assertTrue(index.search("goodbye", 0, 10).getCards().isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    // ========== Helper Methods ==========
+
+    private void put(long id, String chineseWord, String pinyin, String englishWord) {
+        index.put(String.valueOf(id), ChineseFlashCard.newBuilder()
+            .setId(id)
+            .setChineseWord(chineseWord)
+            .setPinyin(pinyin)
+            .setEnglishWord(englishWord)
+            .build());
+    }
+
+    private static List<Long> ids(ChineseFlashCardSearchIndex.Result result) {
+        List<Long> ids = new ArrayList<>();
+        for (ChineseFlashCard card : result.getCards()) {
+            ids.add(card.getId());
+        }
+        return ids;
+    }
+}
@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -19,10 +20,19 @@ import static org.mockito.Mockito.*;
  *
  * Test Coverage:
  * - Create operations (success, validation errors, Firestore errors)
+ * - Batch create operations (success, partial failure, empty batch)
+ * - Duplicate detection on create (return existing, reject, merge; within and across batches;
+ *   stored duplicates found in Firestore without the replica)
  * - GetAll operations (with results, empty results, pagination)
  * - GetById operations (found, not found)
- * - Update operations (success, not found, validation errors)
+ * - GetByIds operations (order, missing IDs, empty request)
+ * - Streamed batches (document ID cursor, replica, Firestore not configured)
+ * - Study progress writes (answers folded per card)
+ * - Update operations (success, stored fields kept, not found, validation errors)
  * - Delete operations (success, not found)
+ * - Search (paging through the replica index, own index loaded from Firestore and kept
+ *   current by writes without the replica, empty query, replica not loaded)
+ * - Suggestions (replica index, own index without the replica, empty prefix, replica not loaded)
  * - Firestore not configured scenarios
  */
 @ExtendWith(MockitoExtension.class)
@@ -43,8 +53,13 @@ class ChineseFlashCardServiceTest {
         // Mock Firestore as connected by default
         when(firestoreService.isConnected()).thenReturn(true);
 
+        ApplicationConfig.Firebase firebase = new ApplicationConfig.Firebase();
+        firebase.setCollection(COLLECTION_NAME);
+        when(config.getFirebase()).thenReturn(firebase);
+        when(config.getSearch()).thenReturn(new ApplicationConfig.Search());
+
         // Initialize service with mocked dependencies
-        service = new ChineseFlashCardService(firestoreService, config);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
     }
 
     // ========== CREATE Tests ==========
@@ -59,9 +74,9 @@ class ChineseFlashCardServiceTest {
             .setImg("http://example.com/image.jpg")
             .build();
 
-        // Mock Firestore create operation
-        when(firestoreService.create(eq(COLLECTION_NAME), anyString(), anyMap(), eq(Map.class)))
-            .thenReturn(new HashMap<>());
+        // Mock Firestore create operation; no stored duplicate
+        when(firestoreService.createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         CreateChineseFlashCardResponse response = service.create(request);
@@ -73,13 +88,42 @@ class ChineseFlashCardServiceTest {
         assertEquals("你好", response.getData().getChineseWord());
         assertEquals("Hello", response.getData().getEnglishWord());
         assertEquals("nǐ hǎo", response.getData().getPinyin());
+        assertEquals("ni hao", response.getData().getPinyinToneless());
+        assertEquals("ni3 hao3", response.getData().getPinyinNumbered());
         assertEquals("http://example.com/image.jpg", response.getData().getImg());
         assertTrue(response.getData().getId() > 0);
         assertTrue(response.getData().getCreatedAt() > 0);
         assertTrue(response.getData().getUpdatedAt() > 0);
 
-        // Verify Firestore was called
-        verify(firestoreService).create(eq(COLLECTION_NAME), anyString(), anyMap(), eq(Map.class));
+        // Verify Firestore was called, checking for a stored duplicate in the same transaction
+        verify(firestoreService).createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(),
+            eq(Map.of("duplicateKey", ChineseFlashCardDuplicateIndex.key("你好", "ni hao"))), eq(ChineseFlashCard.class));
+    }
+
+    @Test
+    void testCreate_WritesExampleUsageAndFavorite() {
+        // Arrange
+        CreateChineseFlashCardRequest request = CreateChineseFlashCardRequest.newBuilder()
+            .setChineseWord("你好")
+            .setEnglishWord("Hello")
+            .setPinyin("nǐ hǎo")
+            .setExampleUsage("你好，我叫小明。")
+            .setFavorite(true)
+            .build();
+
+        when(firestoreService.createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        CreateChineseFlashCardResponse response = service.create(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        assertEquals("你好，我叫小明。", response.getData().getExampleUsage());
+        assertTrue(response.getData().getFavorite());
+        verify(firestoreService).createUniqueAsync(eq(COLLECTION_NAME), anyString(),
+            argThat(doc -> "你好，我叫小明。".equals(doc.get("exampleUsage")) && Boolean.TRUE.equals(doc.get("favorite"))),
+            anyMap(), eq(ChineseFlashCard.class));
     }
 
     @Test
@@ -99,7 +143,7 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getError().contains("Chinese word is required"));
 
         // Verify Firestore was NOT called
-        verify(firestoreService, never()).create(anyString(), anyString(), anyMap(), any());
+        verify(firestoreService, never()).createAsync(anyString(), anyString(), anyMap(), any());
     }
 
     @Test
@@ -159,7 +203,7 @@ class ChineseFlashCardServiceTest {
     void testCreate_FirestoreNotConnected() {
         // Arrange
         when(firestoreService.isConnected()).thenReturn(false);
-        service = new ChineseFlashCardService(firestoreService, config);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
 
         CreateChineseFlashCardRequest request = CreateChineseFlashCardRequest.newBuilder()
             .setChineseWord("你好")
@@ -175,7 +219,7 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getError().contains("Firestore is not configured"));
 
         // Verify Firestore was NOT called
-        verify(firestoreService, never()).create(anyString(), anyString(), anyMap(), any());
+        verify(firestoreService, never()).createAsync(anyString(), anyString(), anyMap(), any());
     }
 
     @Test
@@ -188,7 +232,7 @@ class ChineseFlashCardServiceTest {
             .build();
 
         // Mock Firestore to throw exception
-        when(firestoreService.create(anyString(), anyString(), anyMap(), any()))
+        when(firestoreService.createUniqueAsync(anyString(), anyString(), anyMap(), anyMap(), any()))
             .thenThrow(new FirestoreException("Firestore operation failed"));
 
         // Act
@@ -199,6 +243,336 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getError().contains("Failed to create flashcard"));
     }
 
+    // ========== BATCH CREATE Tests ==========
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchCreate_Success() {
+        // Arrange
+        BatchCreateChineseFlashCardsRequest request = BatchCreateChineseFlashCardsRequest.newBuilder()
+            .addCards(cardRequest("你好", "Hello", "nǐ hǎo"))
+            .addCards(cardRequest("谢谢", "Thank you", "xiè xiè"))
+            .build();
+
+        when(firestoreService.findFirstAsync(eq(COLLECTION_NAME), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(firestoreService.createAllAsync(eq(COLLECTION_NAME), anyMap()))
+            .thenAnswer(invocation -> {
+                Map<String, Map<String, Object>> documents = invocation.getArgument(1);
+                return CompletableFuture.completedFuture(
+                    BulkWriteResult.succeeded(new ArrayList<>(documents.keySet())));
+            });
+
+        // Act
+        BatchCreateChineseFlashCardsResponse response = service.batchCreate(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        assertEquals(2, response.getCreatedCount());
+        assertEquals(0, response.getFailedCount());
+        assertEquals("你好", response.getData(0).getChineseWord());
+        assertEquals("谢谢", response.getData(1).getChineseWord());
+        assertNotEquals(response.getData(0).getId(), response.getData(1).getId());
+
+        // Verify a single batched write was issued
+        verify(firestoreService, times(1)).createAllAsync(eq(COLLECTION_NAME), anyMap());
+        verify(firestoreService, never()).createAsync(anyString(), anyString(), anyMap(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchCreate_PartialFailure() {
+        // Arrange: second card is invalid, third card's write fails
+        BatchCreateChineseFlashCardsRequest request = BatchCreateChineseFlashCardsRequest.newBuilder()
+            .addCards(cardRequest("你好", "Hello", "nǐ hǎo"))
+            .addCards(cardRequest("", "Thank you", "xiè xiè"))
+            .addCards(cardRequest("再见", "Goodbye", "zài jiàn"))
+            .build();
+
+        when(firestoreService.findFirstAsync(eq(COLLECTION_NAME), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(firestoreService.createAllAsync(eq(COLLECTION_NAME), anyMap()))
+            .thenAnswer(invocation -> {
+                Map<String, Map<String, Object>> documents = invocation.getArgument(1);
+                List<String> docIds = new ArrayList<>(documents.keySet());
+                assertEquals(2, docIds.size());
+                return CompletableFuture.completedFuture(BulkWriteResult.merge(Arrays.asList(
+                    BulkWriteResult.succeeded(docIds.subList(0, 1)),
+                    BulkWriteResult.failed(docIds.subList(1, 2), "Deadline exceeded"))));
+            });
+
+        // Act
+        BatchCreateChineseFlashCardsResponse response = service.batchCreate(request);
+
+        // Assert
+        assertFalse(response.getSuccess());
+        assertEquals(1, response.getCreatedCount());
+        assertEquals(2, response.getFailedCount());
+        assertEquals("你好", response.getData(0).getChineseWord());
+        assertTrue(response.getErrors(0).startsWith("Card 2: Validation failed"));
+        assertTrue(response.getErrors(1).startsWith("Card 3: Failed to create flashcard"));
+    }
+
+    @Test
+    void testBatchCreate_EmptyBatch() {
+        // Act
+        BatchCreateChineseFlashCardsResponse response =
+            service.batchCreate(BatchCreateChineseFlashCardsRequest.getDefaultInstance());
+
+        // Assert
+        assertFalse(response.getSuccess());
+        assertTrue(response.getError().contains("At least one card is required"));
+        verify(firestoreService, never()).createAllAsync(anyString(), anyMap());
+    }
+
+    // ========== DUPLICATE Tests ==========
+
+    @Test
+    void testCreate_DuplicateReturnsExisting() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        ChineseFlashCard existing = createMockCard(1L, "你好", "Hello", "nǐ hǎo");
+        service = serviceWithReplica(replica, "return-existing", existing);
+
+        CreateChineseFlashCardResponse response = service.create(cardRequest("你好", "Hi", "ni3 hao3"));
+
+        assertTrue(response.getSuccess());
+        assertEquals("Chinese flashcard already exists", response.getMessage());
+        assertEquals(existing, response.getData());
+        verify(firestoreService, never()).createAsync(anyString(), anyString(), anyMap(), any());
+        verify(firestoreService, never()).createUniqueAsync(anyString(), anyString(), anyMap(), anyMap(), any());
+    }
+
+    @Test
+    void testCreate_WithoutReplicaReturnsStoredDuplicate() {
+        ChineseFlashCard stored = createMockCard(1L, "你好", "Hello", "nǐ hǎo");
+        when(firestoreService.createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(),
+                eq(Map.of("duplicateKey", ChineseFlashCardDuplicateIndex.key("你好", "ni hao"))), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(stored));
+
+        CreateChineseFlashCardResponse response = service.create(cardRequest("你好", "Hi", "nǐ hǎo"));
+
+        assertTrue(response.getSuccess());
+        assertEquals("Chinese flashcard already exists", response.getMessage());
+        assertEquals(stored, response.getData());
+    }
+
+    @Test
+    void testCreate_WithoutReplicaQueriesIndexKeyAndStoresIt() {
+        when(firestoreService.createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Spaced word and numbered pinyin: the same card as 你好 / nǐ hǎo to the replica's index
+        service.create(cardRequest("你 好", "Hi", "ni3 hao3"));
+
+        String key = ChineseFlashCardDuplicateIndex.key("你好", "ni hao");
+        verify(firestoreService).createUniqueAsync(eq(COLLECTION_NAME), anyString(),
+            argThat(doc -> key.equals(doc.get("duplicateKey"))), eq(Map.of("duplicateKey", key)), eq(ChineseFlashCard.class));
+    }
+
+    @Test
+    void testCreate_WithoutReplicaRejectsStoredDuplicate() {
+        config.getFirebase().setDuplicatePolicy("reject");
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+        when(firestoreService.createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(createMockCard(1L, "你好", "Hello", "nǐ hǎo")));
+
+        CreateChineseFlashCardResponse response = service.create(cardRequest("你好", "Hello", "nǐ hǎo"));
+
+        assertFalse(response.getSuccess());
+        assertEquals("Duplicate flashcard: 你好 (nǐ hǎo) already exists with ID: 1", response.getError());
+    }
+
+    @Test
+    void testCreate_AllowedDuplicatesSkipTheDuplicateCheck() {
+        config.getFirebase().setDuplicatePolicy("allow");
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+        when(firestoreService.createAsync(eq(COLLECTION_NAME), anyString(), anyMap(), eq(Map.class)))
+            .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+
+        CreateChineseFlashCardResponse response = service.create(cardRequest("你好", "Hello", "nǐ hǎo"));
+
+        assertTrue(response.getSuccess());
+        assertEquals("Chinese flashcard created successfully", response.getMessage());
+        verify(firestoreService, never()).createUniqueAsync(anyString(), anyString(), anyMap(), anyMap(), any());
+    }
+
+    @Test
+    void testCreate_DuplicateRejected() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        service = serviceWithReplica(replica, "reject", createMockCard(1L, "你好", "Hello", "nǐ hǎo"));
+
+        CreateChineseFlashCardResponse response = service.create(cardRequest("你好", "Hello", "nihao"));
+
+        assertFalse(response.getSuccess());
+        assertEquals("Duplicate flashcard: 你好 (nihao) already exists with ID: 1", response.getError());
+        verify(firestoreService, never()).createAsync(anyString(), anyString(), anyMap(), any());
+    }
+
+    @Test
+    void testCreate_DuplicateMergedIntoExisting() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        service = serviceWithReplica(replica, "merge", createMockCard(1L, "你好", "Hello", "nǐ hǎo"));
+
+        when(firestoreService.updateAsync(eq(COLLECTION_NAME), eq("1"), anyMap(), eq(Map.class)))
+            .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+
+        CreateChineseFlashCardResponse response = service.create(cardRequest("你好", "Hi", "nǐ hǎo").toBuilder()
+            .setImg("http://example.com/image.jpg")
+            .setFavorite(true)
+            .build());
+
+        // The existing card keeps its values; the new gloss, image and favorite are added
+        assertTrue(response.getSuccess());
+        assertEquals("Merged into existing Chinese flashcard", response.getMessage());
+        assertEquals(1L, response.getData().getId());
+        assertEquals("Hello; Hi", response.getData().getEnglishWord());
+        assertEquals("http://example.com/image.jpg", response.getData().getImg());
+        assertTrue(response.getData().getFavorite());
+        verify(replica).put(response.getData());
+        verify(firestoreService, never()).createAsync(anyString(), anyString(), anyMap(), any());
+    }
+
+    @Test
+    void testCreate_DuplicateMergeWithNothingNew() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        ChineseFlashCard existing = createMockCard(1L, "你好", "Hello; Hi", "nǐ hǎo");
+        service = serviceWithReplica(replica, "merge", existing);
+
+        CreateChineseFlashCardResponse response = service.create(cardRequest("你好", "hi", "nǐ hǎo"));
+
+        assertTrue(response.getSuccess());
+        assertEquals(existing, response.getData());
+        verify(firestoreService, never()).updateAsync(anyString(), anyString(), anyMap(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchCreate_DuplicatesResolveToExistingAndEarlierCards() {
+        // Arrange: card 1 duplicates an existing card, card 3 duplicates card 2
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        service = serviceWithReplica(replica, "return-existing", createMockCard(1L, "你好", "Hello", "nǐ hǎo"));
+        BatchCreateChineseFlashCardsRequest request = BatchCreateChineseFlashCardsRequest.newBuilder()
+            .addCards(cardRequest("你好", "Hello", "ni3 hao3"))
+            .addCards(cardRequest("谢谢", "Thank you", "xiè xie"))
+            .addCards(cardRequest("谢谢", "Thanks", "xie4 xie"))
+            .build();
+
+        when(firestoreService.createAllAsync(eq(COLLECTION_NAME), anyMap()))
+            .thenAnswer(invocation -> {
+                Map<String, Map<String, Object>> documents = invocation.getArgument(1);
+                assertEquals(1, documents.size());
+                return CompletableFuture.completedFuture(
+                    BulkWriteResult.succeeded(new ArrayList<>(documents.keySet())));
+            });
+
+        // Act
+        BatchCreateChineseFlashCardsResponse response = service.batchCreate(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        assertEquals(1, response.getCreatedCount());
+        assertEquals(2, response.getDuplicateCount());
+        assertEquals(0, response.getFailedCount());
+        assertEquals("谢谢", response.getData(0).getChineseWord());
+        assertEquals(1L, response.getExisting(0).getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchCreate_DuplicatesMergedIntoExisting() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        service = serviceWithReplica(replica, "merge", createMockCard(1L, "你好", "Hello", "nǐ hǎo"));
+        BatchCreateChineseFlashCardsRequest request = BatchCreateChineseFlashCardsRequest.newBuilder()
+            .addCards(cardRequest("你好", "Hi", "nǐ hǎo"))
+            .build();
+
+        when(firestoreService.updateAllAsync(eq(COLLECTION_NAME), anyMap()))
+            .thenAnswer(invocation -> {
+                Map<String, Map<String, Object>> documents = invocation.getArgument(1);
+                assertEquals("Hello; Hi", documents.get("1").get("englishWord"));
+                return CompletableFuture.completedFuture(
+                    BulkWriteResult.succeeded(new ArrayList<>(documents.keySet())));
+            });
+
+        BatchCreateChineseFlashCardsResponse response = service.batchCreate(request);
+
+        assertTrue(response.getSuccess());
+        assertEquals(0, response.getCreatedCount());
+        assertEquals(1, response.getDuplicateCount());
+        assertEquals("Hello; Hi", response.getExisting(0).getEnglishWord());
+        verify(replica).put(response.getExisting(0));
+        verify(firestoreService, never()).createAllAsync(anyString(), anyMap());
+    }
+
+    @Test
+    void testBatchCreate_DuplicatesRejected() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        service = serviceWithReplica(replica, "reject", createMockCard(1L, "你好", "Hello", "nǐ hǎo"));
+        BatchCreateChineseFlashCardsRequest request = BatchCreateChineseFlashCardsRequest.newBuilder()
+            .addCards(cardRequest("你好", "Hello", "nǐ hǎo"))
+            .build();
+
+        BatchCreateChineseFlashCardsResponse response = service.batchCreate(request);
+
+        assertFalse(response.getSuccess());
+        assertEquals(1, response.getFailedCount());
+        assertEquals(0, response.getExistingCount());
+        assertTrue(response.getErrors(0).startsWith("Card 1: Duplicate flashcard"));
+        verify(firestoreService, never()).createAllAsync(anyString(), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchCreate_WithoutReplicaResolvesStoredDuplicates() {
+        // Arrange: cards 1 and 3 duplicate a stored card, looked up once
+        BatchCreateChineseFlashCardsRequest request = BatchCreateChineseFlashCardsRequest.newBuilder()
+            .addCards(cardRequest("你好", "Hello", "nǐ hǎo"))
+            .addCards(cardRequest("谢谢", "Thank you", "xiè xie"))
+            .addCards(cardRequest("你好", "Hi", "nǐ hǎo"))
+            .build();
+
+        when(firestoreService.findFirstAsync(eq(COLLECTION_NAME), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(firestoreService.findFirstAsync(eq(COLLECTION_NAME),
+                eq(Map.of("duplicateKey", ChineseFlashCardDuplicateIndex.key("你好", "ni hao"))), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(createMockCard(1L, "你好", "Hello", "nǐ hǎo")));
+        when(firestoreService.createAllAsync(eq(COLLECTION_NAME), anyMap()))
+            .thenAnswer(invocation -> {
+                Map<String, Map<String, Object>> documents = invocation.getArgument(1);
+                assertEquals(1, documents.size());
+                return CompletableFuture.completedFuture(
+                    BulkWriteResult.succeeded(new ArrayList<>(documents.keySet())));
+            });
+
+        // Act
+        BatchCreateChineseFlashCardsResponse response = service.batchCreate(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        assertEquals(1, response.getCreatedCount());
+        assertEquals(2, response.getDuplicateCount());
+        assertEquals("谢谢", response.getData(0).getChineseWord());
+        assertEquals(1L, response.getExisting(0).getId());
+        verify(firestoreService, times(2)).findFirstAsync(anyString(), anyMap(), any());
+    }
+
+    @Test
+    void testBatchCreate_StoredDuplicateLookupFailure() {
+        BatchCreateChineseFlashCardsRequest request = BatchCreateChineseFlashCardsRequest.newBuilder()
+            .addCards(cardRequest("你好", "Hello", "nǐ hǎo"))
+            .build();
+
+        when(firestoreService.findFirstAsync(eq(COLLECTION_NAME), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.failedFuture(new FirestoreException("Failed to query documents: unavailable")));
+
+        BatchCreateChineseFlashCardsResponse response = service.batchCreate(request);
+
+        assertFalse(response.getSuccess());
+        assertEquals(1, response.getFailedCount());
+        assertEquals("Failed to create flashcards: Failed to query documents: unavailable", response.getError());
+        verify(firestoreService, never()).createAllAsync(anyString(), anyMap());
+    }
+
     // ========== GET ALL Tests ==========
 
     @Test
@@ -210,14 +584,14 @@ class ChineseFlashCardServiceTest {
             .build();
 
         // Mock Firestore data
-        List<Map<String, Object>> mockDocs = Arrays.asList(
-            createMockDoc(1L, "你好", "Hello", "nǐ hǎo"),
-            createMockDoc(2L, "谢谢", "Thank you", "xiè xiè")
+        List<ChineseFlashCard> mockDocs = Arrays.asList(
+            createMockCard(1L, "你好", "Hello", "nǐ hǎo"),
+            createMockCard(2L, "谢谢", "Thank you", "xiè xiè")
         );
 
-        when(firestoreService.getAll(eq(COLLECTION_NAME), eq(0), eq(10), eq(Map.class)))
-            .thenAnswer(invocation -> mockDocs);
-        when(firestoreService.count(COLLECTION_NAME)).thenReturn(2L);
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), eq(""), eq(10), eq(ChineseFlashCard.class)))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(new Page<>(mockDocs, "next")));
+        when(firestoreService.countAsync(COLLECTION_NAME)).thenReturn(CompletableFuture.completedFuture(2L));
 
         // Act
         GetChineseFlashCardsResponse response = service.getAll(request);
@@ -228,10 +602,11 @@ class ChineseFlashCardServiceTest {
         assertEquals(2, response.getTotalCount());
         assertEquals("你好", response.getData(0).getChineseWord());
         assertEquals("谢谢", response.getData(1).getChineseWord());
+        assertEquals("next", response.getNextPageToken());
 
-        // Verify Firestore was called with correct parameters
-        verify(firestoreService).getAll(eq(COLLECTION_NAME), eq(0), eq(10), eq(Map.class));
-        verify(firestoreService).count(COLLECTION_NAME);
+        // Verify the first page uses cursor pagination
+        verify(firestoreService).getPageAsync(eq(COLLECTION_NAME), eq(""), eq(10), eq(ChineseFlashCard.class));
+        verify(firestoreService).countAsync(COLLECTION_NAME);
     }
 
     @Test
@@ -243,9 +618,9 @@ class ChineseFlashCardServiceTest {
             .build();
 
         // Mock empty Firestore data
-        when(firestoreService.getAll(eq(COLLECTION_NAME), eq(0), eq(10), eq(Map.class)))
-            .thenReturn(Collections.emptyList());
-        when(firestoreService.count(COLLECTION_NAME)).thenReturn(0L);
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), eq(""), eq(10), eq(ChineseFlashCard.class)))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(new Page<>(Collections.emptyList(), "")));
+        when(firestoreService.countAsync(COLLECTION_NAME)).thenReturn(CompletableFuture.completedFuture(0L));
 
         // Act
         GetChineseFlashCardsResponse response = service.getAll(request);
@@ -261,9 +636,9 @@ class ChineseFlashCardServiceTest {
         // Arrange - No page or pageSize specified
         GetChineseFlashCardsRequest request = GetChineseFlashCardsRequest.newBuilder().build();
 
-        when(firestoreService.getAll(eq(COLLECTION_NAME), eq(0), eq(50), eq(Map.class)))
-            .thenReturn(Collections.emptyList());
-        when(firestoreService.count(COLLECTION_NAME)).thenReturn(0L);
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), eq(""), eq(50), eq(ChineseFlashCard.class)))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(new Page<>(Collections.emptyList(), "")));
+        when(firestoreService.countAsync(COLLECTION_NAME)).thenReturn(CompletableFuture.completedFuture(0L));
 
         // Act
         GetChineseFlashCardsResponse response = service.getAll(request);
@@ -271,15 +646,59 @@ class ChineseFlashCardServiceTest {
         // Assert
         assertTrue(response.getSuccess());
 
-        // Verify default pagination was used (page 0, pageSize 50)
-        verify(firestoreService).getAll(eq(COLLECTION_NAME), eq(0), eq(50), eq(Map.class));
+        // Verify default pagination was used (first page, pageSize 50)
+        verify(firestoreService).getPageAsync(eq(COLLECTION_NAME), eq(""), eq(50), eq(ChineseFlashCard.class));
+    }
+
+    @Test
+    void testGetAll_PageToken() {
+        // Arrange
+        GetChineseFlashCardsRequest request = GetChineseFlashCardsRequest.newBuilder()
+            .setPageToken("cursor")
+            .setPageSize(10)
+            .build();
+
+        List<ChineseFlashCard> mockDocs = Collections.singletonList(
+            createMockCard(3L, "再见", "Goodbye", "zài jiàn"));
+
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), eq("cursor"), eq(10), eq(ChineseFlashCard.class)))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(new Page<>(mockDocs, "")));
+        when(firestoreService.countAsync(COLLECTION_NAME)).thenReturn(CompletableFuture.completedFuture(3L));
+
+        // Act
+        GetChineseFlashCardsResponse response = service.getAll(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        assertEquals(1, response.getDataCount());
+        assertEquals("", response.getNextPageToken());
+    }
+
+    @Test
+    void testGetAll_PageNumberFallback() {
+        // Arrange - deep page without a token uses offset pagination
+        GetChineseFlashCardsRequest request = GetChineseFlashCardsRequest.newBuilder()
+            .setPage(3)
+            .setPageSize(10)
+            .build();
+
+        when(firestoreService.getAllAsync(eq(COLLECTION_NAME), eq(2), eq(10), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(Collections.emptyList()));
+        when(firestoreService.countAsync(COLLECTION_NAME)).thenReturn(CompletableFuture.completedFuture(0L));
+
+        // Act
+        GetChineseFlashCardsResponse response = service.getAll(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        verify(firestoreService, never()).getPageAsync(anyString(), anyString(), anyInt(), any());
     }
 
     @Test
     void testGetAll_FirestoreNotConnected() {
         // Arrange
         when(firestoreService.isConnected()).thenReturn(false);
-        service = new ChineseFlashCardService(firestoreService, config);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
 
         GetChineseFlashCardsRequest request = GetChineseFlashCardsRequest.newBuilder().build();
 
@@ -291,6 +710,79 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getError().contains("Firestore is not configured"));
     }
 
+    // ========== STREAM Tests ==========
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamBatch_StreamsFromFirestoreAfterCursor() {
+        // Arrange
+        DocumentStreamObserver<ChineseFlashCard> observer = mock(DocumentStreamObserver.class);
+
+        // Act: resume after a frontend-created card's generated document ID
+        service.streamBatch("Xy7", 10, observer);
+
+        // Assert
+        verify(firestoreService).stream(eq(COLLECTION_NAME), eq("Xy7"), eq(10), eq(ChineseFlashCard.class), same(observer));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamBatch_ServedFromReadyReplica() {
+        // Arrange
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        service = serviceWithReplica(replica, "return-existing");
+        DocumentStreamObserver<ChineseFlashCard> observer = mock(DocumentStreamObserver.class);
+
+        // Act
+        service.streamBatch("42", 10, observer);
+
+        // Assert
+        verify(replica).stream("42", 10, observer);
+        verify(firestoreService, never()).stream(anyString(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamBatch_FirestoreNotConnected() {
+        // Arrange
+        when(firestoreService.isConnected()).thenReturn(false);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+        DocumentStreamObserver<ChineseFlashCard> observer = mock(DocumentStreamObserver.class);
+
+        // Act
+        service.streamBatch(null, 10, observer);
+
+        // Assert
+        verify(observer).onError(any(FirestoreException.class));
+        verify(firestoreService, never()).stream(anyString(), any(), anyInt(), any(), any());
+    }
+
+    // ========== STUDY PROGRESS Tests ==========
+
+    @Test
+    void testRecordProgress_FoldsAnswersPerCard() {
+        // Arrange
+        List<StudySessionRequest> answers = Arrays.asList(
+            StudySessionRequest.newBuilder().setCardId(1L).setGrade(2).setLatencyMs(4000).build(),
+            StudySessionRequest.newBuilder().setCardId(2L).setGrade(4).setLatencyMs(1200).build(),
+            StudySessionRequest.newBuilder().setCardId(1L).setGrade(5).setLatencyMs(900).build()
+        );
+
+        when(firestoreService.updateAllAsync(eq(COLLECTION_NAME), anyMap()))
+            .thenReturn(CompletableFuture.completedFuture(BulkWriteResult.succeeded(Arrays.asList("1", "2"))));
+
+        // Act
+        BulkWriteResult result = service.recordProgressAsync(answers).join();
+
+        // Assert
+        assertFalse(result.hasFailures());
+        verify(firestoreService).updateAllAsync(eq(COLLECTION_NAME), argThat(documents ->
+            documents.size() == 2
+                && Integer.valueOf(5).equals(documents.get("1").get("lastGrade"))
+                && Long.valueOf(900L).equals(documents.get("1").get("lastLatencyMs"))
+                && !documents.get("1").containsKey("chineseWord")));
+    }
+
     // ========== GET BY ID Tests ==========
 
     @Test
@@ -300,9 +792,9 @@ class ChineseFlashCardServiceTest {
             .setId(123L)
             .build();
 
-        Map<String, Object> mockDoc = createMockDoc(123L, "你好", "Hello", "nǐ hǎo");
-        when(firestoreService.get(eq(COLLECTION_NAME), eq("123"), eq(Map.class)))
-            .thenReturn(mockDoc);
+        ChineseFlashCard mockCard = createMockCard(123L, "你好", "Hello", "nǐ hǎo");
+        when(firestoreService.getAsync(eq(COLLECTION_NAME), eq("123"), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockCard));
 
         // Act
         GetChineseFlashCardResponse response = service.getById(request);
@@ -314,7 +806,7 @@ class ChineseFlashCardServiceTest {
         assertEquals("你好", response.getData().getChineseWord());
         assertEquals("Hello", response.getData().getEnglishWord());
 
-        verify(firestoreService).get(eq(COLLECTION_NAME), eq("123"), eq(Map.class));
+        verify(firestoreService).getAsync(eq(COLLECTION_NAME), eq("123"), eq(ChineseFlashCard.class));
     }
 
     @Test
@@ -324,8 +816,8 @@ class ChineseFlashCardServiceTest {
             .setId(999L)
             .build();
 
-        when(firestoreService.get(eq(COLLECTION_NAME), eq("999"), eq(Map.class)))
-            .thenReturn(null);
+        when(firestoreService.getAsync(eq(COLLECTION_NAME), eq("999"), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         GetChineseFlashCardResponse response = service.getById(request);
@@ -340,7 +832,7 @@ class ChineseFlashCardServiceTest {
     void testGetById_FirestoreNotConnected() {
         // Arrange
         when(firestoreService.isConnected()).thenReturn(false);
-        service = new ChineseFlashCardService(firestoreService, config);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
 
         GetChineseFlashCardRequest request = GetChineseFlashCardRequest.newBuilder()
             .setId(123L)
@@ -354,6 +846,52 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getError().contains("Firestore is not configured"));
     }
 
+    // ========== GET BY IDS Tests ==========
+
+    @Test
+    void testGetByIds_PreservesOrderAndReportsMissing() {
+        // Arrange
+        GetChineseFlashCardsByIdsRequest request = GetChineseFlashCardsByIdsRequest.newBuilder()
+            .addIds(2L)
+            .addIds(999L)
+            .addIds(1L)
+            .build();
+
+        List<ChineseFlashCard> docs = Arrays.asList(
+            createMockCard(2L, "谢谢", "Thank you", "xiè xiè"),
+            null,
+            createMockCard(1L, "你好", "Hello", "nǐ hǎo")
+        );
+        when(firestoreService.getManyAsync(eq(COLLECTION_NAME), eq(Arrays.asList("2", "999", "1")), eq(ChineseFlashCard.class)))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(docs));
+
+        // Act
+        GetChineseFlashCardsByIdsResponse response = service.getByIds(request);
+
+        // Assert
+        assertTrue(response.getSuccess());
+        assertEquals(2, response.getDataCount());
+        assertEquals(2L, response.getData(0).getId());
+        assertEquals(1L, response.getData(1).getId());
+        assertEquals(Collections.singletonList(999L), response.getMissingIdsList());
+
+        // Verify a single batched read was issued
+        verify(firestoreService, times(1)).getManyAsync(anyString(), anyList(), any());
+        verify(firestoreService, never()).getAsync(anyString(), anyString(), any());
+    }
+
+    @Test
+    void testGetByIds_NoIds() {
+        // Act
+        GetChineseFlashCardsByIdsResponse response =
+            service.getByIds(GetChineseFlashCardsByIdsRequest.getDefaultInstance());
+
+        // Assert
+        assertFalse(response.getSuccess());
+        assertTrue(response.getError().contains("At least one ID is required"));
+        verify(firestoreService, never()).getManyAsync(anyString(), anyList(), any());
+    }
+
     // ========== UPDATE Tests ==========
 
     @Test
@@ -367,26 +905,87 @@ class ChineseFlashCardServiceTest {
             .setImg("http://example.com/goodbye.jpg")
             .build();
 
-        Map<String, Object> existingDoc = createMockDoc(123L, "你好", "Hello", "nǐ hǎo");
-
-        when(firestoreService.exists(eq(COLLECTION_NAME), eq("123"))).thenReturn(true);
-        when(firestoreService.get(eq(COLLECTION_NAME), eq("123"), eq(Map.class)))
-            .thenReturn(existingDoc);
-        when(firestoreService.update(eq(COLLECTION_NAME), eq("123"), anyMap(), eq(Map.class)))
-            .thenReturn(new HashMap<>());
+        // Without a replica the response is built from the written data
+        when(firestoreService.updateAsync(eq(COLLECTION_NAME), eq("123"), anyMap(), eq(Map.class)))
+            .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
 
         // Act
         UpdateChineseFlashCardResponse response = service.update(request);
 
+        // Assert: the edit comes back; fields the write leaves untouched are not read back
+        assertTrue(response.getSuccess());
+        assertEquals(123L, response.getData().getId());
+        assertEquals("Goodbye", response.getData().getEnglishWord());
+        assertEquals("zai4 jian4", response.getData().getPinyinNumbered());
+        assertEquals("http://example.com/goodbye.jpg", response.getData().getImg());
+        assertTrue(response.getData().getUpdatedAt() > 0);
+
+        // No existence check, no read-back, and neither createdAt nor the unset optional fields are overwritten
+        verify(firestoreService, never()).existsAsync(anyString(), anyString());
+        verify(firestoreService, never()).getAsync(anyString(), anyString(), any());
+        verify(firestoreService).updateAsync(eq(COLLECTION_NAME), eq("123"),
+            argThat(doc -> !doc.containsKey("createdAt") && !doc.containsKey("exampleUsage") && !doc.containsKey("favorite")
+                && "zai4 jian4".equals(doc.get("pinyinNumbered"))),
+            eq(Map.class));
+    }
+
+    @Test
+    void testUpdate_WithReplica_KeepsStoredFieldsWithoutReadBack() {
+        // Arrange
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        ChineseFlashCard existing = createMockCard(123L, "再见", "Bye", "zài jiàn").toBuilder()
+            .setCreatedAt(1000L)
+            .setExampleUsage("明天见，再见！")
+            .build();
+        service = serviceWithReplica(replica, "return-existing", existing);
+
+        when(firestoreService.updateAsync(eq(COLLECTION_NAME), eq("123"), anyMap(), eq(Map.class)))
+            .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+
+        // Act: favorite is set, example usage is not
+        UpdateChineseFlashCardResponse response = service.update(UpdateChineseFlashCardRequest.newBuilder()
+            .setId(123L)
+            .setChineseWord("再见")
+            .setEnglishWord("Goodbye")
+            .setPinyin("zài jiàn")
+            .setFavorite(true)
+            .build());
+
         // Assert
         assertTrue(response.getSuccess());
-        assertNotNull(response.getData());
-        assertEquals("再见", response.getData().getChineseWord());
         assertEquals("Goodbye", response.getData().getEnglishWord());
-        assertEquals("zài jiàn", response.getData().getPinyin());
+        assertEquals(1000L, response.getData().getCreatedAt());
+        assertEquals("明天见，再见！", response.getData().getExampleUsage());
+        assertTrue(response.getData().getFavorite());
+        verify(replica).put(response.getData());
+        verify(firestoreService).updateAsync(eq(COLLECTION_NAME), eq("123"),
+            argThat(doc -> Boolean.TRUE.equals(doc.get("favorite")) && !doc.containsKey("exampleUsage")),
+            eq(Map.class));
+    }
+
+    @Test
+    void testUpdate_WritesExampleUsageAndFavoriteWhenSet() {
+        // Arrange
+        UpdateChineseFlashCardRequest request = UpdateChineseFlashCardRequest.newBuilder()
+            .setId(123L)
+            .setChineseWord("再见")
+            .setEnglishWord("Goodbye")
+            .setPinyin("zài jiàn")
+            .setExampleUsage("")
+            .setFavorite(false)
+            .build();
 
-        verify(firestoreService).exists(eq(COLLECTION_NAME), eq("123"));
-        verify(firestoreService).update(eq(COLLECTION_NAME), eq("123"), anyMap(), eq(Map.class));
+        when(firestoreService.updateAsync(eq(COLLECTION_NAME), eq("123"), anyMap(), eq(Map.class)))
+            .thenReturn(CompletableFuture.completedFuture(new HashMap<>()));
+
+        // Act
+        UpdateChineseFlashCardResponse response = service.update(request);
+
+        // Assert: explicitly cleared values are written
+        assertTrue(response.getSuccess());
+        verify(firestoreService).updateAsync(eq(COLLECTION_NAME), eq("123"),
+            argThat(doc -> "".equals(doc.get("exampleUsage")) && Boolean.FALSE.equals(doc.get("favorite"))),
+            eq(Map.class));
     }
 
     @Test
@@ -399,7 +998,8 @@ class ChineseFlashCardServiceTest {
             .setPinyin("zài jiàn")
             .build();
 
-        when(firestoreService.exists(eq(COLLECTION_NAME), eq("999"))).thenReturn(false);
+        when(firestoreService.updateAsync(eq(COLLECTION_NAME), eq("999"), anyMap(), eq(Map.class)))
+            .thenReturn(CompletableFuture.failedFuture(new DocumentNotFoundException("Document not found: 999")));
 
         // Act
         UpdateChineseFlashCardResponse response = service.update(request);
@@ -407,9 +1007,7 @@ class ChineseFlashCardServiceTest {
         // Assert
         assertFalse(response.getSuccess());
         assertTrue(response.getError().contains("not found"));
-
-        // Verify update was NOT called
-        verify(firestoreService, never()).update(anyString(), anyString(), anyMap(), any());
+        assertTrue(response.getError().contains("999"));
     }
 
     @Test
@@ -430,14 +1028,14 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getError().contains("Chinese word is required"));
 
         // Verify Firestore was NOT called
-        verify(firestoreService, never()).update(anyString(), anyString(), anyMap(), any());
+        verify(firestoreService, never()).updateAsync(anyString(), anyString(), anyMap(), any());
     }
 
     @Test
     void testUpdate_FirestoreNotConnected() {
         // Arrange
         when(firestoreService.isConnected()).thenReturn(false);
-        service = new ChineseFlashCardService(firestoreService, config);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
 
         UpdateChineseFlashCardRequest request = UpdateChineseFlashCardRequest.newBuilder()
             .setId(123L)
@@ -463,8 +1061,8 @@ class ChineseFlashCardServiceTest {
             .setId(123L)
             .build();
 
-        when(firestoreService.exists(eq(COLLECTION_NAME), eq("123"))).thenReturn(true);
-        doNothing().when(firestoreService).delete(eq(COLLECTION_NAME), eq("123"));
+        when(firestoreService.deleteExistingAsync(eq(COLLECTION_NAME), eq("123")))
+            .thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         DeleteChineseFlashCardResponse response = service.delete(request);
@@ -473,8 +1071,9 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getSuccess());
         assertEquals("Chinese flashcard deleted successfully", response.getMessage());
 
-        verify(firestoreService).exists(eq(COLLECTION_NAME), eq("123"));
-        verify(firestoreService).delete(eq(COLLECTION_NAME), eq("123"));
+        // A single write: the exists precondition replaces the separate existence check
+        verify(firestoreService).deleteExistingAsync(eq(COLLECTION_NAME), eq("123"));
+        verify(firestoreService, never()).existsAsync(anyString(), anyString());
     }
 
     @Test
@@ -484,7 +1083,8 @@ class ChineseFlashCardServiceTest {
             .setId(999L)
             .build();
 
-        when(firestoreService.exists(eq(COLLECTION_NAME), eq("999"))).thenReturn(false);
+        when(firestoreService.deleteExistingAsync(eq(COLLECTION_NAME), eq("999")))
+            .thenReturn(CompletableFuture.failedFuture(new DocumentNotFoundException("Document not found: 999")));
 
         // Act
         DeleteChineseFlashCardResponse response = service.delete(request);
@@ -492,16 +1092,14 @@ class ChineseFlashCardServiceTest {
         // Assert
         assertFalse(response.getSuccess());
         assertTrue(response.getError().contains("not found"));
-
-        // Verify delete was NOT called
-        verify(firestoreService, never()).delete(anyString(), anyString());
+        assertTrue(response.getError().contains("999"));
     }
 
     @Test
     void testDelete_FirestoreNotConnected() {
         // Arrange
         when(firestoreService.isConnected()).thenReturn(false);
-        service = new ChineseFlashCardService(firestoreService, config);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
 
         DeleteChineseFlashCardRequest request = DeleteChineseFlashCardRequest.newBuilder()
             .setId(123L)
@@ -515,20 +1113,261 @@ class ChineseFlashCardServiceTest {
         assertTrue(response.getError().contains("Firestore is not configured"));
     }
 
+    // ========== SEARCH Tests ==========
+
+    @Test
+    void testSearch_PagesThroughReplicaIndex() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        ChineseFlashCardSearchIndex index = new ChineseFlashCardSearchIndex();
+        index.put("1", createMockCard(1L, "你好", "Hello", "nǐ hǎo"));
+        index.put("2", createMockCard(2L, "你们好", "Hello everyone", "nǐ men hǎo"));
+        when(replica.isEnabled()).thenReturn(true);
+        when(replica.isReady()).thenReturn(true);
+        when(replica.searchIndex()).thenReturn(index);
+        service = new ChineseFlashCardService(firestoreService, config, replica, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+
+        SearchChineseFlashCardsResponse first = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("hello")
+            .setPageSize(1)
+            .build());
+        SearchChineseFlashCardsResponse second = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("hello")
+            .setPageSize(1)
+            .setPageToken(first.getNextPageToken())
+            .build());
+
+        assertTrue(first.getSuccess());
+        assertEquals(2, first.getTotalCount());
+        assertEquals(1L, first.getData(0).getId());
+        assertFalse(first.getNextPageToken().isEmpty());
+        assertEquals(2L, second.getData(0).getId());
+        assertTrue(second.getNextPageToken().isEmpty());
+        verify(firestoreService, never()).getPageAsync(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void testSearch_EmptyQuery() {
+        SearchChineseFlashCardsResponse response = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("  ")
+            .build());
+
+        assertFalse(response.getSuccess());
+        assertTrue(response.getError().contains("Query is required"));
+    }
+
+    @Test
+    void testSearch_WithoutReplicaLoadsIndexOnce() {
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), isNull(), eq(500), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(new Page<>(
+                List.of(createMockCard(1L, "你好", "Hello", "nǐ hǎo")), Page.encodeToken("1"))));
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), eq(Page.encodeToken("1")), eq(500), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(new Page<>(
+                List.of(createMockCard(2L, "谢谢", "Thank you", "xiè xie")), "")));
+
+        SearchChineseFlashCardsResponse hello = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("hello")
+            .build());
+        SearchChineseFlashCardsResponse thanks = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("xie xie")
+            .build());
+
+        assertTrue(hello.getSuccess());
+        assertEquals(1L, hello.getData(0).getId());
+        assertTrue(thanks.getSuccess());
+        assertEquals(2L, thanks.getData(0).getId());
+        verify(firestoreService, times(2)).getPageAsync(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void testSearch_WithoutReplicaSeesWritesThroughService() {
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), isNull(), eq(500), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(new Page<>(
+                List.of(createMockCard(123L, "你好", "Hello", "nǐ hǎo")), "")));
+        when(firestoreService.createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+        when(firestoreService.deleteExistingAsync(eq(COLLECTION_NAME), eq("123"))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // First search loads the index; the writes after it must show up without a reload
+        assertEquals(1, service.search(SearchChineseFlashCardsRequest.newBuilder().setQuery("hello").build()).getTotalCount());
+        service.create(cardRequest("朋友", "Friend", "péng yǒu"));
+        service.delete(DeleteChineseFlashCardRequest.newBuilder().setId(123L).build());
+
+        SearchChineseFlashCardsResponse friend = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("friend")
+            .build());
+        SearchChineseFlashCardsResponse hello = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("hello")
+            .build());
+
+        assertEquals(1, friend.getTotalCount());
+        assertEquals("朋友", friend.getData(0).getChineseWord());
+        assertTrue(hello.getSuccess());
+        assertEquals(0, hello.getTotalCount());
+        verify(firestoreService, times(1)).getPageAsync(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void testSearch_WithoutReplicaToleratesTyposPerConfig() {
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), isNull(), eq(500), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(new Page<>(
+                List.of(createMockCard(1L, "你好", "Hello", "nǐ hǎo")), "")));
+        SearchChineseFlashCardsRequest misspelled = SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("helo")
+            .build();
+
+        // Default app.search.max-edit-distance (2) reaches "hello"
+        SearchChineseFlashCardsResponse tolerant = service.search(misspelled);
+
+        // 0 disables typo tolerance
+        config.getSearch().setMaxEditDistance(0);
+        service = new ChineseFlashCardService(firestoreService, config, null, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+        SearchChineseFlashCardsResponse strict = service.search(misspelled);
+
+        assertEquals(1, tolerant.getTotalCount());
+        assertEquals(1L, tolerant.getData(0).getId());
+        assertTrue(strict.getSuccess());
+        assertEquals(0, strict.getTotalCount());
+    }
+
+    @Test
+    void testSearch_IndexLoadFailure() {
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), isNull(), eq(500), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.failedFuture(new FirestoreException("unavailable")));
+
+        SearchChineseFlashCardsResponse response = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("hello")
+            .build());
+
+        assertFalse(response.getSuccess());
+        assertTrue(response.getError().contains("unavailable"));
+    }
+
+    @Test
+    void testSearch_ReplicaNotLoaded() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        when(replica.isEnabled()).thenReturn(true);
+        service = new ChineseFlashCardService(firestoreService, config, replica, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+
+        SearchChineseFlashCardsResponse response = service.search(SearchChineseFlashCardsRequest.newBuilder()
+            .setQuery("hello")
+            .build());
+
+        assertFalse(response.getSuccess());
+        assertTrue(response.getError().contains("replica"));
+        verify(firestoreService, never()).getPageAsync(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void testSuggest_CompletesFromReplicaIndex() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        ChineseFlashCardSuggestIndex index = new ChineseFlashCardSuggestIndex();
+        index.put("1", createMockCard(1L, "你好", "Hello", "nǐ hǎo"));
+        index.put("2", createMockCard(2L, "你们", "You", "nǐ men"));
+        when(replica.isEnabled()).thenReturn(true);
+        when(replica.isReady()).thenReturn(true);
+        when(replica.suggestIndex()).thenReturn(index);
+        service = new ChineseFlashCardService(firestoreService, config, replica, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+
+        SuggestChineseFlashCardsResponse response = service.suggest(SuggestChineseFlashCardsRequest.newBuilder()
+            .setPrefix("nim")
+            .build());
+
+        assertTrue(response.getSuccess());
+        assertEquals(1, response.getDataCount());
+        assertEquals("nǐ men", response.getData(0).getText());
+        assertEquals(SuggestionField.SUGGESTION_FIELD_PINYIN, response.getData(0).getField());
+        verify(firestoreService, never()).getPageAsync(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void testSuggest_EmptyPrefix() {
+        SuggestChineseFlashCardsResponse response = service.suggest(SuggestChineseFlashCardsRequest.newBuilder()
+            .setPrefix(" ")
+            .build());
+
+        assertFalse(response.getSuccess());
+        assertTrue(response.getError().contains("Prefix is required"));
+    }
+
+    @Test
+    void testSuggest_WithoutReplicaSharesTheIndexLoadAndSeesWrites() {
+        when(firestoreService.getPageAsync(eq(COLLECTION_NAME), isNull(), eq(500), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(new Page<>(
+                List.of(createMockCard(1L, "你好", "Hello", "nǐ hǎo")), "")));
+        when(firestoreService.createUniqueAsync(eq(COLLECTION_NAME), anyString(), anyMap(), anyMap(), eq(ChineseFlashCard.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+
+        SuggestChineseFlashCardsResponse loaded = service.suggest(SuggestChineseFlashCardsRequest.newBuilder()
+            .setPrefix("ni")
+            .build());
+        service.search(SearchChineseFlashCardsRequest.newBuilder().setQuery("hello").build());
+        service.create(cardRequest("你们", "You", "nǐ men"));
+        SuggestChineseFlashCardsResponse afterCreate = service.suggest(SuggestChineseFlashCardsRequest.newBuilder()
+            .setPrefix("nim")
+            .build());
+
+        assertTrue(loaded.getSuccess());
+        assertEquals("nǐ hǎo", loaded.getData(0).getText());
+        assertEquals(1, afterCreate.getDataCount());
+        assertEquals("nǐ men", afterCreate.getData(0).getText());
+        verify(firestoreService, times(1)).getPageAsync(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    void testSuggest_ReplicaNotLoaded() {
+        ChineseFlashCardReplica replica = mock(ChineseFlashCardReplica.class);
+        when(replica.isEnabled()).thenReturn(true);
+        service = new ChineseFlashCardService(firestoreService, config, replica, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+
+        SuggestChineseFlashCardsResponse response = service.suggest(SuggestChineseFlashCardsRequest.newBuilder()
+            .setPrefix("ni")
+            .build());
+
+        assertFalse(response.getSuccess());
+        assertTrue(response.getError().contains("replica"));
+    }
+
     // ========== Helper Methods ==========
 
     /**
-     * Creates a mock Firestore document for testing.
+     * Creates a card request for batch tests.
      */
-    private Map<String, Object> createMockDoc(Long id, String chineseWord, String englishWord, String pinyin) {
-        Map<String, Object> doc = new HashMap<>();
-        doc.put("id", id);
-        doc.put("chineseWord", chineseWord);
-        doc.put("englishWord", englishWord);
-        doc.put("pinyin", pinyin);
-        doc.put("img", "");
-        doc.put("createdAt", System.currentTimeMillis());
-        doc.put("updatedAt", System.currentTimeMillis());
-        return doc;
+    private static CreateChineseFlashCardRequest cardRequest(String chineseWord, String englishWord, String pinyin) {
+        return CreateChineseFlashCardRequest.newBuilder()
+            .setChineseWord(chineseWord)
+            .setEnglishWord(englishWord)
+            .setPinyin(pinyin)
+            .build();
+    }
+
+    /**
+     * Creates a service whose loaded replica already holds the given cards.
+     */
+    private ChineseFlashCardService serviceWithReplica(ChineseFlashCardReplica replica, String duplicatePolicy,
+                                                      ChineseFlashCard... cards) {
+        ChineseFlashCardDuplicateIndex index = new ChineseFlashCardDuplicateIndex();
+        for (ChineseFlashCard card : cards) {
+            index.put(String.valueOf(card.getId()), card);
+            when(replica.get(card.getId())).thenReturn(card);
+        }
+        when(replica.isReady()).thenReturn(true);
+        lenient().when(replica.isEnabled()).thenReturn(true);
+        lenient().when(replica.duplicateIndex()).thenReturn(index);
+        config.getFirebase().setDuplicatePolicy(duplicatePolicy);
+        return new ChineseFlashCardService(firestoreService, config, replica, new SnowflakeIdGenerator(0), new ChineseFlashCardCodec());
+    }
+
+    /**
+     * Creates a mock flashcard, as decoded from Firestore, for testing.
+     */
+    private ChineseFlashCard createMockCard(Long id, String chineseWord, String englishWord, String pinyin) {
+        return ChineseFlashCard.newBuilder()
+            .setId(id)
+            .setChineseWord(chineseWord)
+            .setEnglishWord(englishWord)
+            .setPinyin(pinyin)
+            .setCreatedAt(System.currentTimeMillis())
+            .setUpdatedAt(System.currentTimeMillis())
+            .build();
     }
 }
@@ -0,0 +1,135 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.flashcard.Suggestion;
+import com.worldmap.flashcard.SuggestionField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChineseFlashCardSuggestIndex and PrefixTrie.
+ *
+ * Test Coverage:
+ * - Chinese, pinyin (tones and spaces optional) and English word-start completions
+ * - Most common values first, limited to the requested count
+ * - Updates and removals replace the previous completions
+ * - PrefixTrie counting and compaction
+ */
+class ChineseFlashCardSuggestIndexTest {
+
+    private ChineseFlashCardSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ChineseFlashCardSuggestIndex();
+        put(1L, "你好", "nǐ hǎo", "Hello");
+        put(2L, "你们", "nǐ men", "You (plural)");
+        put(3L, "你好", "nǐ hǎo", "Hi");
+        put(4L, "吃饭", "chī fàn", "To eat a meal");
+    }
+
+    @Test
+    void testSuggest_ChineseMostCommonFirst() {
+        List<Suggestion> suggestions = index.suggest("你", 10);
+
+        assertEquals(Arrays.asList("你好", "你们"), texts(suggestions));
+        assertEquals(2, suggestions.get(0).getCount());
+        assertEquals(SuggestionField.SUGGESTION_FIELD_CHINESE_WORD, suggestions.get(0).getField());
+    }
+
+    @Test
+    void testSuggest_PinyinIgnoresTonesAndSpaces() {
+        assertEquals(Collections.singletonList("nǐ hǎo"), texts(index.suggest("nih", 10)));
+        assertEquals(Collections.singletonList("nǐ hǎo"), texts(index.suggest("ni3 h", 10)));
+        assertEquals(Collections.singletonList("nǐ hǎo"), texts(index.suggest("nǐ h", 10)));
+        assertEquals(SuggestionField.SUGGESTION_FIELD_PINYIN, index.suggest("nih", 10).get(0).getField());
+    }
+
+    @Test
+    void testSuggest_EnglishFromAnyWord() {
+        assertEquals(Collections.singletonList("To eat a meal"), texts(index.suggest("mea", 10)));
+        assertEquals(Collections.singletonList("To eat a meal"), texts(index.suggest("to eat", 10)));
+        // Equal counts: the shorter value first
+        assertEquals(Arrays.asList("Hi", "Hello"), texts(index.suggest("H", 10)));
+    }
+
+    @Test
+    void testSuggest_Limit() {
+        List<Suggestion> suggestions = index.suggest("ni", 1);
+
+        assertEquals(1, suggestions.size());
+        assertEquals("nǐ hǎo", suggestions.get(0).getText());
+    }
+
+    @Test
+    void testSuggest_NoMatch() {
+        assertTrue(index.suggest("zz", 10).isEmpty());
+        assertTrue(index.suggest("再", 10).isEmpty());
+    }
+
+    @Test
+    void testPutAndRemove_KeepIndexCurrent() {
+        put(1L, "再见", "zài jiàn", "Goodbye");
+
+        assertEquals(1, index.suggest("你好", 10).get(0).getCount());
+        assertEquals(Collections.singletonList("再见"), texts(index.suggest("再", 10)));
+
+        index.remove("3");
+
+        assertTrue(index.suggest("你好", 10).isEmpty());
+        assertTrue(index.suggest("hi", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testPrefixTrie_CountsAndCompaction() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("ab", "AB");
+        trie.add("ab", "ab");
+        trie.add("abc", "ABC");
+        trie.add("b", "B");
+
+        List<PrefixTrie.Completion> completions = trie.complete("a", 10);
+        assertEquals("AB", completions.get(0).value);
+        assertEquals(2, completions.get(0).count);
+        assertEquals("ABC", completions.get(1).value);
+
+        // Removing most keys rebuilds the trie; the remaining keys keep their counts
+        trie.remove("abc");
+        trie.remove("b");
+        trie.remove("missing");
+
+        assertEquals(1, trie.size());
+        assertEquals(2, trie.complete("", 10).get(0).count);
+        assertTrue(trie.complete("b", 10).isEmpty());
+
+        trie.add("b", "B");
+        assertEquals(2, trie.size());
+    }
+
+    // ========== Helper Methods ==========
+
+    private void put(long id, String chineseWord, String pinyin, String englishWord) {
+        index.put(String.valueOf(id), ChineseFlashCard.newBuilder()
+            .setId(id)
+            .setChineseWord(chineseWord)
+            .setPinyin(pinyin)
+            .setEnglishWord(englishWord)
+            .build());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        List<String> texts = new ArrayList<>();
+        for (Suggestion suggestion : suggestions) {
+            texts.add(suggestion.getText());
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,108 @@
+package com.worldmap.service;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for DocumentCache.
+ *
+ * Test Coverage:
+ * - Document and query hits/misses
+ * - Invalidation on write (document and collection queries)
+ * - Generation guard against stale puts from reads racing a write
+ * - Size-based eviction and statistics
+ */
+class DocumentCacheTest {
+
+    private static final String COLLECTION = "chinese_flashcards";
+
+    private DocumentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DocumentCache(100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testDocument_HitAfterPut() {
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+
+        cache.putDocument(COLLECTION, "1", snapshot, cache.generation(COLLECTION));
+
+        assertSame(snapshot, cache.getDocument(COLLECTION, "1"));
+        assertNull(cache.getDocument(COLLECTION, "2"));
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void testInvalidate_RemovesDocumentAndQueries() {
+        long generation = cache.generation(COLLECTION);
+        cache.putDocument(COLLECTION, "1", mock(DocumentSnapshot.class), generation);
+        cache.putDocument(COLLECTION, "2", mock(DocumentSnapshot.class), generation);
+        cache.putQuery(COLLECTION, "count", 2L, generation);
+
+        cache.invalidate(COLLECTION, "1");
+
+        assertNull(cache.getDocument(COLLECTION, "1"));
+        assertNotNull(cache.getDocument(COLLECTION, "2"));
+        assertNull(cache.getQuery(COLLECTION, "count"));
+    }
+
+    @Test
+    void testPut_SkippedWhenWriteHappenedDuringRead() {
+        long generation = cache.generation(COLLECTION);
+
+        // A write completes while the read is in flight
+        cache.invalidate(COLLECTION, "1");
+
+        cache.putDocument(COLLECTION, "1", mock(DocumentSnapshot.class), generation);
+        cache.putQuery(COLLECTION, "count", 1L, generation);
+
+        assertNull(cache.getDocument(COLLECTION, "1"));
+        assertNull(cache.getQuery(COLLECTION, "count"));
+    }
+
+    @Test
+    void testQuery_IsolatedPerCollection() {
+        List<String> page = Arrays.asList("a", "b");
+        cache.putQuery(COLLECTION, "offset:0:10", page, cache.generation(COLLECTION));
+
+        cache.invalidate("other_collection", "1");
+
+        List<String> cached = cache.getQuery(COLLECTION, "offset:0:10");
+        assertSame(page, cached);
+    }
+
+    @Test
+    void testInvalidateCollection_RemovesAllDocuments() {
+        long generation = cache.generation(COLLECTION);
+        cache.putDocument(COLLECTION, "1", mock(DocumentSnapshot.class), generation);
+        cache.putDocument("other_collection", "1", mock(DocumentSnapshot.class), cache.generation("other_collection"));
+
+        cache.invalidateCollection(COLLECTION);
+
+        assertNull(cache.getDocument(COLLECTION, "1"));
+        assertNotNull(cache.getDocument("other_collection", "1"));
+    }
+
+    @Test
+    void testSizeBound_EvictsEntries() {
+        DocumentCache small = new DocumentCache(2, Duration.ofMinutes(1));
+        long generation = small.generation(COLLECTION);
+
+        for (int i = 0; i < 5; i++) {
+            small.putDocument(COLLECTION, String.valueOf(i), mock(DocumentSnapshot.class), generation);
+        }
+
+        assertTrue(small.stats().evictionCount() >= 3);
+    }
+}
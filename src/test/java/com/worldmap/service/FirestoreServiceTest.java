@@ -0,0 +1,545 @@
+package com.worldmap.service;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuery;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import com.worldmap.config.ApplicationConfig;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FirestoreService against a mocked Firestore.
+ *
+ * Test Coverage:
+ * - Counter seeded once from a count() aggregation, then summed from its shards
+ * - Seeding skipped when the counter already exists
+ * - Creates use create() and count one insert; deletes only count documents that existed
+ * - Deletes of existing documents are one precondition write, reporting missing documents
+ * - Unique creates check for a match and insert in one transaction; field lookups
+ * - Multi-document writes chunked to 500 operations (499 documents plus the counter write)
+ * - Partial failures reported per document (failed chunk, missing document in updateAll)
+ */
+class FirestoreServiceTest {
+
+    private static final String COLLECTION_NAME = "chinese_flashcards";
+
+    private Firestore firestore;
+    private Transaction transaction;
+    private ApplicationConfig config;
+    private CollectionReference shards;
+    private AggregateQuery countQuery;
+    private final Map<String, DocumentReference> documents = new HashMap<>();
+    private final Map<String, DocumentReference> shardRefs = new HashMap<>();
+    private final List<WriteBatch> batches = new ArrayList<>();
+    private final Set<Integer> failingBatches = new HashSet<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        firestore = mock(Firestore.class);
+        transaction = mock(Transaction.class);
+
+        CollectionReference cards = mock(CollectionReference.class);
+        when(firestore.collection(COLLECTION_NAME)).thenReturn(cards);
+        when(cards.document(anyString()))
+            .thenAnswer(invocation -> documents.computeIfAbsent(invocation.getArgument(0), id -> mock(DocumentReference.class)));
+        countQuery = mock(AggregateQuery.class);
+        when(cards.count()).thenReturn(countQuery);
+
+        // _counters/chinese_flashcards/shards/{0..9}
+        CollectionReference counters = mock(CollectionReference.class);
+        DocumentReference counter = mock(DocumentReference.class);
+        shards = mock(CollectionReference.class);
+        when(firestore.collection("_counters")).thenReturn(counters);
+        when(counters.document(COLLECTION_NAME)).thenReturn(counter);
+        when(counter.collection("shards")).thenReturn(shards);
+        when(shards.document(anyString()))
+            .thenAnswer(invocation -> shardRefs.computeIfAbsent(invocation.getArgument(0), id -> mock(DocumentReference.class)));
+
+        WriteResult written = mock(WriteResult.class);
+        when(firestore.batch()).thenAnswer(invocation -> {
+            boolean fails = failingBatches.contains(batches.size());
+            WriteBatch batch = mock(WriteBatch.class, answer -> !"commit".equals(answer.getMethod().getName())
+                ? null
+                : fails
+                    ? ApiFutures.immediateFailedFuture(new IllegalStateException("commit rejected"))
+                    : ApiFutures.immediateFuture(List.of(written)));
+            batches.add(batch);
+            return batch;
+        });
+        when(firestore.runTransaction(any())).thenAnswer(invocation -> {
+            Transaction.Function<Object> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+
+        config = new ApplicationConfig();
+        config.getFirebase().setCacheEnabled(false);
+        config.getFirebase().setMaintainCounter(true);
+    }
+
+    // ========== Counter Tests ==========
+
+    @Test
+    void testCount_SeedsCounterOnceFromAggregation() throws Exception {
+        // Arrange: no shards yet, 42 documents in the collection
+        QuerySnapshot noShards = mock(QuerySnapshot.class);
+        when(noShards.isEmpty()).thenReturn(true);
+        when(transaction.get(shards)).thenReturn(ApiFutures.immediateFuture(noShards));
+        AggregateQuerySnapshot aggregate = mock(AggregateQuerySnapshot.class);
+        when(aggregate.getCount()).thenReturn(42L);
+        when(transaction.get(countQuery)).thenReturn(ApiFutures.immediateFuture(aggregate));
+        QuerySnapshot seeded = shardSnapshot(40L, 2L);
+        when(shards.get()).thenReturn(ApiFutures.immediateFuture(seeded));
+
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        long first = service.count(COLLECTION_NAME);
+        long second = service.count(COLLECTION_NAME);
+
+        // Assert: every shard created in the seeding transaction, the count on shard 0
+        assertEquals(42L, first);
+        assertEquals(42L, second);
+        verify(transaction).create(shardRefs.get("0"), Map.<String, Object>of("count", 42L));
+        verify(transaction, times(10)).create(any(DocumentReference.class), anyMap());
+        verify(firestore, times(1)).runTransaction(any());
+        verify(shards, times(2)).get();
+    }
+
+    @Test
+    void testCount_SkipsSeedingWhenCounterExists() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        QuerySnapshot counted = shardSnapshot(3L, 4L);
+        when(shards.get()).thenReturn(ApiFutures.immediateFuture(counted));
+
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act & Assert
+        assertEquals(7L, service.count(COLLECTION_NAME));
+        verify(transaction, never()).get(countQuery);
+        verify(transaction, never()).create(any(DocumentReference.class), anyMap());
+    }
+
+    @Test
+    void testCount_WithoutCounterUsesAggregation() {
+        // Arrange
+        config.getFirebase().setMaintainCounter(false);
+        AggregateQuerySnapshot aggregate = mock(AggregateQuerySnapshot.class);
+        when(aggregate.getCount()).thenReturn(5L);
+        when(countQuery.get()).thenReturn(ApiFutures.immediateFuture(aggregate));
+
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act & Assert
+        assertEquals(5L, service.count(COLLECTION_NAME));
+        verify(firestore, never()).runTransaction(any());
+    }
+
+    @Test
+    void testCreate_CountsOneInsertWithCreate() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        FirestoreService service = new FirestoreService(firestore, config);
+        Map<String, Object> data = Map.of("chineseWord", "你好");
+
+        // Act
+        service.create(COLLECTION_NAME, "7", data, Map.class);
+
+        // Assert: create() fails on an existing ID, so the increment only counts real inserts
+        assertEquals(1, batches.size());
+        verify(batches.get(0)).create(documents.get("7"), data);
+        verify(batches.get(0), never()).set(eq(documents.get("7")), anyMap());
+        verify(batches.get(0)).set(argThat(ref -> shardRefs.containsValue(ref)), anyMap(), eq(SetOptions.merge()));
+    }
+
+    @Test
+    void testCreate_WithoutCounterUsesCreate() {
+        // Arrange
+        config.getFirebase().setMaintainCounter(false);
+        FirestoreService service = new FirestoreService(firestore, config);
+        Map<String, Object> data = Map.of("chineseWord", "你好");
+        DocumentReference docRef = documentRef("7");
+        WriteResult written = mock(WriteResult.class);
+        when(docRef.create(data)).thenReturn(ApiFutures.immediateFuture(written));
+
+        // Act
+        service.create(COLLECTION_NAME, "7", data, Map.class);
+
+        // Assert
+        verify(docRef).create(data);
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void testCreateUnique_ExistingMatchIsReturnedWithoutCreating() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        Query query = duplicateQuery();
+        QuerySnapshot matches = querySnapshot(Map.of("id", 1L, "chineseWord", "你好"));
+        when(transaction.get(query)).thenReturn(ApiFutures.immediateFuture(matches));
+        FirestoreService service = new FirestoreService(firestore, config);
+        Map<String, Object> data = Map.of("id", 7L, "chineseWord", "你好");
+
+        // Act
+        Map<?, ?> existing = service.createUniqueAsync(COLLECTION_NAME, "7", data,
+            Map.of("chineseWord", "你好", "pinyinToneless", "ni hao"), Map.class).join();
+
+        // Assert
+        assertEquals(1L, existing.get("id"));
+        verify(query).whereEqualTo("chineseWord", "你好");
+        verify(query).whereEqualTo("pinyinToneless", "ni hao");
+        verify(transaction, never()).create(documents.get("7"), data);
+        verify(transaction, never()).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+    }
+
+    @Test
+    void testCreateUnique_CreatesAndCountsInTheSameTransaction() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        Query query = duplicateQuery();
+        QuerySnapshot noMatches = querySnapshot();
+        when(transaction.get(query)).thenReturn(ApiFutures.immediateFuture(noMatches));
+        FirestoreService service = new FirestoreService(firestore, config);
+        Map<String, Object> data = Map.of("id", 7L, "chineseWord", "你好");
+
+        // Act
+        Map<?, ?> existing = service.createUniqueAsync(COLLECTION_NAME, "7", data,
+            Map.of("chineseWord", "你好"), Map.class).join();
+
+        // Assert: a concurrent create of the same card makes this transaction retry and find it
+        assertNull(existing);
+        verify(transaction).create(documents.get("7"), data);
+        verify(transaction).set(argThat(ref -> shardRefs.containsValue(ref)), anyMap(), eq(SetOptions.merge()));
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void testFindFirst_QueriesFirestoreForMatchingFields() {
+        // Arrange
+        Query query = duplicateQuery();
+        QuerySnapshot matches = querySnapshot(Map.of("id", 1L, "chineseWord", "你好"));
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(matches));
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        Map<?, ?> found = service.findFirstAsync(COLLECTION_NAME, Map.of("chineseWord", "你好"), Map.class).join();
+
+        // Assert
+        assertEquals(1L, found.get("id"));
+        verify(query).whereEqualTo("chineseWord", "你好");
+        verify(query).limit(1);
+    }
+
+    @Test
+    void testDelete_MissingDocumentIsNotCounted() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        DocumentSnapshot missing = mock(DocumentSnapshot.class);
+        when(missing.exists()).thenReturn(false);
+        when(transaction.get(documentRef("7"))).thenReturn(ApiFutures.immediateFuture(missing));
+
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        service.delete(COLLECTION_NAME, "7");
+
+        // Assert
+        verify(transaction, never()).delete(any(DocumentReference.class));
+        verify(transaction, never()).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+    }
+
+    @Test
+    void testDelete_ExistingDocumentIsCounted() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        DocumentSnapshot existing = mock(DocumentSnapshot.class);
+        when(existing.exists()).thenReturn(true);
+        when(transaction.get(documentRef("7"))).thenReturn(ApiFutures.immediateFuture(existing));
+
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        service.delete(COLLECTION_NAME, "7");
+
+        // Assert
+        verify(transaction).delete(documents.get("7"));
+        verify(transaction).set(argThat(ref -> shardRefs.containsValue(ref)), anyMap(), eq(SetOptions.merge()));
+    }
+
+    @Test
+    void testDeleteExisting_CountsInTheSameBatchWithoutARead() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        service.deleteExistingAsync(COLLECTION_NAME, "7").join();
+
+        // Assert: the precondition makes the batch fail if the document is missing
+        assertEquals(1, batches.size());
+        verify(batches.get(0)).delete(eq(documents.get("7")), any(Precondition.class));
+        verify(batches.get(0)).set(argThat(ref -> shardRefs.containsValue(ref)), anyMap(), eq(SetOptions.merge()));
+        verify(transaction, never()).get(any(DocumentReference.class));
+    }
+
+    @Test
+    void testDeleteExisting_MissingDocumentFailsWithNotFound() {
+        // Arrange
+        config.getFirebase().setMaintainCounter(false);
+        FirestoreService service = new FirestoreService(firestore, config);
+        DocumentReference docRef = documentRef("7");
+        when(docRef.delete(any(Precondition.class)))
+            .thenReturn(ApiFutures.immediateFailedFuture(Status.NOT_FOUND.asRuntimeException()));
+
+        // Act
+        CompletionException error = assertThrows(CompletionException.class,
+            () -> service.deleteExistingAsync(COLLECTION_NAME, "7").join());
+
+        // Assert
+        assertInstanceOf(DocumentNotFoundException.class, error.getCause());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void testDeleteAll_OnlyCountsDocumentsThatExisted() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        DocumentReference first = documentRef("1");
+        DocumentSnapshot existing = mock(DocumentSnapshot.class);
+        when(existing.exists()).thenReturn(true);
+        when(existing.getReference()).thenReturn(first);
+        DocumentSnapshot missing = mock(DocumentSnapshot.class);
+        when(missing.exists()).thenReturn(false);
+        when(transaction.getAll(any(DocumentReference[].class)))
+            .thenReturn(ApiFutures.immediateFuture(List.of(existing, missing)));
+
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        BulkWriteResult result = service.deleteAll(COLLECTION_NAME, List.of("1", "2"));
+
+        // Assert: deleting a missing document succeeds but does not decrement
+        assertEquals(List.of("1", "2"), result.getWritten());
+        verify(transaction, times(1)).delete(any(DocumentReference.class));
+        verify(transaction).delete(first);
+        verify(transaction, times(1)).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+        assertTrue(batches.isEmpty());
+    }
+
+    // ========== Batch Write Tests ==========
+
+    @Test
+    void testCreateAll_ExactMultipleOf500() {
+        // Arrange
+        config.getFirebase().setMaintainCounter(false);
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        BulkWriteResult result = service.createAll(COLLECTION_NAME, documents(1000));
+
+        // Assert: two full batches, no partial one
+        assertEquals(2, batches.size());
+        verify(batches.get(0), times(500)).create(any(DocumentReference.class), anyMap());
+        verify(batches.get(1), times(500)).create(any(DocumentReference.class), anyMap());
+        assertEquals(1000, result.getWritten().size());
+        assertFalse(result.hasFailures());
+    }
+
+    @Test
+    void testCreateAll_501DocumentsSpillIntoSecondBatch() {
+        // Arrange
+        config.getFirebase().setMaintainCounter(false);
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        BulkWriteResult result = service.createAll(COLLECTION_NAME, documents(501));
+
+        // Assert
+        assertEquals(2, batches.size());
+        verify(batches.get(0), times(500)).create(any(DocumentReference.class), anyMap());
+        verify(batches.get(1), times(1)).create(any(DocumentReference.class), anyMap());
+        assertEquals(501, result.getWritten().size());
+        assertEquals("1", result.getWritten().get(0));
+        assertEquals("501", result.getWritten().get(500));
+    }
+
+    @Test
+    void testCreateAll_CounterWriteLeavesRoomFor499Documents() throws Exception {
+        // Arrange
+        counterAlreadySeeded();
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        BulkWriteResult result = service.createAll(COLLECTION_NAME, documents(500));
+
+        // Assert: 499 creates + 1 counter increment, then the remaining document
+        assertEquals(2, batches.size());
+        verify(batches.get(0), times(499)).create(any(DocumentReference.class), anyMap());
+        verify(batches.get(0)).set(any(DocumentReference.class), anyMap(), eq(SetOptions.merge()));
+        verify(batches.get(1), times(1)).create(any(DocumentReference.class), anyMap());
+        verify(batches.get(1)).set(any(DocumentReference.class), anyMap(), eq(SetOptions.merge()));
+        assertEquals(500, result.getWritten().size());
+    }
+
+    @Test
+    void testCreateAll_FailedChunkReportsOnlyItsDocuments() {
+        // Arrange: the second of three batches fails to commit
+        config.getFirebase().setMaintainCounter(false);
+        failingBatches.add(1);
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        BulkWriteResult result = service.createAll(COLLECTION_NAME, documents(1001));
+
+        // Assert
+        assertEquals(3, batches.size());
+        assertEquals(501, result.getWritten().size());
+        assertEquals(500, result.getFailures().size());
+        assertTrue(result.getWritten().contains("500"));
+        assertTrue(result.getWritten().contains("1001"));
+        assertTrue(result.getFailures().containsKey("501"));
+        assertTrue(result.getFailures().containsKey("1000"));
+        assertEquals("Failed to create documents: commit rejected", result.getFailures().get("501"));
+    }
+
+    @Test
+    void testDeleteAll_WithoutCounterUses500OperationBatches() {
+        // Arrange
+        config.getFirebase().setMaintainCounter(false);
+        FirestoreService service = new FirestoreService(firestore, config);
+        List<String> docIds = new ArrayList<>(documents(501).keySet());
+
+        // Act
+        BulkWriteResult result = service.deleteAll(COLLECTION_NAME, docIds);
+
+        // Assert
+        assertEquals(2, batches.size());
+        verify(batches.get(0), times(500)).delete(any(DocumentReference.class));
+        verify(batches.get(1), times(1)).delete(any(DocumentReference.class));
+        assertEquals(501, result.getWritten().size());
+        verify(firestore, never()).runTransaction(any());
+    }
+
+    @Test
+    void testUpdateAll_MissingDocumentFailsAlone() {
+        // Arrange
+        config.getFirebase().setMaintainCounter(false);
+        BulkWriter writer = mock(BulkWriter.class);
+        when(firestore.bulkWriter()).thenReturn(writer);
+        DocumentReference present = documentRef("1");
+        DocumentReference missing = documentRef("2");
+        WriteResult written = mock(WriteResult.class);
+        when(writer.update(eq(present), anyMap())).thenReturn(ApiFutures.immediateFuture(written));
+        when(writer.update(eq(missing), anyMap()))
+            .thenReturn(ApiFutures.immediateFailedFuture(new StatusRuntimeException(Status.NOT_FOUND)));
+        when(writer.flush()).thenReturn(ApiFutures.immediateFuture(null));
+
+        FirestoreService service = new FirestoreService(firestore, config);
+
+        // Act
+        BulkWriteResult result = service.updateAll(COLLECTION_NAME, documents(2));
+
+        // Assert
+        assertEquals(List.of("1"), result.getWritten());
+        assertEquals(Map.of("2", "Document not found: 2"), result.getFailures());
+        verify(writer).close();
+    }
+
+    // ========== Helper Methods ==========
+
+    /**
+     * Creates documents keyed "1".."count", in order.
+     */
+    private static Map<String, Map<String, Object>> documents(int count) {
+        Map<String, Map<String, Object>> documents = new LinkedHashMap<>();
+        for (int i = 1; i <= count; i++) {
+            documents.put(String.valueOf(i), Map.of("id", (long) i));
+        }
+        return documents;
+    }
+
+    /**
+     * Makes the seeding transaction find existing shards.
+     */
+    private void counterAlreadySeeded() throws Exception {
+        QuerySnapshot existingShards = mock(QuerySnapshot.class);
+        when(existingShards.isEmpty()).thenReturn(false);
+        when(transaction.get(shards)).thenReturn(ApiFutures.immediateFuture(existingShards));
+    }
+
+    /**
+     * @return The query every field filter and limit on the card collection resolves to
+     */
+    private Query duplicateQuery() {
+        Query query = mock(Query.class);
+        CollectionReference cards = firestore.collection(COLLECTION_NAME);
+        when(cards.whereEqualTo(anyString(), any())).thenAnswer(invocation ->
+            query.whereEqualTo(invocation.<String>getArgument(0), invocation.getArgument(1)));
+        when(query.whereEqualTo(anyString(), any())).thenReturn(query);
+        when(query.limit(anyInt())).thenReturn(query);
+        return query;
+    }
+
+    /**
+     * Creates a query snapshot of card documents holding the given data.
+     */
+    @SafeVarargs
+    private static QuerySnapshot querySnapshot(Map<String, Object>... data) {
+        List<QueryDocumentSnapshot> matches = new ArrayList<>();
+        for (Map<String, Object> fields : data) {
+            QueryDocumentSnapshot match = mock(QueryDocumentSnapshot.class);
+            when(match.getData()).thenReturn(fields);
+            when(match.getId()).thenReturn(String.valueOf(fields.get("id")));
+            matches.add(match);
+        }
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocuments()).thenReturn(matches);
+        when(snapshot.isEmpty()).thenReturn(matches.isEmpty());
+        return snapshot;
+    }
+
+    /**
+     * @return The reference of a card document, as handed out by the collection
+     */
+    private DocumentReference documentRef(String docId) {
+        return documents.computeIfAbsent(docId, id -> mock(DocumentReference.class));
+    }
+
+    /**
+     * Creates a query snapshot of counter shards holding the given counts.
+     */
+    private static QuerySnapshot shardSnapshot(long... counts) {
+        List<QueryDocumentSnapshot> shardDocuments = new ArrayList<>();
+        for (long count : counts) {
+            QueryDocumentSnapshot shard = mock(QueryDocumentSnapshot.class);
+            when(shard.getLong("count")).thenReturn(count);
+            shardDocuments.add(shard);
+        }
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocuments()).thenReturn(shardDocuments);
+        return snapshot;
+    }
+}
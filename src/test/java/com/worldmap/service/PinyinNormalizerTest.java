@@ -0,0 +1,83 @@
+package com.worldmap.service;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PinyinNormalizer.
+ *
+ * Test Coverage:
+ * - Diacritic, tone-number and toneless input give the same syllables
+ * - Segmentation of unspaced input, apostrophes and erhua
+ * - ü written as ü, u: or v
+ * - Conversion to each written form
+ * - Words that are not pinyin pass through
+ */
+class PinyinNormalizerTest {
+
+    @Test
+    void testToToneless_AllInputForms() {
+        assertEquals("ni hao", PinyinNormalizer.toToneless("nǐ hǎo"));
+        assertEquals("ni hao", PinyinNormalizer.toToneless("ni3 hao3"));
+        assertEquals("ni hao", PinyinNormalizer.toToneless("ni3hao3"));
+        assertEquals("ni hao", PinyinNormalizer.toToneless("nǐhǎo"));
+        assertEquals("ni hao", PinyinNormalizer.toToneless("NiHao"));
+    }
+
+    @Test
+    void testSyllables_Segmentation() {
+        assertEquals(Arrays.asList("zhong", "guo"), PinyinNormalizer.syllables("zhōngguó"));
+        assertEquals(Arrays.asList("tian", "an", "men"), PinyinNormalizer.syllables("Tiānānmén"));
+        assertEquals(Arrays.asList("fang", "an"), PinyinNormalizer.syllables("fangan"));
+        assertEquals(Arrays.asList("xian"), PinyinNormalizer.syllables("xian"));
+        assertEquals(Arrays.asList("xi", "an"), PinyinNormalizer.syllables("Xī'ān"));
+        assertEquals(Arrays.asList("nar"), PinyinNormalizer.syllables("nǎr"));
+    }
+
+    @Test
+    void testUmlaut() {
+        assertEquals("lv4", PinyinNormalizer.toNumbered("lǜ"));
+        assertEquals("lv4", PinyinNormalizer.toNumbered("lu:4"));
+        assertEquals("nv3", PinyinNormalizer.toNumbered("nü3"));
+        assertEquals("lve4", PinyinNormalizer.toNumbered("lüè"));
+        assertEquals("lve", PinyinNormalizer.toToneless("lue"));
+        assertEquals("nu", PinyinNormalizer.toToneless("nǔ"));
+    }
+
+    @Test
+    void testToNumbered_NeutralToneHasNoNumber() {
+        assertEquals("xie4 xie", PinyinNormalizer.toNumbered("xièxie"));
+        assertEquals("ma", PinyinNormalizer.toNumbered("ma5"));
+    }
+
+    @Test
+    void testToDiacritic_PlacesMarks() {
+        assertEquals("nǐ hǎo", PinyinNormalizer.toDiacritic("ni3hao3"));
+        assertEquals("duō shǎo", PinyinNormalizer.toDiacritic("duo1 shao3"));
+        assertEquals("xiě", PinyinNormalizer.toDiacritic("xie3"));
+        assertEquals("gǒu", PinyinNormalizer.toDiacritic("gou3"));
+        assertEquals("guì", PinyinNormalizer.toDiacritic("gui4"));
+        assertEquals("lǜ", PinyinNormalizer.toDiacritic("lv4"));
+        assertEquals("xie", PinyinNormalizer.toDiacritic("xie"));
+    }
+
+    @Test
+    void testNonPinyinWordsPassThrough() {
+        assertEquals("t恤 dvd", PinyinNormalizer.toToneless("T恤 DVD"));
+        assertEquals("ka la ok", PinyinNormalizer.toToneless("kǎ lā OK"));
+        assertTrue(PinyinNormalizer.syllables("").isEmpty());
+        assertTrue(PinyinNormalizer.syllables(null).isEmpty());
+    }
+
+    @Test
+    void testFill_SetsStoredForms() {
+        ChineseFlashCard card = PinyinNormalizer.fill(ChineseFlashCard.newBuilder().setPinyin("zài jiàn")).build();
+
+        assertEquals("zai jian", card.getPinyinToneless());
+        assertEquals("zai4 jian4", card.getPinyinNumbered());
+    }
+}
@@ -0,0 +1,97 @@
+package com.worldmap.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SnowflakeIdGenerator.
+ *
+ * Test Coverage:
+ * - Uniqueness under concurrent generation
+ * - Monotonic IDs within a millisecond, across sequence overflow and clock regressions
+ * - Node ID embedding and validation
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    void testNextId_UniqueUnderConcurrency() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        int threads = 8;
+        int idsPerThread = 20_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(generator.nextId());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+
+    @Test
+    void testNextId_IncreasingWithinMillisecondAndAcrossOverflow() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, () -> NOW);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < SnowflakeIdGenerator.MAX_SEQUENCE + 10; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "IDs must increase");
+            previous = id;
+        }
+
+        // Sequence overflow borrows the following millisecond
+        assertEquals(NOW + 1, SnowflakeIdGenerator.timestampOf(previous));
+    }
+
+    @Test
+    void testNextId_ClockMovingBackwards() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, clock::get);
+
+        long before = generator.nextId();
+        clock.set(NOW - 5_000);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(after));
+    }
+
+    @Test
+    void testNextId_EmbedsTimestampAndNode() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, () -> NOW);
+
+        long id = generator.nextId();
+
+        assertEquals(NOW, SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(5, (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID);
+        assertNotEquals(id, new SnowflakeIdGenerator(6, () -> NOW).nextId());
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+            () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.worldmap.web;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EntityTags.
+ *
+ * Test Coverage:
+ * - List tags change with any card's updatedAt, the total and the cursor
+ * - Card and list tags change with content even when id and updatedAt are both 0
+ * - If-None-Match matching (lists, wildcard, weak prefix)
+ * - JSON and protobuf representations get different tags
+ */
+class EntityTagsTest {
+
+    @Test
+    void testForCards_StableForSameCards() {
+        List<ChineseFlashCard> cards = List.of(card(1, 100), card(2, 200));
+
+        assertEquals(EntityTags.forCards(cards, 2, ""), EntityTags.forCards(List.copyOf(cards), 2, ""));
+    }
+
+    @Test
+    void testForCards_ChangesWithUpdatedAtTotalAndCursor() {
+        String tag = EntityTags.forCards(List.of(card(1, 100), card(2, 200)), 2, "");
+
+        assertNotEquals(tag, EntityTags.forCards(List.of(card(1, 100), card(2, 201)), 2, ""));
+        assertNotEquals(tag, EntityTags.forCards(List.of(card(1, 100), card(2, 200)), 3, ""));
+        assertNotEquals(tag, EntityTags.forCards(List.of(card(1, 100), card(2, 200)), 2, "next"));
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+    }
+
+    @Test
+    void testForCard_ChangesWithContentWithoutIdOrUpdatedAt() {
+        // Frontend-written cards decode with id 0 and, without updatedAt, updatedAt 0
+        ChineseFlashCard before = card(0, 0).toBuilder().setChineseWord("你好").setEnglishWord("Hello").build();
+        ChineseFlashCard after = before.toBuilder().setEnglishWord("Hi").build();
+
+        assertEquals(EntityTags.forCard(before), EntityTags.forCard(before.toBuilder().build()));
+        assertNotEquals(EntityTags.forCard(before), EntityTags.forCard(after));
+        assertNotEquals(EntityTags.forCards(List.of(before), 1, ""), EntityTags.forCards(List.of(after), 1, ""));
+    }
+
+    @Test
+    void testMatches_HandlesListsWildcardAndWeakTags() {
+        String etag = EntityTags.forCard(card(7, 1000));
+        String stale = EntityTags.forCard(card(7, 999));
+
+        assertTrue(etag.startsWith("\"c-") && etag.endsWith("\""));
+        assertTrue(EntityTags.matches("\"other\", " + etag, etag));
+        assertTrue(EntityTags.matches("W/" + etag, etag));
+        assertTrue(EntityTags.matches("*", etag));
+        assertFalse(EntityTags.matches(stale, etag));
+        assertFalse(EntityTags.matches(null, etag));
+    }
+
+    @Test
+    void testForRepresentation_DiffersByMediaType() {
+        String etag = EntityTags.forCard(card(7, 1000));
+
+        String json = EntityTags.forRepresentation(etag, MediaType.APPLICATION_JSON_TYPE);
+        String protobuf = EntityTags.forRepresentation(etag, ProtobufMessageBodyWriter.APPLICATION_PROTOBUF_TYPE);
+
+        assertEquals("\"" + EntityTags.unquote(etag) + "-json\"", json);
+        assertEquals("\"" + EntityTags.unquote(etag) + "-pb\"", protobuf);
+        assertFalse(EntityTags.matches(json, protobuf));
+        assertEquals(json, EntityTags.forRepresentation(etag, MediaType.valueOf("application/json; charset=UTF-8")));
+    }
+
+    @Test
+    void testUnquote() {
+        assertEquals("v-abc.1", EntityTags.unquote(EntityTags.forVersion("abc.1")));
+    }
+
+    private static ChineseFlashCard card(long id, long updatedAt) {
+        return ChineseFlashCard.newBuilder().setId(id).setUpdatedAt(updatedAt).build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.worldmap.web;
+
+import com.worldmap.flashcard.ChineseFlashCard;
+import com.worldmap.flashcard.GetChineseFlashCardsResponse;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProtobufMessageBodyWriter.
+ *
+ * Test Coverage:
+ * - Only protobuf messages, as JSON or application/x-protobuf
+ * - Binary output round-trips
+ * - JSON uses lowerCamelCase names and includes default values
+ */
+class ProtobufMessageBodyWriterTest {
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private final ProtobufMessageBodyWriter writer = new ProtobufMessageBodyWriter();
+
+    @Test
+    void testIsWriteable_OnlyMessagesInSupportedTypes() {
+        Class<?> type = GetChineseFlashCardsResponse.class;
+
+        assertTrue(writer.isWriteable(type, type, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE));
+        assertTrue(writer.isWriteable(type, type, NO_ANNOTATIONS, ProtobufMessageBodyWriter.APPLICATION_PROTOBUF_TYPE));
+        assertFalse(writer.isWriteable(type, type, NO_ANNOTATIONS, MediaType.TEXT_PLAIN_TYPE));
+        assertFalse(writer.isWriteable(Map.class, Map.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE));
+    }
+
+    @Test
+    void testWriteTo_BinaryRoundTrips() throws IOException {
+        GetChineseFlashCardsResponse response = response();
+
+        byte[] written = write(response, ProtobufMessageBodyWriter.APPLICATION_PROTOBUF_TYPE);
+
+        assertEquals(response, GetChineseFlashCardsResponse.parseFrom(written));
+    }
+
+    @Test
+    void testWriteTo_JsonIncludesDefaults() throws IOException {
+        String json = new String(write(response(), MediaType.APPLICATION_JSON_TYPE), StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("\"success\":true"));
+        assertTrue(json.contains("\"chineseWord\":\"你好\""));
+        assertTrue(json.contains("\"error\":\"\""));
+        assertTrue(json.contains("\"id\":\"42\""));
+    }
+
+    private byte[] write(GetChineseFlashCardsResponse response, MediaType mediaType) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(response, response.getClass(), response.getClass(), NO_ANNOTATIONS, mediaType, null, out);
+        return out.toByteArray();
+    }
+
+    private static GetChineseFlashCardsResponse response() {
+        return GetChineseFlashCardsResponse.newBuilder()
+            .setSuccess(true)
+            .addData(ChineseFlashCard.newBuilder().setId(42L).setChineseWord("你好").setEnglishWord("Hello"))
+            .setTotalCount(1)
+            .build();
+    }
+}